@@ -8,6 +8,7 @@
 package com.newrelic.agent.bridge;
 
 import com.newrelic.agent.bridge.logging.LogAttributeKey;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import com.newrelic.api.agent.Logs;
 
 import java.util.Map;
@@ -22,4 +23,9 @@ class NoOpLogs implements Logs {
     public void recordLogEvent(Map<LogAttributeKey, ?> attributes) {
 
     }
+
+    @Override
+    public void recordLogEvent(LogEventRecord record) {
+
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ *
+ *  * Copyright 2022 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.bridge.logging;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_CLASS;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_MESSAGE;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_STACK;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.INSTRUMENTATION;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LEVEL;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LOGGER_FQCN;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LOGGER_NAME;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.MESSAGE;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.THREAD_ID;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.THREAD_NAME;
+import static com.newrelic.agent.bridge.logging.AppLoggingUtils.TIMESTAMP;
+
+/**
+ * A single log line captured by logging instrumentation, with a field for each of the standard log event attributes.
+ * Recording one of these instead of a {@code Map<LogAttributeKey, ?>} avoids building a map, its entries and a key for
+ * every context data entry on each forwarded line. Fields left null are not reported.
+ *
+ * This class is not thread safe. It is filled in by the logging thread and handed to
+ * {@link com.newrelic.api.agent.Logs#recordLogEvent(LogEventRecord)}, which doesn't keep a reference to it.
+ */
+public final class LogEventRecord {
+
+    private static final Object[] NO_CONTEXT_DATA = new Object[0];
+
+    private final String instrumentation;
+    private final long timestamp;
+    private final long threadId;
+
+    private String message;
+    private String level;
+    private String errorMessage;
+    private String errorClass;
+    private String errorStack;
+    private String threadName;
+    private String loggerName;
+    private String loggerFqcn;
+
+    /**
+     * Alternating context data keys and values.
+     */
+    private Object[] contextData = NO_CONTEXT_DATA;
+    private int contextDataSize = 0;
+
+    /**
+     * @param instrumentation the name of the instrumentation module that captured the line
+     * @param timestamp       the time the line was logged, in milliseconds since the epoch
+     * @param threadId        the id of the thread that logged the line
+     */
+    public LogEventRecord(String instrumentation, long timestamp, long threadId) {
+        this.instrumentation = instrumentation;
+        this.timestamp = timestamp;
+        this.threadId = threadId;
+    }
+
+    public LogEventRecord setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public LogEventRecord setLevel(String level) {
+        this.level = level;
+        return this;
+    }
+
+    public LogEventRecord setError(String errorMessage, String errorClass, String errorStack) {
+        this.errorMessage = errorMessage;
+        this.errorClass = errorClass;
+        this.errorStack = errorStack;
+        return this;
+    }
+
+    public LogEventRecord setThreadName(String threadName) {
+        this.threadName = threadName;
+        return this;
+    }
+
+    public LogEventRecord setLogger(String loggerName, String loggerFqcn) {
+        this.loggerName = loggerName;
+        this.loggerFqcn = loggerFqcn;
+        return this;
+    }
+
+    /**
+     * Add an entry from the logging framework's context data (MDC). The value is reported as a String, Number or
+     * Boolean, or else its toString value.
+     */
+    public LogEventRecord addContextData(String key, Object value) {
+        int index = contextDataSize << 1;
+        if (index == contextData.length) {
+            contextData = Arrays.copyOf(contextData, Math.max(8, index << 1));
+        }
+        contextData[index] = key;
+        contextData[index + 1] = value;
+        contextDataSize++;
+        return this;
+    }
+
+    public String getInstrumentation() {
+        return instrumentation;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public String getErrorClass() {
+        return errorClass;
+    }
+
+    public String getErrorStack() {
+        return errorStack;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    public String getLoggerFqcn() {
+        return loggerFqcn;
+    }
+
+    public int getContextDataSize() {
+        return contextDataSize;
+    }
+
+    public String getContextDataKey(int index) {
+        return (String) contextData[index << 1];
+    }
+
+    public Object getContextDataValue(int index) {
+        return contextData[(index << 1) + 1];
+    }
+
+    /**
+     * Copy this record into the attribute map form accepted by {@link com.newrelic.api.agent.Logs#recordLogEvent(Map)}.
+     *
+     * @return a new map holding the fields that are set
+     */
+    public Map<LogAttributeKey, Object> toAttributes() {
+        Map<LogAttributeKey, Object> attributes = new HashMap<>(DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES + contextDataSize);
+        putIfNotNull(attributes, INSTRUMENTATION, instrumentation);
+        putIfNotNull(attributes, MESSAGE, message);
+        attributes.put(TIMESTAMP, timestamp);
+        putIfNotNull(attributes, LEVEL, level);
+        putIfNotNull(attributes, ERROR_MESSAGE, errorMessage);
+        putIfNotNull(attributes, ERROR_CLASS, errorClass);
+        putIfNotNull(attributes, ERROR_STACK, errorStack);
+        putIfNotNull(attributes, THREAD_NAME, threadName);
+        attributes.put(THREAD_ID, threadId);
+        putIfNotNull(attributes, LOGGER_NAME, loggerName);
+        putIfNotNull(attributes, LOGGER_FQCN, loggerFqcn);
+        for (int i = 0; i < contextDataSize; i++) {
+            attributes.put(new LogAttributeKey(getContextDataKey(i), LogAttributeType.CONTEXT), getContextDataValue(i));
+        }
+        return attributes;
+    }
+
+    private static void putIfNotNull(Map<LogAttributeKey, Object> attributes, LogAttributeKey key, Object value) {
+        if (value != null) {
+            attributes.put(key, value);
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package com.newrelic.api.agent;
 
 import com.newrelic.agent.bridge.logging.LogAttributeKey;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 
 import java.util.Map;
 
@@ -25,4 +26,17 @@ public interface Logs {
      * @since 7.6.0
      */
     void recordLogEvent(Map<LogAttributeKey, ?> attributes);
+
+    /**
+     * Sends a LogEvent for the current application. This is the same as {@link #recordLogEvent(Map)}, but the log
+     * line's attributes are held in a {@link LogEventRecord} rather than a map.
+     *
+     * @param record the log line to send
+     * @since 8.17.0
+     */
+    default void recordLogEvent(LogEventRecord record) {
+        if (record != null) {
+            recordLogEvent(record.toAttributes());
+        }
+    }
 }
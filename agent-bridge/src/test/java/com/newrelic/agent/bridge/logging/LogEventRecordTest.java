@@ -0,0 +1,56 @@
+package com.newrelic.agent.bridge.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class LogEventRecordTest {
+    @Test
+    public void toAttributes_withOnlyRequiredFields_hasThreeEntries() {
+        Map<LogAttributeKey, Object> attributes = new LogEventRecord("test", 1000L, 7L).toAttributes();
+
+        Assert.assertEquals(3, attributes.size());
+        Assert.assertEquals("test", attributes.get(AppLoggingUtils.INSTRUMENTATION));
+        Assert.assertEquals(1000L, attributes.get(AppLoggingUtils.TIMESTAMP));
+        Assert.assertEquals(7L, attributes.get(AppLoggingUtils.THREAD_ID));
+    }
+
+    @Test
+    public void toAttributes_withAllFields_hasAllEntries() {
+        LogEventRecord record = new LogEventRecord("test", 1000L, 7L)
+                .setMessage("message")
+                .setLevel("INFO")
+                .setError("error message", "java.lang.RuntimeException", "stack")
+                .setThreadName("main")
+                .setLogger("logger", "fqcn");
+
+        Map<LogAttributeKey, Object> attributes = record.toAttributes();
+
+        Assert.assertEquals(11, attributes.size());
+        Assert.assertEquals("message", attributes.get(AppLoggingUtils.MESSAGE));
+        Assert.assertEquals("INFO", attributes.get(AppLoggingUtils.LEVEL));
+        Assert.assertEquals("error message", attributes.get(AppLoggingUtils.ERROR_MESSAGE));
+        Assert.assertEquals("java.lang.RuntimeException", attributes.get(AppLoggingUtils.ERROR_CLASS));
+        Assert.assertEquals("stack", attributes.get(AppLoggingUtils.ERROR_STACK));
+        Assert.assertEquals("main", attributes.get(AppLoggingUtils.THREAD_NAME));
+        Assert.assertEquals("logger", attributes.get(AppLoggingUtils.LOGGER_NAME));
+        Assert.assertEquals("fqcn", attributes.get(AppLoggingUtils.LOGGER_FQCN));
+    }
+
+    @Test
+    public void addContextData_growsPastInitialCapacity() {
+        LogEventRecord record = new LogEventRecord("test", 1000L, 7L);
+        for (int i = 0; i < 20; i++) {
+            record.addContextData("key" + i, i);
+        }
+
+        Assert.assertEquals(20, record.getContextDataSize());
+        Assert.assertEquals("key13", record.getContextDataKey(13));
+        Assert.assertEquals(13, record.getContextDataValue(13));
+
+        Map<LogAttributeKey, Object> attributes = record.toAttributes();
+        Assert.assertEquals(23, attributes.size());
+        Assert.assertEquals(19, attributes.get(new LogAttributeKey("key19", LogAttributeType.CONTEXT)));
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.model;
+
+import org.json.simple.JSONStreamAware;
+import org.json.simple.JSONValue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An insertion ordered map of attribute names to values stored in two parallel arrays.
+ *
+ * Most spans carry a handful of attributes in each map, where a linear scan over interned names is as fast as hashing
+ * and avoids allocating a node per entry. Root spans also carry the transaction's agent and user attributes, which can
+ * run into the hundreds, so once a map holds more than {@link #INDEX_THRESHOLD} entries lookups go through an open
+ * addressed index of entry positions instead. The map writes itself as a JSON object directly from its arrays.
+ *
+ * This class is not thread-safe.
+ */
+final class CompactAttributeMap extends AbstractMap<String, Object> implements JSONStreamAware {
+
+    static final int INDEX_THRESHOLD = 16;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+    // open addressed table of entry positions + 1, 0 marks a free slot. null while the map is at most INDEX_THRESHOLD.
+    private int[] table;
+    private EntrySet entrySet;
+
+    CompactAttributeMap(int initialCapacity) {
+        keys = new String[Math.max(initialCapacity, 1)];
+        values = new Object[keys.length];
+    }
+
+    private int indexOf(Object key) {
+        if (table != null) {
+            int mask = table.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot] - 1;
+                if (entry < 0) {
+                    return -1;
+                }
+                if (keys[entry] == key || (key != null && key.equals(keys[entry]))) {
+                    return entry;
+                }
+            }
+        }
+
+        // attribute names are almost always string literals, so try identity before equality
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (key != null) {
+            for (int i = 0; i < size; i++) {
+                if (key.equals(keys[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            Object previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        if (table != null && size * 2 <= table.length) {
+            addToTable(table, size - 1);
+        } else if (size > INDEX_THRESHOLD) {
+            rebuildTable();
+        }
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        if (table != null) {
+            // positions after the removed entry moved, removals are rare enough to rebuild
+            rebuildTable();
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        table = null;
+    }
+
+    private static int hash(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Rebuild the table at no more than half full, or drop it if the map is small again.
+     */
+    private void rebuildTable() {
+        if (size <= INDEX_THRESHOLD) {
+            table = null;
+            return;
+        }
+        int[] newTable = new int[Integer.highestOneBit(size) << 2];
+        for (int entry = 0; entry < size; entry++) {
+            addToTable(newTable, entry);
+        }
+        table = newTable;
+    }
+
+    private void addToTable(int[] table, int entry) {
+        int mask = table.length - 1;
+        int slot = hash(keys[entry]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Writes the entries as {@link org.json.simple.JSONObject#writeJSONString(Map, Writer)} does, except that keys are in
+     * insertion order rather than hash order.
+     */
+    @Override
+    public void writeJSONString(Writer out) throws IOException {
+        out.write('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write('\"');
+            out.write(JSONValue.escape(String.valueOf(keys[i])));
+            out.write('\"');
+            out.write(':');
+            JSONValue.writeJSONString(values[i], out);
+        }
+        out.write('}');
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompactAttributeMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+                private int next;
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next++;
+                    return new ArrayEntry(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    if (last >= size) {
+                        throw new ConcurrentModificationException();
+                    }
+                    removeAt(last);
+                    next = last;
+                    last = -1;
+                }
+            };
+        }
+    }
+
+    private final class ArrayEntry implements Entry<String, Object> {
+        private final int index;
+
+        ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
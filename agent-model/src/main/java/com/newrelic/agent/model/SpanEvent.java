@@ -7,13 +7,11 @@
 
 package com.newrelic.agent.model;
 
-import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -58,7 +56,22 @@ public class SpanEvent extends AnalyticsEvent implements JSONStreamAware {
 
     @Override
     public void writeJSONString(Writer out) throws IOException {
-        JSONArray.writeJSONString(Arrays.asList(intrinsics, getMutableUserAttributes(), getAgentAttributes()), out);
+        // streams the same [intrinsics, user, agent] array that JSONArray would, without wrapping the maps in a list
+        out.write('[');
+        writeAttributes(intrinsics, out);
+        out.write(',');
+        writeAttributes(getMutableUserAttributes(), out);
+        out.write(',');
+        writeAttributes(agentAttributes, out);
+        out.write(']');
+    }
+
+    private static void writeAttributes(Map<String, ?> attributes, Writer out) throws IOException {
+        if (attributes instanceof JSONStreamAware) {
+            ((JSONStreamAware) attributes).writeJSONString(out);
+        } else {
+            JSONObject.writeJSONString(attributes, out);
+        }
     }
 
     public String getTraceId() {
@@ -111,9 +124,10 @@ public class SpanEvent extends AnalyticsEvent implements JSONStreamAware {
     }
 
     public static class Builder {
-        private final Map<String, Object> intrinsics = new HashMap<>();
-        private final Map<String, Object> agentAttributes = new HashMap<>();
-        private final Map<String, Object> userAttributes = new HashMap<>();
+        // sized for the intrinsics and agent attributes SpanEventFactory sets on a typical span
+        private final Map<String, Object> intrinsics = new CompactAttributeMap(16);
+        private final Map<String, Object> agentAttributes = new CompactAttributeMap(8);
+        private final Map<String, Object> userAttributes = new CompactAttributeMap(4);
         private String appName;
         private float priority;
         private boolean decider;
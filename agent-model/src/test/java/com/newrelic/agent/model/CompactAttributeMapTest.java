@@ -0,0 +1,127 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.model;
+
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAttributeMapTest {
+
+    @Test
+    public void behavesLikeHashMap() {
+        Map<String, Object> expected = new HashMap<>();
+        Map<String, Object> map = new CompactAttributeMap(1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected.put("key" + i, i), map.put("key" + i, i));
+        }
+        assertEquals(expected.put("key3", "replaced"), map.put("key3", "replaced"));
+        assertEquals(expected.remove("key0"), map.remove("key0"));
+        assertEquals(expected.remove("key19"), map.remove("key19"));
+        assertEquals(expected.remove("missing"), map.remove("missing"));
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals("replaced", map.get(new String("key3")));
+        assertTrue(map.containsKey("key10"));
+        assertFalse(map.containsKey("key0"));
+        assertNull(map.get("key0"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("key3"));
+    }
+
+    @Test
+    public void largeMapsBehaveLikeHashMap() {
+        Map<String, Object> expected = new HashMap<>();
+        Map<String, Object> map = new CompactAttributeMap(4);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(expected.put("key" + i, i), map.put("key" + i, i));
+        }
+        for (int i = 0; i < 500; i += 3) {
+            assertEquals(expected.remove("key" + i), map.remove(new String("key" + i)));
+        }
+        assertEquals(expected.put(null, "null key"), map.put(null, "null key"));
+        assertEquals(expected.put("key1", "replaced"), map.put("key1", "replaced"));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(expected.get("key" + i), map.get(new String("key" + i)));
+        }
+        assertEquals(expected, map);
+        assertEquals("null key", map.get(null));
+
+        // removing back below the threshold goes back to scanning
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        while (map.size() > CompactAttributeMap.INDEX_THRESHOLD - 1) {
+            iterator.next();
+            iterator.remove();
+        }
+        map.put("added", 1);
+        assertEquals(CompactAttributeMap.INDEX_THRESHOLD, map.size());
+        assertEquals(1, map.get("added"));
+        assertNull(map.get("key1"));
+    }
+
+    @Test
+    public void entryIteratorSupportsRemoveAndSetValue() {
+        Map<String, Object> map = new CompactAttributeMap(4);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Object> entry = iterator.next();
+            if (entry.getKey().equals("b")) {
+                iterator.remove();
+            } else {
+                entry.setValue(((Integer) entry.getValue()) * 10);
+            }
+        }
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", 10);
+        expected.put("c", 30);
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void writesJsonInInsertionOrder() throws Exception {
+        Map<String, Object> map = new CompactAttributeMap(2);
+        map.put("string", "quote \" and backslash \\ and\nnewline");
+        map.put("float", 1.5f);
+        map.put("long", 12345678901L);
+        map.put("boolean", true);
+        map.put("null", null);
+        map.put("nested", new HashMap<>(map));
+
+        StringWriter writer = new StringWriter();
+        ((CompactAttributeMap) map).writeJSONString(writer);
+
+        JSONParser parser = new JSONParser();
+        assertEquals(parser.parse(JSONObject.toJSONString(new HashMap<>(map))), parser.parse(writer.toString()));
+        assertEquals(writer.toString(), JSONValue.toJSONString(map));
+        // unlike a HashMap, keys are written in insertion order
+        assertTrue(writer.toString().startsWith("{\"string\":"));
+        assertTrue(writer.toString().indexOf("\"float\":") < writer.toString().indexOf("\"long\":"));
+    }
+
+}
@@ -8,9 +8,9 @@
 package test.newrelic.test.agent;
 
 import com.newrelic.agent.Transaction;
+import com.newrelic.agent.interfaces.SamplingPriorityQueue;
 import com.newrelic.agent.model.LogEvent;
 import com.newrelic.agent.service.ServiceFactory;
-import com.newrelic.agent.service.analytics.DistributedSamplingPriorityQueue;
 import com.newrelic.agent.service.logging.LogSenderServiceImpl;
 import com.newrelic.agent.stats.SimpleStatsEngine;
 import com.newrelic.agent.stats.TransactionStats;
@@ -37,7 +37,7 @@ public class JavaUtilLoggerTest {
     private static final String NOT_CAPTURED = "This message should NOT be captured";
     private final String applicationName = ServiceFactory.getConfigService().getDefaultAgentConfig().getApplicationName();
     private final LogSenderServiceImpl logSenderService = (LogSenderServiceImpl) ServiceFactory.getServiceManager().getLogSenderService();
-    private final DistributedSamplingPriorityQueue<LogEvent> logReservoir = logSenderService.getReservoir(applicationName);
+    private final SamplingPriorityQueue<LogEvent> logReservoir = logSenderService.getReservoir(applicationName);
 
     @Before
     public void setup() {
@@ -0,0 +1,55 @@
+package com.newrelic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the target size of the span batches sent to the trace observer. The target follows the rate at which spans
+ * are drained from the queue, so that a batch fills in about {@link #TARGET_FILL_NANOS} at the current throughput, and
+ * doubles whenever the gRPC stream reports that it is not ready so that fewer, larger messages are sent while the
+ * observer is pushing back. After the stream recovers, the target decays back towards the rate-based size by at most
+ * half per batch.
+ *
+ * This class is not thread-safe; it is owned by the {@link SpanEventSender} thread.
+ */
+class AdaptiveBatchSize {
+
+    static final int MIN_BATCH_SIZE = 100;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final long TARGET_FILL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    // Weight of the newest sample in the smoothed span rate
+    private static final double SMOOTHING = 0.2;
+
+    private double spansPerNano;
+    private long lastBatchNanos = -1;
+    private int target = MIN_BATCH_SIZE;
+
+    int get() {
+        return target;
+    }
+
+    /**
+     * Record that a batch of {@code size} spans was drained at {@code nowNanos} and recompute the target.
+     */
+    void onBatch(int size, long nowNanos) {
+        if (lastBatchNanos >= 0) {
+            double rate = (double) size / Math.max(1, nowNanos - lastBatchNanos);
+            spansPerNano = spansPerNano == 0 ? rate : spansPerNano + SMOOTHING * (rate - spansPerNano);
+            int rateTarget = clamp((long) Math.ceil(spansPerNano * TARGET_FILL_NANOS));
+            target = Math.max(rateTarget, clamp(target / 2));
+        }
+        lastBatchNanos = nowNanos;
+    }
+
+    /**
+     * Record that the gRPC stream was not ready to accept more messages.
+     */
+    void onNotReady() {
+        target = clamp(target * 2L);
+    }
+
+    private static int clamp(long size) {
+        return (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, size));
+    }
+
+}
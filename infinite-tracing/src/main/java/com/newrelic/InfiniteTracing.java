@@ -6,6 +6,8 @@ import com.newrelic.api.agent.Logger;
 import com.newrelic.api.agent.MetricAggregator;
 
 import javax.annotation.concurrent.GuardedBy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -26,9 +28,8 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
     private final BlockingQueue<SpanEvent> queue;
 
     private final Object lock = new Object();
-    @GuardedBy("lock") private Future<?> spanEventSenderFuture;
-    @GuardedBy("lock") private SpanEventSender spanEventSender;
-    @GuardedBy("lock") private ChannelManager channelManager;
+    @GuardedBy("lock") private final List<Future<?>> spanEventSenderFutures = new ArrayList<>();
+    @GuardedBy("lock") private final List<ChannelManager> channelManagers = new ArrayList<>();
 
     @VisibleForTesting
     InfiniteTracing(InfiniteTracingConfig config, MetricAggregator aggregator, ExecutorService executorService, BlockingQueue<SpanEvent> queue) {
@@ -52,15 +53,22 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
             aggregator.incrementCounter("Supportability/InfiniteTracing/gRPC/Compression/" + (config.getUseCompression() ? "enabled" : "disabled"));
             aggregator.incrementCounter("Supportability/InfiniteTracing/gRPC/Batching/" + (config.getUseBatching() ? "enabled" : "disabled"));
 
-            if (spanEventSenderFuture != null) {
-                channelManager.updateMetadata(agentRunToken, requestMetadata);
-                channelManager.shutdownChannelAndBackoff(0);
+            if (!spanEventSenderFutures.isEmpty()) {
+                for (ChannelManager channelManager : channelManagers) {
+                    channelManager.updateMetadata(agentRunToken, requestMetadata);
+                    channelManager.shutdownChannelAndBackoff(0);
+                }
                 return;
             }
-            logger.log(Level.INFO, "Starting Infinite Tracing.");
-            channelManager = buildChannelManager(agentRunToken, requestMetadata);
-            spanEventSender = buildSpanEventSender();
-            spanEventSenderFuture = executorService.submit(spanEventSender);
+            logger.log(Level.INFO, "Starting Infinite Tracing with {0} sender(s) over {1} stream(s).", config.getSenders(), config.getStreams());
+            for (int i = 0; i < config.getStreams(); i++) {
+                channelManagers.add(buildChannelManager(agentRunToken, requestMetadata));
+            }
+            // Senders are spread evenly across the streams
+            for (int i = 0; i < config.getSenders(); i++) {
+                SpanEventSender spanEventSender = buildSpanEventSender(channelManagers.get(i % channelManagers.size()));
+                spanEventSenderFutures.add(executorService.submit(spanEventSender));
+            }
         }
     }
 
@@ -70,7 +78,7 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
     }
 
     @VisibleForTesting
-    SpanEventSender buildSpanEventSender() {
+    SpanEventSender buildSpanEventSender(ChannelManager channelManager) {
         return new SpanEventSender(config, queue, aggregator, channelManager);
     }
 
@@ -80,21 +88,24 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
      */
     public void stop() {
         synchronized (lock) {
-            if (spanEventSenderFuture == null) {
+            if (spanEventSenderFutures.isEmpty()) {
                 return;
             }
             logger.log(Level.INFO, "Stopping Infinite Tracing.");
-            spanEventSenderFuture.cancel(true);
-            channelManager.shutdownChannelForever();
-            spanEventSenderFuture = null;
-            spanEventSender = null;
-            channelManager = null;
+            for (Future<?> spanEventSenderFuture : spanEventSenderFutures) {
+                spanEventSenderFuture.cancel(true);
+            }
+            for (ChannelManager channelManager : channelManagers) {
+                channelManager.shutdownChannelForever();
+            }
+            spanEventSenderFutures.clear();
+            channelManagers.clear();
         }
     }
 
     /**
      * Offer the span event to the queue to be written to the Infinite Trace Observer. If the queue
-     * is at capacity, the span event is ignored.
+     * is at capacity, the span event is ignored and counted as dropped.
      *
      * @param spanEvent the span event
      */
@@ -102,6 +113,7 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
     public void accept(SpanEvent spanEvent) {
         aggregator.incrementCounter("Supportability/InfiniteTracing/Span/Seen");
         if (!queue.offer(spanEvent)) {
+            aggregator.incrementCounter("Supportability/InfiniteTracing/Span/Dropped");
             logger.log(Level.FINEST, "Span event not accepted. The queue was full.");
         }
     }
@@ -115,7 +127,7 @@ public class InfiniteTracing implements Consumer<SpanEvent> {
      * @return the instance
      */
     public static InfiniteTracing initialize(InfiniteTracingConfig config, MetricAggregator aggregator) {
-        ExecutorService executorService = Executors.newSingleThreadExecutor(new DaemonThreadFactory("Infinite Tracing"));
+        ExecutorService executorService = Executors.newFixedThreadPool(config.getSenders(), new DaemonThreadFactory("Infinite Tracing"));
         return new InfiniteTracing(config, aggregator, executorService, new LinkedBlockingDeque<SpanEvent>(config.getMaxQueueSize()));
     }
 
@@ -15,6 +15,8 @@ public class InfiniteTracingConfig {
     private final boolean usePlaintext;
     private final boolean useCompression;
     private final boolean useBatching;
+    private final int senders;
+    private final int streams;
 
     public InfiniteTracingConfig(Builder builder) {
         this.licenseKey = builder.licenseKey;
@@ -27,6 +29,8 @@ public class InfiniteTracingConfig {
         this.usePlaintext = builder.usePlaintext;
         this.useCompression = builder.useCompression;
         this.useBatching = builder.useBatching;
+        this.senders = Math.max(1, builder.senders);
+        this.streams = Math.max(1, Math.min(this.senders, builder.streams));
     }
 
     public static Builder builder() {
@@ -73,6 +77,14 @@ public class InfiniteTracingConfig {
         return useBatching;
     }
 
+    public int getSenders() {
+        return senders;
+    }
+
+    public int getStreams() {
+        return streams;
+    }
+
     public static class Builder {
         public int maxQueueSize;
         public Logger logger;
@@ -84,6 +96,8 @@ public class InfiniteTracingConfig {
         private boolean usePlaintext;
         private boolean useCompression;
         private boolean useBatching;
+        private int senders = 1;
+        private int streams = 1;
 
         /**
          * The New Relic APM license key configured for the application.
@@ -178,6 +192,28 @@ public class InfiniteTracingConfig {
             return this;
         }
 
+        /**
+         * The optional number of sender threads. Each sender drains the shared span queue and converts and writes its
+         * own batches, so conversion runs in parallel across senders.
+         *
+         * @param senders the number of sender threads, 1 by default
+         */
+        public Builder senders(int senders) {
+            this.senders = senders;
+            return this;
+        }
+
+        /**
+         * The optional number of gRPC streams to the Trace Observer. Senders are spread evenly across the streams, and
+         * senders sharing a stream take turns writing to it. Capped at the number of senders.
+         *
+         * @param streams the number of gRPC streams, 1 by default
+         */
+        public Builder streams(int streams) {
+            this.streams = streams;
+            return this;
+        }
+
         public InfiniteTracingConfig build() {
             return new InfiniteTracingConfig(this);
         }
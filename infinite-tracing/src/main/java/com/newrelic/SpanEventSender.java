@@ -6,8 +6,9 @@ import com.newrelic.api.agent.Logger;
 import com.newrelic.api.agent.MetricAggregator;
 import com.newrelic.trace.v1.V1;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -19,12 +20,13 @@ class SpanEventSender implements Runnable {
     private final BlockingQueue<SpanEvent> queue;
     private final MetricAggregator aggregator;
     private final ChannelManager channelManager;
+    private final AdaptiveBatchSize batchSize = new AdaptiveBatchSize();
     // Destination for agent data
     private static final String INFINITE_TRACING = "InfiniteTracing";
-    // Wait for up to 5 seconds for data when batching
-    private static final long LINGER_MS = 5000;
-    // Allow a maximum batch size of up to 100 items
-    private static final int MAX_BATCH_SIZE = 100;
+    // Wait for up to 5 seconds for a batch to fill once it has its first span
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(5000);
+    // Wait for up to 250 ms for the first span of a batch before checking the observer again
+    private static final long EMPTY_WAIT_MS = 250;
 
     SpanEventSender(InfiniteTracingConfig config, BlockingQueue<SpanEvent> queue, MetricAggregator aggregator, ChannelManager channelManager) {
         this.logger = config.getLogger();
@@ -76,6 +78,7 @@ class SpanEventSender implements Runnable {
         try {
             logger.log(Level.FINE, "Waiting for gRPC span observer to be ready.");
             aggregator.incrementCounter("Supportability/InfiniteTracing/NotReady");
+            batchSize.onNotReady();
             Thread.sleep(250);
         } catch (InterruptedException exception) {
             Thread.currentThread().interrupt();
@@ -86,40 +89,63 @@ class SpanEventSender implements Runnable {
 
     @VisibleForTesting
     void drainAndSendBatchWhenReady(Observer observer) {
-        // If our queue is larger than our max batch size we will send the batch right away,
-        // otherwise we will pause for the linger time to wait for the batch to fill first.
-        if (queue.size() < MAX_BATCH_SIZE) {
-            try {
-                if (queue.isEmpty()) {
-                    // Prevent a busy-wait loop when we have no data flowing through
-                    Thread.sleep(250);
-                } else {
-                    Thread.sleep(LINGER_MS);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Thread interrupted while waiting for span batch to fill.");
-            }
-        }
-
         Collection<SpanEvent> spanEvents = drainSpanBatch();
         if (spanEvents.isEmpty()) {
             return;
         }
+        aggregator.recordMetric("Supportability/InfiniteTracing/Span/BatchSize", spanEvents.size());
+        aggregator.recordMetric("Supportability/InfiniteTracing/Span/QueueDepth", queue.size());
 
         // Convert and send the batch to the trace observer
         V1.SpanBatch convertedSpanBatch = SpanConverter.convert(spanEvents);
         writeToObserver(observer, convertedSpanBatch);
     }
 
+    /**
+     * Drain a batch of up to the current target size. Rather than sleeping for a fixed linger time, block on the queue
+     * so that the batch is returned as soon as it reaches the target size, or once the linger time has passed since it
+     * received its first span.
+     */
     @VisibleForTesting
     Collection<SpanEvent> drainSpanBatch() {
-        // Drain up to the max batch size
-        Collection<SpanEvent> spanEvents = new LinkedList<>();
-        queue.drainTo(spanEvents, MAX_BATCH_SIZE);
+        int maxBatchSize = batchSize.get();
+        List<SpanEvent> spanEvents = new ArrayList<>(maxBatchSize);
+        queue.drainTo(spanEvents, maxBatchSize);
+        if (spanEvents.isEmpty()) {
+            // Prevent a busy-wait loop when we have no data flowing through
+            SpanEvent first = pollForBatch(TimeUnit.MILLISECONDS.toNanos(EMPTY_WAIT_MS));
+            if (first == null) {
+                return spanEvents;
+            }
+            spanEvents.add(first);
+        }
+
+        long deadline = System.nanoTime() + LINGER_NANOS;
+        while (spanEvents.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            SpanEvent next = pollForBatch(remaining);
+            if (next == null) {
+                break;
+            }
+            spanEvents.add(next);
+            queue.drainTo(spanEvents, maxBatchSize - spanEvents.size());
+        }
+        batchSize.onBatch(spanEvents.size(), System.nanoTime());
         return spanEvents;
     }
 
+    private SpanEvent pollForBatch(long timeoutNanos) {
+        try {
+            return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread interrupted while waiting for span batch to fill.");
+        }
+    }
+
     @VisibleForTesting
     void pollAndSendSpan(Observer observer) {
         // Poll queue for span
@@ -146,7 +172,10 @@ class SpanEventSender implements Runnable {
     @VisibleForTesting
     void writeToObserver(Observer observer, V1.Span span) {
         try {
-            observer.onNext(span);
+            // gRPC streams are not thread-safe, and other senders may be sharing this one
+            synchronized (observer) {
+                observer.onNext(span);
+            }
         } catch (Throwable t) {
             logger.log(Level.SEVERE, t, "Unable to send span.");
             throw t;
@@ -157,7 +186,9 @@ class SpanEventSender implements Runnable {
     @VisibleForTesting
     void writeToObserver(Observer observer, V1.SpanBatch spanBatch) {
         try {
-            observer.onNext(spanBatch);
+            synchronized (observer) {
+                observer.onNext(spanBatch);
+            }
         } catch (Throwable t) {
             logger.log(Level.SEVERE, t, "Unable to send span batch.");
             throw t;
@@ -0,0 +1,62 @@
+package com.newrelic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveBatchSizeTest {
+
+    @Test
+    void startsAtMinimum() {
+        assertEquals(AdaptiveBatchSize.MIN_BATCH_SIZE, new AdaptiveBatchSize().get());
+    }
+
+    @Test
+    void highThroughputGrowsToMaximum() {
+        AdaptiveBatchSize target = new AdaptiveBatchSize();
+        long now = 0;
+        target.onBatch(0, now);
+        // 50k spans per second
+        for (int i = 0; i < 20; i++) {
+            now += TimeUnit.MILLISECONDS.toNanos(20);
+            target.onBatch(1000, now);
+        }
+        assertEquals(AdaptiveBatchSize.MAX_BATCH_SIZE, target.get());
+    }
+
+    @Test
+    void lowThroughputStaysAtMinimum() {
+        AdaptiveBatchSize target = new AdaptiveBatchSize();
+        long now = 0;
+        target.onBatch(0, now);
+        // 10 spans per second
+        for (int i = 0; i < 20; i++) {
+            now += TimeUnit.SECONDS.toNanos(5);
+            target.onBatch(50, now);
+        }
+        assertEquals(AdaptiveBatchSize.MIN_BATCH_SIZE, target.get());
+    }
+
+    @Test
+    void notReadyDoublesUpToMaximumThenDecays() {
+        AdaptiveBatchSize target = new AdaptiveBatchSize();
+        target.onNotReady();
+        assertEquals(200, target.get());
+        for (int i = 0; i < 10; i++) {
+            target.onNotReady();
+        }
+        assertEquals(AdaptiveBatchSize.MAX_BATCH_SIZE, target.get());
+
+        long now = 0;
+        target.onBatch(0, now);
+        now += TimeUnit.SECONDS.toNanos(5);
+        target.onBatch(1, now);
+        assertEquals(500, target.get());
+        now += TimeUnit.SECONDS.toNanos(5);
+        target.onBatch(1, now);
+        assertEquals(250, target.get());
+    }
+
+}
@@ -78,7 +78,20 @@ class InfiniteTracingConfigTest {
         assertEquals("123456", config.getLicenseKey());
         assertEquals(9999, config.getPort());
         assertEquals(10, config.getMaxQueueSize());
+        assertEquals(1, config.getSenders());
+        assertEquals(1, config.getStreams());
         assertNotNull(config.getLogger());
 
     }
+
+    @Test
+    public void builder_streamsCappedAtSenders() {
+        InfiniteTracingConfig config = InfiniteTracingConfig.builder()
+                .senders(2)
+                .streams(4)
+                .logger(Mockito.mock(Logger.class)).build();
+
+        assertEquals(2, config.getSenders());
+        assertEquals(2, config.getStreams());
+    }
 }
@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,10 +51,12 @@ class InfiniteTracingTest {
     void setup() {
         MockitoAnnotations.initMocks(this);
         when(config.getLogger()).thenReturn(logger);
+        when(config.getSenders()).thenReturn(1);
+        when(config.getStreams()).thenReturn(1);
         queue = new LinkedBlockingDeque<>(1);
         target = spy(new InfiniteTracing(config, aggregator, executorService, queue));
         doReturn(channelManager).when(target).buildChannelManager(anyString(), ArgumentMatchers.<String, String>anyMap());
-        doReturn(spanEventSender).when(target).buildSpanEventSender();
+        doReturn(spanEventSender).when(target).buildSpanEventSender(ArgumentMatchers.<ChannelManager>any());
 
     }
 
@@ -66,7 +69,7 @@ class InfiniteTracingTest {
         target.start("token2", ImmutableMap.of("key2", "value2"));
 
         verify(target).buildChannelManager("token1", ImmutableMap.of("key1", "value1"));
-        verify(target).buildSpanEventSender();
+        verify(target).buildSpanEventSender(channelManager);
         verify(executorService).submit(spanEventSender);
         verify(channelManager).updateMetadata("token2", ImmutableMap.of("key2", "value2"));
         verify(channelManager).shutdownChannelAndBackoff(0);
@@ -78,6 +81,29 @@ class InfiniteTracingTest {
         verify(channelManager).shutdownChannelForever();
     }
 
+    @Test
+    void startAndStop_MultipleSendersShareStreams() {
+        when(config.getSenders()).thenReturn(4);
+        when(config.getStreams()).thenReturn(2);
+        ChannelManager secondChannelManager = mock(ChannelManager.class);
+        doReturn(channelManager).doReturn(secondChannelManager).when(target).buildChannelManager(anyString(), ArgumentMatchers.<String, String>anyMap());
+        Future future = mock(Future.class);
+        when(executorService.submit(ArgumentMatchers.<Runnable>any())).thenReturn(future);
+
+        target.start("token1", ImmutableMap.of("key1", "value1"));
+
+        verify(target, times(2)).buildChannelManager("token1", ImmutableMap.of("key1", "value1"));
+        verify(target, times(2)).buildSpanEventSender(channelManager);
+        verify(target, times(2)).buildSpanEventSender(secondChannelManager);
+        verify(executorService, times(4)).submit(spanEventSender);
+
+        target.stop();
+
+        verify(future, times(4)).cancel(true);
+        verify(channelManager).shutdownChannelForever();
+        verify(secondChannelManager).shutdownChannelForever();
+    }
+
     @Test
     @Timeout(1)
     void accept_IncrementsCounterAndOffersToQueue() {
@@ -89,6 +115,17 @@ class InfiniteTracingTest {
         assertEquals(spanEvent, queue.poll());
     }
 
+    @Test
+    @Timeout(1)
+    void accept_FullQueueIncrementsDroppedCounter() {
+        target.accept(SpanEvent.builder().build());
+        target.accept(SpanEvent.builder().build());
+
+        verify(aggregator, times(2)).incrementCounter("Supportability/InfiniteTracing/Span/Seen");
+        verify(aggregator).incrementCounter("Supportability/InfiniteTracing/Span/Dropped");
+        assertEquals(1, queue.size());
+    }
+
     @Test
     public void buildChannelManager_returnsChannelManager() {
         target = new InfiniteTracing(config, aggregator, executorService, queue);
@@ -14,6 +14,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -178,6 +179,38 @@ class SpanEventSenderTest {
         verify(queue).drainTo(any(), eq(maxBatchSize));
     }
 
+    @Test
+    @Timeout(2)
+    void drainSpanBatch_ReturnsAsSoonAsBatchIsFull() throws InterruptedException {
+        final BlockingQueue<SpanEvent> realQueue = new LinkedBlockingQueue<>();
+        target = new SpanEventSender(config, realQueue, aggregator, channelManager);
+        realQueue.add(buildSpanEvent());
+
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i < AdaptiveBatchSize.MIN_BATCH_SIZE + 10; i++) {
+                realQueue.add(buildSpanEvent());
+            }
+        });
+        producer.start();
+
+        // the linger time is far longer than the test timeout, so this only returns early because the batch filled
+        assertEquals(AdaptiveBatchSize.MIN_BATCH_SIZE, target.drainSpanBatch().size());
+        producer.join();
+    }
+
+    @Test
+    void drainAndSendBatchWhenReady_RecordsBatchSizeAndQueueDepth() {
+        Collection<SpanEvent> spanEvents = IntStream.range(0, 5).mapToObj(i -> buildSpanEvent()).collect(Collectors.toList());
+        doReturn(spanEvents).when(target).drainSpanBatch();
+        when(queue.size()).thenReturn(42);
+
+        target.drainAndSendBatchWhenReady(observer);
+
+        verify(aggregator).recordMetric("Supportability/InfiniteTracing/Span/BatchSize", 5);
+        verify(aggregator).recordMetric("Supportability/InfiniteTracing/Span/QueueDepth", 42);
+        verify(target).writeToObserver(observer, SpanConverter.convert(spanEvents));
+    }
+
     @Test
     void writeToObserver_RethrowsException() {
         doThrow(new RuntimeException("Error!")).when(observer).onNext(ArgumentMatchers.<V1.Span>any());
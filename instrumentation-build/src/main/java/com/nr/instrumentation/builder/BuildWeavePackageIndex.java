@@ -0,0 +1,87 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.nr.instrumentation.builder;
+
+import com.newrelic.weave.weavepackage.WeavePackageIndex;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Write a {@link WeavePackageIndex} of the instrumentation jars bundled into the agent jar, so that the agent can
+ * create their weave packages at startup without opening each jar to read its manifest.
+ *
+ * The jars must already contain the cached weave attributes written by {@link CacheWeaveAttributesInManifest}.
+ *
+ * This class is invoked by a JVM that is forked from gradle. It therefore does not have access to the gradle project
+ * or configuration.
+ */
+public class BuildWeavePackageIndex {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            help();
+            System.exit(1);
+        }
+
+        // the jar paths are passed in a file since there are too many of them for some command lines
+        List<String> jarPaths = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                jarPaths.add(line.trim());
+            }
+        }
+        WeavePackageIndex index = createIndex(jarPaths);
+
+        File outputDirectory = new File(args[0]).getParentFile();
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            throw new Exception("Unable to create " + outputDirectory);
+        }
+
+        try (OutputStream stream = new FileOutputStream(args[0])) {
+            index.write(stream);
+        }
+    }
+
+    static WeavePackageIndex createIndex(List<String> jarPaths) throws IOException {
+        // sorted so that the index is reproducible
+        Map<String, Attributes> packages = new TreeMap<>();
+        for (String jarPath : jarPaths) {
+            File jar = new File(jarPath);
+            try (JarFile jarFile = new JarFile(jar)) {
+                Manifest manifest = jarFile.getManifest();
+                if (manifest == null) {
+                    throw new IOException("The instrumentation jar " + jarPath + " did not contain a manifest");
+                }
+                if (packages.put(jar.getName(), manifest.getMainAttributes()) != null) {
+                    throw new IOException("Duplicate instrumentation jar name " + jar.getName());
+                }
+            }
+        }
+        return new WeavePackageIndex(packages);
+    }
+
+    private static void help() {
+        System.err.println("Write an index of the manifest attributes of a set of instrumentation jars.");
+        System.err.println("Arguments: the output file and a file listing the instrumentation jars, one per line.");
+        System.err.println("Only execute this through the `buildWeavePackageIndex` task in newrelic-agent/build.gradle.");
+    }
+
+}
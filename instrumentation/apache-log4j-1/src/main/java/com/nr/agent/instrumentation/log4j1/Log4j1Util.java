@@ -9,11 +9,10 @@ package com.nr.agent.instrumentation.log4j1;
 
 import com.newrelic.agent.bridge.AgentBridge;
 import com.newrelic.agent.bridge.logging.AppLoggingUtils;
-import com.newrelic.agent.bridge.logging.LogAttributeKey;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import com.newrelic.api.agent.NewRelic;
 import org.apache.log4j.spi.LoggingEvent;
 
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.newrelic.agent.bridge.logging.AppLoggingUtils.*;
@@ -59,8 +58,8 @@ public class Log4j1Util {
     private static void recordNewRelicLogEvent(LoggingEvent event) {
         if (shouldCreateNewRelicLogEventFor(event)) {
             boolean isAppLoggingContextDataEnabled = AppLoggingUtils.isAppLoggingContextDataEnabled();
-            Map<LogAttributeKey, Object> logEventMap = LoggingEventMap.from(event, isAppLoggingContextDataEnabled);
-            AgentBridge.getAgent().getLogSender().recordLogEvent(logEventMap);
+            LogEventRecord record = LoggingEventMap.from(event, isAppLoggingContextDataEnabled);
+            AgentBridge.getAgent().getLogSender().recordLogEvent(record);
         }
     }
 
@@ -8,113 +8,63 @@
 package com.nr.agent.instrumentation.log4j1;
 
 import com.newrelic.agent.bridge.logging.AppLoggingUtils;
-import com.newrelic.agent.bridge.logging.LogAttributeKey;
-import com.newrelic.agent.bridge.logging.LogAttributeType;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import org.apache.log4j.Level;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.log4j.spi.ThrowableInformation;
 
-import java.util.HashMap;
 import java.util.Map;
 
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.INSTRUMENTATION;
-
 class LoggingEventMap {
-    static Map<LogAttributeKey, Object> from(LoggingEvent event, boolean appLoggingContextDataEnabled) {
-        Map<LogAttributeKey, Object> logEventMap = initialMapWithMdcIfEnabled(event, appLoggingContextDataEnabled);
-        logEventMap.put(INSTRUMENTATION, "apache-log4j-1");
-        addLoggerInfo(event, logEventMap);
-        addMessageAndTs(event, logEventMap);
-        addLevel(event, logEventMap);
-        addThreadInfo(event, logEventMap);
-        addErrorInfo(event, logEventMap);
-        return logEventMap;
-    }
-
-    private static Map<LogAttributeKey, Object> initialMapWithMdcIfEnabled(LoggingEvent event, boolean isAppLoggingContextDataEnabled) {
-        Map<LogAttributeKey, Object> loggingEventMap = null;
-        if (isAppLoggingContextDataEnabled) {
-            Map<?, ?> mdc = event.getProperties();
-            if (mdc != null && !mdc.isEmpty()) {
-                loggingEventMap = new HashMap<>(AppLoggingUtils.DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES + mdc.size());
-                addMdc(mdc, loggingEventMap);
-            }
-        }
-        if (loggingEventMap == null) {
-            loggingEventMap = new HashMap<>(AppLoggingUtils.DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES);
+    static LogEventRecord from(LoggingEvent event, boolean appLoggingContextDataEnabled) {
+        LogEventRecord record = new LogEventRecord("apache-log4j-1", event.getTimeStamp(), Thread.currentThread().getId());
+        if (appLoggingContextDataEnabled) {
+            addMdc(event, record);
         }
-        return loggingEventMap;
+        addLoggerInfo(event, record);
+        addMessage(event, record);
+        addLevel(event, record);
+        record.setThreadName(event.getThreadName());
+        addErrorInfo(event, record);
+        return record;
     }
 
-    private static void addMdc(Map<?, ?> mdc, Map<LogAttributeKey, Object> map) {
-        for (Map.Entry<?, ?> entry : mdc.entrySet()) {
-            Object key = entry.getKey();
-            Object value = entry.getValue();
-            LogAttributeKey logAttrKey = new LogAttributeKey(key.toString(), LogAttributeType.CONTEXT);
-            map.put(logAttrKey, value);
+    private static void addMdc(LoggingEvent event, LogEventRecord record) {
+        Map<?, ?> mdc = event.getProperties();
+        if (mdc != null) {
+            for (Map.Entry<?, ?> entry : mdc.entrySet()) {
+                record.addContextData(entry.getKey().toString(), entry.getValue());
+            }
         }
     }
 
-    private static void addMessageAndTs(LoggingEvent event, Map<LogAttributeKey, Object> map) {
+    private static void addMessage(LoggingEvent event, LogEventRecord record) {
         String message = event.getRenderedMessage();
         if (message != null && !message.isEmpty()) {
-            map.put(AppLoggingUtils.MESSAGE, message);
+            record.setMessage(message);
         }
-        map.put(AppLoggingUtils.TIMESTAMP, event.getTimeStamp());
     }
 
-    private static void addErrorInfo(LoggingEvent event, Map<LogAttributeKey, Object> map) {
+    private static void addErrorInfo(LoggingEvent event, LogEventRecord record) {
         Throwable throwable = null;
         ThrowableInformation throwableInformation = event.getThrowableInformation();
         if (throwableInformation != null) {
             throwable = throwableInformation.getThrowable();
         }
 
-        String errorMessage = Log4j1ExceptionUtil.getErrorMessage(throwable);
-        if (errorMessage != null) {
-            map.put(AppLoggingUtils.ERROR_MESSAGE, errorMessage);
-        }
-
-        String errorStack = Log4j1ExceptionUtil.getErrorStack(throwable);
-        if (errorStack != null) {
-            map.put(AppLoggingUtils.ERROR_STACK, errorStack);
-        }
-
-        String errorClass = Log4j1ExceptionUtil.getErrorClass(throwable);
-        if (errorClass != null) {
-            map.put(AppLoggingUtils.ERROR_CLASS, errorClass);
-        }
+        record.setError(Log4j1ExceptionUtil.getErrorMessage(throwable), Log4j1ExceptionUtil.getErrorClass(throwable),
+                Log4j1ExceptionUtil.getErrorStack(throwable));
     }
 
-    private static void addLevel(LoggingEvent event, Map<LogAttributeKey, Object> map) {
+    private static void addLevel(LoggingEvent event, LogEventRecord record) {
         Level level = event.getLevel();
         if (level != null) {
             String levelName = level.toString();
-            if (levelName.isEmpty()) {
-                map.put(AppLoggingUtils.LEVEL, AppLoggingUtils.UNKNOWN);
-            } else {
-                map.put(AppLoggingUtils.LEVEL, levelName);
-            }
+            record.setLevel(levelName.isEmpty() ? AppLoggingUtils.UNKNOWN : levelName);
         }
     }
 
-    private static void addThreadInfo(LoggingEvent event, Map<LogAttributeKey, Object> map) {
-        String threadName = event.getThreadName();
-        if (threadName != null) {
-            map.put(AppLoggingUtils.THREAD_NAME, threadName);
-        }
-        map.put(AppLoggingUtils.THREAD_ID, Thread.currentThread().getId());
-    }
-
-    private static void addLoggerInfo(LoggingEvent event, Map<LogAttributeKey, Object> map) {
-        String loggerName = event.getLoggerName();
-        if (loggerName != null) {
-            map.put(AppLoggingUtils.LOGGER_NAME, loggerName);
-        }
-
-        String loggerFqcn = event.getFQNOfLoggerClass();
-        if (loggerFqcn != null) {
-            map.put(AppLoggingUtils.LOGGER_FQCN, loggerFqcn);
-        }
+    private static void addLoggerInfo(LoggingEvent event, LogEventRecord record) {
+        record.setLogger(event.getLoggerName(), event.getFQNOfLoggerClass());
     }
-}
\ No newline at end of file
+}
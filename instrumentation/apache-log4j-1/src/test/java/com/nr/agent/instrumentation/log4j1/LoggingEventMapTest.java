@@ -80,7 +80,7 @@ public class LoggingEventMapTest {
         MDC.put("some", "value");
 
         // when logging event map created
-        Map<LogAttributeKey, Object> loggingEventMap = LoggingEventMap.from(event, appLoggingContextDataEnabled);
+        Map<LogAttributeKey, Object> loggingEventMap = LoggingEventMap.from(event, appLoggingContextDataEnabled).toAttributes();
 
         // then it is not null or empty, and it has expected size
         assertNotNull(loggingEventMap);
@@ -9,27 +9,13 @@ package com.nr.agent.instrumentation.log4j2;
 
 import com.newrelic.agent.bridge.AgentBridge;
 import com.newrelic.agent.bridge.logging.AppLoggingUtils;
-import com.newrelic.agent.bridge.logging.LogAttributeKey;
-import com.newrelic.agent.bridge.logging.LogAttributeType;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.message.Message;
 
-import java.util.HashMap;
 import java.util.Map;
 
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_CLASS;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_MESSAGE;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.ERROR_STACK;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.INSTRUMENTATION;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LEVEL;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LOGGER_FQCN;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.LOGGER_NAME;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.MESSAGE;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.THREAD_ID;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.THREAD_NAME;
-import static com.newrelic.agent.bridge.logging.AppLoggingUtils.TIMESTAMP;
 import static com.newrelic.agent.bridge.logging.AppLoggingUtils.UNKNOWN;
 
 public class AgentUtil {
@@ -44,69 +30,34 @@ public class AgentUtil {
             Throwable throwable = event.getThrown();
 
             if (shouldCreateLogEvent(message, throwable)) {
-                Map<String, String> contextData = event.getContextMap();
-                Map<LogAttributeKey, Object> logEventMap = new HashMap<>(calculateInitialMapSize(contextData));
-                logEventMap.put(INSTRUMENTATION, "apache-log4j-2.6");
+                LogEventRecord record = new LogEventRecord("apache-log4j-2.6", event.getTimeMillis(), event.getThreadId());
                 if (message != null) {
                     String formattedMessage = message.getFormattedMessage();
                     if (formattedMessage != null && !formattedMessage.isEmpty()) {
-                        logEventMap.put(MESSAGE, formattedMessage);
+                        record.setMessage(formattedMessage);
                     }
                 }
-                logEventMap.put(TIMESTAMP, event.getTimeMillis());
 
-                if (AppLoggingUtils.isAppLoggingContextDataEnabled() && contextData != null) {
-                    for (Map.Entry<String, String> entry : contextData.entrySet()) {
-                        String key = entry.getKey();
-                        String value = entry.getValue();
-                        LogAttributeKey logAttrKey = new LogAttributeKey(key, LogAttributeType.CONTEXT);
-                        logEventMap.put(logAttrKey, value);
+                if (AppLoggingUtils.isAppLoggingContextDataEnabled()) {
+                    Map<String, String> contextData = event.getContextMap();
+                    if (contextData != null) {
+                        for (Map.Entry<String, String> entry : contextData.entrySet()) {
+                            record.addContextData(entry.getKey(), entry.getValue());
+                        }
                     }
                 }
 
                 Level level = event.getLevel();
                 if (level != null) {
                     String levelName = level.name();
-                    if (levelName.isEmpty()) {
-                        logEventMap.put(LEVEL, UNKNOWN);
-                    } else {
-                        logEventMap.put(LEVEL, levelName);
-                    }
-                }
-
-                String errorStack = ExceptionUtil.getErrorStack(throwable);
-                if (errorStack != null) {
-                    logEventMap.put(ERROR_STACK, errorStack);
-                }
-
-                String errorMessage = ExceptionUtil.getErrorMessage(throwable);
-                if (errorMessage != null) {
-                    logEventMap.put(ERROR_MESSAGE, errorMessage);
-                }
-
-                String errorClass = ExceptionUtil.getErrorClass(throwable);
-                if (errorClass != null) {
-                    logEventMap.put(ERROR_CLASS, errorClass);
+                    record.setLevel(levelName.isEmpty() ? UNKNOWN : levelName);
                 }
 
-                String threadName = event.getThreadName();
-                if (threadName != null) {
-                    logEventMap.put(THREAD_NAME, threadName);
-                }
+                record.setError(ExceptionUtil.getErrorMessage(throwable), ExceptionUtil.getErrorClass(throwable), ExceptionUtil.getErrorStack(throwable));
+                record.setThreadName(event.getThreadName());
+                record.setLogger(event.getLoggerName(), event.getLoggerFqcn());
 
-                logEventMap.put(THREAD_ID, event.getThreadId());
-
-                String loggerName = event.getLoggerName();
-                if (loggerName != null) {
-                    logEventMap.put(LOGGER_NAME, loggerName);
-                }
-
-                String loggerFqcn = event.getLoggerFqcn();
-                if (loggerFqcn != null) {
-                    logEventMap.put(LOGGER_FQCN, loggerFqcn);
-                }
-
-                AgentBridge.getAgent().getLogSender().recordLogEvent(logEventMap);
+                AgentBridge.getAgent().getLogSender().recordLogEvent(record);
             }
         }
     }
@@ -122,12 +73,6 @@ public class AgentUtil {
         return (message != null) || !ExceptionUtil.isThrowableNull(throwable);
     }
 
-    private static int calculateInitialMapSize(Map<String, String> mdcPropertyMap) {
-        return AppLoggingUtils.isAppLoggingContextDataEnabled() && mdcPropertyMap != null
-                ? mdcPropertyMap.size() + DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES
-                : DEFAULT_NUM_OF_LOG_EVENT_ATTRIBUTES;
-    }
-
     /**
      * Checks pretty or compact JSON layout strings for a series of characters and returns the index of
      * the characters or -1 if they were not found. This is used to find the log "message" substring
@@ -0,0 +1,60 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent;
+
+import com.newrelic.agent.config.ConfigService;
+import com.newrelic.agent.config.ConfigServiceFactory;
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.service.ServiceManager;
+import com.newrelic.agent.service.ServiceManagerImpl;
+import com.newrelic.api.agent.Logger;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Starts the agent's services in the benchmark JVM the same way the unit tests do, but without console logging or
+ * any of the unit test fixtures.
+ */
+public final class BenchmarkAgent {
+
+    private static final String CONFIG_RESOURCE = "/benchmark_newrelic.yml";
+
+    private BenchmarkAgent() {
+    }
+
+    /**
+     * Start the service manager if it has not already been started in this JVM.
+     */
+    public static synchronized ServiceManager bootstrap() throws Exception {
+        ServiceManager serviceManager = ServiceFactory.getServiceManager();
+        if (serviceManager != null) {
+            return serviceManager;
+        }
+
+        System.setProperty("newrelic.config.file", extractConfig().getAbsolutePath());
+
+        ConfigService configService = ConfigServiceFactory.createConfigService(BenchmarkCoreService.noOp(Logger.class), false);
+        serviceManager = new ServiceManagerImpl(new BenchmarkCoreService(), configService);
+        ServiceFactory.setServiceManager(serviceManager);
+        serviceManager.start();
+        return serviceManager;
+    }
+
+    private static File extractConfig() throws Exception {
+        File configFile = File.createTempFile("newrelic-benchmark", ".yml");
+        configFile.deleteOnExit();
+        try (InputStream in = BenchmarkAgent.class.getResourceAsStream(CONFIG_RESOURCE)) {
+            Files.copy(in, configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return configFile;
+    }
+
+}
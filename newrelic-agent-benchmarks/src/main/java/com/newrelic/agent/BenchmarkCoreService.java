@@ -0,0 +1,87 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent;
+
+import com.newrelic.agent.core.CoreService;
+import com.newrelic.agent.service.AbstractService;
+import com.newrelic.agent.superagent.HealthDataChangeListener;
+import com.newrelic.agent.superagent.HealthDataProducer;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+
+/**
+ * The {@link CoreService} of the benchmark JVM. There is no real agent, so its instrumentation does nothing: no
+ * transformers are registered with the JVM and no classes are reported as loaded.
+ */
+final class BenchmarkCoreService extends AbstractService implements CoreService, HealthDataProducer {
+
+    private volatile InstrumentationProxy instrumentation;
+
+    BenchmarkCoreService() {
+        super(CoreService.class.getSimpleName());
+    }
+
+    @Override
+    public InstrumentationProxy getInstrumentation() {
+        return instrumentation;
+    }
+
+    @Override
+    public void shutdownAsync() {
+    }
+
+    @Override
+    protected void doStart() {
+        // the proxy reads the agent config, which is only available once the service manager is registered
+        instrumentation = InstrumentationProxy.getInstrumentationProxy(noOp(Instrumentation.class));
+    }
+
+    @Override
+    protected void doStop() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void registerHealthDataChangeListener(HealthDataChangeListener listener) {
+    }
+
+    /**
+     * @return an implementation of the interface whose methods do nothing and return false, zero, an empty array or null
+     */
+    static <T> T noOp(Class<T> type) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "NoOp" + type.getSimpleName();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType.isArray()) {
+                return Array.newInstance(returnType.getComponentType(), 0);
+            }
+            return null;
+        });
+        return type.cast(instance);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Transaction#getTransaction()}, which instrumentation calls on nearly every traced method, with and
+ * without a transaction on the calling thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionLookupBenchmark {
+
+    @State(Scope.Thread)
+    public static class InTransaction {
+
+        @Setup
+        public void setup() throws Exception {
+            BenchmarkAgent.bootstrap();
+            Transaction.clearTransaction();
+            Transaction.getTransaction();
+        }
+
+        @TearDown
+        public void tearDown() {
+            Transaction.clearTransaction();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NoTransaction {
+
+        @Setup
+        public void setup() throws Exception {
+            BenchmarkAgent.bootstrap();
+            Transaction.clearTransaction();
+        }
+    }
+
+    @Benchmark
+    public Transaction getTransaction(InTransaction state) {
+        return Transaction.getTransaction();
+    }
+
+    @Benchmark
+    public Transaction getTransactionIfExists(InTransaction state) {
+        return Transaction.getTransaction(false);
+    }
+
+    @Benchmark
+    public Transaction getTransactionIfExistsWithoutTransaction(NoTransaction state) {
+        return Transaction.getTransaction(false);
+    }
+
+}
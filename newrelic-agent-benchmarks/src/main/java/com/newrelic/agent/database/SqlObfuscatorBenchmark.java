@@ -0,0 +1,74 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of obfuscating SQL for slow SQL traces, explain plans and datastore span attributes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlObfuscatorBenchmark {
+
+    private static final String SHORT_SQL = "SELECT * FROM users WHERE id = 42";
+
+    private static final String LONG_SQL = "SELECT o.id, o.total, c.name, c.email FROM orders o "
+            + "INNER JOIN customers c ON o.customer_id = c.id "
+            + "WHERE o.status = 'shipped' AND o.created_at > '2020-01-01 00:00:00' AND c.country IN ('US', 'CA', 'MX') "
+            + "AND o.total BETWEEN 10.50 AND 9999.99 AND c.active = true "
+            + "/* reporting query */ ORDER BY o.created_at DESC LIMIT 100";
+
+    private static final String INSERT_SQL = "INSERT INTO events (id, name, payload, created_at) VALUES "
+            + "(1, 'signup', '{\"plan\": \"pro\", \"seats\": 12}', '2020-01-01'), "
+            + "(2, 'login', '{\"ip\": \"10.0.0.1\"}', '2020-01-02'), "
+            + "(3, 'logout', '{}', '2020-01-03')";
+
+    @Param({ "short", "long", "insert" })
+    public String statement;
+
+    @Param({ "none", "mysql", "postgresql", "oracle" })
+    public String dialect;
+
+    private SqlObfuscator obfuscator;
+    private String sql;
+
+    @Setup
+    public void setup() {
+        obfuscator = SqlObfuscator.getDefaultSqlObfuscator();
+        if ("long".equals(statement)) {
+            sql = LONG_SQL;
+        } else if ("insert".equals(statement)) {
+            sql = INSERT_SQL;
+        } else {
+            sql = SHORT_SQL;
+        }
+    }
+
+    @Benchmark
+    public String obfuscateSql() {
+        return "none".equals(dialect) ? obfuscator.obfuscateSql(sql) : obfuscator.obfuscateSql(sql, dialect);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.service.analytics;
+
+import com.newrelic.agent.BenchmarkAgent;
+import com.newrelic.agent.Transaction;
+import com.newrelic.agent.TransactionData;
+import com.newrelic.agent.config.AgentConfig;
+import com.newrelic.agent.errors.ErrorAnalyzerImpl;
+import com.newrelic.agent.errors.ErrorMessageReplacer;
+import com.newrelic.agent.model.SpanEvent;
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.stats.TransactionStats;
+import com.newrelic.agent.tracers.ClassMethodSignature;
+import com.newrelic.agent.tracers.DefaultTracer;
+import com.newrelic.agent.tracers.OtherRootTracer;
+import com.newrelic.agent.tracers.metricname.SimpleMetricNameFormat;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a finished tracer into a span event, for a leaf datastore-like tracer and for the root tracer, which
+ * also copies the transaction's attributes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracerToSpanEventBenchmark {
+
+    private TracerToSpanEvent tracerToSpanEvent;
+    private TransactionData transactionData;
+    private TransactionStats transactionStats;
+    private OtherRootTracer root;
+    private DefaultTracer child;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkAgent.bootstrap();
+        AgentConfig agentConfig = ServiceFactory.getConfigService().getDefaultAgentConfig();
+        SpanErrorBuilder spanErrorBuilder = new SpanErrorBuilder(
+                new ErrorAnalyzerImpl(agentConfig.getErrorCollectorConfig()),
+                new ErrorMessageReplacer(agentConfig.getStripExceptionConfig()));
+        tracerToSpanEvent = new TracerToSpanEvent(
+                Collections.singletonMap(agentConfig.getApplicationName(), spanErrorBuilder),
+                ServiceFactory.getEnvironmentService(),
+                new TransactionDataToDistributedTraceIntrinsics(ServiceFactory.getDistributedTraceService()),
+                spanErrorBuilder);
+
+        Transaction.clearTransaction();
+        Transaction tx = Transaction.getTransaction();
+        tx.getUserAttributes().put("customer", "benchmark");
+        tx.getAgentAttributes().put("request.method", "GET");
+
+        root = new OtherRootTracer(tx, new ClassMethodSignature(getClass().getName(), "root", "()V"), this,
+                new SimpleMetricNameFormat("OtherTransaction/Benchmark/root"));
+        tx.getTransactionActivity().tracerStarted(root);
+
+        child = new DefaultTracer(tx, new ClassMethodSignature(getClass().getName(), "child", "()V"), this);
+        tx.getTransactionActivity().tracerStarted(child);
+        child.setAgentAttribute("db.statement", "SELECT * FROM users WHERE id = ?", true);
+        child.setAgentAttribute("db.instance", "benchmark", true);
+        child.setAgentAttribute("peer.hostname", "localhost", true);
+        child.addCustomAttribute("shard", 3);
+        child.finish(Opcodes.RETURN, null);
+
+        transactionData = new TransactionData(tx, 0);
+        transactionStats = tx.getTransactionActivity().getTransactionStats();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Transaction.clearTransaction();
+    }
+
+    @Benchmark
+    public SpanEvent childSpanEvent() {
+        return tracerToSpanEvent.createSpanEvent(child, transactionData, transactionStats, false, false);
+    }
+
+    @Benchmark
+    public SpanEvent rootSpanEvent() {
+        return tracerToSpanEvent.createSpanEvent(root, transactionData, transactionStats, true, false);
+    }
+
+}
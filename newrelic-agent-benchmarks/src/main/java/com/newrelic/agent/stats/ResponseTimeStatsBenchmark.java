@@ -0,0 +1,66 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.stats;
+
+import com.newrelic.agent.BenchmarkAgent;
+import com.newrelic.agent.config.AgentConfig;
+import com.newrelic.agent.config.AgentConfigImpl;
+import com.newrelic.agent.config.HotConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording a response time, before and after the metric_debug check moved to {@link HotConfig}.
+ *
+ * The "configLookup" case performs the flattened config map lookup that every record used to do; the "hotConfig" case is
+ * the current record path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseTimeStatsBenchmark {
+
+    private AgentConfig agentConfig;
+    private ResponseTimeStatsImpl stats;
+
+    @Setup
+    public void setup() throws Exception {
+        // the hot config is read from the running config service, so record through a bootstrapped service manager
+        agentConfig = BenchmarkAgent.bootstrap().getConfigService().getDefaultAgentConfig();
+        stats = new ResponseTimeStatsImpl();
+    }
+
+    @Benchmark
+    public ResponseTimeStatsImpl configLookup() {
+        if (agentConfig.getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG)) {
+            throw new IllegalStateException();
+        }
+        stats.recordResponseTimeInNanos(1500, 1000);
+        return stats;
+    }
+
+    @Benchmark
+    public ResponseTimeStatsImpl hotConfig() {
+        stats.recordResponseTimeInNanos(1500, 1000);
+        return stats;
+    }
+
+}
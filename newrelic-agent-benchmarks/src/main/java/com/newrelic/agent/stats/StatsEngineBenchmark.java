@@ -0,0 +1,107 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.stats;
+
+import com.newrelic.agent.metric.MetricName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording into and merging {@link StatsEngine}s: the work done for every finished transaction and at every
+ * harvest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsEngineBenchmark {
+
+    private static final String SCOPE = "WebTransaction/Servlet/Benchmark";
+
+    @Param({ "default", "compact" })
+    public String engine;
+
+    @Param({ "200" })
+    public int metrics;
+
+    private MetricName[] metricNames;
+    private StatsEngine recordEngine;
+    private StatsEngine harvestEngine;
+    private StatsEngine sourceEngine;
+    private TransactionStats transactionStats;
+    private int next;
+
+    @Setup
+    public void setup() {
+        metricNames = new MetricName[metrics];
+        for (int i = 0; i < metrics; i++) {
+            metricNames[i] = i % 2 == 0 ? MetricName.create("Custom/Benchmark/metric" + i)
+                    : MetricName.create("Custom/Benchmark/metric" + i, SCOPE);
+        }
+
+        recordEngine = createEngine();
+        harvestEngine = createEngine();
+        sourceEngine = createEngine();
+        transactionStats = new TransactionStats();
+        for (int i = 0; i < metrics; i++) {
+            sourceEngine.getResponseTimeStats(metricNames[i]).recordResponseTimeInNanos(1500, 1000);
+            if (i % 10 == 0) {
+                transactionStats.getScopedStats().getOrCreateResponseTimeStats(metricNames[i].getName())
+                        .recordResponseTimeInNanos(1500, 1000);
+                transactionStats.getUnscopedStats().getOrCreateResponseTimeStats(metricNames[i].getName())
+                        .recordResponseTimeInNanos(1500, 1000);
+            }
+        }
+    }
+
+    private StatsEngine createEngine() {
+        return "compact".equals(engine) ? new CompactStatsEngine() : new StatsEngineImpl();
+    }
+
+    @Benchmark
+    public StatsEngine recordResponseTime() {
+        MetricName metricName = metricNames[next];
+        next = (next + 1) % metricNames.length;
+        recordEngine.getResponseTimeStats(metricName).recordResponseTimeInNanos(1500, 1000);
+        return recordEngine;
+    }
+
+    @Benchmark
+    public StatsEngine recordCount() {
+        MetricName metricName = metricNames[next];
+        next = (next + 1) % metricNames.length;
+        recordEngine.getStats(metricName).incrementCallCount();
+        return recordEngine;
+    }
+
+    @Benchmark
+    public StatsEngine mergeTransactionStats() {
+        harvestEngine.mergeStatsResolvingScope(transactionStats, SCOPE);
+        return harvestEngine;
+    }
+
+    @Benchmark
+    public StatsEngine mergeStatsEngine() {
+        harvestEngine.mergeStats(sourceEngine);
+        return harvestEngine;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.tracers;
+
+import com.newrelic.agent.BenchmarkAgent;
+import com.newrelic.agent.Transaction;
+import com.newrelic.agent.TransactionActivity;
+import com.newrelic.agent.tracers.metricname.SimpleMetricNameFormat;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of starting and finishing tracers. Each invocation runs a whole transaction: a root tracer with a number of child
+ * {@link DefaultTracer}s, finished in order. Finishing the root includes the synchronous part of transaction finish.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultTracerBenchmark {
+
+    private static final ClassMethodSignature ROOT_SIGNATURE = new ClassMethodSignature(
+            "com.newrelic.agent.tracers.DefaultTracerBenchmark", "root", "()V");
+    private static final ClassMethodSignature CHILD_SIGNATURE = new ClassMethodSignature(
+            "com.newrelic.agent.tracers.DefaultTracerBenchmark", "child", "()V");
+
+    @Param({ "1", "10", "100" })
+    public int childTracers;
+
+    private SimpleMetricNameFormat rootMetricName;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkAgent.bootstrap();
+        rootMetricName = new SimpleMetricNameFormat("OtherTransaction/Benchmark/root");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Transaction.clearTransaction();
+    }
+
+    @Benchmark
+    public Tracer transaction() {
+        Transaction tx = Transaction.getTransaction();
+        TransactionActivity txa = tx.getTransactionActivity();
+
+        OtherRootTracer root = new OtherRootTracer(tx, ROOT_SIGNATURE, this, rootMetricName);
+        txa.tracerStarted(root);
+        for (int i = 0; i < childTracers; i++) {
+            DefaultTracer child = new DefaultTracer(tx, CHILD_SIGNATURE, this);
+            txa.tracerStarted(child);
+            child.finish(Opcodes.RETURN, null);
+        }
+        root.finish(Opcodes.RETURN, null);
+
+        Transaction.clearTransaction();
+        return root;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.tracing;
+
+import com.newrelic.agent.Agent;
+import com.newrelic.agent.BenchmarkAgent;
+import com.newrelic.agent.interfaces.SamplingPriorityQueue;
+import com.newrelic.agent.model.PriorityAware;
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.tracers.Tracer;
+import com.newrelic.api.agent.DistributedTracePayload;
+import com.newrelic.api.agent.TransportType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing inbound distributed tracing headers: the New Relic payload, plain and base64 encoded, and the W3C
+ * traceparent header.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributedTraceParsingBenchmark {
+
+    private static final String TRUST_KEY = "67890";
+
+    private static final String PAYLOAD = "{" +
+            "\"v\":[0,1]," +
+            "\"d\":{" +
+            "\"ty\":\"App\"," +
+            "\"ac\":\"12345\"," +
+            "\"tk\":\"" + TRUST_KEY + "\"," +
+            "\"ap\":\"51424\"," +
+            "\"id\":\"27856f70d3d314b7\"," +
+            "\"tr\":\"3221bf09aa0bcf0d\"," +
+            "\"tx\":\"6d6a5cc0e7b4f9e1\"," +
+            "\"pr\":0.8521," +
+            "\"sa\":true," +
+            "\"ti\":1482959525577" +
+            "}}";
+
+    private static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    private DistributedTracePayloadParser parser;
+    private String base64Payload;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkAgent.bootstrap();
+        parser = new DistributedTracePayloadParser(ServiceFactory.getStatsService().getMetricAggregator(),
+                new TrustingDistributedTraceService(), Agent.LOG);
+        base64Payload = Base64.getEncoder().encodeToString(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public DistributedTracePayloadImpl parsePayload() {
+        return parser.parse(null, PAYLOAD);
+    }
+
+    @Benchmark
+    public DistributedTracePayloadImpl parseBase64Payload() {
+        return parser.parse(null, base64Payload);
+    }
+
+    @Benchmark
+    public W3CTraceParent parseTraceParent() {
+        return W3CTraceParentParser.parseHeader(TRACE_PARENT);
+    }
+
+    /**
+     * Accepts payloads from {@link #TRUST_KEY} without requiring a connected agent.
+     */
+    private static class TrustingDistributedTraceService implements DistributedTraceService {
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public int getMajorSupportedCatVersion() {
+            return 0;
+        }
+
+        @Override
+        public int getMinorSupportedCatVersion() {
+            return 1;
+        }
+
+        @Override
+        public String getAccountId() {
+            return "12345";
+        }
+
+        @Override
+        public String getApplicationId() {
+            return "51424";
+        }
+
+        @Override
+        public <T extends PriorityAware> float calculatePriority(Float priority, SamplingPriorityQueue<T> reservoir) {
+            return 1.0f;
+        }
+
+        @Override
+        public Map<String, Object> getIntrinsics(DistributedTracePayloadImpl inboundPayload, String guid, String traceId,
+                TransportType transportType, long parentTransportDuration, long largestTransportDuration, String parentId,
+                String parentSpanId, float priority) {
+            return null;
+        }
+
+        @Override
+        public String getTrustKey() {
+            return TRUST_KEY;
+        }
+
+        @Override
+        public DistributedTracePayload createDistributedTracePayload(Tracer tracer) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import com.newrelic.agent.MetricData;
+import com.newrelic.agent.metric.MetricName;
+import com.newrelic.agent.model.SpanEvent;
+import com.newrelic.agent.normalization.NormalizerFactory;
+import com.newrelic.agent.stats.StatsEngineImpl;
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a harvest payload to JSON and compressing it with {@link PayloadWriter}, as {@link DataSenderImpl}
+ * does before every collector request. The payloads have the same shape as the metric_data and span_event_data requests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataSenderSerializationBenchmark {
+
+    private static final Long RUN_ID = 1234567890L;
+
+    @Param({ "metric_data", "span_event_data" })
+    public String payload;
+
+    @Param({ "identity", DataSenderImpl.GZIP_ENCODING, DataSenderImpl.DEFLATE_ENCODING })
+    public String encoding;
+
+    @Param({ "1000" })
+    public int size;
+
+    private InitialSizedJsonArray params;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        if ("span_event_data".equals(payload)) {
+            List<SpanEvent> events = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                events.add(SpanEvent.builder()
+                        .appName("Benchmark")
+                        .priority(1.5f)
+                        .putIntrinsic("type", "Span")
+                        .putIntrinsic("category", "datastore")
+                        .putIntrinsic("traceId", "3221bf09aa0bcf0d")
+                        .putIntrinsic("guid", Long.toHexString(0x27856f70d3d314b7L + i))
+                        .putIntrinsic("parentId", "27856f70d3d314b7")
+                        .putIntrinsic("transactionId", "6d6a5cc0e7b4f9e1")
+                        .putIntrinsic("name", "Datastore/statement/MySQL/users/select")
+                        .putIntrinsic("duration", 0.0123f)
+                        .putAgentAttribute("db.statement", "SELECT * FROM users WHERE id = ?")
+                        .putAgentAttribute("db.instance", "benchmark")
+                        .putAgentAttribute("peer.hostname", "localhost")
+                        .timestamp(1482959525577L + i)
+                        .build());
+            }
+            JSONObject metadata = new JSONObject();
+            metadata.put("reservoir_size", size);
+            metadata.put("events_seen", size);
+
+            params = new InitialSizedJsonArray(3);
+            params.add(RUN_ID);
+            params.add(metadata);
+            params.add(events);
+        } else {
+            StatsEngineImpl statsEngine = new StatsEngineImpl();
+            for (int i = 0; i < size; i++) {
+                MetricName metricName = i % 2 == 0 ? MetricName.create("Custom/Benchmark/metric" + i)
+                        : MetricName.create("Custom/Benchmark/metric" + i, "WebTransaction/Servlet/Benchmark");
+                statsEngine.getResponseTimeStats(metricName).recordResponseTimeInNanos(1500000 + i, 1000000 + i);
+            }
+            List<MetricData> metricData = statsEngine.getMetricData(
+                    NormalizerFactory.createMetricNormalizer("Benchmark", Collections.emptyList()));
+
+            params = new InitialSizedJsonArray(4);
+            params.add(RUN_ID);
+            params.add(1482959525L);
+            params.add(1482959585L);
+            params.add(metricData);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeData() throws Exception {
+        return PayloadWriter.write(encoding, params).getData();
+    }
+
+}
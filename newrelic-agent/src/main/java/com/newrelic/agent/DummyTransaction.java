@@ -13,6 +13,7 @@ import com.newrelic.agent.bridge.TracedMethod;
 import com.newrelic.agent.bridge.WebResponse;
 import com.newrelic.agent.bridge.datastore.DatabaseVendor;
 import com.newrelic.agent.bridge.logging.LogAttributeKey;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import com.newrelic.agent.browser.BrowserTransactionState;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.CrossProcessConfig;
@@ -667,6 +668,10 @@ public class DummyTransaction extends Transaction {
         @Override
         public void recordLogEvent(Map<LogAttributeKey, ?> attributes) {
         }
+
+        @Override
+        public void recordLogEvent(LogEventRecord record) {
+        }
     }
 
     static final class DummyCrossProcessState implements CrossProcessTransactionState {
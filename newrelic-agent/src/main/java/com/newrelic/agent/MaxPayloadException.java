@@ -9,7 +9,21 @@ package com.newrelic.agent;
 
 public class MaxPayloadException extends Exception {
 
+    private final int payloadSize;
+
     public MaxPayloadException(String message) {
+        this(message, -1);
+    }
+
+    public MaxPayloadException(String message, int payloadSize) {
         super(message);
+        this.payloadSize = payloadSize;
+    }
+
+    /**
+     * @return the encoded size in bytes of the rejected payload, or -1 if unknown
+     */
+    public int getPayloadSize() {
+        return payloadSize;
     }
 }
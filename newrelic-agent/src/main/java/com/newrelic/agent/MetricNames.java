@@ -251,6 +251,10 @@ public class MetricNames {
     public static final String SUPPORTABILITY_METRIC_HARVEST_COUNT = "Supportability/MetricHarvest/count";
     public static final String AGENT_METRICS_COUNT = "Agent/Metrics/Count";
 
+    public static final String SUPPORTABILITY_STATS_SERVICE_STRIPES = "Supportability/StatsService/StripedIngest/Stripes";
+    public static final String SUPPORTABILITY_STATS_SERVICE_ACTIVE_STRIPES = "Supportability/StatsService/StripedIngest/ActiveStripes";
+    public static final String SUPPORTABILITY_STATS_SERVICE_MERGE_TIME = "Supportability/StatsService/StripedIngest/MergeTime";
+
     public static final String SUPPORTABILITY_ERROR_SERVICE_EVENT_HARVEST_INTERVAL = "Supportability/EventHarvest/TransactionError/interval";
     public static final String SUPPORTABILITY_ERROR_SERVICE_EVENT_HARVEST_TRANSMIT = "Supportability/EventHarvest/TransactionError/transmit";
 
@@ -271,6 +275,7 @@ public class MetricNames {
     public static final String SUPPORTABILITY_TRANSACTION_SIZE = "Supportability/TransactionSize";
     public static final String SUPPORTABILITY_TRANSACTION_SIZE_CLAMP = "Supportability/TransactionSizeClamp";
     public static final String SUPPORTABILITY_TRANSACTION_SEGMENT_CLAMP = "Supportability/TransactionSegmentClamp";
+    public static final String SUPPORTABILITY_TRANSACTION_ACTIVITY_SEGMENTS = "Supportability/TransactionActivity/Segments";
 
     public static final String SUPPORTABILITY_ASYNC_TOKEN_CREATE = "Supportability/Async/Token/Create";
     public static final String SUPPORTABILITY_ASYNC_TOKEN_EXPIRE = "Supportability/Async/Token/Expire";
@@ -303,6 +308,14 @@ public class MetricNames {
     public static final String SUPPORTABILITY_WEAVE_SKIPPED = "Supportability/WeaveInstrumentation/Skipped/{0}/{1}";
     public static final String SUPPORTABILITY_WEAVE_CUSTOM_SKIPPED = "Supportability/WeaveInstrumentation/Skipped/Custom/{0}/{1}";
     public static final String SUPPORTABILITY_WEAVE_CLASS = "Supportability/WeaveInstrumentation/WeaveClass/{0}/{1}";
+    public static final String SUPPORTABILITY_WEAVE_LOAD_TIME = "Supportability/WeaveInstrumentation/LoadTime";
+    public static final String SUPPORTABILITY_WEAVE_PACKAGE_LOAD_TIME = "Supportability/WeaveInstrumentation/LoadTime/{0}";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_HITS = "Supportability/WeaveInstrumentation/ClassCache/Hits";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_MISSES = "Supportability/WeaveInstrumentation/ClassCache/Misses";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_EVICTIONS = "Supportability/WeaveInstrumentation/ClassCache/Evictions";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_HITS = "Supportability/WeaveInstrumentation/ClassCache/Shared/Hits";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_EVICTIONS = "Supportability/WeaveInstrumentation/ClassCache/Shared/Evictions";
+    public static final String SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_BYTES = "Supportability/WeaveInstrumentation/ClassCache/Shared/Bytes";
 
     public static final String SUPPORTABILITY_LOADED_CLASSES_SOURCE_VERSION = "Supportability/LoadedClasses/{0}/{1}/count";
     public static final String SUPPORTABILITY_SOURCE_LANGUAGE_VERSION = "Supportability/SourceLanguage/{0}/{1}";
@@ -379,6 +392,12 @@ public class MetricNames {
     public static final String SUPPORTABILITY_TRANSACTION_REQUEST_DESTROYED = "Supportability/Transaction/RequestDestroyed";
     //This metric increments if requestInitialized was started but there was already a transaction present
     public static final String SUPPORTABILITY_TRANSACTION_REQUEST_INITIALIZED_STARTED = "Supportability/Transaction/RequestInitialized/TransactionStarted";
+    //Asynchronous transaction finish processing (transaction_finish.async)
+    public static final String SUPPORTABILITY_TRANSACTION_FINISH_QUEUE_DEPTH = "Supportability/Transaction/Finish/QueueDepth";
+    public static final String SUPPORTABILITY_TRANSACTION_FINISH_DROPPED = "Supportability/Transaction/Finish/Dropped";
+    public static final String SUPPORTABILITY_TRANSACTION_FINISH_CALLER_RUNS = "Supportability/Transaction/Finish/CallerRuns";
+    public static final String SUPPORTABILITY_TRANSACTION_FINISH_QUEUE_TIME = "Supportability/Transaction/Finish/QueueTime";
+    public static final String SUPPORTABILITY_TRANSACTION_FINISH_PROCESSING_TIME = "Supportability/Transaction/Finish/ProcessingTime";
 
     public static final String SUPPORTABILITY_CUSTOM_REQUEST_HEADER = "CustomRequestHeader/Config/RequestHeader";
     public static final String SUPPORTABILITY_CUSTOM_REQUEST_HEADER_ALIAS = "CustomRequestHeader/Config/Alias";
@@ -392,6 +411,8 @@ public class MetricNames {
 
     //This times the transform method in InstrumentationContextmanager to indicate classloading overhead
     public static final String SUPPORTABILITY_CLASSLOADER_TRANSFORM_TIME = "Supportability/Classloader/TransformTime";
+    // Classes that skipped matching because the persistent transform cache recorded them as unmodified
+    public static final String SUPPORTABILITY_TRANSFORM_CACHE_HIT = "Supportability/Classloader/TransformCache/Hit";
 
     //HTTP supportability metrics broken down by response
     public static final String SUPPORTABILITY_HTTP_CODE = "Supportability/Collector/HttpCode/{0}";
@@ -405,6 +426,12 @@ public class MetricNames {
 
     //Supportability metric indicating that the payload was too large
     public static final String SUPPORTABILITY_PAYLOAD_SIZE_EXCEEDS_MAX = "Supportability/Agent/Collector/MaxPayloadSizeLimit/{0}";
+    //Supportability metric indicating that an oversized event payload was split into smaller requests
+    public static final String SUPPORTABILITY_PAYLOAD_SPLIT = "Supportability/Agent/Collector/PayloadSplit/{0}";
+    // Supportability metrics for payloads staged while the collector was unavailable. {0} = agent endpoint
+    public static final String SUPPORTABILITY_PAYLOAD_STAGING_STAGED = "Supportability/Agent/Collector/PayloadStaging/Staged/{0}";
+    public static final String SUPPORTABILITY_PAYLOAD_STAGING_REPLAYED = "Supportability/Agent/Collector/PayloadStaging/Replayed/{0}";
+    public static final String SUPPORTABILITY_PAYLOAD_STAGING_DROPPED = "Supportability/Agent/Collector/PayloadStaging/Dropped";
 
     // Supportability metrics for uncompressed data payloads used to measure usage
     // {0} = destination (Collector, OTLP, or InfiniteTracing).
@@ -0,0 +1,103 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The {@link Transaction} and {@link TransactionActivity} bound to the current thread. Both are kept on one holder
+ * object in a single thread local, so that code needing both (every tracer start) probes the thread local map once
+ * rather than once for each.
+ *
+ * A holder is only created when something is bound to the thread, so threads that only look (including short-lived
+ * virtual threads running uninstrumented work) don't allocate one, and it is removed once neither is bound, so a pooled
+ * thread doesn't keep one after its transaction. Each field is only accessed by its own thread.
+ */
+final class ThreadTransactionContext {
+
+    private static final ThreadLocal<ThreadTransactionContext> CONTEXT = new ThreadLocal<>();
+
+    private Transaction transaction;
+    private TransactionActivity activity;
+
+    private ThreadTransactionContext() {
+    }
+
+    static Transaction getTransaction() {
+        ThreadTransactionContext context = CONTEXT.get();
+        return context == null ? null : context.transaction;
+    }
+
+    static TransactionActivity getActivity() {
+        ThreadTransactionContext context = CONTEXT.get();
+        return context == null ? null : context.activity;
+    }
+
+    static void setTransaction(Transaction transaction) {
+        ThreadTransactionContext context = CONTEXT.get();
+        if (context == null) {
+            if (transaction == null) {
+                return;
+            }
+            context = create();
+        }
+        context.transaction = transaction;
+        if (transaction == null && context.activity == null) {
+            CONTEXT.remove();
+        }
+    }
+
+    static void setActivity(TransactionActivity activity) {
+        ThreadTransactionContext context = CONTEXT.get();
+        if (context == null) {
+            if (activity == null) {
+                return;
+            }
+            context = create();
+        }
+        context.activity = activity;
+        if (activity == null && context.transaction == null) {
+            CONTEXT.remove();
+        }
+    }
+
+    /**
+     * Bind a transaction and activity to the thread together.
+     */
+    static void set(Transaction transaction, TransactionActivity activity) {
+        if (transaction == null && activity == null) {
+            CONTEXT.remove();
+            return;
+        }
+        ThreadTransactionContext context = CONTEXT.get();
+        if (context == null) {
+            context = create();
+        }
+        context.transaction = transaction;
+        context.activity = activity;
+    }
+
+    /**
+     * Unbind both the transaction and activity, dropping the holder.
+     */
+    static void clear() {
+        CONTEXT.remove();
+    }
+
+    @VisibleForTesting
+    static boolean hasContext() {
+        return CONTEXT.get() != null;
+    }
+
+    private static ThreadTransactionContext create() {
+        ThreadTransactionContext context = new ThreadTransactionContext();
+        CONTEXT.set(context);
+        return context;
+    }
+
+}
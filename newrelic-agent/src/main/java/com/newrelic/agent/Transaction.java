@@ -132,7 +132,6 @@ public class Transaction {
     ClassMethodSignatures.get().add(SCALA_API_TXN_CLASS_SIGNATURE);
     private static final String THREAD_ASSERTION_FAILURE = "Thread assertion failed!";
 
-    private static final ThreadLocal<Transaction> transactionHolder = new ThreadLocal<>();
 
     private static volatile DatabaseStatementParser databaseStatementParser;
 
@@ -1378,8 +1377,8 @@ public class Transaction {
      * TransactionActivity from its thread-local variable on the current thread.
      */
     public static void clearTransaction() {
-        transactionHolder.remove();
-        TransactionActivity.clear();
+        ThreadTransactionContext.clear();
+        Agent.LOG.log(Level.FINEST, "TransactionActivity.clear()");
         AgentBridge.activeToken.remove();
     }
 
@@ -1392,8 +1391,8 @@ public class Transaction {
      * Transaction and TransactionActivity, for example the implementation of the "start async" API method.
      */
     public static void setTransaction(Transaction tx) {
-        TransactionActivity.set(tx.initialActivity);
-        transactionHolder.set(tx);
+        ThreadTransactionContext.set(tx, tx.initialActivity);
+        Agent.LOG.log(Level.FINEST, "TransactionActivity.set({0})", tx.initialActivity);
     }
 
     /**
@@ -1432,7 +1431,7 @@ public class Transaction {
         }
 
         if (oldTx == null) {
-            oldTx = transactionHolder.get();
+            oldTx = ThreadTransactionContext.getTransaction();
         }
         if (newTx == null || newTx == oldTx) {
             Agent.LOG.log(Level.FINER, "Transaction {0}: ignoring link call because transaction already on thread.", newTx);
@@ -1495,11 +1494,11 @@ public class Transaction {
                         oldTx.ignore = true;
                         oldTx.checkExpire();
                         oldTx.checkFinishTransaction(oldTxa, oldTxaId);
-                        transactionHolder.set(null);
+                        ThreadTransactionContext.setTransaction(null);
                     }
                 }
 
-                transactionHolder.set(newTx);
+                ThreadTransactionContext.setTransaction(newTx);
                 return true;
             }
         }
@@ -1518,11 +1517,14 @@ public class Transaction {
      * created, or if the current thread is an Agent thread.
      */
     public static Transaction getTransaction(boolean createIfNotExists) {
-        Transaction tx = transactionHolder.get();
-        AgentBridge.TokenAndRefCount activeToken = AgentBridge.activeToken.get();
-        if (activeToken != null && activeToken.token != null && activeToken.token.isActive() && tx == null) {
-            WeakRefTransaction weakRefTx = (WeakRefTransaction) activeToken.token.getTransaction();
-            tx = weakRefTx.getTransactionIfExists();
+        Transaction tx = ThreadTransactionContext.getTransaction();
+        if (tx == null) {
+            // only probe for an active token when there's no transaction on the thread, which is the uncommon case
+            AgentBridge.TokenAndRefCount activeToken = AgentBridge.activeToken.get();
+            if (activeToken != null && activeToken.token != null && activeToken.token.isActive()) {
+                WeakRefTransaction weakRefTx = (WeakRefTransaction) activeToken.token.getTransaction();
+                tx = weakRefTx.getTransactionIfExists();
+            }
         }
 
         if (tx == null && createIfNotExists && !(Thread.currentThread() instanceof AgentThread)) {
@@ -1542,7 +1544,7 @@ public class Transaction {
             try {
                 tx = new Transaction();
                 tx.postConstruct();
-                transactionHolder.set(tx);
+                ThreadTransactionContext.setTransaction(tx);
             } catch (RuntimeException rex) {
                 // The exception might have been thrown after the Activity was
                 // created (in postConstruct()). Let's be careful to avoid the
@@ -2425,7 +2427,7 @@ public class Transaction {
                 }
             } finally {
                 if (!activity.isNotInThreadLocal()) {
-                    transactionHolder.remove();
+                    ThreadTransactionContext.setTransaction(null);
                 }
             }
         }
@@ -2543,7 +2545,7 @@ public class Transaction {
                 }
             } finally {
                 if (!activity.isNotInThreadLocal()) {
-                    transactionHolder.remove();
+                    ThreadTransactionContext.setTransaction(null);
                 }
             }
         }
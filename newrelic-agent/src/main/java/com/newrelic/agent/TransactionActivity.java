@@ -18,10 +18,10 @@ import com.newrelic.agent.tracers.SkipTracer;
 import com.newrelic.agent.tracers.Tracer;
 import com.newrelic.agent.tracers.TransactionActivityInitiator;
 import com.newrelic.agent.transaction.TransactionCache;
+import com.newrelic.agent.util.SegmentArray;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
@@ -39,7 +39,9 @@ import java.util.logging.Level;
  */
 public class TransactionActivity {
     public static final int NOT_REPORTED = -1;
-    private volatile List<Tracer> tracers;
+    private volatile SegmentArray<Tracer> tracers;
+    // replaces the tracers once they're released, so a late addTracer doesn't start a new list
+    private static final SegmentArray<Tracer> RELEASED_TRACERS = new SegmentArray<>();
 
     /*
      * This object has a complex life cycle. It is always created by a Transaction as the Transaction comes into
@@ -58,7 +60,7 @@ public class TransactionActivity {
     private final TransactionStats transactionStats;
 
     private Transaction transaction;
-    private final TransactionCache transactionCache;
+    private TransactionCache transactionCache;
     private final long threadId;
     private Segment segment;
 
@@ -99,30 +101,13 @@ public class TransactionActivity {
     // Used to determine if the work for this transaction activity has completed.
     private volatile boolean isDone = false;
 
-    private static final ThreadLocal<TransactionActivity> activityHolder = new ThreadLocal<TransactionActivity>() {
-        @Override
-        public TransactionActivity get() {
-            return super.get();
-        }
-
-        @Override
-        public void set(TransactionActivity value) {
-            super.set(value);
-        }
-
-        @Override
-        public void remove() {
-            super.remove();
-        }
-    };
-
     /**
      * Clear the TransactionActivity from the thread local that holds it. This is a "dangerous" interface that is
      * required for instrumentation in which the transaction+activity are multiplexed on a thread (e.g. "coroutine" or
      * "continuation" mechanisms such as Javaflow or the async servlet interface).
      */
     public static void clear() {
-        activityHolder.remove();
+        ThreadTransactionContext.setActivity(null);
         Agent.LOG.log(Level.FINEST, "TransactionActivity.clear()");
     }
 
@@ -134,25 +119,25 @@ public class TransactionActivity {
      * @param txa the new value to make current
      */
     public static void set(TransactionActivity txa) {
-        activityHolder.set(txa);
+        ThreadTransactionContext.setActivity(txa);
         Agent.LOG.log(Level.FINEST, "TransactionActivity.set({0})", txa);
     }
 
     public static TransactionActivity get() {
-        return activityHolder.get();
+        return ThreadTransactionContext.getActivity();
     }
 
     public static TransactionActivity create(Transaction transaction, int id) {
         TransactionActivity txa = new TransactionActivity(transaction, Thread.currentThread().getId(),
                 Thread.currentThread().getName(), false);
         txa.activityId = id;
-        activityHolder.set(txa);
+        ThreadTransactionContext.setActivity(txa);
         Agent.LOG.log(Level.FINE, "created {0} for {1}", txa, transaction);
         return txa;
     }
 
     /**
-     * Creates a TransactionActivity. Does not set the activity in the activityHolder; so it will not override whatever
+     * Creates a TransactionActivity. Does not bind the activity to the current thread; so it will not override whatever
      * activity is currently in progress.
      *
      * @param transaction parent transaction
@@ -188,7 +173,6 @@ public class TransactionActivity {
         TransactionTraceService ttService = ServiceFactory.getTransactionTraceService();
         tracers = null;
         transactionStats = new TransactionStats();
-        transactionCache = new TransactionCache();
         this.threadId = threadId;
         this.asyncContext = asyncContext;
         this.notInThreadLocal = notInThreadLocal;
@@ -218,7 +202,6 @@ public class TransactionActivity {
         }
         tracers = null;
         transactionStats = null;
-        transactionCache = null;
         notInThreadLocal = false;
         threadId = NOT_REPORTED;
         asyncContext = "MockThread";
@@ -259,7 +242,8 @@ public class TransactionActivity {
      * @return the current state of the tracer stack for this activity.
      */
     public List<Tracer> getTracers() {
-        return Collections.unmodifiableList(tracers == null ? Collections.<Tracer>emptyList() : tracers);
+        // a SegmentArray can't be modified through the List interface, so it doesn't need to be wrapped
+        return tracers == null ? Collections.<Tracer>emptyList() : tracers;
     }
 
     /**
@@ -413,7 +397,7 @@ public class TransactionActivity {
             transaction.activityFailedOrIgnored(this, opcode);
         } finally {
             if (!isNotInThreadLocal()) {
-                activityHolder.remove();
+                ThreadTransactionContext.setActivity(null);
             }
         }
     }
@@ -445,12 +429,14 @@ public class TransactionActivity {
                     transaction.activityFinished(this, tracer, opcode);
                 } else {
                     transaction.activityFailedOrIgnored(this, opcode);
+                    // the activity was dropped from its transaction, so nothing will read its tracers
+                    releaseTracers();
                 }
             }
             isDone = true;
         } finally {
             if (!isNotInThreadLocal()) {
-                activityHolder.remove();
+                ThreadTransactionContext.setActivity(null);
             }
         }
     }
@@ -486,9 +472,11 @@ public class TransactionActivity {
                 // transaction yet (async = true), then you will only get metrics and you will not
                 // be in the transaction trace
                 if (tracers == null) {
-                    tracers = new ArrayList<>();
+                    tracers = new SegmentArray<>();
+                }
+                if (tracers != RELEASED_TRACERS) {
+                    tracers.append(tracer);
                 }
-                tracers.add(tracer);
             }
         }
     }
@@ -694,18 +682,25 @@ public class TransactionActivity {
             rootTracer.removeTransactionSegment();
             // we can drop the current tracer list
             // we are never going to add another tracer to this and so get rid of the list
-            tracers = Collections.emptyList();
+            releaseTracers();
         }
     }
 
+    private void releaseTracers() {
+        tracers = RELEASED_TRACERS;
+    }
+
     public Tracer getRootTracer() {
         return rootTracer;
     }
 
     /**
-     * Get a cache to store objects for the life of the transaction.
+     * Get a cache to store objects for the life of the transaction. Few activities use it, so it's created on first use.
      */
     public TransactionCache getTransactionCache() {
+        if (transactionCache == null) {
+            transactionCache = new TransactionCache();
+        }
         return transactionCache;
     }
 
@@ -8,6 +8,7 @@
 package com.newrelic.agent;
 
 import com.newrelic.agent.attributes.AttributesService;
+import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.api.agent.Logs;
 import com.newrelic.api.agent.TransportType;
 import com.newrelic.agent.config.AgentConfig;
@@ -29,12 +30,14 @@ import com.newrelic.agent.transaction.TransactionTimer;
 import com.newrelic.api.agent.Insights;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
 public class TransactionData {
     private final Transaction tx;
     private final int transactionSize;
+    private volatile Map<String, String> flattenedPrefixedAttributes;
 
     public TransactionData(Transaction transaction, int transactionSize) {
         this.tx = transaction;
@@ -130,6 +133,22 @@ public class TransactionData {
         return tx.getPrefixedAgentAttributes();
     }
 
+    /**
+     * The request and message parameters keyed by their full attribute names, such as "request.parameters.id". These
+     * are built once for the transaction and shared by the events and traces created from it, which filter them for
+     * their own destination.
+     *
+     * @return an unmodifiable map
+     */
+    public Map<String, String> getFlattenedPrefixedAttributes() {
+        Map<String, String> flattened = flattenedPrefixedAttributes;
+        if (flattened == null) {
+            flattened = Collections.unmodifiableMap(AttributesUtils.appendAttributePrefixes(getPrefixedAttributes()));
+            flattenedPrefixedAttributes = flattened;
+        }
+        return flattened;
+    }
+
     public Map<String, Object> getUserAttributes() {
         return tx.getUserAttributes();
     }
@@ -9,6 +9,7 @@ package com.newrelic.agent;
 
 import com.google.common.collect.MapMaker;
 import com.newrelic.agent.attributes.AttributeNames;
+import com.newrelic.agent.config.TransactionFinishConfig;
 import com.newrelic.agent.service.AbstractService;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.stats.*;
@@ -29,11 +30,15 @@ import java.util.logging.Level;
  * - Dispatcher Transaction error during finish
  * - Dispatcher Transaction finished
  *
+ * Listeners are notified of finished transactions on the thread that finished the transaction, unless
+ * transaction_finish.async is enabled, in which case a bounded pool of worker threads notifies them.
+ *
  * This class is thread-safe.
  */
 public class TransactionService extends AbstractService {
 
     private static final String TRANSACTION_SERVICE_PROCESSOR_THREAD_NAME = "New Relic Transaction Service Processor";
+    private static final String TRANSACTION_FINISH_THREAD_NAME = "New Relic Transaction Finish Processor";
 
     private final List<TransactionListener> transactionListeners = new CopyOnWriteArrayList<>();
     private final List<ExtendedTransactionListener> extendedTransactionListeners = new CopyOnWriteArrayList<>();
@@ -47,6 +52,15 @@ public class TransactionService extends AbstractService {
     private AtomicLong txFinishedThisHarvest = new AtomicLong(0);
     private AtomicLong txCancelledThisHarvest = new AtomicLong(0);
 
+    /**
+     * Processes finished transactions off the application's threads when transaction_finish.async is enabled, else
+     * null.
+     */
+    private volatile ThreadPoolExecutor finishExecutor;
+    private volatile boolean discardOnOverflow;
+    private final AtomicLong txDroppedThisHarvest = new AtomicLong(0);
+    private final AtomicLong txCallerRunsThisHarvest = new AtomicLong(0);
+
     public TransactionService() {
         this(1, 5L, 30L, TimeUnit.SECONDS);
     }
@@ -99,8 +113,26 @@ public class TransactionService extends AbstractService {
      * processing captured by the transaction may have resulted in an error.
      */
     public void transactionFinished(TransactionData transactionData, TransactionStats transactionStats) {
+        ThreadPoolExecutor executor = finishExecutor;
+        if (executor != null) {
+            try {
+                executor.execute(new FinishedTransaction(transactionData, transactionStats, System.nanoTime()));
+                return;
+            } catch (RejectedExecutionException e) {
+                if (discardOnOverflow && !executor.isShutdown()) {
+                    txDroppedThisHarvest.incrementAndGet();
+                    updateQueue.remove(transactionData.getTransaction());
+                    return;
+                }
+                txCallerRunsThisHarvest.incrementAndGet();
+            }
+        }
+        processTransaction(transactionData, transactionStats, -1);
+    }
+
+    private void processTransaction(TransactionData transactionData, TransactionStats transactionStats, long queuedAtNanos) {
         try {
-            doProcessTransaction(transactionData, transactionStats);
+            doProcessTransaction(transactionData, transactionStats, queuedAtNanos);
             txFinishedThisHarvest.incrementAndGet();
         } catch (Exception e) {
             getLogger().log(Level.WARNING, e, "Error recording transaction \"{0}\"", transactionData.getBlameMetricName());
@@ -109,6 +141,27 @@ public class TransactionService extends AbstractService {
         }
     }
 
+    /**
+     * A finished transaction waiting for a {@link #finishExecutor} thread.
+     */
+    private final class FinishedTransaction implements Runnable {
+
+        private final TransactionData transactionData;
+        private final TransactionStats transactionStats;
+        private final long queuedAtNanos;
+
+        FinishedTransaction(TransactionData transactionData, TransactionStats transactionStats, long queuedAtNanos) {
+            this.transactionData = transactionData;
+            this.transactionStats = transactionStats;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+
+        @Override
+        public void run() {
+            processTransaction(transactionData, transactionStats, queuedAtNanos);
+        }
+    }
+
     /**
      * The transaction is completing abruptly, either because the agent encountered an internal error or because the
      * transaction's sole activity was reparented to another transaction as a result of token linking. Cancelled
@@ -127,11 +180,21 @@ public class TransactionService extends AbstractService {
         }
     }
 
-    private void doProcessTransaction(TransactionData transactionData, TransactionStats transactionStats) {
+    /**
+     * @param queuedAtNanos when the transaction was handed to the {@link #finishExecutor}, or -1 if it is being processed
+     * on the thread that finished it
+     */
+    private void doProcessTransaction(TransactionData transactionData, TransactionStats transactionStats, long queuedAtNanos) {
         if (!ServiceFactory.getServiceManager().isStarted() || !ServiceFactory.getCoreService().isEnabled()) {
             return;
         }
 
+        long startNanos = System.nanoTime();
+        if (queuedAtNanos != -1) {
+            transactionStats.getUnscopedStats().getOrCreateResponseTimeStats(MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_QUEUE_TIME)
+                    .recordResponseTimeInNanos(startNanos - queuedAtNanos);
+        }
+
         if (Agent.isDebugEnabled()) {
             getLogger().finer("Recording metrics for " + transactionData);
         }
@@ -141,6 +204,8 @@ public class TransactionService extends AbstractService {
         if (sizeLimitExceeded) {
             transactionStats.getUnscopedStats().getStats(MetricNames.SUPPORTABILITY_TRANSACTION_SIZE_CLAMP).incrementCallCount();
         }
+        transactionStats.getUnscopedStats().getStats(MetricNames.SUPPORTABILITY_TRANSACTION_ACTIVITY_SEGMENTS)
+                .recordDataPoint(countSegments(transactionData));
 
         if (transactionData.getDispatcher() != null) {
             for (TransactionListener listener : transactionListeners) {
@@ -154,6 +219,10 @@ public class TransactionService extends AbstractService {
                 getLogger().finer("Skipping transaction trace for " + transactionData);
             }
         }
+        if (queuedAtNanos != -1) {
+            transactionStats.getUnscopedStats().getOrCreateResponseTimeStats(MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_PROCESSING_TIME)
+                    .recordResponseTimeInNanos(System.nanoTime() - startNanos);
+        }
         StatsService statsService = ServiceFactory.getStatsService();
         StatsWork statsWork = new MergeStatsEngineResolvingScope(transactionData.getBlameMetricName(), transactionData.getApplicationName(), transactionStats);
         statsService.doStatsWork(statsWork, transactionData.getBlameMetricName());
@@ -164,9 +233,30 @@ public class TransactionService extends AbstractService {
         }
     }
 
+    /**
+     * The number of segments the transaction's activities kept, counted without copying them into one list as
+     * {@link TransactionData#getTracers()} does.
+     */
+    private static int countSegments(TransactionData transactionData) {
+        int segments = 0;
+        for (TransactionActivity activity : transactionData.getTransactionActivities()) {
+            segments += activity.getTracers().size();
+        }
+        return segments;
+    }
+
     @Override
     protected void doStart() {
         getLogger().finer("Transaction service starting");
+        TransactionFinishConfig finishConfig = ServiceFactory.getConfigService().getDefaultAgentConfig().getTransactionFinishConfig();
+        if (finishConfig.isAsync()) {
+            getLogger().log(Level.INFO, "Finished transactions will be processed by {0} threads", finishConfig.getWorkers());
+            discardOnOverflow = finishConfig.isDiscardOnOverflow();
+            // run as daemon to not prevent shutdown of application
+            finishExecutor = new ThreadPoolExecutor(finishConfig.getWorkers(), finishConfig.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(finishConfig.getQueueSize()),
+                    new DefaultThreadFactory(TRANSACTION_FINISH_THREAD_NAME, true), new ThreadPoolExecutor.AbortPolicy());
+        }
         ServiceFactory.getHarvestService().addHarvestListener(new HarvestListener() {
             private volatile long txStarted = 0;
             private volatile long txFinished = 0;
@@ -191,6 +281,7 @@ public class TransactionService extends AbstractService {
                 // The size() call is quite misleading because it may report entries that are
                 // actually "dead" but have not yet been collected (see docs, they say this).
                 recordTransactionSupportabilityMetrics(started, finished, cancelled);
+                recordTransactionFinishMetrics();
                 Agent.LOG.log(Level.FINE, "TransactionService: harvest: s/f/c {0}/{1}/{2}, total {3}/{4}/{5}, queue {6}",
                         started, finished, cancelled, txStarted, txFinished, txCancelled, updateQueue.size());
             }
@@ -218,9 +309,24 @@ public class TransactionService extends AbstractService {
                 MetricNames.SUPPORTABILITY_HARVEST_TRANSACTION_CANCELLED);
     }
 
+    private void recordTransactionFinishMetrics() {
+        ThreadPoolExecutor executor = finishExecutor;
+        if (executor == null) {
+            return;
+        }
+        StatsService statsService = ServiceFactory.getStatsService();
+        statsService.doStatsWork(StatsWorks.getRecordMetricWork(MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_QUEUE_DEPTH,
+                executor.getQueue().size()), MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_QUEUE_DEPTH);
+        statsService.doStatsWork(StatsWorks.getIncrementCounterWork(MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_DROPPED,
+                (int) txDroppedThisHarvest.getAndSet(0)), MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_DROPPED);
+        statsService.doStatsWork(StatsWorks.getIncrementCounterWork(MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_CALLER_RUNS,
+                (int) txCallerRunsThisHarvest.getAndSet(0)), MetricNames.SUPPORTABILITY_TRANSACTION_FINISH_CALLER_RUNS);
+    }
+
     @Override
     protected void doStop() {
         getLogger().finer("Transaction service stopping");
+        shutdownFinishExecutor();
         transactionListeners.clear();
         extendedTransactionListeners.clear();
         transactionStatsListeners.clear();
@@ -228,6 +334,27 @@ public class TransactionService extends AbstractService {
         shutdownQueue();
     }
 
+    /**
+     * Let the workers drain the transactions already handed to them. Transactions finishing after this point are
+     * processed on the threads that finish them.
+     */
+    private void shutdownFinishExecutor() {
+        ThreadPoolExecutor executor = finishExecutor;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                getLogger().finer("Timed out processing finished transactions");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void shutdownQueue() {
         getLogger().finer("Attempting graceful shutdown of transaction service");
         scheduler.shutdown();
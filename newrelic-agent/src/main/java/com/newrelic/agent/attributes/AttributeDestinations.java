@@ -0,0 +1,60 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.attributes;
+
+import com.newrelic.agent.config.AgentConfigImpl;
+
+/**
+ * Bits identifying the attribute destinations. {@link AttributesFilter#getDestinations(String)} returns the
+ * destinations an attribute is sent to as a combination of these bits.
+ */
+public final class AttributeDestinations {
+
+    public static final int ATTRIBUTES = 1;
+    public static final int ERROR_EVENTS = 1 << 1;
+    public static final int TRANSACTION_EVENTS = 1 << 2;
+    public static final int TRANSACTION_TRACES = 1 << 3;
+    public static final int BROWSER_MONITORING = 1 << 4;
+    public static final int SPAN_EVENTS = 1 << 5;
+    public static final int TRANSACTION_SEGMENTS = 1 << 6;
+
+    public static final int NONE = 0;
+    public static final int ALL = (1 << 7) - 1;
+
+    private AttributeDestinations() {
+    }
+
+    /**
+     * @param destination a destination config name, such as {@link AgentConfigImpl#SPAN_EVENTS}
+     * @return the bit for the destination, or {@link #NONE} if it isn't a known destination
+     */
+    public static int forName(String destination) {
+        if (destination == null) {
+            return NONE;
+        }
+        switch (destination) {
+            case AgentConfigImpl.ATTRIBUTES:
+                return ATTRIBUTES;
+            case AgentConfigImpl.ERROR_COLLECTOR:
+                return ERROR_EVENTS;
+            case AgentConfigImpl.TRANSACTION_EVENTS:
+                return TRANSACTION_EVENTS;
+            case AgentConfigImpl.TRANSACTION_TRACER:
+                return TRANSACTION_TRACES;
+            case AgentConfigImpl.BROWSER_MONITORING:
+                return BROWSER_MONITORING;
+            case AgentConfigImpl.SPAN_EVENTS:
+                return SPAN_EVENTS;
+            case AgentConfigImpl.TRANSACTION_SEGMENTS:
+                return TRANSACTION_SEGMENTS;
+            default:
+                return NONE;
+        }
+    }
+
+}
@@ -7,11 +7,14 @@
 
 package com.newrelic.agent.attributes;
 
-import com.google.common.collect.ImmutableMap;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.Maps;
 import com.newrelic.agent.bridge.AgentBridge;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.AgentConfigImpl;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -19,6 +22,9 @@ import java.util.logging.Level;
  * Filters attributes. While this filter does provide boolean on whether request parameter and message parameters should
  * be filtered, there is no concept of a user vs agent attribute here. This means for high security, user attributes
  * need to be turned off elsewhere.
+ *
+ * The destinations of each attribute name are worked out for every destination at once, and kept as a bit mask of
+ * {@link AttributeDestinations} in a cache shared by all destinations.
  */
 public class AttributesFilter {
 
@@ -33,7 +39,12 @@ public class AttributesFilter {
     private final DestinationFilter spanEventFilter;
     private final DestinationFilter transactionSegmentFilter;
     private final DestinationFilter browserFilter;
-    private final Map<String, DestinationFilter> destinationFilterMap;
+
+    private static final long MAX_CACHED_NAMES = 2000L;
+    // indexed by the position of the destination bit
+    private final DestinationFilter[] destinationFilters;
+    private final int enabledDestinations;
+    private final LoadingCache<String, Integer> destinationsByName;
 
     private static final String[] DEFAULT_ERROR_EVENTS_EXCLUDES = new String[] {};
     private static final String[] DEFAULT_TRANSACTION_TRACES_EXCLUDES = new String[] {};
@@ -95,15 +106,17 @@ public class AttributesFilter {
         transactionSegmentFilter = new DestinationFilter(AgentConfigImpl.TRANSACTION_SEGMENTS, true, config, defaultExcludeTransactionSegments,
                 AgentConfigImpl.TRANSACTION_SEGMENTS);
 
-        destinationFilterMap = ImmutableMap.<String, DestinationFilter>builder()
-                .put(AgentConfigImpl.ATTRIBUTES, rootFilter)
-                .put(AgentConfigImpl.ERROR_COLLECTOR, errorEventFilter)
-                .put(AgentConfigImpl.TRANSACTION_EVENTS, transactionEventFilter)
-                .put(AgentConfigImpl.TRANSACTION_TRACER, transactionTraceFilter)
-                .put(AgentConfigImpl.BROWSER_MONITORING, browserFilter)
-                .put(AgentConfigImpl.SPAN_EVENTS, spanEventFilter)
-                .put(AgentConfigImpl.TRANSACTION_SEGMENTS, transactionSegmentFilter)
-                .build();
+        // in the order of the AttributeDestinations bits
+        destinationFilters = new DestinationFilter[] { rootFilter, errorEventFilter, transactionEventFilter, transactionTraceFilter,
+                browserFilter, spanEventFilter, transactionSegmentFilter };
+        int enabledMask = AttributeDestinations.NONE;
+        for (int i = 0; i < destinationFilters.length; i++) {
+            if (destinationFilters[i].isEnabled()) {
+                enabledMask |= 1 << i;
+            }
+        }
+        enabledDestinations = enabledMask;
+        destinationsByName = Caffeine.newBuilder().maximumSize(MAX_CACHED_NAMES).executor(Runnable::run).build(this::computeDestinations);
 
         // browser is not included in this list because we will never send request params to browser monitoring
         // since the request parameters are pulled in the do finish
@@ -163,48 +176,72 @@ public class AttributesFilter {
         return transactionSegmentFilter.isEnabled();
     }
 
+    /**
+     * @return the {@link AttributeDestinations} bits of the destinations that an attribute with this name is sent to
+     */
+    public int getDestinations(String attributeName) {
+        return destinationsByName.get(attributeName);
+    }
+
+    private Integer computeDestinations(String attributeName) {
+        int destinations = AttributeDestinations.NONE;
+        for (int i = 0; i < destinationFilters.length; i++) {
+            if ((enabledDestinations & (1 << i)) != 0 && destinationFilters[i].shouldIncludeAttribute(attributeName)) {
+                destinations |= 1 << i;
+            }
+        }
+        return destinations;
+    }
+
     public Map<String, ?> filterErrorEventAttributes(Map<String, ?> values) {
-        return errorEventFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.ERROR_EVENTS);
     }
 
     public Map<String, ?> filterTransactionEventAttributes(Map<String, ?> values) {
-        return transactionEventFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.TRANSACTION_EVENTS);
     }
 
     public Map<String, ?> filterTransactionTraceAttributes(Map<String, Object> values) {
-        return transactionTraceFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.TRANSACTION_TRACES);
     }
 
     public Map<String, ?> filterBrowserAttributes(Map<String, Object> values) {
-        return browserFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.BROWSER_MONITORING);
     }
 
     public Map<String, ?> filterSpanEventAttributes(Map<String, ?> values) {
-        return spanEventFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.SPAN_EVENTS);
     }
 
     public Map<String, ?> filterTransactionSegmentAttributes(Map<String, Object> values) {
-        return transactionSegmentFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.TRANSACTION_SEGMENTS);
     }
 
     public Map<String, ?> filterAttributes(Map<String, Object> values) {
-        return rootFilter.filterAttributes(values);
+        return filterAttributes(values, AttributeDestinations.ATTRIBUTES);
     }
 
     public Map<String, ?> filterAttributesForDestination(Map<String, Object> values, String destination) {
-        DestinationFilter destinationFilter = destinationFilterMap.get(destination);
-        if (destinationFilter == null) {
+        int destinationBit = AttributeDestinations.forName(destination);
+        if (destinationBit == AttributeDestinations.NONE) {
             AgentBridge.getAgent().getLogger().log(Level.SEVERE, "Invalid destination for attribute filter {0}. Attributes are not filtered.", destination);
             return values;
         }
-        return destinationFilter.filterAttributes(values);
+        return filterAttributes(values, destinationBit);
+    }
+
+    private Map<String, ?> filterAttributes(Map<String, ?> values, final int destination) {
+        if ((enabledDestinations & destination) == 0 || values == null || values.isEmpty()) {
+            return Collections.<String, Object>emptyMap();
+        }
+        return Maps.filterKeys(values, key -> (getDestinations(key) & destination) != 0);
     }
 
     public boolean shouldIncludeSpanAttribute(String attributeName) {
-        return spanEventFilter.shouldIncludeAttribute(attributeName);
+        return (getDestinations(attributeName) & AttributeDestinations.SPAN_EVENTS) != 0;
     }
 
     public boolean shouldIncludeErrorAttribute(String attributeName) {
-        return errorEventFilter.shouldIncludeAttribute(attributeName);
+        return (getDestinations(attributeName) & AttributeDestinations.ERROR_EVENTS) != 0;
     }
 }
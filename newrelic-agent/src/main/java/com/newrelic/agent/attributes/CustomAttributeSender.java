@@ -10,7 +10,7 @@ package com.newrelic.agent.attributes;
 import com.newrelic.agent.Agent;
 import com.newrelic.agent.Transaction;
 import com.newrelic.agent.config.ConfigConstant;
-import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.config.HotConfig;
 
 import java.util.Map;
 import java.util.logging.Level;
@@ -31,7 +31,7 @@ public class CustomAttributeSender extends AttributeSender {
     protected Map<String, Object> getAttributeMap() {
         Transaction currentTxn = Transaction.getTransaction(false);
         if (currentTxn != null &&
-                ServiceFactory.getConfigService().getDefaultAgentConfig().isCustomParametersAllowed()) {
+                HotConfig.get().isCustomParametersAllowed()) {
             return currentTxn.getUserAttributes();
         } else {
             return null;
@@ -49,7 +49,7 @@ public class CustomAttributeSender extends AttributeSender {
                     return null;
                 }
             }
-            if (!ServiceFactory.getConfigService().getDefaultAgentConfig().isCustomParametersAllowed()) {
+            if (!HotConfig.get().isCustomParametersAllowed()) {
                 Agent.LOG.log(Level.FINER,
                         "Unable to add {0} attribute when {1} was invoked with key \"{2}\" while lasp custom_parameters disabled.",
                         getAttributeType(), methodCalled, key);
@@ -7,8 +7,6 @@
 
 package com.newrelic.agent.attributes;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.newrelic.agent.Agent;
 
 import java.util.LinkedList;
@@ -23,10 +21,11 @@ import java.util.logging.Level;
  * 1. First apply the mandatory rules. These are rules that must be enforced for high security. <br/>
  * 2. If no mandatory match, apply the configuration rules. <br/>
  * 3. If no config matcher, apply the defaults.
+ *
+ * Results are not cached here, {@link AttributesFilter} caches the outcome for all destinations of an attribute name.
  */
 public class DefaultDestinationPredicate implements DestinationPredicate {
 
-    private static final long MAX_CACHE_SIZE_BUFFER = 200L;
     /**
      * This is always run first. If we match any, then we are done. High security properties go in here
      */
@@ -40,10 +39,6 @@ public class DefaultDestinationPredicate implements DestinationPredicate {
      * not matched.
      */
     private final AttributesNode defaultExcludeTrie;
-    /**
-     * Holds recent keys and result values.
-     */
-    private final LoadingCache<String, Boolean> cache;
     /**
      * The destination is mainly used for logging.
      */
@@ -56,7 +51,6 @@ public class DefaultDestinationPredicate implements DestinationPredicate {
         configTrie = generateConfigTrie(dest, exclude, include);
         defaultExcludeTrie = generateDefaultTrie(dest, defaultExcludes);
         destination = dest;
-        cache = Caffeine.newBuilder().maximumSize(MAX_CACHE_SIZE_BUFFER).executor(Runnable::run).build(this::isIncluded);
     }
 
     private Boolean isIncluded(String key) {
@@ -86,7 +80,7 @@ public class DefaultDestinationPredicate implements DestinationPredicate {
      */
     @Override
     public boolean apply(String key) {
-        return changeToPrimitiveAndLog(key, cache.get(key));
+        return changeToPrimitiveAndLog(key, isIncluded(key));
     }
 
     private void logOutput(String key, boolean value) {
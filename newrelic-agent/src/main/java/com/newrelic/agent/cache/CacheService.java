@@ -8,12 +8,14 @@
 package com.newrelic.agent.cache;
 
 import com.newrelic.agent.HarvestListener;
+import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.service.AbstractService;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.stats.StatsEngine;
 import com.newrelic.agent.tracers.ClassMethodSignature;
 import com.newrelic.agent.util.MethodCache;
 import com.newrelic.agent.util.SingleClassLoader;
+import com.newrelic.weave.utils.ClassCache;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -28,6 +30,7 @@ public class CacheService extends AbstractService implements HarvestListener {
 
     private final String defaultAppName;
     private volatile long lastTimeCacheCleared = System.nanoTime();
+    private ClassCache.Stats lastClassCacheStats = ClassCache.getStats();
 
     public CacheService() {
         super(CacheService.class.getSimpleName());
@@ -76,7 +79,27 @@ public class CacheService extends AbstractService implements HarvestListener {
 
     @Override
     public void beforeHarvest(String appName, StatsEngine statsEngine) {
-        // do nothing
+        if (appName.equals(defaultAppName)) {
+            recordClassCacheMetrics(statsEngine);
+        }
+    }
+
+    /**
+     * Record the weaver's class cache activity since the last harvest.
+     */
+    private void recordClassCacheMetrics(StatsEngine statsEngine) {
+        ClassCache.Stats stats = ClassCache.getStats();
+        ClassCache.Stats last = lastClassCacheStats;
+        lastClassCacheStats = stats;
+
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_HITS).incrementCallCount((int) (stats.hits - last.hits));
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_MISSES).incrementCallCount((int) (stats.misses - last.misses));
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_EVICTIONS).incrementCallCount((int) (stats.evictions - last.evictions));
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_HITS).incrementCallCount(
+                (int) (stats.sharedHits - last.sharedHits));
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_EVICTIONS).incrementCallCount(
+                (int) (stats.sharedEvictions - last.sharedEvictions));
+        statsEngine.getStats(MetricNames.SUPPORTABILITY_WEAVE_CLASS_CACHE_SHARED_BYTES).recordDataPoint(stats.sharedBytes);
     }
 
     public SingleClassLoader getSingleClassLoader(String className) {
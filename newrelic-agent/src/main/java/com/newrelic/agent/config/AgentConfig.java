@@ -355,6 +355,8 @@ public interface AgentConfig extends com.newrelic.api.agent.Config, DataSenderCo
 
     SlowTransactionsConfig getSlowTransactionsConfig();
 
+    TransactionFinishConfig getTransactionFinishConfig();
+
     SuperAgentIntegrationConfig getSuperAgentIntegrationConfig();
 
 }
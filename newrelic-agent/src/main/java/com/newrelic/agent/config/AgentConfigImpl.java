@@ -129,6 +129,7 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
     public static final String TRANSACTION_SEGMENTS = "transaction_segments";
     public static final String TRANSACTION_TRACER = "transaction_tracer";
     public static final String SLOW_TRANSACTIONS = "slow_transactions";
+    public static final String TRANSACTION_FINISH = "transaction_finish";
 
     // defaults (alphabetized)
     public static final double DEFAULT_APDEX_T = 1.0; // 1 second
@@ -244,6 +245,7 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
     // nested configs (alphabetized)
     private final AttributesConfig attributesConfig;
     private final AuditModeConfig auditModeConfig;
+    private final PayloadStagingConfig payloadStagingConfig;
     private final TransactionTracerConfigImpl backgroundTransactionTracerConfig;
     private final BrowserMonitoringConfig browserMonitoringConfig;
     private final ClassTransformerConfig classTransformerConfig;
@@ -268,6 +270,7 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
     private final ReinstrumentConfig reinstrumentConfig;
     private final TransactionTracerConfigImpl requestTransactionTracerConfig;
     private final SlowTransactionsConfig slowTransactionsConfig;
+    private final TransactionFinishConfig transactionFinishConfig;
     private final SpanEventsConfig spanEventsConfig;
     private final SqlTraceConfig sqlTraceConfig;
     private final StripExceptionConfig stripExceptionConfig;
@@ -348,6 +351,7 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
         keyTransactionConfig = initKeyTransactionConfig(apdexTInMillis);
         sqlTraceConfig = initSqlTraceConfig();
         auditModeConfig = initAuditModeConfig();
+        payloadStagingConfig = new PayloadStagingConfig(nestedProps(PayloadStagingConfig.PROPERTY_NAME));
         browserMonitoringConfig = initBrowserMonitoringConfig();
         classTransformerConfig = initClassTransformerConfig(litemode);
         crossProcessConfig = initCrossProcessConfig();
@@ -374,6 +378,7 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
         commandParserConfig = initCommandParserConfig();
         normalizationRuleConfig = new NormalizationRuleConfig(props);
         slowTransactionsConfig = initSlowTransactionsConfig();
+        transactionFinishConfig = initTransactionFinishConfig();
         obfuscateJvmPropsConfig = initObfuscateJvmPropsConfig();
         superAgentIntegrationConfig = initSuperAgentHealthCheckConfig();
 
@@ -842,6 +847,11 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
         return new SlowTransactionsConfigImpl(props);
     }
 
+    private TransactionFinishConfig initTransactionFinishConfig() {
+        Map<String, Object> props = nestedProps(TRANSACTION_FINISH);
+        return new TransactionFinishConfigImpl(props);
+    }
+
     private SuperAgentIntegrationConfig initSuperAgentHealthCheckConfig() {
         return new SuperAgentIntegrationConfigImpl(nestedProps(SuperAgentIntegrationConfigImpl.ROOT));
     }
@@ -992,6 +1002,11 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
         return auditModeConfig;
     }
 
+    @Override
+    public PayloadStagingConfig getPayloadStagingConfig() {
+        return payloadStagingConfig;
+    }
+
     @Override
     public boolean liteMode() {
         return litemode;
@@ -1067,6 +1082,11 @@ public class AgentConfigImpl extends BaseConfig implements AgentConfig {
         return slowTransactionsConfig;
     }
 
+    @Override
+    public TransactionFinishConfig getTransactionFinishConfig() {
+        return transactionFinishConfig;
+    }
+
     @Override
     public SuperAgentIntegrationConfig getSuperAgentIntegrationConfig() {
         return superAgentIntegrationConfig;
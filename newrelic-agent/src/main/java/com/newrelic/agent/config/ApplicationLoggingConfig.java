@@ -56,6 +56,14 @@ public interface ApplicationLoggingConfig {
      */
     int getMaxSamplesStored();
 
+    /**
+     * Store LogEvents in a lock free ring buffer rather than a priority queue. Once the buffer is full, new LogEvents
+     * replace lower priority ones on a best effort basis instead of strictly keeping the highest priorities.
+     *
+     * @return true if LogEvents are stored in a ring buffer, otherwise false
+     */
+    boolean isForwardingRingBufferEnabled();
+
     /**
      * Get the include list for context data.
      *
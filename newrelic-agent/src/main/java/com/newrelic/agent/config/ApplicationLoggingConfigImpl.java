@@ -21,6 +21,7 @@ import static com.newrelic.agent.config.AgentConfigImpl.APPLICATION_LOGGING;
  *   forwarding:
  *     enabled: true
  *     max_samples_stored: 10000
+ *     ring_buffer: false
  *     context_data:
  *       enabled: false
  *       include:
@@ -100,6 +101,11 @@ public class ApplicationLoggingConfigImpl extends BaseConfig implements Applicat
         return applicationLoggingForwardingConfig.getMaxSamplesStored();
     }
 
+    @Override
+    public boolean isForwardingRingBufferEnabled() {
+        return applicationLoggingForwardingConfig.isRingBuffer();
+    }
+
     @Override
     public boolean isForwardingContextDataEnabled() {
         return applicationLoggingEnabled && applicationLoggingForwardingConfig.isContextDataEnabled();
@@ -20,12 +20,15 @@ public class ApplicationLoggingForwardingConfig extends BaseConfig {
     public static final String ROOT = "forwarding";
     public static final String ENABLED = "enabled";
     public static final String MAX_SAMPLES_STORED = "max_samples_stored";
+    public static final String RING_BUFFER = "ring_buffer";
 
     public static final boolean DEFAULT_ENABLED = true;
     public static final int DEFAULT_MAX_SAMPLES_STORED = 10000;
+    public static final boolean DEFAULT_RING_BUFFER = false;
 
     private final boolean enabled;
     private final int maxSamplesStored;
+    private final boolean ringBuffer;
     private final ApplicationLoggingContextDataConfig contextDataConfig;
 
     public ApplicationLoggingForwardingConfig(Map<String, Object> props, String parentRoot, boolean highSecurity) {
@@ -33,6 +36,7 @@ public class ApplicationLoggingForwardingConfig extends BaseConfig {
         maxSamplesStored = initMaxSamplesStored();
         boolean storedMoreThan0 = maxSamplesStored > 0;
         enabled = storedMoreThan0 && !highSecurity && getProperty(ENABLED, DEFAULT_ENABLED);
+        ringBuffer = getProperty(RING_BUFFER, DEFAULT_RING_BUFFER);
         contextDataConfig = createContextDataConfig(highSecurity);
     }
 
@@ -59,6 +63,10 @@ public class ApplicationLoggingForwardingConfig extends BaseConfig {
         return maxSamplesStored;
     }
 
+    public boolean isRingBuffer() {
+        return ringBuffer;
+    }
+
     public boolean isContextDataEnabled() {
         return enabled && contextDataConfig.getEnabled();
     }
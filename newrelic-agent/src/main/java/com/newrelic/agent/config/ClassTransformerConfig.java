@@ -108,4 +108,20 @@ public interface ClassTransformerConfig extends Config {
     boolean isDefaultMethodTracingEnabled();
 
     boolean isEnhancedSpringTransactionNaming();
+
+    /**
+     * Returns true when classes that were examined and left unmodified should be recorded in a file under the agent
+     * directory, so that later JVMs started with the same agent version, weave packages and configuration can skip
+     * matching them. Classes of application classloaders are only recorded when the classloader is a URLClassLoader with
+     * nothing but jar files on its class path, such as Spring Boot's launcher; classloaders with directories on their
+     * class path (exploded webapps) or of other kinds are always matched. Disabled by default.
+     *
+     * @return true if the persistent transform cache should be used
+     */
+    boolean isTransformCacheEnabled();
+
+    /**
+     * @return the number of classes the persistent transform cache can hold
+     */
+    int getTransformCacheSize();
 }
@@ -46,6 +46,8 @@ final class ClassTransformerConfigImpl extends BaseConfig implements ClassTransf
     public static final String SHUTDOWN_DELAY = "shutdown_delay";
     public static final String GRANT_PACKAGE_ACCESS = "grant_package_access";
     public static final String ENHANCED_SPRING_TRANSACTION_NAMING = "enhanced_spring_transaction_naming";
+    public static final String TRANSFORM_CACHE_ENABLED = "transform_cache_enabled";
+    public static final String TRANSFORM_CACHE_SIZE = "transform_cache_size";
     public static final boolean DEFAULT_COMPUTE_FRAMES = true;
     public static final boolean DEFAULT_ENABLED = true;
     public static final boolean DEFAULT_DISABLED = false;
@@ -55,6 +57,8 @@ final class ClassTransformerConfigImpl extends BaseConfig implements ClassTransf
     public static final boolean DEFAULT_PREVALIDATE_WEAVE_PACKAGES = true;
     public static final boolean DEFAULT_PREMATCH_WEAVE_METHODS = true;
     public static final boolean DEFAULT_ENHANCED_SPRING_TRANSACTION_NAMING = false;
+    public static final boolean DEFAULT_TRANSFORM_CACHE_ENABLED = false;
+    public static final int DEFAULT_TRANSFORM_CACHE_SIZE = 262144;
 
     private static final String SYSTEM_PROPERTY_ROOT = "newrelic.config.class_transformer.";
 
@@ -98,6 +102,8 @@ final class ClassTransformerConfigImpl extends BaseConfig implements ClassTransf
     private final boolean preValidateWeavePackages;
     private final boolean preMatchWeaveMethods;
     private final boolean isEnhancedSpringTransactionNaming;
+    private final boolean transformCacheEnabled;
+    private final int transformCacheSize;
 
     private final AnnotationMatcher ignoreTransactionAnnotationMatcher;
     private final AnnotationMatcher ignoreApdexAnnotationMatcher;
@@ -128,6 +134,8 @@ final class ClassTransformerConfigImpl extends BaseConfig implements ClassTransf
         defaultMethodTracingEnabled = getProperty("default_method_tracing_enabled", true);
         autoAsyncLinkRateLimit = getProperty("auto_async_link_rate_limit", TimeUnit.SECONDS.toMillis(1));
         isEnhancedSpringTransactionNaming = getProperty(ENHANCED_SPRING_TRANSACTION_NAMING, DEFAULT_ENHANCED_SPRING_TRANSACTION_NAMING);
+        transformCacheEnabled = getProperty(TRANSFORM_CACHE_ENABLED, DEFAULT_TRANSFORM_CACHE_ENABLED);
+        transformCacheSize = getIntProperty(TRANSFORM_CACHE_SIZE, DEFAULT_TRANSFORM_CACHE_SIZE);
 
         this.traceAnnotationMatcher = customTracingEnabled ? initializeTraceAnnotationMatcher(props) : new NoMatchAnnotationMatcher();
         this.ignoreTransactionAnnotationMatcher = new ClassNameAnnotationMatcher(AnnotationNames.NEW_RELIC_IGNORE_TRANSACTION, false);
@@ -403,4 +411,14 @@ final class ClassTransformerConfigImpl extends BaseConfig implements ClassTransf
     public boolean isDefaultMethodTracingEnabled() {
         return defaultMethodTracingEnabled;
     }
+
+    @Override
+    public boolean isTransformCacheEnabled() {
+        return transformCacheEnabled;
+    }
+
+    @Override
+    public int getTransformCacheSize() {
+        return transformCacheSize;
+    }
 }
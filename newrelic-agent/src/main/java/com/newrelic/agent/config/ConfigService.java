@@ -29,6 +29,15 @@ public interface ConfigService extends Service {
      */
     AgentConfig getDefaultAgentConfig();
 
+    /**
+     * Get the snapshot of the default Agent configuration values read on the agent's hottest paths.
+     *
+     * @return the snapshot of the current default Agent configuration
+     */
+    default HotConfig getHotConfig() {
+        return HotConfig.create(getDefaultAgentConfig());
+    }
+
     /**
      * Get the local Agent configuration. This does not include server-side configuration.
      *
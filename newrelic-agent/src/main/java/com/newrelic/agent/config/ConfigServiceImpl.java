@@ -43,6 +43,7 @@ public class ConfigServiceImpl extends AbstractService implements ConfigService,
     private final boolean checkConfig;
     private volatile long lastModified;
     private volatile AgentConfig defaultAgentConfig;
+    private volatile HotConfig hotConfig;
     private volatile AgentConfig localAgentConfig;
     private volatile Map<String, Object> savedServerData;
     private volatile Map<String, Boolean> laspPolicies;
@@ -68,6 +69,7 @@ public class ConfigServiceImpl extends AbstractService implements ConfigService,
         this.checkConfig = checkConfig;
         defaultAgentConfig = localAgentConfig;
         defaultAppName = defaultAgentConfig.getApplicationName();
+        hotConfig = HotConfig.create(defaultAgentConfig);
     }
 
     @Override
@@ -147,6 +149,11 @@ public class ConfigServiceImpl extends AbstractService implements ConfigService,
         return defaultAgentConfig;
     }
 
+    @Override
+    public HotConfig getHotConfig() {
+        return hotConfig;
+    }
+
     @Override
     public AgentConfig getLocalAgentConfig() {
         return localAgentConfig;
@@ -293,6 +300,7 @@ public class ConfigServiceImpl extends AbstractService implements ConfigService,
 
         if (appName == null || appName.equals(defaultAppName)) {
             defaultAgentConfig = agentConfig;
+            hotConfig = HotConfig.create(agentConfig);
         } else {
             agentConfigs.put(appName, agentConfig);
         }
@@ -59,6 +59,11 @@ public interface DataSenderConfig {
 
     AuditModeConfig getAuditModeConfig();
 
+    /**
+     * Config for staging payloads that couldn't be delivered, so they can be sent once the collector is reachable.
+     */
+    PayloadStagingConfig getPayloadStagingConfig();
+
     /**
      * Get the license key.
      */
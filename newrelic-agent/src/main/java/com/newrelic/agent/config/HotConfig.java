@@ -0,0 +1,90 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.config;
+
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.service.ServiceManager;
+
+/**
+ * An immutable snapshot of the configuration values read on the agent's hottest paths: recording metric stats, finishing
+ * tracers and adding custom attributes. Reading a field of the current snapshot replaces a walk of the flattened config
+ * map on every call.
+ *
+ * Each {@link ConfigService} owns the snapshot of its default application's {@link AgentConfig}, recompiled every time
+ * that config is replaced. {@link #get()} reads the snapshot of the config service the agent is running with.
+ *
+ * This class is thread-safe.
+ */
+public final class HotConfig {
+
+    private static final HotConfig DEFAULT = new HotConfig(AgentConfigImpl.DEFAULT_METRIC_DEBUG,
+            CodeLevelMetricsConfigImpl.DEFAULT_ENABLED, true);
+
+    private final boolean metricDebug;
+    private final boolean codeLevelMetricsEnabled;
+    private final boolean customParametersAllowed;
+
+    private HotConfig(boolean metricDebug, boolean codeLevelMetricsEnabled, boolean customParametersAllowed) {
+        this.metricDebug = metricDebug;
+        this.codeLevelMetricsEnabled = codeLevelMetricsEnabled;
+        this.customParametersAllowed = customParametersAllowed;
+    }
+
+    /**
+     * @return the snapshot of the running config service's default agent config, or of the default settings if there is
+     * no config service
+     */
+    public static HotConfig get() {
+        ServiceManager serviceManager = ServiceFactory.getServiceManager();
+        ConfigService configService = serviceManager == null ? null : serviceManager.getConfigService();
+        HotConfig hotConfig = configService == null ? null : configService.getHotConfig();
+        return hotConfig == null ? DEFAULT : hotConfig;
+    }
+
+    /**
+     * @return a snapshot compiled from the given config, or of the default settings if it is null
+     */
+    static HotConfig create(AgentConfig agentConfig) {
+        if (agentConfig == null) {
+            return DEFAULT;
+        }
+        CodeLevelMetricsConfig codeLevelMetricsConfig = agentConfig.getCodeLevelMetricsConfig();
+        return new HotConfig(
+                agentConfig.getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG),
+                codeLevelMetricsConfig == null ? CodeLevelMetricsConfigImpl.DEFAULT_ENABLED : codeLevelMetricsConfig.isEnabled(),
+                agentConfig.isCustomParametersAllowed());
+    }
+
+    /**
+     * @see AgentConfigImpl#METRIC_DEBUG
+     */
+    public boolean isMetricDebug() {
+        return metricDebug;
+    }
+
+    /**
+     * @see CodeLevelMetricsConfig#isEnabled()
+     */
+    public boolean isCodeLevelMetricsEnabled() {
+        return codeLevelMetricsEnabled;
+    }
+
+    /**
+     * @see AgentConfig#isCustomParametersAllowed()
+     */
+    public boolean isCustomParametersAllowed() {
+        return customParametersAllowed;
+    }
+
+    @Override
+    public String toString() {
+        return "HotConfig [metricDebug=" + metricDebug + ", codeLevelMetricsEnabled=" + codeLevelMetricsEnabled
+                + ", customParametersAllowed=" + customParametersAllowed + "]";
+    }
+
+}
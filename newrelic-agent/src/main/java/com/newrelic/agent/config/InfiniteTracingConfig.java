@@ -24,6 +24,16 @@ public interface InfiniteTracingConfig {
 
     boolean getUseBatching();
 
+    /**
+     * @return the number of threads converting and sending span events to the trace observer
+     */
+    int getSenders();
+
+    /**
+     * @return the number of gRPC streams the senders share, never more than {@link #getSenders()}
+     */
+    int getStreams();
+
     boolean isEnabled();
 
 }
@@ -26,6 +26,10 @@ public class InfiniteTracingConfigImpl extends BaseConfig implements InfiniteTra
     public static final boolean DEFAULT_USE_COMPRESSION = true;
     public static final String USE_BATCHING = "batching";
     public static final boolean DEFAULT_USE_BATCHING = true;
+    public static final String SENDERS = "senders";
+    public static final int DEFAULT_SENDERS = 1;
+    public static final String STREAMS = "streams";
+    public static final int DEFAULT_STREAMS = 1;
 
     static final String SYSTEM_PROPERTY_ROOT = AgentConfigImpl.SYSTEM_PROPERTY_ROOT + ROOT + ".";
 
@@ -97,6 +101,16 @@ public class InfiniteTracingConfigImpl extends BaseConfig implements InfiniteTra
         return getProperty(USE_BATCHING, DEFAULT_USE_BATCHING);
     }
 
+    @Override
+    public int getSenders() {
+        return Math.max(1, getIntProperty(SENDERS, DEFAULT_SENDERS));
+    }
+
+    @Override
+    public int getStreams() {
+        return Math.max(1, Math.min(getSenders(), getIntProperty(STREAMS, DEFAULT_STREAMS)));
+    }
+
     @Override
     public boolean isEnabled() {
         if (!getTraceObserverHost().isEmpty() && autoAppNamingEnabled) {
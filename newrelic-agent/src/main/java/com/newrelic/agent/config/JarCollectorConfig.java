@@ -32,4 +32,26 @@ public interface JarCollectorConfig {
      */
     int getJarsPerSecond();
 
+    /**
+     * True if jars should not be analyzed until the first harvest, so that reading them doesn't compete with
+     * application startup. Jars seen before then are queued.
+     *
+     * @return <code>true</code> if jar analysis is deferred.
+     */
+    boolean isDeferAnalysis();
+
+    /**
+     * The maximum number of kilobytes per second read from jars to compute their checksums. Zero or less is unbounded.
+     *
+     * @return The kilobytes per second read from jars.
+     */
+    int getMaxReadKbPerSecond();
+
+    /**
+     * A file in which analyzed jars are cached between agent runs, keyed by path, modification time and size.
+     *
+     * @return The path of the cache file, or null if jars are not cached.
+     */
+    String getCacheFile();
+
 }
@@ -16,10 +16,15 @@ public class JarCollectorConfigImpl extends BaseConfig implements JarCollectorCo
     public static final String ENABLED = "enabled";
     public static final String SKIP_TEMP_JARS = "skip_temp_jars";
     public static final String JARS_PER_SECOND = "jars_per_second";
+    public static final String DEFER_ANALYSIS = "defer_analysis";
+    public static final String MAX_READ_KB_PER_SECOND = "max_read_kb_per_second";
+    public static final String CACHE_FILE = "cache_file";
 
     public static final boolean DEFAULT_ENABLED = Boolean.TRUE;
     public static final boolean DEFAULT_SKIP_TEMP_JARS = Boolean.TRUE;
     public static final int DEFAULT_JARS_PER_SECOND = 10;
+    public static final boolean DEFAULT_DEFER_ANALYSIS = Boolean.FALSE;
+    public static final int DEFAULT_MAX_READ_KB_PER_SECOND = 0; // unbounded
 
     // The newrelic.config.module root shouldn't be used but is kept for backwards compatibility
     public static final String SYSTEM_PROPERTY_ROOT_DEPRECATED = "newrelic.config.module."; // NEW_RELIC_MODULE_
@@ -29,12 +34,18 @@ public class JarCollectorConfigImpl extends BaseConfig implements JarCollectorCo
     private final boolean isEnabled;
     private final boolean skipTempJars;
     private final Integer jarsPerSecond;
+    private final boolean deferAnalysis;
+    private final Integer maxReadKbPerSecond;
+    private final String cacheFile;
 
     public JarCollectorConfigImpl(Map<String, Object> pProps) {
         super(pProps, SYSTEM_PROPERTY_ROOT);
         isEnabled = getProperty(ENABLED, DEFAULT_ENABLED);
         skipTempJars = getProperty(SKIP_TEMP_JARS, DEFAULT_SKIP_TEMP_JARS);
         jarsPerSecond = getProperty(JARS_PER_SECOND, DEFAULT_JARS_PER_SECOND);
+        deferAnalysis = getProperty(DEFER_ANALYSIS, DEFAULT_DEFER_ANALYSIS);
+        maxReadKbPerSecond = getProperty(MAX_READ_KB_PER_SECOND, DEFAULT_MAX_READ_KB_PER_SECOND);
+        cacheFile = getProperty(CACHE_FILE);
     }
 
     // This method gets hit multiple times due to merging local and server side configs
@@ -60,6 +71,21 @@ public class JarCollectorConfigImpl extends BaseConfig implements JarCollectorCo
         return jarsPerSecond;
     }
 
+    @Override
+    public boolean isDeferAnalysis() {
+        return deferAnalysis;
+    }
+
+    @Override
+    public int getMaxReadKbPerSecond() {
+        return maxReadKbPerSecond;
+    }
+
+    @Override
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
     @Override
     protected Object getPropertyFromSystemEnvironment(String name, Object defaultVal) {
         return getMergedValue(name, true);
@@ -0,0 +1,53 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.config;
+
+import java.util.Map;
+
+/**
+ * Config for staging harvest payloads outside the Java heap while the collector can't be reached.
+ *
+ * <pre>
+ * payload_staging:
+ *   enabled: true
+ *   max_bytes: 16777216
+ * </pre>
+ *
+ * The payloads are kept in a direct buffer of max_bytes, which is shared by the whole process and allocated when the
+ * first payload is staged.
+ */
+public class PayloadStagingConfig extends BaseConfig {
+
+    public static final String PROPERTY_NAME = "payload_staging";
+    public static final String NESTED_PROPERTY_ROOT = "newrelic.config." + PROPERTY_NAME + ".";
+    public static final String ENABLED = "enabled";
+    public static final boolean DEFAULT_ENABLED = false;
+    public static final String MAX_BYTES = "max_bytes";
+    public static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    private final boolean isEnabled;
+    private final int maxBytes;
+
+    public PayloadStagingConfig(Map<String, Object> props) {
+        super(props, NESTED_PROPERTY_ROOT);
+        this.isEnabled = getProperty(ENABLED, DEFAULT_ENABLED);
+        this.maxBytes = Math.max(0, getIntProperty(MAX_BYTES, DEFAULT_MAX_BYTES));
+    }
+
+    public boolean isEnabled() {
+        return isEnabled && maxBytes > 0;
+    }
+
+    /**
+     * @return the most payload bytes that will be staged before the oldest payloads are dropped
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+}
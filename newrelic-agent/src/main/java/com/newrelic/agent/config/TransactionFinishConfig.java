@@ -0,0 +1,36 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.config;
+
+import com.newrelic.agent.TransactionService;
+
+public interface TransactionFinishConfig {
+
+    /**
+     * True if the {@link TransactionService} should hand finished transactions to a pool of worker threads instead of
+     * notifying its listeners on the thread that finished the transaction.
+     */
+    boolean isAsync();
+
+    /**
+     * The number of worker threads processing finished transactions when {@link #isAsync()} is true.
+     */
+    int getWorkers();
+
+    /**
+     * The number of finished transactions that can wait for a worker.
+     */
+    int getQueueSize();
+
+    /**
+     * True if a finished transaction that doesn't fit in the queue should be dropped, false if it should be processed
+     * on the thread that finished it.
+     */
+    boolean isDiscardOnOverflow();
+
+}
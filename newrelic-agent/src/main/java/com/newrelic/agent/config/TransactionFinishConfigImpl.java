@@ -0,0 +1,71 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.config;
+
+import java.util.Map;
+
+/*
+ * Default config should look like:
+ *
+ * transaction_finish:
+ *   async: false
+ *   workers: 2
+ *   queue_size: 10000
+ *   overflow_policy: caller_runs
+ */
+public class TransactionFinishConfigImpl extends BaseConfig implements TransactionFinishConfig {
+
+    public static final String ROOT = "transaction_finish";
+    public static final String SYSTEM_PROPERTY_ROOT = "newrelic.config." + ROOT + ".";
+    public static final String ASYNC = "async";
+    public static final String WORKERS = "workers";
+    public static final String QUEUE_SIZE = "queue_size";
+    public static final String OVERFLOW_POLICY = "overflow_policy";
+
+    public static final String CALLER_RUNS_POLICY = "caller_runs";
+    public static final String DISCARD_POLICY = "discard";
+
+    public static final boolean DEFAULT_ASYNC = false;
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+    public static final String DEFAULT_OVERFLOW_POLICY = CALLER_RUNS_POLICY;
+
+    private final boolean isAsync;
+    private final int workers;
+    private final int queueSize;
+    private final boolean discardOnOverflow;
+
+    public TransactionFinishConfigImpl(Map<String, Object> pProps) {
+        super(pProps, SYSTEM_PROPERTY_ROOT);
+        isAsync = getProperty(ASYNC, DEFAULT_ASYNC);
+        workers = Math.max(1, getIntProperty(WORKERS, DEFAULT_WORKERS));
+        queueSize = Math.max(1, getIntProperty(QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+        discardOnOverflow = DISCARD_POLICY.equalsIgnoreCase(getProperty(OVERFLOW_POLICY, DEFAULT_OVERFLOW_POLICY));
+    }
+
+    @Override
+    public boolean isAsync() {
+        return isAsync;
+    }
+
+    @Override
+    public int getWorkers() {
+        return workers;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    @Override
+    public boolean isDiscardOnOverflow() {
+        return discardOnOverflow;
+    }
+
+}
@@ -38,6 +38,7 @@ public final class TransactionTracerConfigImpl extends BaseConfig implements Tra
     public static final String MAX_STACK_TRACE = "max_stack_trace";
     public static final String OBFUSCATED_SQL_FIELDS = "obfuscated_sql_fields";
     public static final String RECORD_SQL = "record_sql";
+    public static final String SQL_OBFUSCATOR = "sql_obfuscator";
     @Deprecated
     public static final String SLOW_QUERY_WHITELIST = "slow_query_whitelist";
     public static final String COLLECT_SLOW_QUERIES_FROM = "collect_slow_queries_from";
@@ -56,6 +57,7 @@ public final class TransactionTracerConfigImpl extends BaseConfig implements Tra
     public static final int DEFAULT_MAX_EXPLAIN_PLANS = 20;
     public static final int DEFAULT_MAX_STACK_TRACE = 20;
     public static final String DEFAULT_RECORD_SQL = SqlObfuscator.OBFUSCATED_SETTING;
+    public static final String DEFAULT_SQL_OBFUSCATOR = SqlObfuscator.REGEX_ENGINE;
     public static final int DEFAULT_SEGMENT_LIMIT = 3000;
     public static final double DEFAULT_STACK_TRACE_THRESHOLD = 0.5d; // seconds
     public static final String DEFAULT_TRANSACTION_THRESHOLD = APDEX_F;
@@ -70,6 +72,7 @@ public final class TransactionTracerConfigImpl extends BaseConfig implements Tra
     private final boolean isExplainEnabled;
     private final boolean isLogSql;
     private final String recordSql;
+    private final String sqlObfuscator;
     private final Set<String> collectSlowQueriesFromModules;
     private final double explainThreshold;
     private final double explainThresholdInNanos;
@@ -95,6 +98,7 @@ public final class TransactionTracerConfigImpl extends BaseConfig implements Tra
         // recordSql must be off or obfuscated if high security is true
         recordSql = initRecordSql(highSecurity).intern(); // some code does an identity equals (==) on this value
         isExplainEnabled = initExplainEnabled(RecordSql.get(recordSql));
+        sqlObfuscator = getProperty(SQL_OBFUSCATOR, DEFAULT_SQL_OBFUSCATOR).toLowerCase();
         collectSlowQueriesFromModules = initCollectSlowQueriesFrom(highSecurity);
         explainThreshold = getDoubleProperty(EXPLAIN_THRESHOLD, DEFAULT_EXPLAIN_THRESHOLD) * 1000;
         explainThresholdInNanos = TimeUnit.NANOSECONDS.convert((long) explainThreshold, TimeUnit.MILLISECONDS);
@@ -256,6 +260,11 @@ public final class TransactionTracerConfigImpl extends BaseConfig implements Tra
         return recordSql;
     }
 
+    @Override
+    public String getSqlObfuscator() {
+        return sqlObfuscator;
+    }
+
     @Override
     public Set<String> getCollectSlowQueriesFromModules() {
         return collectSlowQueriesFromModules;
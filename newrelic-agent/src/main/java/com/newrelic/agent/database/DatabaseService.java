@@ -106,7 +106,7 @@ public class DatabaseService extends AbstractService implements AgentConfigListe
         if (SqlObfuscator.RAW_SETTING.equals(recordSql)) {
             return SqlObfuscator.getNoObfuscationSqlObfuscator();
         }
-        return SqlObfuscator.getDefaultSqlObfuscator();
+        return SqlObfuscator.getSqlObfuscator(ttConfig.getSqlObfuscator());
     }
 
     private void logConfig(String appName, TransactionTracerConfig ttConfig) {
@@ -0,0 +1,514 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.database;
+
+/**
+ * A single pass replacement for the regular expressions in {@link SqlObfuscator.DefaultSqlObfuscator}. Each literal and
+ * comment form has a hand written matcher that accepts exactly what its regular expression accepts, and at every
+ * position the matchers are tried in the same order the regular expression alternation tries them, so the output is
+ * identical. None of the matchers backtrack, and the only allocation is the builder for the obfuscated statement.
+ *
+ * The matchers follow the jregex semantics the regular expressions are run with: word characters and digits are ASCII
+ * only, {@code $} also matches before a final \n or \r\n, and a {@code \b} where the previous match ended sees no
+ * word character before it.
+ *
+ * This class is thread-safe.
+ */
+final class SqlObfuscationLexer {
+
+    private static final int SINGLE_QUOTE = 1;
+    private static final int DOUBLE_QUOTE = 1 << 1;
+    private static final int DOLLAR_QUOTE = 1 << 2;
+    private static final int ORACLE_QUOTE = 1 << 3;
+    private static final int UUID = 1 << 4;
+    private static final int HEX = 1 << 5;
+    private static final int BOOLEAN = 1 << 6;
+
+    // unmatched tokens that cause the whole statement to be replaced with ?
+    private static final int UNMATCHED_DOUBLE_QUOTE = 1 << 10;
+    private static final int UNMATCHED_DOLLAR = 1 << 11;
+    private static final int UNMATCHED_DOLLAR_NOT_PLACEHOLDER = 1 << 12;
+
+    private static final int UUID_DIGITS = 32;
+
+    static final SqlObfuscationLexer ALL_DIALECTS = new SqlObfuscationLexer(SINGLE_QUOTE | DOUBLE_QUOTE | DOLLAR_QUOTE
+            | ORACLE_QUOTE | UUID | HEX | BOOLEAN | UNMATCHED_DOUBLE_QUOTE | UNMATCHED_DOLLAR);
+    static final SqlObfuscationLexer MYSQL = new SqlObfuscationLexer(SINGLE_QUOTE | DOUBLE_QUOTE | HEX | BOOLEAN
+            | UNMATCHED_DOUBLE_QUOTE);
+    static final SqlObfuscationLexer POSTGRES = new SqlObfuscationLexer(SINGLE_QUOTE | DOLLAR_QUOTE | UUID | BOOLEAN
+            | UNMATCHED_DOLLAR_NOT_PLACEHOLDER);
+    static final SqlObfuscationLexer ORACLE = new SqlObfuscationLexer(SINGLE_QUOTE | ORACLE_QUOTE);
+
+    private final int features;
+
+    private SqlObfuscationLexer(int features) {
+        this.features = features;
+    }
+
+    /**
+     * @return the lexer for the dialect, or {@link #ALL_DIALECTS} if the dialect is not known
+     */
+    static SqlObfuscationLexer forDialect(String dialect) {
+        if (dialect.equals("mysql")) {
+            return MYSQL;
+        } else if (dialect.equals("postgresql") || dialect.equals("postgres")) {
+            return POSTGRES;
+        } else if (dialect.equals("oracle")) {
+            return ORACLE;
+        }
+        return ALL_DIALECTS;
+    }
+
+    /**
+     * Replace literals and comments in the sql with ?. If a quote or comment is left unmatched, the whole statement is
+     * replaced with ? so that nothing leaks.
+     */
+    String obfuscate(String sql) {
+        final int length = sql.length();
+        StringBuilder out = null;
+        int copiedTo = 0;
+        int i = 0;
+        while (i < length) {
+            int end = match(sql, i, copiedTo);
+            if (end == UNMATCHED) {
+                return "?";
+            }
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(length);
+            }
+            out.append(sql, copiedTo, i).append('?');
+            copiedTo = end;
+            i = end;
+        }
+
+        String obfuscated;
+        if (out == null) {
+            obfuscated = sql;
+        } else {
+            obfuscated = out.append(sql, copiedTo, length).toString();
+        }
+        return hasUnmatchedToken(obfuscated) ? "?" : obfuscated;
+    }
+
+    // returned by a matcher when the statement can only be obfuscated to ?
+    private static final int UNMATCHED = -2;
+    private static final int NO_MATCH = -1;
+
+    /**
+     * Try each matcher at position i in the order of the regular expression alternation.
+     *
+     * @param searchStart where the previous match ended, or 0
+     * @return the end of the match, {@link #NO_MATCH} or {@link #UNMATCHED}
+     */
+    private int match(String sql, int i, int searchStart) {
+        char c = sql.charAt(i);
+        switch (c) {
+            case '\'':
+                return orUnmatched(matchQuoted(sql, i, '\''));
+            case '"':
+                // an unterminated double quote only leaks where double quotes are obfuscated at all
+                return has(DOUBLE_QUOTE) ? orUnmatched(matchQuoted(sql, i, '"')) : NO_MATCH;
+            case '$':
+                return has(DOLLAR_QUOTE) ? matchDollarQuoted(sql, i) : NO_MATCH;
+            case 'q':
+            case 'Q':
+                return has(ORACLE_QUOTE) ? matchOracleQuoted(sql, i) : NO_MATCH;
+            case '#':
+                return matchComment(sql, i + 1);
+            case '-':
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                    return matchComment(sql, i + 2);
+                }
+                return matchNumber(sql, i, searchStart);
+            case '/':
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                    // the /* stays in the output if the comment can't be matched
+                    return orUnmatched(matchMultilineComment(sql, i + 2));
+                }
+                return NO_MATCH;
+            default:
+                break;
+        }
+
+        int end;
+        if (has(UUID) && (c == '{' || isHexDigit(c))) {
+            end = matchUuid(sql, i);
+            if (end >= 0) {
+                return end;
+            }
+        }
+        if (has(HEX) && c == '0') {
+            end = matchHex(sql, i);
+            if (end >= 0) {
+                return end;
+            }
+        }
+        if (has(BOOLEAN) && isBooleanStart(c)) {
+            end = matchBoolean(sql, i, searchStart);
+            if (end >= 0) {
+                return end;
+            }
+        }
+        return matchNumber(sql, i, searchStart);
+    }
+
+    private boolean has(int feature) {
+        return (features & feature) != 0;
+    }
+
+    private static int orUnmatched(int end) {
+        return end < 0 ? UNMATCHED : end;
+    }
+
+    /**
+     * {@code '(?:[^']|'')*?(?:\\'.*|'(?!'))}, and the same for double quotes. A backslash escaped quote consumes the
+     * rest of the statement.
+     */
+    private static int matchQuoted(String sql, int start, char quote) {
+        final int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\' && i + 1 < length && sql.charAt(i + 1) == quote) {
+                return length;
+            }
+            if (c == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * {@code (\$(?!\d)[^$]*?\$).*?(?:\1|$)}: a tag such as $$ or $foo$ up to the next occurrence of the same tag.
+     */
+    private static int matchDollarQuoted(String sql, int start) {
+        final int length = sql.length();
+        if (start + 1 < length && isAsciiDigit(sql.charAt(start + 1))) {
+            return NO_MATCH;
+        }
+        int tagEnd = sql.indexOf('$', start + 1);
+        if (tagEnd < 0) {
+            return NO_MATCH;
+        }
+        int tagLength = tagEnd + 1 - start;
+        for (int i = tagEnd + 1; ; i++) {
+            if (matchesTag(sql, i, start, tagLength)) {
+                return i + tagLength;
+            }
+            if (isEnd(sql, i)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * {@code q'\[.*?(?:\]'|$)} and the same for the {}, <> and () delimiters.
+     */
+    private static int matchOracleQuoted(String sql, int start) {
+        final int length = sql.length();
+        if (start + 2 >= length || sql.charAt(start + 1) != '\'') {
+            return NO_MATCH;
+        }
+        char close;
+        switch (sql.charAt(start + 2)) {
+            case '[':
+                close = ']';
+                break;
+            case '{':
+                close = '}';
+                break;
+            case '<':
+                close = '>';
+                break;
+            case '(':
+                close = ')';
+                break;
+            default:
+                return NO_MATCH;
+        }
+        for (int i = start + 3; ; i++) {
+            if (i + 1 < length && sql.charAt(i) == close && sql.charAt(i + 1) == '\'') {
+                return i + 2;
+            }
+            if (isEnd(sql, i)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * {@code (?:#|--).*?(?=\r|\n|$)}
+     */
+    private static int matchComment(String sql, int bodyStart) {
+        for (int i = bodyStart; ; i++) {
+            if (i < sql.length() && (sql.charAt(i) == '\r' || sql.charAt(i) == '\n')) {
+                return i;
+            }
+            if (isEnd(sql, i)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * {@code /\*(?:[^/]|/[^*])*?(?:\*&#47;|/\*.*)}: a nested comment opener consumes the rest of the statement.
+     */
+    private static int matchMultilineComment(String sql, int bodyStart) {
+        final int length = sql.length();
+        int i = bodyStart;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (i + 1 < length) {
+                char next = sql.charAt(i + 1);
+                if (c == '*' && next == '/') {
+                    return i + 2;
+                }
+                if (c == '/' && next == '*') {
+                    return length;
+                }
+            }
+            if (c != '/') {
+                i++;
+            } else if (i + 1 < length) {
+                // "/" and the character after it are consumed together
+                i += 2;
+            } else {
+                return NO_MATCH;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * {@code \{?(?:[0-9a-f]\-*){32}\}?}
+     */
+    private static int matchUuid(String sql, int start) {
+        final int length = sql.length();
+        int i = sql.charAt(start) == '{' ? start + 1 : start;
+        for (int digits = 0; digits < UUID_DIGITS; digits++) {
+            if (i >= length || !isHexDigit(sql.charAt(i))) {
+                return NO_MATCH;
+            }
+            i++;
+            while (i < length && sql.charAt(i) == '-') {
+                i++;
+            }
+        }
+        if (i < length && sql.charAt(i) == '}') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * {@code 0x[0-9a-f]+}
+     */
+    private static int matchHex(String sql, int start) {
+        final int length = sql.length();
+        if (start + 2 >= length || (sql.charAt(start + 1) != 'x' && sql.charAt(start + 1) != 'X')
+                || !isHexDigit(sql.charAt(start + 2))) {
+            return NO_MATCH;
+        }
+        int i = start + 3;
+        while (i < length && isHexDigit(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * {@code \b(?:true|false|null)\b}
+     */
+    private static int matchBoolean(String sql, int start, int searchStart) {
+        if (!isWordBoundary(sql, start, searchStart)) {
+            return NO_MATCH;
+        }
+        int end;
+        if (regionMatchesIgnoreAsciiCase(sql, start, "true", 0, 4) || regionMatchesIgnoreAsciiCase(sql, start, "null", 0, 4)) {
+            end = start + 4;
+        } else if (regionMatchesIgnoreAsciiCase(sql, start, "false", 0, 5)) {
+            end = start + 5;
+        } else {
+            return NO_MATCH;
+        }
+        return isWordBoundary(sql, end, searchStart) ? end : NO_MATCH;
+    }
+
+    /**
+     * {@code -?\b(?:[0-9_]+\.)?[0-9_]+([eE][+-]?[0-9_]+)?}
+     */
+    private static int matchNumber(String sql, int start, int searchStart) {
+        final int length = sql.length();
+        int i = start;
+        if (sql.charAt(i) == '-') {
+            i++;
+        }
+        if (i >= length || !isNumberChar(sql.charAt(i)) || !isWordBoundary(sql, i, searchStart)) {
+            return NO_MATCH;
+        }
+        i = skipNumberChars(sql, i);
+        if (i + 1 < length && sql.charAt(i) == '.' && isNumberChar(sql.charAt(i + 1))) {
+            i = skipNumberChars(sql, i + 1);
+        }
+        if (i < length && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < length && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < length && isNumberChar(sql.charAt(exponent))) {
+                i = skipNumberChars(sql, exponent);
+            }
+        }
+        return i;
+    }
+
+    private static int skipNumberChars(String sql, int i) {
+        while (i < sql.length() && isNumberChar(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Quotes and comment delimiters that survive obfuscation mean something was not matched, so the statement may
+     * still contain a literal.
+     */
+    private boolean hasUnmatchedToken(String obfuscated) {
+        final int length = obfuscated.length();
+        for (int i = 0; i < length; i++) {
+            char c = obfuscated.charAt(i);
+            switch (c) {
+                case '\'':
+                    return true;
+                case '"':
+                    if (has(UNMATCHED_DOUBLE_QUOTE)) {
+                        return true;
+                    }
+                    break;
+                case '$':
+                    if (has(UNMATCHED_DOLLAR)) {
+                        return true;
+                    }
+                    if (has(UNMATCHED_DOLLAR_NOT_PLACEHOLDER) && (i + 1 >= length || obfuscated.charAt(i + 1) != '?')) {
+                        return true;
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < length && obfuscated.charAt(i + 1) == '*') {
+                        return true;
+                    }
+                    break;
+                case '*':
+                    if (i + 1 < length && obfuscated.charAt(i + 1) == '/') {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The regular expression {@code $}: the end of the input, or before a \n or \r\n that ends the input. Other line
+     * terminators, and a \r on its own, don't end the input.
+     */
+    private static boolean isEnd(String sql, int i) {
+        final int length = sql.length();
+        if (i >= length) {
+            return true;
+        }
+        if (i == length - 1) {
+            return sql.charAt(i) == '\n';
+        }
+        if (i == length - 2) {
+            return sql.charAt(i) == '\r' && sql.charAt(i + 1) == '\n';
+        }
+        return false;
+    }
+
+    /**
+     * The regular expression {@code \b}. jregex doesn't look behind the position a search starts from, which is where
+     * the previous match ended, so there the character before is taken to be a non word character.
+     */
+    private static boolean isWordBoundary(String sql, int i, int searchStart) {
+        boolean before = i > searchStart && isWordChar(sql.charAt(i - 1));
+        boolean after = i < sql.length() && isWordChar(sql.charAt(i));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || isAsciiDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNumberChar(char c) {
+        return c == '_' || isAsciiDigit(c);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isAsciiDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isBooleanStart(char c) {
+        char lower = toLowerAscii(c);
+        return lower == 't' || lower == 'f' || lower == 'n';
+    }
+
+    /**
+     * Case insensitive comparison of ASCII letters only, as the regular expressions compare.
+     */
+    private static boolean regionMatchesIgnoreAsciiCase(String sql, int offset, String other, int otherOffset, int length) {
+        if (offset + length > sql.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (toLowerAscii(sql.charAt(offset + i)) != toLowerAscii(other.charAt(otherOffset + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The case insensitive back reference {@code \1} of the dollar quote: each character of the statement must have a
+     * lower, upper or title case form that is the corresponding character of the opening tag.
+     */
+    private static boolean matchesTag(String sql, int offset, int tagStart, int tagLength) {
+        if (offset + tagLength > sql.length()) {
+            return false;
+        }
+        for (int i = 0; i < tagLength; i++) {
+            char tag = sql.charAt(tagStart + i);
+            char c = sql.charAt(offset + i);
+            if (tag != Character.toLowerCase(c) && tag != Character.toUpperCase(c) && tag != Character.toTitleCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+}
@@ -33,6 +33,9 @@ public abstract class SqlObfuscator {
     public static final String RAW_SETTING = "raw";
     public static final String OFF_SETTING = "off";
 
+    public static final String LEXER_ENGINE = "lexer";
+    public static final String REGEX_ENGINE = "regex";
+
     private SqlObfuscator() {
     }
 
@@ -135,10 +138,50 @@ public abstract class SqlObfuscator {
         }
     }
 
+    /**
+     * Obfuscates with the same rules as {@link DefaultSqlObfuscator}, using a single pass lexer instead of regular
+     * expressions.
+     */
+    static class LexerSqlObfuscator extends SqlObfuscator {
+
+        @Override
+        public String obfuscateSql(String sql) {
+            if (sql == null || sql.length() == 0) {
+                return sql;
+            }
+            return SqlObfuscationLexer.ALL_DIALECTS.obfuscate(sql);
+        }
+
+        @Override
+        public String obfuscateSql(String sql, String dialect) {
+            if (sql == null || sql.length() == 0) {
+                return sql;
+            }
+            return SqlObfuscationLexer.forDialect(dialect).obfuscate(sql);
+        }
+
+        @Override
+        public boolean isObfuscating() {
+            return true;
+        }
+    }
+
     public static SqlObfuscator getDefaultSqlObfuscator() {
         return new DefaultSqlObfuscator();
     }
 
+    /**
+     * @param engine {@link #LEXER_ENGINE} for the single pass lexer, otherwise the regular expression obfuscator
+     * @return an obfuscating sql obfuscator
+     */
+    public static SqlObfuscator getSqlObfuscator(String engine) {
+        return LEXER_ENGINE.equals(engine) ? getLexerSqlObfuscator() : getDefaultSqlObfuscator();
+    }
+
+    static SqlObfuscator getLexerSqlObfuscator() {
+        return new LexerSqlObfuscator();
+    }
+
     static SqlObfuscator getNoObfuscationSqlObfuscator() {
         return new SqlObfuscator() {
 
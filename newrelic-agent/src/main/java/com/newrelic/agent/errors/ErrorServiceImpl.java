@@ -38,6 +38,8 @@ import com.newrelic.agent.tracers.ClassMethodSignature;
 import com.newrelic.agent.tracing.DistributedTraceService;
 import com.newrelic.agent.tracing.DistributedTraceServiceImpl;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PartialDeliveryException;
+import com.newrelic.agent.transport.PayloadStagedException;
 
 import java.net.HttpURLConnection;
 import java.text.MessageFormat;
@@ -185,12 +187,17 @@ public class ErrorServiceImpl extends AbstractService implements ErrorService, H
                     int dropped = reservoir.getNumberOfTries() - reservoir.size();
                     Agent.LOG.log(Level.FINE, "Dropped {0} error events out of {1}.", dropped, reservoir.getNumberOfTries());
                 }
+            } catch (PayloadStagedException e) {
+                reservoir.clear();
+                Agent.LOG.log(Level.FINE, "Unable to send error events. They were staged and will be sent once the collector accepts data.", e);
             } catch (HttpError e) {
                 if (!e.discardHarvestData()) {
                     Agent.LOG.log(Level.FINE, "Unable to send error events. Unsent events will be included in the next harvest.", e);
                     // Save unsent data by merging it with current data using reservoir algorithm
                     DistributedSamplingPriorityQueue<ErrorEvent> currentReservoir = reservoirForApp.get(appName);
-                    currentReservoir.retryAll(reservoir);
+                    for (ErrorEvent event : PartialDeliveryException.getUnsentEvents(e, reservoir.asList())) {
+                        currentReservoir.add(event);
+                    }
                 } else {
                     // discard harvest data
                     reservoir.clear();
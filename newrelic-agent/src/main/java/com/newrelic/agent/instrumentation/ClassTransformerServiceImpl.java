@@ -189,6 +189,9 @@ public class ClassTransformerServiceImpl extends AbstractService implements Clas
             transformer.start(instrProxy, retransformSupported);
             classTransformers.add(transformer);
         }
+
+        // the startup match visitors are all registered now
+        contextManager.enableTransformCache();
         return classTransformer;
     }
 
@@ -22,6 +22,7 @@ import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -99,8 +100,25 @@ public class InstrumentationClassTransformer implements ClassFileTransformer {
                 return null;
             }
 
+            Collection<ClassMatchVisitorFactory> matchVisitors = manager.getMatchVisitors().keySet();
+            TransformCache transformCache = classBeingRedefined == null ? manager.getTransformCache() : null;
+            long transformCacheKey = 0;
+            if (transformCache != null) {
+                transformCacheKey = transformCache.key(loader, classfileBuffer);
+                if (transformCacheKey == TransformCache.NOT_CACHEABLE) {
+                    transformCache = null;
+                } else if (transformCache.contains(transformCacheKey)) {
+                    // A previous JVM left this class unmodified, so only the matchers that depend on runtime state
+                    // need to see it
+                    matchVisitors = manager.getRuntimeMatchVisitors();
+                    transformCache = null;
+                    ServiceFactory.getStatsService().doStatsWork(StatsWorks.getIncrementCounterWork(
+                            MetricNames.SUPPORTABILITY_TRANSFORM_CACHE_HIT, 1), MetricNames.SUPPORTABILITY_TRANSFORM_CACHE_HIT);
+                }
+            }
+
             InstrumentationContext context = new InstrumentationContext(classfileBuffer, classBeingRedefined, protectionDomain);
-            context.match(loader, classBeingRedefined, reader, manager.getMatchVisitors().keySet());
+            context.match(loader, classBeingRedefined, reader, matchVisitors);
 
             // Additional proxy detection tests
             if (context.isGenerated()) {
@@ -149,6 +167,10 @@ public class InstrumentationClassTransformer implements ClassFileTransformer {
                                 System.nanoTime() - transformStartTimeInNs), MetricNames.SUPPORTABILITY_CLASSLOADER_TRANSFORM_TIME);
                 return transformation;
             }
+
+            if (transformCache != null) {
+                transformCache.add(transformCacheKey);
+            }
         } catch (Throwable t) {
             Agent.LOG.log(Level.FINE, t, "Unexpected exception thrown in class transformer: {0}--{1}", loader, className);
         }
@@ -12,6 +12,8 @@ import com.newrelic.agent.InstrumentationProxy;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.ClassTransformerConfig;
 import com.newrelic.agent.config.Config;
+import com.newrelic.agent.config.ConfigFileHelper;
+import com.newrelic.agent.extension.Extension;
 import com.newrelic.agent.instrumentation.ClassNameFilter;
 import com.newrelic.agent.instrumentation.api.ApiImplementationUpdate;
 import com.newrelic.agent.instrumentation.classmatchers.ScalaTraitMatcher;
@@ -26,13 +28,21 @@ import com.newrelic.agent.instrumentation.webservices.WebServiceVisitor;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.servlet.ServletAnnotationVisitor;
 import com.newrelic.weave.utils.WeaveUtils;
+import com.newrelic.weave.weavepackage.WeavePackage;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 
+import java.io.File;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
@@ -45,6 +55,13 @@ public class InstrumentationContextManager {
     private final Map<ClassMatchVisitorFactory, ContextClassTransformer> matchVisitors = new ConcurrentHashMap<>();
     private final Map<ClassMatchVisitorFactory, ContextClassTransformer> interfaceMatchVisitors = new ConcurrentHashMap<>();
 
+    /**
+     * Match visitors whose results depend on state observed while the JVM runs rather than on the class bytes. Classes
+     * found in the {@link #transformCache} are still run through these.
+     */
+    private volatile Collection<ClassMatchVisitorFactory> runtimeMatchVisitors = Collections.emptyList();
+    private volatile TransformCache transformCache;
+
     /**
      * A list of classloader class name prefixes. Any classloader class matching any of these prefixes will not have
      * its classes instrumented.
@@ -184,6 +201,7 @@ public class InstrumentationContextManager {
         // because it uses ClassLoader.findResource() internally and this opens us up to the possibility of deadlocks.
         // So instead, we will add this class as a matchVisitor that matches based on the observedClassLoaders map.
         manager.addContextClassTransformer(classLoaderClassTransformer, classLoaderClassTransformer);
+        manager.runtimeMatchVisitors = Collections.<ClassMatchVisitorFactory>singletonList(classLoaderClassTransformer);
 
         // Remove the temporary transformer we applied during startup
         instrumentation.removeTransformer(classLoaderClassTransformer);
@@ -258,6 +276,7 @@ public class InstrumentationContextManager {
             transformer = NO_OP_TRANSFORMER;
         }
         this.matchVisitors.put(matchVisitor, transformer);
+        invalidateTransformCache();
     }
 
     /**
@@ -267,6 +286,126 @@ public class InstrumentationContextManager {
      */
     public void removeMatchVisitor(ClassMatchVisitorFactory visitor) {
         this.matchVisitors.remove(visitor);
+        invalidateTransformCache();
+    }
+
+    /**
+     * Start consulting and recording the persistent transform cache, if it is enabled. This must be called once the
+     * startup set of match visitors is complete; any later change to the match visitors turns the cache off.
+     */
+    public void enableTransformCache() {
+        ClassTransformerConfig config = ServiceFactory.getConfigService().getDefaultAgentConfig().getClassTransformerConfig();
+        if (!config.isTransformCacheEnabled() || transformCache != null) {
+            return;
+        }
+        File directory = ConfigFileHelper.getNewRelicDirectory();
+        if (directory == null) {
+            Agent.LOG.log(Level.FINE, "Unable to find the agent directory. The transform cache is disabled.");
+            return;
+        }
+        try {
+            transformCache = TransformCache.open(new File(directory, TransformCache.FILE_NAME),
+                    TransformCache.fingerprint(getTransformCacheFingerprint()), config.getTransformCacheSize());
+        } catch (Exception e) {
+            Agent.LOG.log(Level.FINE, e, "Unable to open the transform cache");
+        }
+    }
+
+    /**
+     * Stop using the persistent transform cache for the rest of this JVM's life.
+     */
+    public void invalidateTransformCache() {
+        TransformCache cache = transformCache;
+        if (cache != null && cache.isEnabled()) {
+            Agent.LOG.log(Level.FINE, "Match visitors changed after startup. The transform cache is disabled.");
+            cache.disable();
+        }
+    }
+
+    TransformCache getTransformCache() {
+        TransformCache cache = transformCache;
+        return cache != null && cache.isEnabled() ? cache : null;
+    }
+
+    Collection<ClassMatchVisitorFactory> getRuntimeMatchVisitors() {
+        return runtimeMatchVisitors;
+    }
+
+    /**
+     * Everything other than the class bytes that decides whether a class is transformed: the agent and JVM versions,
+     * the class path the JVM's own classloaders see, the registered weave packages, the extensions and the local
+     * configuration.
+     */
+    private String getTransformCacheFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(Agent.getVersion()).append('|').append(System.getProperty("java.vm.version")).append('|');
+        fingerprint.append(System.getProperty("java.home")).append('|');
+        for (String property : new String[] { "sun.boot.class.path", "java.class.path", "jdk.module.path" }) {
+            fingerprint.append(getClassPathIdentity(System.getProperty(property))).append('|');
+        }
+
+        Set<String> weavePackages = new TreeSet<>();
+        for (WeavePackage weavePackage : classWeaverService.getWeavePackageManger().getRegisteredPackages()) {
+            weavePackages.add(weavePackage.getName() + ':' + weavePackage.getConfig().getVersion());
+        }
+        fingerprint.append(weavePackages).append('|');
+
+        Set<String> extensions = new TreeSet<>();
+        for (Extension extension : ServiceFactory.getExtensionService().getExtensions()) {
+            extensions.add(extension.getName() + ':' + extension.getVersion());
+        }
+        for (File weaveExtension : ServiceFactory.getExtensionService().getWeaveExtensions()) {
+            extensions.add(weaveExtension.getAbsolutePath() + ':' + weaveExtension.length() + ':' + weaveExtension.lastModified());
+        }
+        fingerprint.append(extensions).append('|');
+
+        fingerprint.append(canonicalize(ServiceFactory.getConfigService().getSanitizedLocalSettings())).append('|');
+        Map<String, String> overrides = new TreeMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("newrelic.")) {
+                overrides.put(name, System.getProperty(name));
+            }
+        }
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            if (entry.getKey().startsWith("NEW_RELIC_")) {
+                overrides.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return fingerprint.append(overrides).toString();
+    }
+
+    /**
+     * Each class path entry with its size and modification time, so that a jar replaced in place changes the result.
+     */
+    private static List<String> getClassPathIdentity(String classPath) {
+        List<String> entries = new ArrayList<>();
+        if (classPath != null) {
+            for (String path : classPath.split(File.pathSeparator)) {
+                File entry = new File(path);
+                entries.add(path + ':' + entry.length() + ':' + entry.lastModified());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Sort nested maps by key so that equal settings always print the same way.
+     */
+    private static Object canonicalize(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), canonicalize(entry.getValue()));
+            }
+            return sorted;
+        } else if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                list.add(canonicalize(element));
+            }
+            return list;
+        }
+        return value;
     }
 
     public Instrumentation getInstrumentation() {
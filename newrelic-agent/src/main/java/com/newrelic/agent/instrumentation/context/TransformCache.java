@@ -0,0 +1,384 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.instrumentation.context;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newrelic.agent.Agent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+
+/**
+ * A persistent set of classes that the {@link InstrumentationClassTransformer} examined and left unmodified. The set is
+ * an open addressed hash table of 64 bit class byte hashes stored in a memory mapped file, so entries recorded by one
+ * JVM are visible to the next JVM that starts with the same agent version, weave packages, configuration and class path
+ * (the fingerprint). A file written under a different fingerprint is cleared when it is opened.
+ *
+ * Only negative results are cached. Transformed bytes can't be replayed from disk because weaving and tracing register
+ * state with the running agent (signature ids, new classes appended to classloaders) as a side effect.
+ *
+ * Whether a class is woven also depends on the other classes its classloader can see, so the loader is part of each key.
+ * The classes visible to the JVM's own bootstrap, platform and system classloaders are fixed by the JVM and the class
+ * path in the fingerprint. Any other loader must be a {@link URLClassLoader} whose class path only holds jar files, and
+ * is identified by its class, the path, size and modification time of each jar, and the identity of its parent. Nested
+ * jars (as in Spring Boot) are identified by the jar file that contains them. Classes of other loaders, or of loaders
+ * with directories on their class path (exploded webapps), are not cached.
+ *
+ * The table is mirrored on the heap in an {@link AtomicLongArray} so that lookups and additions from classes loading
+ * in parallel don't lock. The mapped file is only written to.
+ *
+ * This class is thread-safe.
+ */
+final class TransformCache {
+
+    static final String FILE_NAME = "newrelic-transform-cache.dat";
+
+    private static final int MAGIC = 0x4e525443; // NRTC
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_OFFSET = 4;
+    private static final int FINGERPRINT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int SIZE_OFFSET = 20;
+
+    // the table stops accepting entries past this load factor so that probe sequences stay short
+    private static final double MAX_LOAD = 0.75;
+
+    private static final long EMPTY = 0L;
+
+    /**
+     * The key of a class that isn't cached because the classes its classloader can see can't be identified.
+     */
+    static final long NOT_CACHEABLE = EMPTY;
+
+    private static final long BOOTSTRAP_SEED = 0x9e3779b97f4a7c15L;
+    private static final long PLATFORM_SEED = 0x7f4a7c159e3779b9L;
+    private static final long SYSTEM_SEED = 0x3c6ef372fe94f82bL;
+    private static final long APPLICATION_SEED = 0x1b873593cc9e2d51L;
+
+    private final RandomAccessFile file;
+    private final FileLock lock;
+    private final MappedByteBuffer table;
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int maxSize;
+    private final AtomicInteger size;
+    private final ClassLoader systemClassLoader;
+    private final ClassLoader platformClassLoader;
+    private final Cache<ClassLoader, LoaderIdentity> loaderIdentities = Caffeine.newBuilder().weakKeys()
+            .executor(Runnable::run).build();
+    private volatile boolean enabled = true;
+
+    private TransformCache(RandomAccessFile file, FileLock lock, MappedByteBuffer table, int capacity) {
+        this.file = file;
+        this.lock = lock;
+        this.table = table;
+        this.slots = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.maxSize = (int) (capacity * MAX_LOAD);
+        int entries = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long entry = table.getLong(offset(slot));
+            if (entry != EMPTY) {
+                slots.set(slot, entry);
+                entries++;
+            }
+        }
+        this.size = new AtomicInteger(entries);
+        this.systemClassLoader = ClassLoader.getSystemClassLoader();
+        this.platformClassLoader = systemClassLoader == null ? null : systemClassLoader.getParent();
+    }
+
+    /**
+     * Open (or create) the cache file.
+     *
+     * @param cacheFile the file backing the cache
+     * @param fingerprint hash of everything other than the class bytes that decides whether a class is transformed
+     * @param capacity the number of slots in the table, rounded up to a power of two
+     * @return the cache, or null if the file is in use by another JVM
+     */
+    static TransformCache open(File cacheFile, long fingerprint, int capacity) throws IOException {
+        capacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        long length = HEADER_SIZE + (long) capacity * 8;
+
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        try {
+            FileLock lock;
+            try {
+                lock = file.getChannel().tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                Agent.LOG.log(Level.FINE, "Transform cache {0} is in use by another process", cacheFile);
+                file.close();
+                return null;
+            }
+
+            boolean reuse = file.length() == length && file.readInt() == MAGIC && file.readInt() == FORMAT_VERSION
+                    && file.readLong() == fingerprint && file.readInt() == capacity;
+            if (!reuse) {
+                // a new file, or one written by a different agent version or configuration
+                file.setLength(0);
+                file.setLength(length);
+            }
+
+            MappedByteBuffer table = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (!reuse) {
+                table.putInt(MAGIC_OFFSET, MAGIC);
+                table.putInt(FORMAT_OFFSET, FORMAT_VERSION);
+                table.putLong(FINGERPRINT_OFFSET, fingerprint);
+                table.putInt(CAPACITY_OFFSET, capacity);
+                table.putInt(SIZE_OFFSET, 0);
+            }
+            TransformCache cache = new TransformCache(file, lock, table, capacity);
+            Agent.LOG.log(Level.FINE, "{0} transform cache {1} with {2} entries", reuse ? "Reusing" : "Created", cacheFile, cache.size());
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if a class with these bytes was previously recorded as unmodified
+     */
+    boolean contains(long key) {
+        if (!enabled || key == NOT_CACHEABLE) {
+            return false;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long entry = slots.get(slot);
+            if (entry == EMPTY) {
+                return false;
+            } else if (entry == key) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Record that a class with these bytes was left unmodified.
+     */
+    void add(long key) {
+        if (!enabled || key == NOT_CACHEABLE) {
+            return;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long entry = slots.get(slot);
+            if (entry == key) {
+                return;
+            } else if (entry == EMPTY) {
+                // reserve room first so that concurrent additions can't fill the table past its load factor
+                if (size.incrementAndGet() > maxSize) {
+                    size.decrementAndGet();
+                    return;
+                }
+                if (slots.compareAndSet(slot, EMPTY, key)) {
+                    // each slot is claimed by exactly one thread, so the file can be written without a lock
+                    table.putLong(offset(slot), key);
+                    table.putInt(SIZE_OFFSET, size.get());
+                    return;
+                }
+                // another thread claimed the slot first, look at what it stored
+                size.decrementAndGet();
+                if (slots.get(slot) == key) {
+                    return;
+                }
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stop using the cache for the rest of this JVM's life. This is called when the set of matchers changes after
+     * startup, since entries recorded from then on would not hold for the next JVM.
+     */
+    synchronized void disable() {
+        if (enabled) {
+            enabled = false;
+            try {
+                lock.release();
+                file.close();
+            } catch (IOException e) {
+                Agent.LOG.log(Level.FINEST, e, "Unable to close the transform cache");
+            }
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * 8;
+    }
+
+    /**
+     * @param loader the classloader defining the class, null for the bootstrap classloader
+     * @return a 64 bit hash of the loader and class bytes, or {@link #NOT_CACHEABLE} if the classes the loader can see
+     * can't be identified
+     */
+    long key(ClassLoader loader, byte[] classBytes) {
+        long seed = loaderIdentity(loader);
+        if (seed == NOT_CACHEABLE) {
+            return NOT_CACHEABLE;
+        }
+        long hash = hash(seed, classBytes);
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    /**
+     * @return a hash identifying the classes the loader can see, or {@link #NOT_CACHEABLE}
+     */
+    private long loaderIdentity(ClassLoader loader) {
+        if (loader == null) {
+            return BOOTSTRAP_SEED;
+        } else if (loader == platformClassLoader) {
+            return PLATFORM_SEED;
+        } else if (loader == systemClassLoader) {
+            return SYSTEM_SEED;
+        } else if (!(loader instanceof URLClassLoader)) {
+            return NOT_CACHEABLE;
+        }
+
+        long parent = loaderIdentity(loader.getParent());
+        URL[] urls = ((URLClassLoader) loader).getURLs();
+        LoaderIdentity identity = loaderIdentities.getIfPresent(loader);
+        // loaders such as webapp classloaders add jars after they are created
+        if (identity == null || identity.parent != parent || identity.urlCount != urls.length) {
+            identity = new LoaderIdentity(parent, urls.length, parent == NOT_CACHEABLE ? NOT_CACHEABLE : identify(loader, parent, urls));
+            loaderIdentities.put(loader, identity);
+        }
+        return identity.value;
+    }
+
+    private static long identify(ClassLoader loader, long parent, URL[] urls) {
+        StringBuilder description = new StringBuilder(loader.getClass().getName());
+        for (URL url : urls) {
+            File jar = getJarFile(url);
+            if (jar == null) {
+                return NOT_CACHEABLE;
+            }
+            description.append('\n').append(url).append(' ').append(jar.length()).append(' ').append(jar.lastModified());
+        }
+        long hash = hash(APPLICATION_SEED ^ parent, description.toString().getBytes(StandardCharsets.UTF_8));
+        return hash == NOT_CACHEABLE ? 1 : hash;
+    }
+
+    /**
+     * @return the jar file a class path entry is read from, or null if it is a directory, a remote location or missing.
+     * An entry inside another jar (jar:file:/app.jar!/lib/a.jar!/ or jar:nested:/app.jar/!lib/a.jar) is read from the
+     * outer jar.
+     */
+    static File getJarFile(URL url) {
+        String spec = url.toString();
+        while (spec.startsWith("jar:")) {
+            spec = spec.substring(4);
+        }
+        int separator = spec.indexOf('!');
+        if (separator >= 0) {
+            spec = spec.substring(0, separator);
+        }
+        try {
+            URI uri = new URI(spec);
+            if (!"file".equals(uri.getScheme()) && !"nested".equals(uri.getScheme())) {
+                return null;
+            }
+            String path = uri.getPath();
+            if (path == null) {
+                return null;
+            }
+            File file = new File(path);
+            return file.isFile() ? file : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    static long fingerprint(String description) {
+        return hash(0xc2b2ae3d27d4eb4fL, description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A murmur3 style hash, consuming eight bytes per round.
+     */
+    private static long hash(long seed, byte[] bytes) {
+        long hash = seed ^ bytes.length;
+        int i = 0;
+        for (; i + 8 <= bytes.length; i += 8) {
+            hash = mix(hash, getLong(bytes, i));
+        }
+        long tail = 0;
+        for (int shift = 0; i < bytes.length; i++, shift += 8) {
+            tail |= (bytes[i] & 0xffL) << shift;
+        }
+        hash = mix(hash, tail);
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        value *= 0x87c37b91114253d5L;
+        value = Long.rotateLeft(value, 31);
+        value *= 0x4cf5ad432745937fL;
+        hash ^= value;
+        return Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+    }
+
+    private static final class LoaderIdentity {
+        private final long parent;
+        private final int urlCount;
+        private final long value;
+
+        private LoaderIdentity(long parent, int urlCount, long value) {
+            this.parent = parent;
+            this.urlCount = urlCount;
+            this.value = value;
+        }
+    }
+
+    private static long getLong(byte[] bytes, int i) {
+        return (bytes[i] & 0xffL)
+                | (bytes[i + 1] & 0xffL) << 8
+                | (bytes[i + 2] & 0xffL) << 16
+                | (bytes[i + 3] & 0xffL) << 24
+                | (bytes[i + 4] & 0xffL) << 32
+                | (bytes[i + 5] & 0xffL) << 40
+                | (bytes[i + 6] & 0xffL) << 48
+                | (bytes[i + 7] & 0xffL) << 56;
+    }
+
+}
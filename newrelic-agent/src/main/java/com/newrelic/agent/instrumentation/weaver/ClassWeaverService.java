@@ -7,6 +7,7 @@
 
 package com.newrelic.agent.instrumentation.weaver;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import com.newrelic.agent.Agent;
 import com.newrelic.agent.MetricNames;
@@ -26,6 +27,7 @@ import com.newrelic.agent.instrumentation.weaver.preprocessors.AgentPostprocesso
 import com.newrelic.agent.instrumentation.weaver.preprocessors.AgentPreprocessors;
 import com.newrelic.agent.instrumentation.weaver.preprocessors.TracedWeaveInstrumentationTracker;
 import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.stats.RecordResponseTimeMetric;
 import com.newrelic.agent.stats.StatsWorks;
 import com.newrelic.api.agent.weaver.WeaveIntoAllMethods;
 import com.newrelic.api.agent.weaver.internal.WeavePackageType;
@@ -45,6 +47,7 @@ import com.newrelic.weave.weavepackage.NewClassAppender;
 import com.newrelic.weave.weavepackage.PackageWeaveResult;
 import com.newrelic.weave.weavepackage.WeavePackage;
 import com.newrelic.weave.weavepackage.WeavePackageConfig;
+import com.newrelic.weave.weavepackage.WeavePackageIndex;
 import com.newrelic.weave.weavepackage.WeavePackageManager;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -55,6 +58,7 @@ import org.objectweb.asm.tree.AnnotationNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -65,15 +69,20 @@ import java.lang.instrument.Instrumentation;
 import java.net.URL;
 import java.security.ProtectionDomain;
 import java.text.MessageFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
@@ -89,6 +98,10 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
      * Determines how many threads to run in parallel when loading instrumentation packages
      */
     private static final int PARTITIONS = 8;
+    private static final String WEAVE_PACKAGE_LOADER_THREAD_NAME = "New Relic Weave Package Loader";
+    // per package load times are only recorded for the slowest few, rather than as a metric for every package
+    private static final int SLOWEST_PACKAGE_LOAD_TIMES = 10;
+    private static final String WEAVE_PACKAGE_INDEX_RESOURCE = "/instrumentation/" + WeavePackageIndex.FILE_NAME;
     private static ClassNode EXTENSION_TEMPLATE;
 
     static {
@@ -162,6 +175,36 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
         AgentConfig agentConfig = ServiceFactory.getConfigService().getDefaultAgentConfig();
         WeavePackageConfig weavePackageConfig = createWeavePackageConfig(jarStream, source,
                 instrumentation, WeavePackageType.INTERNAL, agentConfig);
+        if (!isInternalWeavePackageEnabled(weavePackageConfig, agentConfig)) {
+            return null;
+        }
+        return CachedWeavePackage.createWeavePackage(new URL(source), jarStream, weavePackageConfig);
+    }
+
+    /**
+     * Create a weave package from the jar's entry in the {@link WeavePackageIndex}. The jar itself is not opened unless
+     * the index entry is missing the cached weave attributes.
+     *
+     * @param attributes The manifest attributes of the jar.
+     * @param source     URL where the jar can be read from.
+     */
+    private WeavePackage createWeavePackage(Attributes attributes, String source) throws Exception {
+        AgentConfig agentConfig = ServiceFactory.getConfigService().getDefaultAgentConfig();
+        WeavePackageConfig weavePackageConfig = createWeavePackageConfig(WeavePackageConfig.builder().manifestAttributes(attributes),
+                source, WeavePackageType.INTERNAL, agentConfig);
+        if (!isInternalWeavePackageEnabled(weavePackageConfig, agentConfig)) {
+            return null;
+        }
+        WeavePackage weavePackage = CachedWeavePackage.createWeavePackage(new URL(source), attributes, weavePackageConfig);
+        if (weavePackage == null) {
+            try (InputStream inputStream = new URL(source).openStream()) {
+                return CachedWeavePackage.createWeavePackage(new URL(source), new JarInputStream(inputStream), weavePackageConfig);
+            }
+        }
+        return weavePackage;
+    }
+
+    private boolean isInternalWeavePackageEnabled(WeavePackageConfig weavePackageConfig, AgentConfig agentConfig) {
         ClassTransformerConfig classTransformerConfig = agentConfig.getClassTransformerConfig();
 
         String weavePackageName = weavePackageConfig.getName();
@@ -170,7 +213,7 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
                 // Only log this if the module has been explicitly disabled (not if it is disabled by default)
                 LOG.log(Level.INFO, "Instrumentation {0} is disabled. Skipping.", weavePackageName);
             }
-            return null;
+            return false;
         }
 
         // JAVA-1499 Why o' why do we do this (see JAVA-1445)? The reasons have been lost to the sands of time,
@@ -183,22 +226,24 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
             if (jcacheDatastoreEnabled) {
                 LOG.log(Level.INFO, " Instrumentation {0} is disabled since {1} is enabled. Skipping.",
                         weavePackageName, "com.newrelic.instrumentation.jcache-datastore-1.0.0");
-                return null;
+                return false;
             }
         }
-
-        WeavePackage weavePackage = CachedWeavePackage.createWeavePackage(new URL(source), jarStream, weavePackageConfig);
-        return weavePackage;
+        return true;
     }
 
     private WeavePackageConfig createWeavePackageConfig(JarInputStream jarStream, String source,
             Instrumentation instrumentation, WeavePackageType type, AgentConfig agentConfig) throws Exception {
+        return createWeavePackageConfig(WeavePackageConfig.builder().jarInputStream(jarStream), source, type, agentConfig);
+    }
+
+    private WeavePackageConfig createWeavePackageConfig(WeavePackageConfig.Builder builder, String source,
+            WeavePackageType type, AgentConfig agentConfig) {
         AgentPreprocessors preprocessors = new AgentPreprocessors(agentConfig, tracedWeaveInstrumentationDetails);
         AgentPostprocessors postprocessors = new AgentPostprocessors();
 
-        WeavePackageConfig result = WeavePackageConfig.builder()
+        WeavePackageConfig result = builder
                 .source(source)
-                .jarInputStream(jarStream)
                 .weavePreprocessor(preprocessors)
                 .weavePostprocessor(postprocessors)
                 .errorHandleClassNode(LogAndReturnOriginal.ERROR_HANDLER_NODE)
@@ -236,37 +281,8 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
             LOG.log(Level.FINE, "Loading {0} security instrumentation packages", jarFileNames.size());
         }
 
-        int partitions = Math.min(jarFileNames.size(), PARTITIONS);
-        // Note: An ExecutorService would be better suited for this work but we are
-        // specifically not using it here to prevent the ConcurrentCallablePointCut
-        // from being loaded too early
-        final CountDownLatch executorCountDown = new CountDownLatch(partitions);
-        List<Set<String>> weavePackagePartitions = partitionInstrumentationJars(jarFileNames, partitions);
-
-        for (final Set<String> weavePackageJars : weavePackagePartitions) {
-            Runnable loadWeavePackagesRunnable = () -> {
-                try {
-                    for (final String name : weavePackageJars) {
-                        URL instrumentationUrl = new URL("jar:" + securityAgentUrl.toExternalForm() + "!/" + name);
-                        registerInstrumentation(instrumentationUrl);
-                    }
-                } catch (Throwable t) {
-                    LOG.log(Level.FINER, t, "A thread loading weaved packages threw an error");
-                } finally {
-                    executorCountDown.countDown();
-                }
-            };
-
-            new Thread(loadWeavePackagesRunnable).start();
-        }
-
-        try {
-            // Wait for all partitions to complete
-            executorCountDown.await();
-            LOG.log(Level.FINE, "Loaded {0} internal instrumentation packages", internalWeavePackages.size());
-        } catch (InterruptedException e) {
-            LOG.log(Level.FINE, e, "Interrupted while waiting for instrumentation packages.");
-        }
+        loadWeavePackages(jarFileNames, name -> new URL("jar:" + securityAgentUrl.toExternalForm() + "!/" + name), null,
+                "Loaded {0} security instrumentation packages in {1}ms using {2} threads");
     }
 
     /**
@@ -278,9 +294,18 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
     }
 
     /**
-     * Load all the weave packages embedded in the agent jar.
+     * Load all the weave packages embedded in the agent jar. Packages in the agent's {@link WeavePackageIndex} are
+     * created from the index without opening their jars.
      */
     private void loadInternalWeavePackages() {
+        loadInternalWeavePackages(readWeavePackageIndex(BootstrapAgent.class.getResourceAsStream(WEAVE_PACKAGE_INDEX_RESOURCE)));
+    }
+
+    /**
+     * @param weavePackageIndex index of the embedded jars' manifest attributes, or null to read every jar's manifest
+     */
+    @VisibleForTesting
+    void loadInternalWeavePackages(WeavePackageIndex weavePackageIndex) {
         Collection<String> jarFileNames = AgentJarHelper.findAgentJarFileNames(Pattern.compile("instrumentation\\/(.*).jar"));
         if (jarFileNames.isEmpty()) {
             LOG.log(Level.SEVERE, "No instrumentation packages were found in the agent.");
@@ -288,46 +313,136 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
             LOG.log(Level.FINE, "Loading {0} instrumentation packages", jarFileNames.size());
         }
 
-        int partitions = Math.min(jarFileNames.size(), PARTITIONS);
-        // Note: An ExecutorService would be better suited for this work but we are
+        loadWeavePackages(jarFileNames, name -> BootstrapAgent.class.getResource('/' + name), weavePackageIndex,
+                "Loaded {0} internal instrumentation packages in {1}ms using {2} threads");
+    }
+
+    /**
+     * @param indexStream the index of the instrumentation jars embedded in the agent jar, or null if the agent was built
+     *                    without one. The stream is closed.
+     * @return the index, or null if there isn't one or it can't be read
+     */
+    @VisibleForTesting
+    static WeavePackageIndex readWeavePackageIndex(InputStream indexStream) {
+        try (InputStream inputStream = indexStream) {
+            if (inputStream == null) {
+                LOG.log(Level.FINE, "No weave package index was found in the agent.");
+                return null;
+            }
+            WeavePackageIndex index = WeavePackageIndex.read(new BufferedInputStream(inputStream));
+            LOG.log(Level.FINE, "Read {0} instrumentation packages from the weave package index", index.size());
+            return index;
+        } catch (Exception e) {
+            LOG.log(Level.FINE, e, "Unable to read the weave package index. Instrumentation jars will be read individually.");
+            return null;
+        }
+    }
+
+    /**
+     * Locates an instrumentation jar by name.
+     */
+    private interface InstrumentationJarLocator {
+        URL locate(String jarFileName) throws Exception;
+    }
+
+    /**
+     * Create and register a weave package for each of the jars using up to {@link #PARTITIONS} threads. Rather than
+     * being handed a fixed partition, each thread takes the next unclaimed jar whenever it finishes one, so a thread
+     * that draws a few expensive packages doesn't hold up startup while the others sit idle.
+     *
+     * The total load time is recorded, along with the load times of the {@link #SLOWEST_PACKAGE_LOAD_TIMES} slowest
+     * packages.
+     *
+     * @param weavePackageIndex index of the jars' manifest attributes, or null to read every jar's manifest
+     * @param loadedMessage     logged with the number of packages registered, the load time and the number of threads
+     */
+    private void loadWeavePackages(Collection<String> jarFileNames, final InstrumentationJarLocator locator,
+            final WeavePackageIndex weavePackageIndex, String loadedMessage) {
+        final List<String> jars = new ArrayList<>(jarFileNames);
+        final AtomicInteger nextJar = new AtomicInteger();
+        final AtomicInteger registered = new AtomicInteger();
+        // the fastest of the slowest load times so far is at the head
+        final PriorityQueue<Map.Entry<String, Long>> slowestLoadTimes = new PriorityQueue<>(SLOWEST_PACKAGE_LOAD_TIMES + 1,
+                Map.Entry.<String, Long>comparingByValue());
+        int threads = Math.min(jars.size(), PARTITIONS);
+        // Note: An ExecutorService (or ForkJoinPool) would be better suited for this work but we are
         // specifically not using it here to prevent the ConcurrentCallablePointCut
         // from being loaded too early
-        final CountDownLatch executorCountDown = new CountDownLatch(partitions);
-        List<Set<String>> weavePackagePartitions = partitionInstrumentationJars(jarFileNames, partitions);
-
-        for (final Set<String> weavePackageJars : weavePackagePartitions) {
+        final CountDownLatch executorCountDown = new CountDownLatch(threads);
+        long startNanos = System.nanoTime();
 
+        for (int i = 0; i < threads; i++) {
             Runnable loadWeavePackagesRunnable = () -> {
                 try {
-                    for (final String name : weavePackageJars) {
-                        URL instrumentationUrl = BootstrapAgent.class.getResource('/' + name);
-                        if (instrumentationUrl == null) {
-                            Agent.LOG.error("Unable to find instrumentation jar: " + name);
-                        } else {
-                            registerInstrumentation(instrumentationUrl);
+                    for (int index = nextJar.getAndIncrement(); index < jars.size(); index = nextJar.getAndIncrement()) {
+                        String name = jars.get(index);
+                        try {
+                            URL instrumentationUrl = locator.locate(name);
+                            if (instrumentationUrl == null) {
+                                Agent.LOG.error("Unable to find instrumentation jar: " + name);
+                            } else {
+                                Attributes indexedAttributes = weavePackageIndex == null ? null
+                                        : weavePackageIndex.getAttributes(name.substring(name.lastIndexOf('/') + 1));
+                                long packageStartNanos = System.nanoTime();
+                                String packageName = registerInstrumentation(instrumentationUrl, indexedAttributes);
+                                if (packageName != null) {
+                                    registered.incrementAndGet();
+                                    addLoadTime(slowestLoadTimes, packageName, System.nanoTime() - packageStartNanos);
+                                }
+                            }
+                        } catch (Throwable t) {
+                            LOG.log(Level.FINER, t, "unable to load weave package jar {0}", name);
                         }
                     }
-                } catch (Throwable t) {
-                    LOG.log(Level.FINER, t, "A thread loading weaved packages threw an error");
                 } finally {
                     executorCountDown.countDown();
                 }
             };
-            new Thread(loadWeavePackagesRunnable).start();
+            new Thread(loadWeavePackagesRunnable, WEAVE_PACKAGE_LOADER_THREAD_NAME + " " + (i + 1)).start();
         }
 
         try {
-            // Wait for all partitions to complete
+            // Wait for all threads to complete
             executorCountDown.await();
-            LOG.log(Level.FINE, "Loaded {0} internal instrumentation packages", internalWeavePackages.size());
+            long loadTimeNanos = System.nanoTime() - startNanos;
+            ServiceFactory.getStatsService().doStatsWork(new RecordResponseTimeMetric(loadTimeNanos,
+                    MetricNames.SUPPORTABILITY_WEAVE_LOAD_TIME, TimeUnit.NANOSECONDS), MetricNames.SUPPORTABILITY_WEAVE_LOAD_TIME);
+            for (Map.Entry<String, Long> loadTime : slowestLoadTimes) {
+                String loadTimeMetric = MessageFormat.format(MetricNames.SUPPORTABILITY_WEAVE_PACKAGE_LOAD_TIME, loadTime.getKey());
+                ServiceFactory.getStatsService().doStatsWork(new RecordResponseTimeMetric(loadTime.getValue(), loadTimeMetric,
+                        TimeUnit.NANOSECONDS), loadTimeMetric);
+            }
+            LOG.log(Level.FINE, loadedMessage, registered.get(), TimeUnit.NANOSECONDS.toMillis(loadTimeNanos), threads);
         } catch (InterruptedException e) {
             LOG.log(Level.FINE, e, "Interrupted while waiting for instrumentation packages.");
         }
     }
 
-    private void registerInstrumentation(URL instrumentationUrl) {
-        try (InputStream inputStream = instrumentationUrl.openStream()) {
-            WeavePackage internalWeavePackage = createWeavePackage(inputStream, instrumentationUrl.toExternalForm());
+    /**
+     * Keep a package's load time if it is one of the {@link #SLOWEST_PACKAGE_LOAD_TIMES} slowest so far.
+     */
+    private static void addLoadTime(PriorityQueue<Map.Entry<String, Long>> slowestLoadTimes, String packageName, long loadTimeNanos) {
+        synchronized (slowestLoadTimes) {
+            slowestLoadTimes.add(new AbstractMap.SimpleImmutableEntry<>(packageName, loadTimeNanos));
+            if (slowestLoadTimes.size() > SLOWEST_PACKAGE_LOAD_TIMES) {
+                slowestLoadTimes.poll();
+            }
+        }
+    }
+
+    /**
+     * @return the name of the weave package registered for the jar, or null if none was
+     */
+    private String registerInstrumentation(URL instrumentationUrl, Attributes indexedAttributes) {
+        try {
+            WeavePackage internalWeavePackage;
+            if (indexedAttributes != null) {
+                internalWeavePackage = createWeavePackage(indexedAttributes, instrumentationUrl.toExternalForm());
+            } else {
+                try (InputStream inputStream = instrumentationUrl.openStream()) {
+                    internalWeavePackage = createWeavePackage(inputStream, instrumentationUrl.toExternalForm());
+                }
+            }
             if (null == internalWeavePackage) {
                 LOG.log(Level.FINEST, "internal weave package: {0} was null", instrumentationUrl.toExternalForm());
             } else if (internalWeavePackage.getPackageViolations().size() > 0) {
@@ -339,27 +454,12 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
                 LOG.log(Level.FINER, "adding weave package: {0}", internalWeavePackage.getName());
                 internalWeavePackages.add(internalWeavePackage.getName());
                 weavePackageManager.register(internalWeavePackage);
+                return internalWeavePackage.getName();
             }
         } catch (Throwable t) {
             LOG.log(Level.FINER, t, "unable to load weave package jar {0}", instrumentationUrl);
         }
-    }
-
-    private List<Set<String>> partitionInstrumentationJars(Collection<String> jarFileNames, int partitions) {
-        List<Set<String>> instrumentationPartitions = new ArrayList<>(partitions);
-
-        // Initialize each partition with an empty set
-        for (int i = 0; i < partitions; i++) {
-            instrumentationPartitions.add(new HashSet<String>());
-        }
-
-        int index = 0;
-        for (String jarFileName : jarFileNames) {
-            // Attempt to evenly distribute the jarFileNames across the partitions
-            instrumentationPartitions.get(index++ % partitions).add(jarFileName);
-        }
-
-        return instrumentationPartitions;
+        return null;
     }
 
     /**
@@ -518,8 +618,14 @@ public class ClassWeaverService implements ClassMatchVisitorFactory, ContextClas
             } catch (IOException e) {
             }
         }
-        context.putMatch(this, null);
-        return null;
+        // Screen the class against the names referenced by the weave packages during the match pass that is already
+        // reading it, so that classes that can't match never reach transform()
+        ClassVisitor possibleMatchVisitor = weavePackageManager.newPossibleMatchVisitor(reader.getClassName(),
+                getClassCache(loader), cv, () -> context.putMatch(this, null));
+        if (possibleMatchVisitor == null) {
+            context.putMatch(this, null);
+        }
+        return possibleMatchVisitor;
     }
 
     @Override
@@ -63,6 +63,7 @@ import com.newrelic.agent.service.analytics.TransactionEventsService;
 import com.newrelic.agent.service.async.AsyncTransactionService;
 import com.newrelic.agent.service.logging.LogSenderService;
 import com.newrelic.agent.service.logging.LogSenderServiceImpl;
+import com.newrelic.agent.service.module.DeferredJarAnalysis;
 import com.newrelic.agent.service.module.JarAnalystFactory;
 import com.newrelic.agent.service.module.JarCollectorConnectionListener;
 import com.newrelic.agent.service.module.JarCollectorHarvestListener;
@@ -187,7 +188,13 @@ public class ServiceManagerImpl extends AbstractService implements ServiceManage
         AtomicBoolean shouldSendAllJars = new AtomicBoolean(true);
         TrackedAddSet<JarData> analyzedJars = new TrackedAddSet<>();
 
+        String defaultAppName = configService.getDefaultAgentConfig().getApplicationName();
         Function<URL, JarData> processor = new JarCollectorServiceProcessor(jarCollectorLogger, configService.getDefaultAgentConfig());
+        DeferredJarAnalysis deferredJarAnalysis = null;
+        if (jarCollectorEnabled && configService.getDefaultAgentConfig().getJarCollectorConfig().isDeferAnalysis()) {
+            deferredJarAnalysis = new DeferredJarAnalysis(defaultAppName, processor, jarCollectorLogger);
+            processor = deferredJarAnalysis;
+        }
         JarAnalystFactory jarAnalystFactory = new JarAnalystFactory(processor, analyzedJars, jarCollectorLogger);
         ExecutorService executorService = Executors.newSingleThreadExecutor(new DefaultThreadFactory("New Relic Jar Analysis Thread", true));
 
@@ -198,7 +205,6 @@ public class ServiceManagerImpl extends AbstractService implements ServiceManage
 
         extensionService = new ExtensionService(configService, jarCollectorInputs.getExtensionAnalysisProducer());
 
-        String defaultAppName = configService.getDefaultAgentConfig().getApplicationName();
         JarCollectorConnectionListener jarCollectorConnectionListener = new JarCollectorConnectionListener(
                 defaultAppName, shouldSendAllJars
         );
@@ -285,6 +291,9 @@ public class ServiceManagerImpl extends AbstractService implements ServiceManage
         // Register harvest listeners that started before harvest service was created.
         harvestService.addHarvestListener(extensionService);
         harvestService.addHarvestListener(jarCollectorHarvestListener);
+        if (deferredJarAnalysis != null) {
+            harvestService.addHarvestListener(deferredJarAnalysis);
+        }
 
         slowTransactionService = new SlowTransactionService(config);
 
@@ -349,6 +358,8 @@ public class ServiceManagerImpl extends AbstractService implements ServiceManage
                 .usePlaintext(config.getUsePlaintext())
                 .useCompression(config.getUseCompression())
                 .useBatching(config.getUseBatching())
+                .senders(config.getSenders())
+                .streams(config.getStreams())
                 .build();
 
         return InfiniteTracing.initialize(infiniteTracingConfig, NewRelic.getAgent().getMetricAggregator());
@@ -14,6 +14,8 @@ import com.newrelic.agent.interfaces.ReservoirManager;
 import com.newrelic.agent.interfaces.SamplingPriorityQueue;
 import com.newrelic.agent.model.SpanEvent;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PartialDeliveryException;
+import com.newrelic.agent.transport.PayloadStagedException;
 import com.newrelic.api.agent.Logger;
 
 import java.util.Collections;
@@ -80,11 +82,17 @@ public class CollectorSpanEventReservoirManager implements ReservoirManager<Span
                 logger.log(Level.FINE, "Dropped {0} span events out of {1}.", dropped, toSend.getNumberOfTries());
             }
             return new HarvestResult(toSend.getNumberOfTries(), toSend.size());
+        } catch (PayloadStagedException e) {
+            toSend.clear();
+            logger.log(Level.FINE, "Unable to send span events. They were staged and will be sent once the collector accepts data.", e);
         } catch (HttpError e) {
             if (!e.discardHarvestData()) {
                 logger.log(Level.FINE, "Unable to send span events. Unsent events will be included in the next harvest.", e);
                 // Save unsent data by merging it with toSend data using reservoir algorithm
-                spanReservoirsForApp.get(appName).retryAll(toSend);
+                SamplingPriorityQueue<SpanEvent> currentReservoir = spanReservoirsForApp.get(appName);
+                for (SpanEvent event : PartialDeliveryException.getUnsentEvents(e, toSend.asList())) {
+                    currentReservoir.add(event);
+                }
             } else {
                 // discard harvest data
                 toSend.clear();
@@ -8,7 +8,6 @@
 package com.newrelic.agent.service.analytics;
 
 import com.google.common.collect.MinMaxPriorityQueue;
-import com.google.common.collect.Queues;
 import com.newrelic.agent.interfaces.SamplingPriorityQueue;
 import com.newrelic.agent.model.PriorityAware;
 import com.newrelic.agent.tracing.DistributedTraceUtil;
@@ -17,10 +16,20 @@ import com.newrelic.agent.util.NoOpQueue;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A fixed size reservoir that keeps the highest priority elements added to it.
+ *
+ * Adds are admitted through a lock-free gate: once the reservoir is full, an element whose priority is lower than every
+ * retained element would be evicted immediately, so it is rejected without taking the reservoir's lock. Only elements
+ * that can displace a retained element, and adds made while the reservoir is still filling, are inserted under the lock.
+ * The gate relies on the comparator ordering elements by descending priority first, which every comparator used with
+ * this reservoir does; elements with equal priority are always ordered by the comparator under the lock.
+ */
 public class DistributedSamplingPriorityQueue<E extends PriorityAware> implements SamplingPriorityQueue<E> {
 
     private final String appName;
     private final String serviceName;
+    // guarded by itself
     private final Queue<E> data;
     private final AtomicInteger numberOfTries = new AtomicInteger();
     private final AtomicInteger recorded;
@@ -33,6 +42,13 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
     private final Comparator<E> comparator;
     private final int maximumSize;
 
+    // Published under the data lock after every change so that the read-only methods and the admission gate don't
+    // need to take it. The admission floor is the lowest retained priority while the reservoir is full and negative
+    // infinity otherwise.
+    private volatile int size;
+    private volatile float headPriority;
+    private volatile float admissionFloor;
+
     public DistributedSamplingPriorityQueue(int reservoirSize) {
         this("", "", reservoirSize, 0, 0, null);
     }
@@ -63,24 +79,38 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
         this.target = target;
         this.decided = new AtomicInteger(0);
         this.maximumSize = reservoirSize;
+        this.admissionFloor = reservoirSize <= 0 ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
     }
 
     private Queue<E> createQueue(int reservoirSize, Comparator<E> comparator) {
         if (reservoirSize <= 0) {
             return new NoOpQueue<>();
         } else {
-            return Queues.synchronizedQueue(MinMaxPriorityQueue
+            return MinMaxPriorityQueue
                     .orderedBy(comparator)
                     .maximumSize(reservoirSize)
-                    .create());
+                    .create();
+        }
+    }
+
+    /**
+     * Must be called while holding the data lock.
+     */
+    private void publishState() {
+        size = data.size();
+        headPriority = size == 0 ? 0.0f : data.peek().getPriority();
+        if (maximumSize > 0) {
+            admissionFloor = size >= maximumSize ? ((MinMaxPriorityQueue<E>) data).peekLast().getPriority() : Float.NEGATIVE_INFINITY;
         }
     }
 
     public void retryAll(DistributedSamplingPriorityQueue<E> source) {
+        List<E> elements;
         synchronized (source.data) {
-            for (E element : source.data) {
-                add(element);
-            }
+            elements = new ArrayList<>(source.data);
+        }
+        for (E element : elements) {
+            add(element);
         }
     }
 
@@ -93,12 +123,12 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
 
     @Override
     public boolean isFull() {
-        return data.size() == maximumSize;
+        return size == maximumSize;
     }
 
     @Override
     public float getMinPriority() {
-        return data.isEmpty() ? 0.0f : data.peek().getPriority();
+        return headPriority;
     }
 
     @Override
@@ -114,7 +144,15 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
     @Override
     public boolean add(E element) {
         incrementNumberOfTries();
-        boolean added = data.offer(element);
+        if (element.getPriority() < admissionFloor) {
+            // would be evicted as soon as it was added
+            return false;
+        }
+        boolean added;
+        synchronized (data) {
+            added = data.offer(element);
+            publishState();
+        }
         if (added && element.decider()) {
             decided.incrementAndGet();
             if (DistributedTraceUtil.isSampledPriority(element.getPriority())) {
@@ -126,12 +164,18 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
 
     @Override
     public E peek() {
-        return data.peek();
+        synchronized (data) {
+            return data.peek();
+        }
     }
 
     @Override
     public E poll() {
-        return data.poll();
+        synchronized (data) {
+            E element = data.poll();
+            publishState();
+            return element;
+        }
     }
 
     @Override
@@ -176,12 +220,15 @@ public class DistributedSamplingPriorityQueue<E extends PriorityAware> implement
 
     @Override
     public int size() {
-        return data.size();
+        return size;
     }
 
     @Override
     public void clear() {
-        data.clear();
+        synchronized (data) {
+            data.clear();
+            publishState();
+        }
     }
 
 }
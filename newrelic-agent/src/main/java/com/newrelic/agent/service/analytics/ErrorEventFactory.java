@@ -10,7 +10,6 @@ package com.newrelic.agent.service.analytics;
 import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.TransactionData;
 import com.newrelic.agent.attributes.AttributeValidator;
-import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.agent.config.ConfigConstant;
 import com.newrelic.agent.config.DistributedTracingConfig;
 import com.newrelic.agent.database.DatastoreMetrics;
@@ -155,7 +154,7 @@ public class ErrorEventFactory {
         if (transactionData != null) {
             agentAttrs.putAll(transactionData.getAgentAttributes());
             // request/message parameters are sent up in the same bucket as agent attributes
-            agentAttrs.putAll(AttributesUtils.appendAttributePrefixes(transactionData.getPrefixedAttributes()));
+            agentAttrs.putAll(transactionData.getFlattenedPrefixedAttributes());
         }
 
         if (tracedError != null && tracedError.getAgentAtts() != null) {
@@ -31,6 +31,8 @@ import com.newrelic.agent.stats.StatsWork;
 import com.newrelic.agent.stats.TransactionStats;
 import com.newrelic.agent.tracing.DistributedTraceServiceImpl;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PartialDeliveryException;
+import com.newrelic.agent.transport.PayloadStagedException;
 import com.newrelic.api.agent.Insights;
 
 import java.text.MessageFormat;
@@ -299,12 +301,17 @@ public class InsightsServiceImpl extends AbstractService implements InsightsServ
                     int dropped = reservoir.getNumberOfTries() - reservoir.size();
                     Agent.LOG.log(Level.FINE, "Dropped {0} custom events out of {1}.", dropped, reservoir.getNumberOfTries());
                 }
+            } catch (PayloadStagedException e) {
+                reservoir.clear();
+                Agent.LOG.log(Level.FINE, "Unable to send custom events. They were staged and will be sent once the collector accepts data.", e);
             } catch (HttpError e) {
                 if (!e.discardHarvestData()) {
                     Agent.LOG.log(Level.FINE, "Unable to send custom events. Unsent events will be included in the next harvest.", e);
                     // Save unsent data by merging it with current data using reservoir algorithm
                     DistributedSamplingPriorityQueue<CustomInsightsEvent> currentReservoir = reservoirForApp.get(appName);
-                    currentReservoir.retryAll(reservoir);
+                    for (CustomInsightsEvent event : PartialDeliveryException.getUnsentEvents(e, reservoir.asList())) {
+                        currentReservoir.add(event);
+                    }
                 } else {
                     // discard harvest data
                     reservoir.clear();
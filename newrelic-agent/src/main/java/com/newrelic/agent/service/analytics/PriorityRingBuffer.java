@@ -0,0 +1,260 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.service.analytics;
+
+import com.newrelic.agent.interfaces.SamplingPriorityQueue;
+import com.newrelic.agent.model.PriorityAware;
+import com.newrelic.agent.tracing.DistributedTraceUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size reservoir that never blocks the threads adding to it. Slots are preallocated and claimed with an atomic
+ * counter until the buffer is full. After that, an added element is compared with two randomly chosen slots and
+ * replaces the lower priority one if its own priority is higher, otherwise it is dropped. Under pressure this keeps a
+ * sample biased towards high priorities, but unlike {@link DistributedSamplingPriorityQueue} it doesn't guarantee that
+ * the retained elements are the highest priority ones that were added.
+ *
+ * The buffer is meant to be swapped out and drained by a single harvest thread: once another reservoir has taken its
+ * place, {@link #seal(SamplingPriorityQueue)} redirects late adds to that reservoir and waits for adds in progress to
+ * finish. After that the contents and {@link #getNumberOfTries()} are final, so every element added is either sent from
+ * this buffer, counted as dropped by it, or counted by the successor.
+ *
+ * {@link #poll()} empties the slot of the element it removes. Adds don't refill emptied slots until the buffer is
+ * cleared.
+ */
+public class PriorityRingBuffer<E extends PriorityAware> implements SamplingPriorityQueue<E> {
+
+    private final String appName;
+    private final String serviceName;
+    private final int capacity;
+    private final AtomicReferenceArray<E> slots;
+    private final Comparator<E> comparator = (left, right) -> Float.compare(right.getPriority(), left.getPriority());
+
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger numberOfTries = new AtomicInteger();
+    private final AtomicInteger decided = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger removed = new AtomicInteger();
+
+    private final AtomicInteger addsInProgress = new AtomicInteger();
+    private volatile SamplingPriorityQueue<E> successor;
+
+    public PriorityRingBuffer(String appName, String serviceName, int capacity) {
+        this.appName = appName;
+        this.serviceName = serviceName;
+        this.capacity = Math.max(0, capacity);
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    @Override
+    public boolean add(E element) {
+        addsInProgress.incrementAndGet();
+        try {
+            SamplingPriorityQueue<E> next = successor;
+            if (next != null) {
+                return next.add(element);
+            }
+            incrementNumberOfTries();
+
+            boolean added = claim(element) || replaceLowerPriority(element);
+            if (added && element.decider()) {
+                decided.incrementAndGet();
+                if (DistributedTraceUtil.isSampledPriority(element.getPriority())) {
+                    recorded.incrementAndGet();
+                }
+            }
+            return added;
+        } finally {
+            addsInProgress.decrementAndGet();
+        }
+    }
+
+    private boolean claim(E element) {
+        // checked first so the counter stops growing once the buffer is full
+        if (claimed.get() >= capacity) {
+            return false;
+        }
+        int index = claimed.getAndIncrement();
+        if (index >= capacity) {
+            return false;
+        }
+        slots.set(index, element);
+        return true;
+    }
+
+    private boolean replaceLowerPriority(E element) {
+        if (capacity == 0) {
+            return false;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(capacity);
+        E victim = slots.get(index);
+        int otherIndex = random.nextInt(capacity);
+        E other = slots.get(otherIndex);
+        if (victim == null || (other != null && other.getPriority() < victim.getPriority())) {
+            index = otherIndex;
+            victim = other;
+        }
+        // a null slot has been claimed but not yet written
+        return victim != null && element.getPriority() > victim.getPriority() && slots.compareAndSet(index, victim, element);
+    }
+
+    /**
+     * Send adds made after this call to another reservoir, and wait for adds already in progress to finish. Call this
+     * from the harvest thread once the successor has replaced this buffer, and before reading its contents.
+     */
+    public void seal(SamplingPriorityQueue<E> successor) {
+        this.successor = successor;
+        while (addsInProgress.get() > 0) {
+            // adds don't block, so they finish quickly
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public void retryAll(SamplingPriorityQueue<E> source) {
+        for (E element : source.asList()) {
+            add(element);
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return claimed.get() >= capacity;
+    }
+
+    @Override
+    public float getMinPriority() {
+        E head = peek();
+        return head == null ? 0.0f : head.getPriority();
+    }
+
+    @Override
+    public int getNumberOfTries() {
+        return numberOfTries.get();
+    }
+
+    @Override
+    public void incrementNumberOfTries() {
+        numberOfTries.incrementAndGet();
+    }
+
+    /**
+     * @return the highest priority element
+     */
+    @Override
+    public E peek() {
+        int index = indexOfHighestPriority();
+        return index < 0 ? null : slots.get(index);
+    }
+
+    /**
+     * Remove the highest priority element.
+     *
+     * @return the highest priority element, or null if the buffer is empty
+     */
+    @Override
+    public E poll() {
+        while (true) {
+            int index = indexOfHighestPriority();
+            if (index < 0) {
+                return null;
+            }
+            // replacing an element only raises the priority of its slot, so whatever is there now is still the highest
+            E element = slots.get(index);
+            if (element != null && slots.compareAndSet(index, element, null)) {
+                removed.incrementAndGet();
+                return element;
+            }
+            // another thread polled it first, look again
+        }
+    }
+
+    private int indexOfHighestPriority() {
+        int result = -1;
+        float highestPriority = 0.0f;
+        int claimedSlots = claimedSlots();
+        for (int i = 0; i < claimedSlots; i++) {
+            E element = slots.get(i);
+            if (element != null && (result < 0 || element.getPriority() > highestPriority)) {
+                result = i;
+                highestPriority = element.getPriority();
+            }
+        }
+        return result;
+    }
+
+    private int claimedSlots() {
+        return Math.min(claimed.get(), capacity);
+    }
+
+    @Override
+    public List<E> asList() {
+        int size = claimedSlots();
+        List<E> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            E element = slots.get(i);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        Collections.sort(elements, comparator);
+        return elements;
+    }
+
+    @Override
+    public String getAppName() {
+        return appName;
+    }
+
+    @Override
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    @Override
+    public int getSampled() {
+        return recorded.get();
+    }
+
+    @Override
+    public int getDecided() {
+        return decided.get();
+    }
+
+    @Override
+    public int getTarget() {
+        return 0;
+    }
+
+    @Override
+    public int getDecidedLast() {
+        return 0;
+    }
+
+    @Override
+    public int size() {
+        return claimedSlots() - removed.get();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            slots.set(i, null);
+        }
+        claimed.set(0);
+        removed.set(0);
+    }
+}
@@ -10,7 +10,6 @@ package com.newrelic.agent.service.analytics;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Maps;
 import com.newrelic.agent.TransactionData;
-import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.agent.environment.EnvironmentService;
 import com.newrelic.agent.json.AttributeFilters;
 import com.newrelic.agent.model.AttributeFilter;
@@ -111,12 +110,18 @@ public class TracerToSpanEvent {
             builder.setTracingVendors(vendorKeys);
         }
 
+        Map<String, Object> tracerUserAttributes = tracer.getCustomAttributes();
+        if (!isRoot && tracerUserAttributes.isEmpty()) {
+            // most spans have no custom attributes, so skip copying them through a limited size map
+            return builder.build();
+        }
+
         LimitedSizeHashMap<String, Object> spanUserAttributes = new LimitedSizeHashMap<>(MAX_USER_ATTRIBUTES);
 
         // order matters here because we don't want transaction attributes to overwrite tracer attributes. This would be the case if there were 64
         // transaction attributes and they got added first to the span attributes map. Then none of the tracer attributes would make it in due
         // to the limit of 64 attributes.
-        spanUserAttributes.putAll(tracer.getCustomAttributes());
+        spanUserAttributes.putAll(tracerUserAttributes);
 
         if (isRoot) {
             copyTransactionAttributesToRootSpanBuilder(builder, transactionData, spanUserAttributes, transactionStats);
@@ -189,8 +194,7 @@ public class TracerToSpanEvent {
         Map<String, Object> agentAttributes = transactionData.getAgentAttributes();
         Map<String, ?> filteredAgentAttributes = filterAttributes(agentAttributes);
         builder.putAllAgentAttributes(filteredAgentAttributes);
-        Map<String, Map<String, String>> prefixedAttributes = transactionData.getPrefixedAttributes();
-        Map<String, ?> filteredPrefixedAttributes = filterAttributes(AttributesUtils.appendAttributePrefixes(prefixedAttributes));
+        Map<String, ?> filteredPrefixedAttributes = filterAttributes(transactionData.getFlattenedPrefixedAttributes());
         builder.putAllAgentAttributes(filteredPrefixedAttributes);
     }
 
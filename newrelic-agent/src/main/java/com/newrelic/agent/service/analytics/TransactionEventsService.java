@@ -15,7 +15,6 @@ import com.newrelic.agent.Harvestable;
 import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.TransactionData;
 import com.newrelic.agent.TransactionListener;
-import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.AgentConfigListener;
 import com.newrelic.agent.config.TransactionEventsConfig;
@@ -35,6 +34,8 @@ import com.newrelic.agent.stats.StatsWork;
 import com.newrelic.agent.stats.TransactionStats;
 import com.newrelic.agent.tracing.DistributedTracePayloadImpl;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PartialDeliveryException;
+import com.newrelic.agent.transport.PayloadStagedException;
 import com.newrelic.agent.util.TimeConversion;
 
 import java.text.MessageFormat;
@@ -211,13 +212,18 @@ public class TransactionEventsService extends AbstractService implements EventSe
                         return appName;
                     }
                 }, reservoirToSend.getServiceName());
+            } catch (PayloadStagedException e) {
+                reservoirToSend.clear();
+                Agent.LOG.log(Level.FINE, "Unable to send events for regular transactions. They were staged and will be sent once the collector accepts data.", e);
             } catch (HttpError e) {
                 if (!e.discardHarvestData()) {
                     Agent.LOG.log(Level.FINE,
                             "Unable to send events for regular transactions. Data for this harvest will be resampled and the operation will be retried.", e);
                     // Save unsent data by merging it with current data using reservoir algorithm
                     currentReservoir = reservoirForApp.get(appName);
-                    currentReservoir.retryAll(reservoirToSend);
+                    for (TransactionEvent event : PartialDeliveryException.getUnsentEvents(e, reservoirToSend.asList())) {
+                        currentReservoir.add(event);
+                    }
                 } else {
                     // discard harvest data
                     reservoirToSend.clear();
@@ -288,6 +294,9 @@ public class TransactionEventsService extends AbstractService implements EventSe
                         .getOrCreateRPMService(appName)
                         .sendAnalyticsEvents(MAX_SYNTHETIC_EVENTS_PER_APP, toSend.getNumberOfTries(), Collections.unmodifiableList(toSend.asList()));
                 nSent++;
+            } catch (PayloadStagedException e) {
+                Agent.LOG.log(Level.FINE, "Unable to send events for synthetic transactions. They were staged and will be sent once the collector accepts data.", e);
+                break;
             } catch (HttpError e) {
                 if (!e.discardHarvestData()) {
                     Agent.LOG.log(Level.FINE, "Unable to send events for synthetic transactions. Unsent events will be included in the next harvest.", e);
@@ -455,7 +464,7 @@ public class TransactionEventsService extends AbstractService implements EventSe
 
             event.agentAttributes = transactionData.getAgentAttributes();
             // request/message parameters are sent up in the same bucket as agent attributes
-            event.agentAttributes.putAll(AttributesUtils.appendAttributePrefixes(transactionData.getPrefixedAttributes()));
+            event.agentAttributes.putAll(transactionData.getFlattenedPrefixedAttributes());
         }
 
         return event;
@@ -23,21 +23,26 @@ import com.newrelic.agent.attributes.DisabledExcludeIncludeFilter;
 import com.newrelic.agent.attributes.ExcludeIncludeFilter;
 import com.newrelic.agent.attributes.ExcludeIncludeFilterImpl;
 import com.newrelic.agent.attributes.LogAttributeValidator;
+import com.newrelic.agent.bridge.logging.AppLoggingUtils;
 import com.newrelic.agent.bridge.logging.LogAttributeKey;
 import com.newrelic.agent.bridge.logging.LogAttributeType;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.AgentConfigListener;
 import com.newrelic.agent.config.ApplicationLoggingConfig;
+import com.newrelic.agent.interfaces.SamplingPriorityQueue;
 import com.newrelic.agent.model.LogEvent;
 import com.newrelic.agent.service.AbstractService;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.service.analytics.DistributedSamplingPriorityQueue;
+import com.newrelic.agent.service.analytics.PriorityRingBuffer;
 import com.newrelic.agent.stats.StatsEngine;
 import com.newrelic.agent.stats.StatsService;
 import com.newrelic.agent.stats.StatsWork;
 import com.newrelic.agent.stats.TransactionStats;
 import com.newrelic.agent.tracing.DistributedTraceServiceImpl;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PayloadStagedException;
 import com.newrelic.agent.util.NoOpQueue;
 import com.newrelic.api.agent.Logs;
 
@@ -70,11 +75,17 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
     // we'll default to 5000, unless overridden
     volatile long reportPeriodInMillis = 5000;
     // Key is app name, value is collection of per-transaction log events for next harvest for that app.
-    private final ConcurrentHashMap<String, DistributedSamplingPriorityQueue<LogEvent>> reservoirForApp = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SamplingPriorityQueue<LogEvent>> reservoirForApp = new ConcurrentHashMap<>();
+    // Whether new reservoirs are lock free ring buffers rather than priority queues
+    private volatile boolean ringBufferEnabled;
 
     private static final LoadingCache<String, String> stringCache = Caffeine.newBuilder().maximumSize(1000)
             .expireAfterAccess(70, TimeUnit.SECONDS).executor(Runnable::run).build(key -> key);
 
+    // Context data keys mapped to their prefixed attribute names, so the prefix isn't concatenated for every log line
+    private static final LoadingCache<String, String> contextKeyCache = Caffeine.newBuilder().maximumSize(1000)
+            .expireAfterAccess(70, TimeUnit.SECONDS).executor(Runnable::run).build(LogAttributeType.CONTEXT::applyPrefix);
+
     public static final String METHOD = "add log event attribute";
     public static final String LOG_SENDER_SERVICE = "Log Sender Service";
 
@@ -117,6 +128,7 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
 
             maxSamplesStored = (int) (appLoggingConfig.getMaxSamplesStored()*(reportPeriodInMillis / 60000.0));
             forwardingEnabled = appLoggingConfig.isForwardingEnabled();
+            ringBufferEnabled = appLoggingConfig.isForwardingRingBufferEnabled();
             contextDataKeyFilter = createContextDataKeyFilter(appLoggingConfig);
 
             boolean metricsEnabled = appLoggingConfig.isMetricsEnabled();
@@ -156,6 +168,7 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
 
         maxSamplesStored = (int) (appLoggingConfig.getMaxSamplesStored()*(reportPeriodInMillis / 60000.0));
         forwardingEnabled = appLoggingConfig.isForwardingEnabled();
+        ringBufferEnabled = appLoggingConfig.isForwardingRingBufferEnabled();
         contextDataKeyFilter = createContextDataKeyFilter(appLoggingConfig);
 
         isEnabledForApp.put(config.getApplicationName(), forwardingEnabled);
@@ -228,27 +241,68 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
         Transaction transaction = ServiceFactory.getTransactionService().getTransaction(false);
         // Not in a Transaction or an existing Transaction is not in progress or is ignored
         if (transaction == null || !transaction.isInProgress() || transaction.isIgnore()) {
-            String applicationName = ServiceFactory.getRPMService().getApplicationName();
-
-            if (transaction != null && transaction.getApplicationName() != null) {
-                applicationName = transaction.getApplicationName();
+            String applicationName = getApplicationNameIfEnabled(transaction);
+            if (applicationName == null) {
+                return;
             }
+            storeEvent(applicationName, createValidatedEvent(attributes, contextDataKeyFilter));
+        // In a Transaction that is in progress and not ignored
+        } else {
+            // Store log events on the transaction
+            transaction.getLogEventData().recordLogEvent(attributes);
+        }
+        MetricNames.recordApiSupportabilityMetric(MetricNames.SUPPORTABILITY_API_RECORD_LOG_EVENT);
+    }
 
-            AgentConfig agentConfig = ServiceFactory.getConfigService().getAgentConfig(applicationName);
+    /**
+     * Records a LogEvent. If a LogEvent occurs within a Transaction it will be associated with it.
+     *
+     * @param record the log line captured by logging instrumentation
+     */
+    @Override
+    public void recordLogEvent(LogEventRecord record) {
+        if (logEventsDisabled() || record == null) {
+            return;
+        }
 
-            if (!getIsEnabledForApp(agentConfig, applicationName)) {
-                reservoirForApp.remove(applicationName);
+        Transaction transaction = ServiceFactory.getTransactionService().getTransaction(false);
+        // Not in a Transaction or an existing Transaction is not in progress or is ignored
+        if (transaction == null || !transaction.isInProgress() || transaction.isIgnore()) {
+            String applicationName = getApplicationNameIfEnabled(transaction);
+            if (applicationName == null) {
                 return;
             }
-            createAndStoreEvent(applicationName, attributes);
+            storeEvent(applicationName, createValidatedEvent(record, contextDataKeyFilter));
         // In a Transaction that is in progress and not ignored
         } else {
             // Store log events on the transaction
-            transaction.getLogEventData().recordLogEvent(attributes);
+            transaction.getLogEventData().recordLogEvent(record);
         }
         MetricNames.recordApiSupportabilityMetric(MetricNames.SUPPORTABILITY_API_RECORD_LOG_EVENT);
     }
 
+    /**
+     * Get the application that log events outside of a transaction are reported to.
+     *
+     * @param transaction the current transaction, which is not in progress or is ignored, or null
+     * @return the application name, or null if log forwarding is disabled for the application
+     */
+    private String getApplicationNameIfEnabled(Transaction transaction) {
+        String applicationName = ServiceFactory.getRPMService().getApplicationName();
+
+        if (transaction != null && transaction.getApplicationName() != null) {
+            applicationName = transaction.getApplicationName();
+        }
+
+        AgentConfig agentConfig = ServiceFactory.getConfigService().getAgentConfig(applicationName);
+
+        if (!getIsEnabledForApp(agentConfig, applicationName)) {
+            reservoirForApp.remove(applicationName);
+            return null;
+        }
+        return applicationName;
+    }
+
     /**
      * Store a collection of LogEvents in the priority queue when a Transaction is finished or cancelled
      *
@@ -258,7 +312,7 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
      */
     private void storeEvents(String appName, float priority, Collection<LogEvent> events) {
         if (events.size() > 0) {
-            DistributedSamplingPriorityQueue<LogEvent> eventList = getReservoir(appName);
+            SamplingPriorityQueue<LogEvent> eventList = getReservoir(appName);
             for (LogEvent event : events) {
                 // Set "priority" on LogEvent based on priority value from Transaction
                 event.setPriority(priority);
@@ -294,7 +348,7 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
     }
 
     public void clearReservoir(String appName) {
-        DistributedSamplingPriorityQueue<LogEvent> reservoir = reservoirForApp.get(appName);
+        SamplingPriorityQueue<LogEvent> reservoir = reservoirForApp.get(appName);
         if (reservoir != null) {
             reservoir.clear();
         }
@@ -332,26 +386,11 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
             return;
         }
 
-        DistributedSamplingPriorityQueue<LogEvent> eventList = getReservoir(appName);
+        SamplingPriorityQueue<LogEvent> eventList = getReservoir(appName);
         eventList.add(event);
         Agent.LOG.finest(MessageFormat.format("Added Custom Event of type {0}", event.getType()));
     }
 
-    /**
-     * Create and store a LogEvent instance
-     *
-     * @param appName    application name
-     * @param attributes Map of attributes to create a LogEvent from
-     */
-    private void createAndStoreEvent(String appName, Map<LogAttributeKey, ?> attributes) {
-        if (logEventsDisabled()) {
-            return;
-        }
-        DistributedSamplingPriorityQueue<LogEvent> eventList = getReservoir(appName);
-        eventList.add(createValidatedEvent(attributes, contextDataKeyFilter));
-        Agent.LOG.finest(MessageFormat.format("Added event of type {0}", LOG_EVENT_TYPE));
-    }
-
     /**
      * Check if LogEvents are disabled
      *
@@ -377,16 +416,23 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
      * @return Queue of LogEvent instances
      */
     @VisibleForTesting
-    public DistributedSamplingPriorityQueue<LogEvent> getReservoir(String appName) {
-        DistributedSamplingPriorityQueue<LogEvent> result = reservoirForApp.get(appName);
+    public SamplingPriorityQueue<LogEvent> getReservoir(String appName) {
+        SamplingPriorityQueue<LogEvent> result = reservoirForApp.get(appName);
         while (result == null) {
             // I don't think this loop can actually execute more than once, but it's prudent to assume it can.
-            reservoirForApp.putIfAbsent(appName, new DistributedSamplingPriorityQueue<>(appName, LOG_SENDER_SERVICE, maxSamplesStored));
+            reservoirForApp.putIfAbsent(appName, createReservoir(appName));
             result = reservoirForApp.get(appName);
         }
         return result;
     }
 
+    private SamplingPriorityQueue<LogEvent> createReservoir(String appName) {
+        if (ringBufferEnabled) {
+            return new PriorityRingBuffer<>(appName, LOG_SENDER_SERVICE, maxSamplesStored);
+        }
+        return new DistributedSamplingPriorityQueue<>(appName, LOG_SENDER_SERVICE, maxSamplesStored);
+    }
+
     /**
      * Harvest and send the LogEvents
      *
@@ -404,8 +450,12 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
 
         long startTimeInNanos = System.nanoTime();
 
-        final DistributedSamplingPriorityQueue<LogEvent> reservoir = this.reservoirForApp.put(appName,
-                new DistributedSamplingPriorityQueue<>(appName, LOG_SENDER_SERVICE, maxSamplesStored));
+        SamplingPriorityQueue<LogEvent> nextReservoir = createReservoir(appName);
+        final SamplingPriorityQueue<LogEvent> reservoir = this.reservoirForApp.put(appName, nextReservoir);
+        if (reservoir instanceof PriorityRingBuffer) {
+            // wait for adds in flight so the events seen and sent are final
+            ((PriorityRingBuffer<LogEvent>) reservoir).seal(nextReservoir);
+        }
 
         if (reservoir != null && reservoir.size() > 0) {
             try {
@@ -431,11 +481,14 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
                     int dropped = reservoir.getNumberOfTries() - reservoir.size();
                     Agent.LOG.log(Level.FINE, "Dropped {0} log events out of {1}.", dropped, reservoir.getNumberOfTries());
                 }
+            } catch (PayloadStagedException e) {
+                reservoir.clear();
+                Agent.LOG.log(Level.FINE, "Unable to send log events. They were staged and will be sent once the collector accepts data.", e);
             } catch (HttpError e) {
                 if (!e.discardHarvestData()) {
                     Agent.LOG.log(Level.FINE, "Unable to send log events. Unsent events will be included in the next harvest.", e);
                     // Save unsent data by merging it with current data using reservoir algorithm
-                    DistributedSamplingPriorityQueue<LogEvent> currentReservoir = reservoirForApp.get(appName);
+                    SamplingPriorityQueue<LogEvent> currentReservoir = reservoirForApp.get(appName);
                     currentReservoir.retryAll(reservoir);
                 } else {
                     // discard harvest data
@@ -466,7 +519,7 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
     }
 
     private void recordSupportabilityMetrics(StatsEngine statsEngine, long durationInNanoseconds,
-                                             DistributedSamplingPriorityQueue<LogEvent> reservoir) {
+                                             SamplingPriorityQueue<LogEvent> reservoir) {
         statsEngine.getStats(MetricNames.SUPPORTABILITY_LOGGING_FORWARDING_SENT)
                 .incrementCallCount(reservoir.size());
         statsEngine.getStats(MetricNames.SUPPORTABILITY_LOGGING_FORWARDING_SEEN)
@@ -544,21 +597,72 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
                 continue;
             }
 
-            String prefixedKey = mapInternString(logAttrKey.getPrefixedKey());
-            if (value instanceof String) {
-                sender.addAttribute(prefixedKey, mapInternString((String) value), METHOD);
-            } else if (value instanceof Number) {
-                sender.addAttribute(prefixedKey, (Number) value, METHOD);
-            } else if (value instanceof Boolean) {
-                sender.addAttribute(prefixedKey, (Boolean) value, METHOD);
-            } else {
-                // Java Agent specific - toString the value. This allows for e.g. enums as arguments.
-                sender.addAttribute(prefixedKey, mapInternString(value.toString()), METHOD);
+            addAttribute(sender, mapInternString(logAttrKey.getPrefixedKey()), value);
+        }
+        return event;
+    }
+
+    /**
+     * Create a validated LogEvent from the fields of a log record, without building an intermediate attribute map.
+     *
+     * @param record               the log line to create a LogEvent from
+     * @param contextDataKeyFilter filter for context data keys
+     * @return LogEvent instance
+     */
+    private static LogEvent createValidatedEvent(LogEventRecord record, ExcludeIncludeFilter contextDataKeyFilter) {
+        Map<String, String> logEventLinkingMetadata = AgentLinkingMetadata.getLogEventLinkingMetadata(TraceMetadataImpl.INSTANCE,
+                ServiceFactory.getConfigService(), ServiceFactory.getRPMService());
+        Map<String, Object> logEventAttributes = new HashMap<>(logEventLinkingMetadata);
+
+        LogEvent event = new LogEvent(logEventAttributes, DistributedTraceServiceImpl.nextTruncatedFloat());
+        AttributeSender sender = new LogEventAttributeSender(logEventAttributes);
+
+        // the agent attribute keys are constants, so they don't need "interning"
+        addAttributeIfNotNull(sender, AppLoggingUtils.INSTRUMENTATION.getKey(), record.getInstrumentation());
+        addAttributeIfNotNull(sender, AppLoggingUtils.MESSAGE.getKey(), record.getMessage());
+        sender.addAttribute(AppLoggingUtils.TIMESTAMP.getKey(), record.getTimestamp(), METHOD);
+        addAttributeIfNotNull(sender, AppLoggingUtils.LEVEL.getKey(), record.getLevel());
+        addAttributeIfNotNull(sender, AppLoggingUtils.ERROR_MESSAGE.getKey(), record.getErrorMessage());
+        addAttributeIfNotNull(sender, AppLoggingUtils.ERROR_CLASS.getKey(), record.getErrorClass());
+        addAttributeIfNotNull(sender, AppLoggingUtils.ERROR_STACK.getKey(), record.getErrorStack());
+        addAttributeIfNotNull(sender, AppLoggingUtils.THREAD_NAME.getKey(), record.getThreadName());
+        sender.addAttribute(AppLoggingUtils.THREAD_ID.getKey(), record.getThreadId(), METHOD);
+        addAttributeIfNotNull(sender, AppLoggingUtils.LOGGER_NAME.getKey(), record.getLoggerName());
+        addAttributeIfNotNull(sender, AppLoggingUtils.LOGGER_FQCN.getKey(), record.getLoggerFqcn());
+
+        for (int i = 0; i < record.getContextDataSize(); i++) {
+            String key = record.getContextDataKey(i);
+            Object value = record.getContextDataValue(i);
+            if (key == null || value == null) {
+                Agent.LOG.log(Level.WARNING, "Log event with invalid context data key or value of null was reported but ignored.");
+                continue;
+            }
+            if (contextDataKeyFilter.shouldInclude(key)) {
+                addAttribute(sender, contextKeyCache.get(key), value);
             }
         }
         return event;
     }
 
+    private static void addAttributeIfNotNull(AttributeSender sender, String key, String value) {
+        if (value != null) {
+            sender.addAttribute(key, mapInternString(value), METHOD);
+        }
+    }
+
+    private static void addAttribute(AttributeSender sender, String prefixedKey, Object value) {
+        if (value instanceof String) {
+            sender.addAttribute(prefixedKey, mapInternString((String) value), METHOD);
+        } else if (value instanceof Number) {
+            sender.addAttribute(prefixedKey, (Number) value, METHOD);
+        } else if (value instanceof Boolean) {
+            sender.addAttribute(prefixedKey, (Boolean) value, METHOD);
+        } else {
+            // Java Agent specific - toString the value. This allows for e.g. enums as arguments.
+            sender.addAttribute(prefixedKey, mapInternString(value.toString()), METHOD);
+        }
+    }
+
     /**
      * Validate attributes and add them to LogEvents
      */
@@ -613,7 +717,20 @@ public class LogSenderServiceImpl extends AbstractService implements LogSenderSe
                 return;
             }
 
-            LogEvent event = createValidatedEvent(attributes, contextDataKeyFilter);
+            offer(createValidatedEvent(attributes, contextDataKeyFilter));
+        }
+
+        @Override
+        public void recordLogEvent(LogEventRecord record) {
+            if (ServiceFactory.getConfigService().getDefaultAgentConfig().isHighSecurity()) {
+                Agent.LOG.log(Level.FINER, "Event of type {0} not collected due to high security mode being enabled.", LOG_EVENT_TYPE);
+                return;
+            }
+
+            offer(createValidatedEvent(record, contextDataKeyFilter));
+        }
+
+        private void offer(LogEvent event) {
             if (events.offer(event)) {
                 Agent.LOG.log(Level.FINEST, "Added event of type {0} in Transaction.", LOG_EVENT_TYPE);
             } else {
@@ -0,0 +1,62 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.service.module;
+
+import com.newrelic.agent.HarvestListener;
+import com.newrelic.agent.stats.StatsEngine;
+import com.newrelic.api.agent.Logger;
+
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Holds back jar analysis until the first harvest of the default application, so that reading jars doesn't compete
+ * with the application while it starts. Analysis runs on the jar analysis thread, so jars found before then simply wait
+ * in its queue. Nothing is sent to the collector before the first harvest, so deferring costs nothing.
+ */
+public class DeferredJarAnalysis implements Function<URL, JarData>, HarvestListener {
+    private final String defaultAppName;
+    private final Function<URL, JarData> processor;
+    private final Logger logger;
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    public DeferredJarAnalysis(String defaultAppName, Function<URL, JarData> processor, Logger logger) {
+        this.defaultAppName = defaultAppName;
+        this.processor = processor;
+        this.logger = logger;
+    }
+
+    @Override
+    public JarData apply(URL url) {
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return processor.apply(url);
+    }
+
+    @Override
+    public void beforeHarvest(String appName, StatsEngine statsEngine) {
+    }
+
+    @Override
+    public void afterHarvest(String appName) {
+        if (appName.equals(defaultAppName) && started.getCount() > 0) {
+            logger.log(Level.FINE, "Starting deferred jar analysis");
+            started.countDown();
+        }
+    }
+
+    boolean isStarted() {
+        return started.getCount() == 0;
+    }
+}
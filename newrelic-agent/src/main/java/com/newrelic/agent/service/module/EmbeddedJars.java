@@ -67,7 +67,7 @@ public class EmbeddedJars {
         return new JarInputStream(stream);
     }
 
-    private static boolean isEmbedded(URL url) {
+    static boolean isEmbedded(URL url) {
         String externalForm = url.toExternalForm();
         for (String prefix : EMBEDDED_FORMAT_TO_EXTENSION.keySet()) {
             if (externalForm.contains(prefix)) {
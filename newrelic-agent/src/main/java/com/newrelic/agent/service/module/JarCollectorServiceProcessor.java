@@ -12,6 +12,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.RateLimiter;
 import com.newrelic.agent.bridge.ManifestUtils;
 import com.newrelic.agent.config.AgentConfig;
+import com.newrelic.agent.config.JarCollectorConfig;
 import com.newrelic.api.agent.Logger;
 
 import java.io.File;
@@ -62,20 +63,29 @@ public class JarCollectorServiceProcessor implements Function<URL, JarData> {
     private final boolean skipTempJars;
     private final List<String> ignoreJars;
     private final RateLimiter processUrlRateLimiter;
+    private final RateLimiter readBytesRateLimiter;
+    private final JarInfoCache jarInfoCache;
 
     public JarCollectorServiceProcessor(Logger logger, AgentConfig agentConfig) {
         this.logger = logger;
-        this.skipTempJars = agentConfig.getJarCollectorConfig().skipTempJars();
+        JarCollectorConfig jarCollectorConfig = agentConfig.getJarCollectorConfig();
+        this.skipTempJars = jarCollectorConfig.skipTempJars();
         if (!skipTempJars) {
             logger.log(Level.FINEST, "temporary jars will be transmitted to the host");
         }
         this.ignoreJars = new ArrayList<>(agentConfig.getIgnoreJars());
-        int jarsPerSecond = agentConfig.getJarCollectorConfig().getJarsPerSecond();
+        int jarsPerSecond = jarCollectorConfig.getJarsPerSecond();
         if (jarsPerSecond <= 0) {
             logger.log(Level.INFO, "Jars per second must be greater than 0. Defaulting to {0}.", DEFAULT_JARS_PER_SECOND);
             jarsPerSecond = DEFAULT_JARS_PER_SECOND;
         }
         this.processUrlRateLimiter = RateLimiter.create(jarsPerSecond);
+
+        int maxReadKbPerSecond = jarCollectorConfig.getMaxReadKbPerSecond();
+        this.readBytesRateLimiter = maxReadKbPerSecond > 0 ? RateLimiter.create(maxReadKbPerSecond * 1024.0) : null;
+
+        String cacheFile = jarCollectorConfig.getCacheFile();
+        this.jarInfoCache = cacheFile == null || cacheFile.trim().isEmpty() ? null : new JarInfoCache(new File(cacheFile.trim()), logger);
     }
 
     @Override
@@ -131,19 +141,35 @@ public class JarCollectorServiceProcessor implements Function<URL, JarData> {
     }
 
     JarInfo getJarInfoSafe(URL url) {
-        Map<String, String> attributes = new HashMap<>();
-        try {
-            String sha1Checksum = ShaChecksums.computeSha(url);
-            attributes.put(SHA1_CHECKSUM_KEY, sha1Checksum);
-        } catch (Exception ex) {
-            logger.log(Level.FINE, ex, "{0} Error getting jar file sha1 checksum", url);
+        File file = jarInfoCache == null ? null : ShaChecksums.getFile(url);
+        if (file == null) {
+            return computeJarInfoSafe(url);
+        }
+
+        // read before analyzing, so that a jar replaced while it is read isn't cached under the new modification time
+        long lastModified = file.lastModified();
+        long size = file.length();
+        JarInfo jarInfo = jarInfoCache.get(file.getPath(), lastModified, size);
+        if (jarInfo != null) {
+            logger.log(Level.FINEST, "{0} Using cached jar info", url);
+            return jarInfo;
+        }
+
+        jarInfo = computeJarInfoSafe(url);
+        if (jarInfo.attributes.containsKey(SHA1_CHECKSUM_KEY)) {
+            jarInfoCache.put(file.getPath(), lastModified, size, jarInfo);
         }
+        return jarInfo;
+    }
 
+    private JarInfo computeJarInfoSafe(URL url) {
+        Map<String, String> attributes = new HashMap<>();
         try {
-            String sha512Checksum = ShaChecksums.computeSha512(url);
-            attributes.put(SHA512_CHECKSUM_KEY, sha512Checksum);
+            ShaChecksums.Checksums checksums = ShaChecksums.computeChecksums(url, readBytesRateLimiter);
+            attributes.put(SHA1_CHECKSUM_KEY, checksums.sha1);
+            attributes.put(SHA512_CHECKSUM_KEY, checksums.sha512);
         } catch (Exception ex) {
-            logger.log(Level.FINE, ex, "{0} Error getting jar file sha512 checksum", url);
+            logger.log(Level.FINE, ex, "{0} Error getting jar file checksums", url);
         }
 
         JarInfo jarInfo;
@@ -0,0 +1,164 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.service.module;
+
+import com.newrelic.api.agent.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Analyzed jars saved to a file so that they aren't read again when the agent restarts. Entries are keyed by the jar's
+ * path, modification time and size, so a jar that is replaced in place is analyzed again.
+ *
+ * Entries are appended to the file as jars are analyzed. A truncated last entry, from a JVM that exited while writing,
+ * is ignored. This class is threadsafe.
+ */
+class JarInfoCache {
+
+    private static final int MAGIC = 0x4e524a43; // NRJC
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final Logger logger;
+
+    /**
+     * Keyed by path. Guarded by this, along with {@link #loaded}.
+     */
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean loaded = false;
+
+    JarInfoCache(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * @return the cached analysis of the jar, or null if it hasn't been analyzed at this modification time and size
+     */
+    synchronized JarInfo get(String path, long lastModified, long size) {
+        load();
+        Entry entry = entries.get(path);
+        if (entry == null || entry.lastModified != lastModified || entry.size != size) {
+            return null;
+        }
+        return entry.jarInfo;
+    }
+
+    synchronized void put(String path, long lastModified, long size, JarInfo jarInfo) {
+        load();
+        Entry entry = new Entry(lastModified, size, jarInfo);
+        entries.put(path, entry);
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            // written whole, so that a failure part way through a record can't corrupt the entries after it
+            out.write(toBytes(path, entry));
+        } catch (IOException e) {
+            logger.log(Level.FINE, e, "Unable to write to the jar cache file {0}", file);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        int records = 0;
+        if (file.length() > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION) {
+                    records = readEntries(in);
+                }
+            } catch (IOException e) {
+                logger.log(Level.FINE, e, "Unable to read the jar cache file {0}", file);
+                entries.clear();
+            }
+        }
+        logger.log(Level.FINEST, "Read {0} jars from the jar cache file {1}", entries.size(), file);
+
+        // start the file over if it is new, unreadable, or mostly jars that have since changed
+        if (records == 0 || records > entries.size() * 2) {
+            rewrite();
+        }
+    }
+
+    private int readEntries(DataInputStream in) throws IOException {
+        int records = 0;
+        try {
+            while (true) {
+                String path = in.readUTF();
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                String version = in.readUTF();
+                int attributeCount = in.readInt();
+                Map<String, String> attributes = new LinkedHashMap<>(attributeCount * 2);
+                for (int i = 0; i < attributeCount; i++) {
+                    attributes.put(in.readUTF(), in.readUTF());
+                }
+                entries.put(path, new Entry(lastModified, size, new JarInfo(version, attributes)));
+                records++;
+            }
+        } catch (EOFException e) {
+            // the end of the file, or a truncated last entry
+        }
+        return records;
+    }
+
+    private void rewrite() {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, false))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.write(toBytes(entry.getKey(), entry.getValue()));
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, e, "Unable to write to the jar cache file {0}", file);
+        }
+    }
+
+    private static byte[] toBytes(String path, Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(path);
+        out.writeLong(entry.lastModified);
+        out.writeLong(entry.size);
+        out.writeUTF(entry.jarInfo.version);
+        out.writeInt(entry.jarInfo.attributes.size());
+        for (Map.Entry<String, String> attribute : entry.jarInfo.attributes.entrySet()) {
+            out.writeUTF(attribute.getKey());
+            out.writeUTF(attribute.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static final class Entry {
+        final long lastModified;
+        final long size;
+        final JarInfo jarInfo;
+
+        Entry(long lastModified, long size, JarInfo jarInfo) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.jarInfo = jarInfo;
+        }
+    }
+
+}
@@ -11,15 +11,30 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
+import com.google.common.util.concurrent.RateLimiter;
 import com.newrelic.weave.utils.Streams;
 
 public class ShaChecksums {
 
+    /**
+     * Jar files are mapped this much at a time, so that a large jar doesn't need a large contiguous address range.
+     */
+    private static final int MAPPED_REGION_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The amount digested between rate limiter permits, so that reads are spread evenly over time.
+     */
+    private static final int SLICE_SIZE = 64 * 1024;
+
     private ShaChecksums() {
     }
 
@@ -54,17 +69,91 @@ public class ShaChecksums {
             while (dis.read(buffer) != -1) {
             }
 
-            byte[] mdbytes = md.digest();
+            return toHex(md.digest());
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Compute the SHA-1 and SHA-512 checksums of a jar while reading it once. Jar files are memory mapped rather than
+     * copied through a buffer. Jars embedded in another archive are streamed.
+     *
+     * @param url the jar
+     * @param bytesRateLimiter if not null, one permit is acquired for each byte read
+     */
+    static Checksums computeChecksums(URL url, RateLimiter bytesRateLimiter) throws NoSuchAlgorithmException, IOException {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA1");
+        MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
 
-            // convert to hex format
-            StringBuffer sb = new StringBuffer(40);
-            for (int i = 0; i < mdbytes.length; i++) {
-                sb.append(Integer.toString((mdbytes[i] & 0xff) + 0x100, 16).substring(1));
+        File file = getFile(url);
+        if (file != null) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                    ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position));
+                    for (int offset = 0; offset < region.capacity(); offset += SLICE_SIZE) {
+                        int length = Math.min(SLICE_SIZE, region.capacity() - offset);
+                        acquire(bytesRateLimiter, length);
+                        region.limit(offset + length);
+                        region.position(offset);
+                        sha1.update(region);
+                        region.position(offset);
+                        sha512.update(region);
+                    }
+                }
             }
+        } else {
+            try (InputStream inputStream = EmbeddedJars.getInputStream(url)) {
+                byte[] buffer = new byte[Streams.DEFAULT_BUFFER_SIZE];
+                for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                    acquire(bytesRateLimiter, read);
+                    sha1.update(buffer, 0, read);
+                    sha512.update(buffer, 0, read);
+                }
+            }
+        }
 
-            return sb.toString();
-        } finally {
-            inputStream.close();
+        return new Checksums(toHex(sha1.digest()), toHex(sha512.digest()));
+    }
+
+    /**
+     * @return the file a url points to, or null if it isn't a plain file url
+     */
+    static File getFile(URL url) {
+        if (!"file".equals(url.getProtocol()) || EmbeddedJars.isEmbedded(url)) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void acquire(RateLimiter rateLimiter, int permits) {
+        if (rateLimiter != null && permits > 0) {
+            rateLimiter.acquire(permits);
+        }
+    }
+
+    private static String toHex(byte[] mdbytes) {
+        // convert to hex format
+        StringBuffer sb = new StringBuffer(mdbytes.length * 2);
+        for (int i = 0; i < mdbytes.length; i++) {
+            sb.append(Integer.toString((mdbytes[i] & 0xff) + 0x100, 16).substring(1));
+        }
+
+        return sb.toString();
+    }
+
+    static final class Checksums {
+        final String sha1;
+        final String sha512;
+
+        Checksums(String sha1, String sha512) {
+            this.sha1 = sha1;
+            this.sha512 = sha512;
         }
     }
 
@@ -0,0 +1,743 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.stats;
+
+import com.newrelic.agent.Agent;
+import com.newrelic.agent.MetricData;
+import com.newrelic.agent.MetricNames;
+import com.newrelic.agent.config.HotConfig;
+import com.newrelic.agent.metric.MetricName;
+import com.newrelic.agent.normalization.Normalizer;
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.util.TimeConversion;
+import com.newrelic.api.agent.NewRelic;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * A {@link StatsEngine} that keeps all of its metrics, scoped and unscoped, in a single open-addressed hash table.
+ *
+ * Entries are keyed by an interned scope id and the metric name and are stored densely in insertion order. Response time
+ * stats, which make up the vast majority of metrics, are kept in parallel primitive arrays instead of one
+ * {@link ResponseTimeStatsImpl} per metric, so merging another engine or a {@link TransactionStats} folds numbers into
+ * arrays rather than retaining stats objects. All other kinds of stats are kept as objects.
+ *
+ * {@link ResponseTimeStats} returned by this engine are views onto the arrays and are only valid until the engine is
+ * cleared.
+ *
+ * This class is not thread-safe.
+ */
+public class CompactStatsEngine implements StatsEngine {
+
+    private static final long NANOSECONDS_PER_SECOND_SQUARED = TimeConversion.NANOSECONDS_PER_SECOND
+            * TimeConversion.NANOSECONDS_PER_SECOND;
+
+    private static final int UNSCOPED = 0;
+    private static final int NO_ENTRY = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private static final byte RESPONSE_TIME = 0;
+    private static final byte OBJECT = 1;
+
+    private static final int STATS = 0;
+    private static final int APDEX_STATS = 1;
+    private static final int DATA_USAGE_STATS = 2;
+
+    private final Map<String, Integer> scopeIds = new HashMap<>();
+    private final List<String> scopes = new ArrayList<>();
+
+    // open-addressed table of entry numbers, NO_ENTRY marks a free slot
+    private int[] table;
+
+    // entries, stored densely in insertion order
+    private int size;
+    private int[] entryScopes;
+    private String[] entryNames;
+    private int[] entryHashes;
+    private byte[] kinds;
+    private StatsBase[] objects;
+
+    // response time stats, indexed by entry
+    private int[] counts;
+    private long[] totals;
+    private long[] exclusiveTotals;
+    private long[] minValues;
+    private long[] maxValues;
+    private double[] sumsOfSquares;
+
+    public CompactStatsEngine() {
+        this(StatsEngineImpl.DEFAULT_CAPACITY);
+    }
+
+    public CompactStatsEngine(int capacity) {
+        allocateEntries(Math.max(capacity, MIN_CAPACITY));
+        table = newTable(tableSizeFor(entryNames.length));
+        internScope(MetricName.EMPTY_SCOPE);
+    }
+
+    @Override
+    public Stats getStats(String name) {
+        return getStats(MetricName.create(name));
+    }
+
+    @Override
+    public Stats getStats(MetricName metricName) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot get a stat for a null metric");
+        }
+        return (Stats) getOrCreateObjectStats(metricName, STATS, Stats.class);
+    }
+
+    @Override
+    public void recordEmptyStats(String name) {
+        recordEmptyStats(MetricName.create(name));
+    }
+
+    @Override
+    public void recordEmptyStats(MetricName metricName) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot create stats for a null metric");
+        }
+        int entry = getOrCreateEntry(getScopeId(metricName), metricName.getName(), OBJECT);
+        resetResponseTime(entry);
+        kinds[entry] = OBJECT;
+        objects[entry] = AbstractStats.EMPTY_STATS;
+    }
+
+    @Override
+    public ResponseTimeStats getResponseTimeStats(String name) {
+        return getResponseTimeStats(MetricName.create(name));
+    }
+
+    @Override
+    public ResponseTimeStats getResponseTimeStats(MetricName metricName) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot get a stat for a null metric");
+        }
+        int entry = getOrCreateEntry(getScopeId(metricName), metricName.getName(), RESPONSE_TIME);
+        if (kinds[entry] == RESPONSE_TIME) {
+            return new ResponseTimeStatsView(entry);
+        }
+        throw typeMismatch(metricName.getName(), entry);
+    }
+
+    /**
+     * Record a response time without creating a {@link ResponseTimeStats} view.
+     */
+    public void recordResponseTimeInNanos(MetricName metricName, long responseTime, long exclusiveTime) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot record a stat for a null metric");
+        }
+        int entry = getOrCreateEntry(getScopeId(metricName), metricName.getName(), RESPONSE_TIME);
+        if (kinds[entry] != RESPONSE_TIME) {
+            throw typeMismatch(metricName.getName(), entry);
+        }
+        recordResponseTimeInNanos(entry, responseTime, exclusiveTime);
+    }
+
+    @Override
+    public ApdexStats getApdexStats(MetricName metricName) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot get a stat for a null metric");
+        }
+        return (ApdexStats) getOrCreateObjectStats(metricName, APDEX_STATS, ApdexStats.class);
+    }
+
+    @Override
+    public DataUsageStats getDataUsageStats(MetricName metricName) {
+        if (metricName == null) {
+            throw new RuntimeException("Cannot get a stat for a null metric");
+        }
+        return (DataUsageStats) getOrCreateObjectStats(metricName, DATA_USAGE_STATS, DataUsageStats.class);
+    }
+
+    @Override
+    public List<MetricName> getMetricNames() {
+        List<MetricName> result = new ArrayList<>(size);
+        for (int entry = 0; entry < size; entry++) {
+            if (entryScopes[entry] == UNSCOPED) {
+                result.add(MetricName.create(entryNames[entry]));
+            } else {
+                result.add(MetricName.create(entryNames[entry], scopes.get(entryScopes[entry])));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, NO_ENTRY);
+        Arrays.fill(entryNames, 0, size, null);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        scopeIds.clear();
+        scopes.clear();
+        internScope(MetricName.EMPTY_SCOPE);
+    }
+
+    /**
+     * Report the metrics straight from the entry arrays, in the same form as {@link StatsEngineImpl#getMetricData}: the
+     * scoped metrics of each scope, trimmed as configured, then unscoped copies of them, then the unscoped metrics. Only
+     * metrics that are reported get a {@link MetricName} and a stats object.
+     */
+    @Override
+    public List<MetricData> getMetricData(Normalizer metricNormalizer) {
+        // group the entry numbers by scope, keeping insertion order within each scope
+        int scopeCount = scopes.size();
+        int[] scopeStarts = new int[scopeCount + 1];
+        for (int entry = 0; entry < size; entry++) {
+            scopeStarts[entryScopes[entry] + 1]++;
+        }
+        for (int scopeId = 0; scopeId < scopeCount; scopeId++) {
+            scopeStarts[scopeId + 1] += scopeStarts[scopeId];
+        }
+        int[] entriesByScope = new int[size];
+        int[] nextIndex = Arrays.copyOf(scopeStarts, scopeCount);
+        for (int entry = 0; entry < size; entry++) {
+            entriesByScope[nextIndex[entryScopes[entry]]++] = entry;
+        }
+
+        boolean isTrimStats = ServiceFactory.getConfigService().getDefaultAgentConfig().isTrimStats();
+        List<MetricData> result = new ArrayList<>(size + scopeStarts[scopeCount] - scopeStarts[UNSCOPED + 1]);
+        for (int scopeId = UNSCOPED + 1; scopeId < scopeCount; scopeId++) {
+            addScopedMetricData(result, metricNormalizer, scopes.get(scopeId), entriesByScope, scopeStarts[scopeId],
+                    scopeStarts[scopeId + 1], isTrimStats);
+        }
+        // add the unscoped to match the scoped
+        result.addAll(StatsEngineImpl.createUnscopedCopies(metricNormalizer, result));
+        // add the other unscoped metrics
+        for (int i = scopeStarts[UNSCOPED]; i < scopeStarts[UNSCOPED + 1]; i++) {
+            int entry = entriesByScope[i];
+            addMetricData(result, metricNormalizer, MetricName.create(entryNames[entry]), entry);
+        }
+        return result;
+    }
+
+    /**
+     * Add the metrics of one scope, folding the response time metrics below {@link SimpleStatsEngine#SCOPED_METRIC_THRESHOLD}
+     * of the scope's exclusive time into {@link MetricNames#JAVA_OTHER} when trimming is enabled.
+     */
+    private void addScopedMetricData(List<MetricData> result, Normalizer metricNormalizer, String scope,
+            int[] entriesByScope, int from, int to, boolean isTrimStats) {
+        float threshold = 0;
+        if (isTrimStats) {
+            float totalTime = 0;
+            for (int i = from; i < to; i++) {
+                totalTime += getTotalExclusiveTime(entriesByScope[i]);
+            }
+            threshold = totalTime * SimpleStatsEngine.SCOPED_METRIC_THRESHOLD;
+        }
+
+        boolean trimmed = false;
+        int otherCount = 0;
+        long otherTotal = 0;
+        long otherExclusiveTotal = 0;
+        long otherMin = 0;
+        long otherMax = 0;
+        double otherSumOfSquares = 0;
+        for (int i = from; i < to; i++) {
+            int entry = entriesByScope[i];
+            String name = entryNames[entry];
+            if (isTrimStats && kinds[entry] == RESPONSE_TIME && (name.equals(MetricNames.JAVA_OTHER)
+                    || (getTotalExclusiveTime(entry) < threshold && SimpleStatsEngine.trimmableMetric(name)))) {
+                trimmed = true;
+                if (counts[entry] > 0) {
+                    otherMin = otherCount > 0 ? Math.min(otherMin, minValues[entry]) : minValues[entry];
+                }
+                otherCount += counts[entry];
+                otherTotal += totals[entry];
+                otherExclusiveTotal += exclusiveTotals[entry];
+                otherMax = Math.max(otherMax, maxValues[entry]);
+                otherSumOfSquares += sumsOfSquares[entry];
+            } else {
+                addMetricData(result, metricNormalizer, MetricName.create(name, scope), entry);
+            }
+        }
+        if (trimmed) {
+            ResponseTimeStatsImpl other = new ResponseTimeStatsImpl(otherCount, otherTotal, otherExclusiveTotal, otherMin,
+                    otherMax, otherSumOfSquares);
+            MetricData metricData = SimpleStatsEngine.createMetricData(MetricName.create(MetricNames.JAVA_OTHER, scope),
+                    other, metricNormalizer);
+            if (metricData != null) {
+                result.add(metricData);
+            }
+        }
+    }
+
+    private void addMetricData(List<MetricData> result, Normalizer metricNormalizer, MetricName metricName, int entry) {
+        if (kinds[entry] == RESPONSE_TIME ? !hasResponseTimeData(entry) : !objects[entry].hasData()) {
+            return;
+        }
+        StatsBase stats = kinds[entry] == RESPONSE_TIME ? toResponseTimeStats(entry) : objects[entry];
+        MetricData metricData = SimpleStatsEngine.createMetricData(metricName, stats, metricNormalizer);
+        if (metricData != null) {
+            result.add(metricData);
+        }
+    }
+
+    @Override
+    public void mergeStats(StatsEngine statsEngine) {
+        if (statsEngine instanceof CompactStatsEngine) {
+            mergeStats((CompactStatsEngine) statsEngine);
+        } else if (statsEngine instanceof StatsEngineImpl) {
+            mergeStats((StatsEngineImpl) statsEngine);
+        }
+    }
+
+    private void mergeStats(CompactStatsEngine other) {
+        int[] scopeMapping = new int[other.scopes.size()];
+        for (int i = 0; i < scopeMapping.length; i++) {
+            scopeMapping[i] = internScope(other.scopes.get(i));
+        }
+
+        for (int otherEntry = 0; otherEntry < other.size; otherEntry++) {
+            int scopeId = scopeMapping[other.entryScopes[otherEntry]];
+            String name = other.entryNames[otherEntry];
+            if (other.kinds[otherEntry] == RESPONSE_TIME) {
+                int entry = getOrCreateEntry(scopeId, name, RESPONSE_TIME);
+                if (kinds[entry] == RESPONSE_TIME) {
+                    mergeResponseTime(entry, other.counts[otherEntry], other.totals[otherEntry],
+                            other.exclusiveTotals[otherEntry], other.minValues[otherEntry],
+                            other.maxValues[otherEntry], other.sumsOfSquares[otherEntry]);
+                }
+            } else {
+                mergeObjectStats(scopeId, name, other.objects[otherEntry]);
+            }
+        }
+    }
+
+    private void mergeStats(StatsEngineImpl other) {
+        mergeStats(UNSCOPED, other.getUnscopedStatsEngine());
+        for (Entry<String, SimpleStatsEngine> entry : other.getScopedStatsEngines().entrySet()) {
+            mergeStats(internScope(entry.getKey()), entry.getValue());
+        }
+    }
+
+    @Override
+    public void mergeStatsResolvingScope(TransactionStats txStats, String resolvedScope) {
+        mergeStats(UNSCOPED, txStats.getUnscopedStats());
+        if (resolvedScope == null) {
+            return;
+        }
+        mergeStats(internScope(resolvedScope), txStats.getScopedStats());
+    }
+
+    private void mergeStats(int scopeId, SimpleStatsEngine other) {
+        for (Entry<String, StatsBase> otherEntry : other.getStatsMap().entrySet()) {
+            String name = otherEntry.getKey();
+            StatsBase stats = otherEntry.getValue();
+            if (stats instanceof ResponseTimeStatsImpl) {
+                int entry = getOrCreateEntry(scopeId, name, RESPONSE_TIME);
+                if (kinds[entry] == RESPONSE_TIME) {
+                    ResponseTimeStatsImpl responseTimeStats = (ResponseTimeStatsImpl) stats;
+                    mergeResponseTime(entry, responseTimeStats.getCallCount(), responseTimeStats.getTotalInNanos(),
+                            responseTimeStats.getTotalExclusiveTimeInNanos(), responseTimeStats.getMinCallTimeInNanos(),
+                            responseTimeStats.getMaxCallTimeInNanos(), responseTimeStats.getSumOfSquaresInNanos());
+                }
+            } else {
+                mergeObjectStats(scopeId, name, stats);
+            }
+        }
+    }
+
+    private void mergeObjectStats(int scopeId, String name, StatsBase stats) {
+        int hash = hash(scopeId, name);
+        int entry = findEntry(scopeId, name, hash);
+        if (entry == NO_ENTRY) {
+            entry = addEntry(scopeId, name, hash, OBJECT);
+            objects[entry] = stats;
+        } else if (kinds[entry] == OBJECT) {
+            objects[entry].merge(stats);
+        }
+    }
+
+    /**
+     * @return the number of metrics tracked by the engine.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Copy the metrics of this engine into a {@link StatsEngineImpl}.
+     */
+    StatsEngineImpl toStatsEngineImpl() {
+        StatsEngineImpl statsEngine = new StatsEngineImpl(Math.max(size, StatsEngineImpl.DEFAULT_CAPACITY));
+        SimpleStatsEngine[] statsEngines = new SimpleStatsEngine[scopes.size()];
+        for (int entry = 0; entry < size; entry++) {
+            int scopeId = entryScopes[entry];
+            if (statsEngines[scopeId] == null) {
+                statsEngines[scopeId] = statsEngine.getStatsEngine(scopes.get(scopeId));
+            }
+            StatsBase stats = kinds[entry] == RESPONSE_TIME ? toResponseTimeStats(entry) : objects[entry];
+            statsEngines[scopeId].getStatsMap().put(entryNames[entry], stats);
+        }
+        return statsEngine;
+    }
+
+    private StatsBase getOrCreateObjectStats(MetricName metricName, int type, Class<? extends StatsBase> expectedType) {
+        int entry = getOrCreateEntry(getScopeId(metricName), metricName.getName(), OBJECT);
+        if (kinds[entry] == OBJECT) {
+            if (objects[entry] == null) {
+                objects[entry] = createStats(type);
+            }
+            if (expectedType.isInstance(objects[entry])) {
+                return objects[entry];
+            }
+        }
+        throw typeMismatch(metricName.getName(), entry);
+    }
+
+    private static StatsBase createStats(int type) {
+        switch (type) {
+            case APDEX_STATS:
+                return new ApdexStatsImpl();
+            case DATA_USAGE_STATS:
+                return new DataUsageStatsImpl();
+            default:
+                return new StatsImpl();
+        }
+    }
+
+    private RuntimeException typeMismatch(String metricName, int entry) {
+        String type = kinds[entry] == RESPONSE_TIME ? ResponseTimeStatsImpl.class.getName() : objects[entry].getClass().getName();
+        String msg = MessageFormat.format("The stats object for {0} is of type {1}", metricName, type);
+        return new RuntimeException(msg);
+    }
+
+    private int getScopeId(MetricName metricName) {
+        return metricName.isScoped() ? internScope(metricName.getScope()) : UNSCOPED;
+    }
+
+    private int internScope(String scope) {
+        Integer scopeId = scopeIds.get(scope);
+        if (scopeId == null) {
+            scopeId = scopes.size();
+            scopeIds.put(scope, scopeId);
+            scopes.add(scope);
+        }
+        return scopeId;
+    }
+
+    private static int hash(int scopeId, String name) {
+        int hash = name.hashCode() * 31 + scopeId;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int findEntry(int scopeId, String name, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == NO_ENTRY) {
+                return NO_ENTRY;
+            }
+            if (entryHashes[entry] == hash && entryScopes[entry] == scopeId && entryNames[entry].equals(name)) {
+                return entry;
+            }
+        }
+    }
+
+    private int getOrCreateEntry(int scopeId, String name, byte kind) {
+        int hash = hash(scopeId, name);
+        int entry = findEntry(scopeId, name, hash);
+        return entry == NO_ENTRY ? addEntry(scopeId, name, hash, kind) : entry;
+    }
+
+    private int addEntry(int scopeId, String name, int hash, byte kind) {
+        if (size == entryNames.length) {
+            growEntries();
+        }
+        int entry = size++;
+        entryScopes[entry] = scopeId;
+        entryNames[entry] = name;
+        entryHashes[entry] = hash;
+        kinds[entry] = kind;
+        objects[entry] = null;
+        resetResponseTime(entry);
+
+        // keep the table at most half full
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insertIntoTable(table, entry);
+        }
+        return entry;
+    }
+
+    private void insertIntoTable(int[] table, int entry) {
+        int mask = table.length - 1;
+        int slot = entryHashes[entry] & mask;
+        while (table[slot] != NO_ENTRY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    private void rehash(int tableSize) {
+        int[] newTable = newTable(tableSize);
+        for (int entry = 0; entry < size; entry++) {
+            insertIntoTable(newTable, entry);
+        }
+        table = newTable;
+    }
+
+    private void allocateEntries(int capacity) {
+        entryScopes = new int[capacity];
+        entryNames = new String[capacity];
+        entryHashes = new int[capacity];
+        kinds = new byte[capacity];
+        objects = new StatsBase[capacity];
+        counts = new int[capacity];
+        totals = new long[capacity];
+        exclusiveTotals = new long[capacity];
+        minValues = new long[capacity];
+        maxValues = new long[capacity];
+        sumsOfSquares = new double[capacity];
+    }
+
+    private void growEntries() {
+        int capacity = entryNames.length * 2;
+        entryScopes = Arrays.copyOf(entryScopes, capacity);
+        entryNames = Arrays.copyOf(entryNames, capacity);
+        entryHashes = Arrays.copyOf(entryHashes, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        exclusiveTotals = Arrays.copyOf(exclusiveTotals, capacity);
+        minValues = Arrays.copyOf(minValues, capacity);
+        maxValues = Arrays.copyOf(maxValues, capacity);
+        sumsOfSquares = Arrays.copyOf(sumsOfSquares, capacity);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int tableSize = MIN_CAPACITY;
+        while (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private static int[] newTable(int tableSize) {
+        int[] table = new int[tableSize];
+        Arrays.fill(table, NO_ENTRY);
+        return table;
+    }
+
+    private void resetResponseTime(int entry) {
+        counts[entry] = 0;
+        totals[entry] = 0;
+        exclusiveTotals[entry] = 0;
+        minValues[entry] = 0;
+        maxValues[entry] = 0;
+        sumsOfSquares[entry] = 0;
+    }
+
+    private void recordResponseTimeInNanos(int entry, long responseTime, long exclusiveTime) {
+        double responseTimeAsDouble = responseTime;
+        responseTimeAsDouble *= responseTimeAsDouble;
+        sumsOfSquares[entry] += responseTimeAsDouble;
+
+        if (counts[entry] > 0) {
+            minValues[entry] = Math.min(responseTime, minValues[entry]);
+        } else {
+            minValues[entry] = responseTime;
+        }
+        counts[entry]++;
+        totals[entry] += responseTime;
+        maxValues[entry] = Math.max(responseTime, maxValues[entry]);
+        exclusiveTotals[entry] += exclusiveTime;
+
+        if (HotConfig.get().isMetricDebug()) {
+            if (counts[entry] < 0 || totals[entry] < 0 || exclusiveTotals[entry] < 0 || sumsOfSquares[entry] < 0) {
+                NewRelic.incrementCounter("Supportability/ResponseTimeStatsImpl/NegativeValue");
+                Agent.LOG.log(Level.INFO, "Invalid count {0}, total {1}, totalExclusive {2}, or sum of squares {3}",
+                        counts[entry], totals[entry], exclusiveTotals[entry], sumsOfSquares[entry]);
+            }
+        }
+    }
+
+    private void mergeResponseTime(int entry, int count, long total, long totalExclusive, long minValue, long maxValue,
+            double sumOfSquares) {
+        if (count > 0) {
+            if (counts[entry] > 0) {
+                minValues[entry] = Math.min(minValues[entry], minValue);
+            } else {
+                minValues[entry] = minValue;
+            }
+        }
+        counts[entry] += count;
+        totals[entry] += total;
+        exclusiveTotals[entry] += totalExclusive;
+        maxValues[entry] = Math.max(maxValues[entry], maxValue);
+        sumsOfSquares[entry] += sumOfSquares;
+    }
+
+    private boolean hasResponseTimeData(int entry) {
+        return counts[entry] > 0 || totals[entry] > 0 || exclusiveTotals[entry] > 0;
+    }
+
+    private float getTotalExclusiveTime(int entry) {
+        return kinds[entry] == RESPONSE_TIME ? (float) exclusiveTotals[entry] / TimeConversion.NANOSECONDS_PER_SECOND : 0;
+    }
+
+    private ResponseTimeStatsImpl toResponseTimeStats(int entry) {
+        return new ResponseTimeStatsImpl(counts[entry], totals[entry], exclusiveTotals[entry], minValues[entry],
+                maxValues[entry], sumsOfSquares[entry]);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactStatsEngine [size=" + size + ", scopes=" + scopes.size() + "]";
+    }
+
+    /**
+     * A {@link ResponseTimeStats} backed by one entry of the engine's arrays.
+     */
+    private final class ResponseTimeStatsView implements ResponseTimeStats {
+
+        private final int entry;
+
+        private ResponseTimeStatsView(int entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void recordResponseTime(long responseTime, TimeUnit timeUnit) {
+            long responseTimeInNanos = TimeUnit.NANOSECONDS.convert(responseTime, timeUnit);
+            CompactStatsEngine.this.recordResponseTimeInNanos(entry, responseTimeInNanos, responseTimeInNanos);
+        }
+
+        @Override
+        public void recordResponseTime(long responseTime, long exclusiveTime, TimeUnit timeUnit) {
+            CompactStatsEngine.this.recordResponseTimeInNanos(entry, TimeUnit.NANOSECONDS.convert(responseTime, timeUnit),
+                    TimeUnit.NANOSECONDS.convert(exclusiveTime, timeUnit));
+        }
+
+        @Override
+        public void recordResponseTime(int count, long totalTime, long minTime, long maxTime, TimeUnit unit) {
+            long totalTimeInNanos = TimeUnit.NANOSECONDS.convert(totalTime, unit);
+            counts[entry] = count;
+            totals[entry] = totalTimeInNanos;
+            exclusiveTotals[entry] = totalTimeInNanos;
+            minValues[entry] = TimeUnit.NANOSECONDS.convert(minTime, unit);
+            maxValues[entry] = TimeUnit.NANOSECONDS.convert(maxTime, unit);
+            double totalTimeInNanosAsDouble = totalTimeInNanos;
+            totalTimeInNanosAsDouble *= totalTimeInNanosAsDouble;
+            sumsOfSquares[entry] += totalTimeInNanosAsDouble;
+        }
+
+        @Override
+        public void recordResponseTimeInNanos(long responseTime, long exclusiveTime) {
+            CompactStatsEngine.this.recordResponseTimeInNanos(entry, responseTime, exclusiveTime);
+        }
+
+        @Override
+        public void recordResponseTimeInNanos(long responseTime) {
+            CompactStatsEngine.this.recordResponseTimeInNanos(entry, responseTime, responseTime);
+        }
+
+        @Override
+        public void incrementCallCount() {
+            counts[entry]++;
+        }
+
+        @Override
+        public void incrementCallCount(int value) {
+            counts[entry] += value;
+        }
+
+        @Override
+        public int getCallCount() {
+            return counts[entry];
+        }
+
+        @Override
+        public void setCallCount(int count) {
+            counts[entry] = count;
+        }
+
+        @Override
+        public float getTotal() {
+            return (float) totals[entry] / TimeConversion.NANOSECONDS_PER_SECOND;
+        }
+
+        @Override
+        public float getTotalExclusiveTime() {
+            return (float) exclusiveTotals[entry] / TimeConversion.NANOSECONDS_PER_SECOND;
+        }
+
+        @Override
+        public float getMinCallTime() {
+            return (float) minValues[entry] / TimeConversion.NANOSECONDS_PER_SECOND;
+        }
+
+        @Override
+        public float getMaxCallTime() {
+            return (float) maxValues[entry] / TimeConversion.NANOSECONDS_PER_SECOND;
+        }
+
+        @Override
+        public double getSumOfSquares() {
+            return sumsOfSquares[entry] / NANOSECONDS_PER_SECOND_SQUARED;
+        }
+
+        @Override
+        public boolean hasData() {
+            return hasResponseTimeData(entry);
+        }
+
+        @Override
+        public void reset() {
+            resetResponseTime(entry);
+        }
+
+        @Override
+        public void merge(StatsBase stats) {
+            if (stats instanceof ResponseTimeStatsImpl) {
+                ResponseTimeStatsImpl other = (ResponseTimeStatsImpl) stats;
+                mergeResponseTime(entry, other.getCallCount(), other.getTotalInNanos(),
+                        other.getTotalExclusiveTimeInNanos(), other.getMinCallTimeInNanos(),
+                        other.getMaxCallTimeInNanos(), other.getSumOfSquaresInNanos());
+            } else if (stats instanceof ResponseTimeStatsView) {
+                merge(((ResponseTimeStatsView) stats).toResponseTimeStats());
+            }
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            return toResponseTimeStats();
+        }
+
+        @Override
+        public void writeJSONString(Writer writer) throws IOException {
+            toResponseTimeStats().writeJSONString(writer);
+        }
+
+        private ResponseTimeStatsImpl toResponseTimeStats() {
+            return CompactStatsEngine.this.toResponseTimeStats(entry);
+        }
+
+        @Override
+        public String toString() {
+            return toResponseTimeStats().toString();
+        }
+    }
+
+}
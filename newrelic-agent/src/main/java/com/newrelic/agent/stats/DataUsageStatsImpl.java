@@ -8,7 +8,7 @@
 package com.newrelic.agent.stats;
 
 import com.newrelic.agent.Agent;
-import com.newrelic.agent.config.AgentConfigImpl;
+import com.newrelic.agent.config.HotConfig;
 import com.newrelic.api.agent.NewRelic;
 
 import java.io.IOException;
@@ -42,7 +42,7 @@ public class DataUsageStatsImpl implements DataUsageStats {
         this.bytesSent.addAndGet(bytesSent);
         this.bytesReceived.addAndGet(bytesReceived);
 
-        if (NewRelic.getAgent().getConfig().getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG)) {
+        if (HotConfig.get().isMetricDebug()) {
             if (this.count.get() < 0 || this.bytesSent.get() < 0 || this.bytesReceived.get() < 0) {
                 NewRelic.incrementCounter("Supportability/DataUsageStatsImpl/NegativeValue");
                 Agent.LOG.log(Level.INFO, "Invalid count {0}, bytesSent {1}, or bytesReceived {2}",
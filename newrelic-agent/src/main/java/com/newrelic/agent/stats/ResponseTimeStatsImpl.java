@@ -8,7 +8,7 @@
 package com.newrelic.agent.stats;
 
 import com.newrelic.agent.Agent;
-import com.newrelic.agent.config.AgentConfigImpl;
+import com.newrelic.agent.config.HotConfig;
 import com.newrelic.agent.util.TimeConversion;
 import com.newrelic.api.agent.NewRelic;
 
@@ -33,6 +33,15 @@ public class ResponseTimeStatsImpl extends AbstractStats implements ResponseTime
         super();
     }
 
+    ResponseTimeStatsImpl(int count, long total, long totalExclusive, long minValue, long maxValue, double sumOfSquares) {
+        super(count);
+        this.total = total;
+        this.totalExclusive = totalExclusive;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.sumOfSquares = sumOfSquares;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         ResponseTimeStatsImpl newStats = new ResponseTimeStatsImpl();
@@ -77,7 +86,7 @@ public class ResponseTimeStatsImpl extends AbstractStats implements ResponseTime
         total += responseTime;
         maxValue = Math.max(responseTime, maxValue);
         totalExclusive += exclusiveTime;
-        if (NewRelic.getAgent().getConfig().getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG)) {
+        if (HotConfig.get().isMetricDebug()) {
             if (count < 0 || total < 0 || totalExclusive < 0 || sumOfSquares < 0) {
                 NewRelic.incrementCounter("Supportability/ResponseTimeStatsImpl/NegativeValue");
                 Agent.LOG.log(Level.INFO, "Invalid count {0}, total {1}, totalExclusive {2}, or sum of squares {3}",
@@ -124,6 +133,26 @@ public class ResponseTimeStatsImpl extends AbstractStats implements ResponseTime
         return sumOfSquares / NANOSECONDS_PER_SECOND_SQUARED;
     }
 
+    long getTotalInNanos() {
+        return total;
+    }
+
+    long getTotalExclusiveTimeInNanos() {
+        return totalExclusive;
+    }
+
+    long getMinCallTimeInNanos() {
+        return minValue;
+    }
+
+    long getMaxCallTimeInNanos() {
+        return maxValue;
+    }
+
+    double getSumOfSquaresInNanos() {
+        return sumOfSquares;
+    }
+
     @Override
     public final void merge(StatsBase statsObj) {
         if (statsObj instanceof ResponseTimeStatsImpl) {
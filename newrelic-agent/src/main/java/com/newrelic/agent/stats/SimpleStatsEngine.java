@@ -30,7 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class SimpleStatsEngine {
 
-    private static final float SCOPED_METRIC_THRESHOLD = 0.02f;
+    static final float SCOPED_METRIC_THRESHOLD = 0.02f;
 
     public static final int DEFAULT_CAPACITY = StatsEngineImpl.DEFAULT_SCOPED_CAPACITY;
 
@@ -217,7 +217,7 @@ public class SimpleStatsEngine {
     }
 
     // this is less than awesome and should be cleaned up
-    private boolean trimmableMetric(String key) {
+    static boolean trimmableMetric(String key) {
         return !(key.startsWith(DatastoreMetrics.METRIC_NAMESPACE) || key.startsWith(MetricNames.EXTERNAL_PATH) ||
                 key.startsWith(MetricNames.REQUEST_DISPATCHER) || key.startsWith(MetricNames.GRAPHQL)) ;
     }
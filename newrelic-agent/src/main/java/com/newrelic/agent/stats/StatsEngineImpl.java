@@ -81,16 +81,27 @@ public class StatsEngineImpl implements StatsEngine {
     }
 
     private SimpleStatsEngine getStatsEngine(MetricName metricName) {
-        if (metricName.isScoped()) {
-            SimpleStatsEngine statsEngine = scopedStats.get(metricName.getScope());
-            if (statsEngine == null) {
-                statsEngine = new SimpleStatsEngine(DEFAULT_SCOPED_CAPACITY);
-                scopedStats.put(metricName.getScope(), statsEngine);
-            }
-            return statsEngine;
-        } else {
+        return metricName.isScoped() ? getStatsEngine(metricName.getScope()) : unscopedStats;
+    }
+
+    SimpleStatsEngine getStatsEngine(String scope) {
+        if (MetricName.EMPTY_SCOPE.equals(scope)) {
             return unscopedStats;
         }
+        SimpleStatsEngine statsEngine = scopedStats.get(scope);
+        if (statsEngine == null) {
+            statsEngine = new SimpleStatsEngine(DEFAULT_SCOPED_CAPACITY);
+            scopedStats.put(scope, statsEngine);
+        }
+        return statsEngine;
+    }
+
+    SimpleStatsEngine getUnscopedStatsEngine() {
+        return unscopedStats;
+    }
+
+    Map<String, SimpleStatsEngine> getScopedStatsEngines() {
+        return scopedStats;
     }
 
     @Override
@@ -158,6 +169,8 @@ public class StatsEngineImpl implements StatsEngine {
     public void mergeStats(StatsEngine statsEngine) {
         if (statsEngine instanceof StatsEngineImpl) {
             mergeStats((StatsEngineImpl) statsEngine);
+        } else if (statsEngine instanceof CompactStatsEngine) {
+            mergeStats(((CompactStatsEngine) statsEngine).toStatsEngineImpl());
         }
     }
 
@@ -8,7 +8,7 @@
 package com.newrelic.agent.stats;
 
 import com.newrelic.agent.Agent;
-import com.newrelic.agent.config.AgentConfigImpl;
+import com.newrelic.agent.config.HotConfig;
 import com.newrelic.api.agent.NewRelic;
 
 import java.util.logging.Level;
@@ -72,7 +72,7 @@ public class StatsImpl extends AbstractStats implements Stats {
         maxValue = Math.max(value, maxValue);
         sumOfSquares = sos;
 
-        if (NewRelic.getAgent().getConfig().getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG)) {
+        if (HotConfig.get().isMetricDebug()) {
             if (count < 0 || total < 0) {
                 NewRelic.incrementCounter("Supportability/StatsImpl/NegativeValue");
                 Agent.LOG.log(Level.INFO, "Invalid count {0} or total {1}", count, total);
@@ -8,6 +8,8 @@
 package com.newrelic.agent.stats;
 
 import com.newrelic.agent.Agent;
+import com.newrelic.agent.MetricNames;
+import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.service.AbstractService;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.service.StatsServiceMetricAggregator;
@@ -18,27 +20,65 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
 
 /**
  * A class to record and harvest metric data.
  *
+ * By default stats work is applied to a pool of {@link StatsEngine}s guarded by a shared read/write lock. When
+ * {@code stats_service.striped_ingest.enabled} is true, each recording thread is instead mapped (by thread id) onto one
+ * of a fixed number of stripes, each owning its own {@link StatsEngine} and lock, and the stripes are merged on the
+ * harvest thread. When {@code stats_service.compact_engine.enabled} is true, stats are aggregated into
+ * {@link CompactStatsEngine}s rather than {@link StatsEngineImpl}s.
+ *
  * This class is thread-safe.
  */
 public class StatsServiceImpl extends AbstractService implements StatsService {
+    public static final String STRIPED_INGEST_ENABLED = "stats_service.striped_ingest.enabled";
+    public static final String STRIPED_INGEST_STRIPES = "stats_service.striped_ingest.stripes";
+    public static final boolean DEFAULT_STRIPED_INGEST_ENABLED = false;
+    public static final String COMPACT_ENGINE_ENABLED = "stats_service.compact_engine.enabled";
+    public static final boolean DEFAULT_COMPACT_ENGINE_ENABLED = false;
+    static final int MAX_STRIPES = 256;
+
     private final MetricAggregator metricAggregator = new StatsServiceMetricAggregator(this);
 
     private final ConcurrentMap<String, StatsEngineQueue> statsEngineQueues = new ConcurrentHashMap<>();
     private volatile StatsEngineQueue defaultStatsEngineQueue;
     private final String defaultAppName;
+    private final boolean stripedIngest;
+    private final int stripeCount;
+    private final boolean compactEngine;
 
     public StatsServiceImpl() {
         super(StatsService.class.getSimpleName());
-        defaultAppName = ServiceFactory.getConfigService().getDefaultAgentConfig().getApplicationName();
+        AgentConfig config = ServiceFactory.getConfigService().getDefaultAgentConfig();
+        defaultAppName = config.getApplicationName();
+        stripedIngest = config.getValue(STRIPED_INGEST_ENABLED, DEFAULT_STRIPED_INGEST_ENABLED);
+        stripeCount = stripedIngest ? getStripeCount(config.getValue(STRIPED_INGEST_STRIPES, Runtime.getRuntime().availableProcessors())) : 0;
+        compactEngine = config.getValue(COMPACT_ENGINE_ENABLED, DEFAULT_COMPACT_ENGINE_ENABLED);
         defaultStatsEngineQueue = createStatsEngineQueue();
+        if (stripedIngest) {
+            getLogger().log(Level.INFO, "Stats service striped ingest is enabled with {0} stripes", stripeCount);
+        }
+    }
+
+    /**
+     * Round the requested number of stripes up to a power of two (so a stripe can be selected with a mask) and clamp it
+     * to [1, {@link #MAX_STRIPES}].
+     */
+    static int getStripeCount(int requested) {
+        int stripes = 1;
+        while (stripes < requested && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        return stripes;
     }
 
     @Override
@@ -105,24 +145,46 @@ public class StatsServiceImpl extends AbstractService implements StatsService {
     }
 
     private StatsEngineQueue createStatsEngineQueue() {
-        return new StatsEngineQueue();
+        return stripedIngest ? new StripedStatsEngineQueue(stripeCount, compactEngine) : new PooledStatsEngineQueue(compactEngine);
+    }
+
+    private static StatsEngine createStatsEngine(boolean compactEngine) {
+        return compactEngine ? new CompactStatsEngine() : new StatsEngineImpl();
+    }
+
+    private interface StatsEngineQueue {
+
+        /**
+         * Apply the work to one of the queue's stats engines.
+         *
+         * @return false if the queue has already been harvested and the work must be retried against a new queue
+         */
+        boolean doStatsWork(StatsWork work);
+
+        /**
+         * Close the queue to further work and merge everything recorded into it into a single stats engine.
+         */
+        StatsEngine getStatsEngineForHarvest();
     }
 
-    private static class StatsEngineQueue {
+    private static class PooledStatsEngineQueue implements StatsEngineQueue {
 
         private final Lock readLock;
         private final Lock writeLock;
         private final AtomicInteger statsEngineCount = new AtomicInteger();
+        private final boolean compactEngine;
 
         // reference is guarded by readLock + writeLock
         private ConcurrentLinkedQueue<StatsEngine> statsEngineQueue = new ConcurrentLinkedQueue<>();
 
-        private StatsEngineQueue() {
+        private PooledStatsEngineQueue(boolean compactEngine) {
+            this.compactEngine = compactEngine;
             ReadWriteLock lock = new ReentrantReadWriteLock();
             readLock = lock.readLock();
             writeLock = lock.writeLock();
         }
 
+        @Override
         public boolean doStatsWork(StatsWork work) {
             if (readLock.tryLock()) {
                 try {
@@ -170,6 +232,7 @@ public class StatsServiceImpl extends AbstractService implements StatsService {
             }
         }
 
+        @Override
         public StatsEngine getStatsEngineForHarvest() {
             final Queue<StatsEngine> statsEngineQueue;
             writeLock.lock();
@@ -211,7 +274,92 @@ public class StatsServiceImpl extends AbstractService implements StatsService {
         }
 
         private StatsEngine createStatsEngine() {
-            return new StatsEngineImpl();
+            return StatsServiceImpl.createStatsEngine(compactEngine);
+        }
+    }
+
+    /**
+     * A queue that maps every recording thread onto a stripe by its thread id. Threads only contend with each other when
+     * they share a stripe, so there is no lock that every recording thread has to go through.
+     */
+    private static class StripedStatsEngineQueue implements StatsEngineQueue {
+
+        private final Stripe[] stripes;
+        private final int mask;
+        private final boolean compactEngine;
+
+        private StripedStatsEngineQueue(int stripeCount, boolean compactEngine) {
+            this.compactEngine = compactEngine;
+            stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe();
+            }
+            mask = stripeCount - 1;
+        }
+
+        @Override
+        public boolean doStatsWork(StatsWork work) {
+            Stripe stripe = stripes[(int) (Thread.currentThread().getId() & mask)];
+            stripe.lock.lock();
+            try {
+                if (stripe.harvested) {
+                    //
+                    // We've already been harvested.
+                    //
+                    return false;
+                }
+                if (stripe.statsEngine == null) {
+                    stripe.statsEngine = createStatsEngine(compactEngine);
+                }
+                work.doWork(stripe.statsEngine);
+            } catch (Exception e) {
+                String msg = MessageFormat.format("Exception doing stats work: {0}", e);
+                Agent.LOG.warning(msg);
+            } finally {
+                stripe.lock.unlock();
+            }
+            return true;
+        }
+
+        @Override
+        public StatsEngine getStatsEngineForHarvest() {
+            long startTime = System.nanoTime();
+            StatsEngine harvestStatsEngine = createStatsEngine(compactEngine);
+
+            int activeStripes = 0;
+            for (Stripe stripe : stripes) {
+                StatsEngine statsEngine;
+                stripe.lock.lock();
+                try {
+                    stripe.harvested = true;
+                    statsEngine = stripe.statsEngine;
+                    stripe.statsEngine = null;
+                } finally {
+                    stripe.lock.unlock();
+                }
+
+                //
+                // The stripe is closed to further work, so it is safe to merge it outside of its lock.
+                //
+                if (statsEngine != null) {
+                    harvestStatsEngine.mergeStats(statsEngine);
+                    activeStripes++;
+                }
+            }
+
+            harvestStatsEngine.getStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_STRIPES).recordDataPoint(stripes.length);
+            harvestStatsEngine.getStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_ACTIVE_STRIPES).recordDataPoint(activeStripes);
+            harvestStatsEngine.getResponseTimeStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_MERGE_TIME)
+                    .recordResponseTime(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return harvestStatsEngine;
+        }
+
+        private static class Stripe {
+            private final Lock lock = new ReentrantLock();
+
+            // guarded by lock
+            private StatsEngine statsEngine;
+            private boolean harvested;
         }
     }
 
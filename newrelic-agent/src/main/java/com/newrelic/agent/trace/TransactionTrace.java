@@ -11,7 +11,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.newrelic.agent.Agent;
 import com.newrelic.agent.TransactionData;
 import com.newrelic.agent.attributes.AttributeNames;
-import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.agent.bridge.datastore.ConnectionFactory;
 import com.newrelic.agent.bridge.datastore.DatabaseVendor;
 import com.newrelic.agent.config.AgentConfigImpl;
@@ -60,7 +59,7 @@ public class TransactionTrace implements Comparable<TransactionTrace>, JSONStrea
     private final long rootTracerStartTime;
     private Map<Tracer, Collection<Tracer>> children;
     private final String guid;
-    private final Map<String, Map<String, String>> prefixedAttributes;
+    private final Map<String, String> prefixedAttributes;
     private String syntheticsResourceId;
     private String syntheticsType;
     private String syntheticsInitiator;
@@ -83,7 +82,7 @@ public class TransactionTrace implements Comparable<TransactionTrace>, JSONStrea
                 userAttributes.putAll(transactionData.getUserAttributes());
             }
         }
-        prefixedAttributes = transactionData.getPrefixedAttributes();
+        prefixedAttributes = transactionData.getFlattenedPrefixedAttributes();
         intrinsicAttributes = getIntrinsics(transactionData);
         startTime = transactionData.getWallClockStartTimeMs();
         rootTracerStartTime = tracer.getStartTimeInMilliseconds();
@@ -289,8 +288,8 @@ public class TransactionTrace implements Comparable<TransactionTrace>, JSONStrea
     private Map<String, Object> getAgentAtts() {
         Map<String, Object> atts = new HashMap<>();
         atts.putAll(agentAttributes);
-        if (prefixedAttributes != null && !prefixedAttributes.isEmpty()) {
-            atts.putAll(AttributesUtils.appendAttributePrefixes(prefixedAttributes));
+        if (prefixedAttributes != null) {
+            atts.putAll(prefixedAttributes);
         }
         atts.put(AttributeNames.REQUEST_URI, requestUri);
         return atts;
@@ -31,7 +31,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 
 /**
@@ -43,6 +44,22 @@ public abstract class AbstractTracer implements Tracer, AttributeHolder {
     static final int INITIAL_PARAMETER_SET_SIZE = 5;
     protected static final String ATTRIBUTE_TYPE = "custom";
 
+    /**
+     * Tracers validate attributes the same way, and the validator has no state, so it's shared.
+     */
+    protected static final AttributeValidator TRACER_ATTRIBUTE_VALIDATOR = new AttributeValidator(ATTRIBUTE_TYPE);
+
+    /**
+     * The value of {@link #finishTime} until {@link #markFinishTime()} is called.
+     */
+    static final long NO_FINISH_TIME = Long.MIN_VALUE;
+
+    // field updaters rather than atomic objects, since every tracer would allocate them
+    private static final AtomicReferenceFieldUpdater<AbstractTracer, TracedException> TRACER_ERROR_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractTracer.class, TracedException.class, "tracerError");
+    private static final AtomicLongFieldUpdater<AbstractTracer> FINISH_TIME_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(AbstractTracer.class, "finishTime");
+
     private final TransactionActivity transactionActivity;
     private AttributeValidator attributeValidator;
     private Set<String> rollupMetricNames;
@@ -54,10 +71,10 @@ public abstract class AbstractTracer implements Tracer, AttributeHolder {
     // doesn't need to be thread safe since this flag affects the decision to registerAsync
     private Boolean trackChildThreads = null;
     private Boolean trackCallBackRunnable = false;
-    private AtomicReference<TracedException> tracerError = new AtomicReference<>(TracedException.NO_EXCEPTION);
+    private volatile TracedException tracerError = TracedException.NO_EXCEPTION;
 
     private final long startTimeInMillis;
-    AtomicReference<Long> finishTime = new AtomicReference<>(null);
+    volatile long finishTime = NO_FINISH_TIME;
     private final String ATTRIBUTE_API_METHOD_NAME = "TracedMethod.addCustomAttributes";
 
     // Tracers MUST NOT store references to the Transaction. Why: tracers are stored in the TransactionActivity,
@@ -69,7 +86,7 @@ public abstract class AbstractTracer implements Tracer, AttributeHolder {
      * @param transaction the transaction that owns the activity on the current thread. Must not be null.
      */
     public AbstractTracer(Transaction transaction) {
-        this(transaction.getTransactionActivity(), new AttributeValidator(ATTRIBUTE_TYPE));
+        this(transaction.getTransactionActivity(), TRACER_ATTRIBUTE_VALIDATOR);
     }
 
     /**
@@ -275,7 +292,7 @@ public abstract class AbstractTracer implements Tracer, AttributeHolder {
 
     @Override
     public void markFinishTime() {
-        finishTime.compareAndSet(null, System.nanoTime());
+        FINISH_TIME_UPDATER.compareAndSet(this, NO_FINISH_TIME, System.nanoTime());
     }
 
     @Override
@@ -290,22 +307,22 @@ public abstract class AbstractTracer implements Tracer, AttributeHolder {
 
     @Override
     public void setNoticedError(Throwable throwable) {
-        tracerError.compareAndSet(TracedException.NO_EXCEPTION, new TracedException(TransactionErrorPriority.API, throwable));
+        TRACER_ERROR_UPDATER.compareAndSet(this, TracedException.NO_EXCEPTION, new TracedException(TransactionErrorPriority.API, throwable));
     }
 
     @Override
     public void setThrownException(Throwable throwable) {
-        tracerError.compareAndSet(TracedException.NO_EXCEPTION, new TracedException(TransactionErrorPriority.TRACER, throwable));
+        TRACER_ERROR_UPDATER.compareAndSet(this, TracedException.NO_EXCEPTION, new TracedException(TransactionErrorPriority.TRACER, throwable));
     }
 
     @Override
     public boolean wasExceptionSetByAPI() {
-        return tracerError.get().getPriority() == TransactionErrorPriority.API;
+        return tracerError.getPriority() == TransactionErrorPriority.API;
     }
 
     @Override
     public Throwable getException() {
-        return tracerError.get().getException();
+        return tracerError.getException();
     }
 
     @Override
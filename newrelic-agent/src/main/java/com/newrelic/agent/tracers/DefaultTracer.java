@@ -12,10 +12,9 @@ import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.Transaction;
 import com.newrelic.agent.TransactionActivity;
 import com.newrelic.agent.attributes.AttributeNames;
-import com.newrelic.agent.attributes.AttributeValidator;
 import com.newrelic.agent.bridge.external.ExternalMetrics;
-import com.newrelic.agent.config.AgentConfigImpl;
 import com.newrelic.agent.config.DatastoreConfig;
+import com.newrelic.agent.config.HotConfig;
 import com.newrelic.agent.config.TransactionTracerConfig;
 import com.newrelic.agent.database.DatastoreMetrics;
 import com.newrelic.agent.database.SqlObfuscator;
@@ -132,7 +131,7 @@ public class DefaultTracer extends AbstractTracer {
      */
     public DefaultTracer(TransactionActivity txa, ClassMethodSignature sig, Object object,
             MetricNameFormat metricNameFormatter, int tracerFlags, long pStartTime) {
-        super(txa, new AttributeValidator(ATTRIBUTE_TYPE));
+        super(txa, TRACER_ATTRIBUTE_VALIDATOR);
         metricNameFormat = metricNameFormatter;
         classMethodSignature = sig;
         startTime = pStartTime;
@@ -234,7 +233,8 @@ public class DefaultTracer extends AbstractTracer {
             return;
         }
 
-        performFinishWork(finishTime.get() == null ? System.nanoTime() : finishTime.get(), opcode, returnValue);
+        long markedFinishTime = finishTime;
+        performFinishWork(markedFinishTime == NO_FINISH_TIME ? System.nanoTime() : markedFinishTime, opcode, returnValue);
     }
 
     // this is public for testing - do not call directly unless testing
@@ -244,7 +244,7 @@ public class DefaultTracer extends AbstractTracer {
         duration = Math.max(0, finishTime - getStartTime());
         exclusiveDuration += duration;
         if (exclusiveDuration < 0 || exclusiveDuration > duration) {
-            if (NewRelic.getAgent().getConfig().getValue(AgentConfigImpl.METRIC_DEBUG, AgentConfigImpl.DEFAULT_METRIC_DEBUG)) {
+            if (HotConfig.get().isMetricDebug()) {
                 Agent.LOG.log(Level.INFO, "Invalid exclusive time {0} for metric {1}", exclusiveDuration,
                         NewRelic.getAgent().getTransaction().getTracedMethod().getMetricName());
             } else {
@@ -293,7 +293,7 @@ public class DefaultTracer extends AbstractTracer {
             try {
                 setAgentAttribute(AttributeNames.THREAD_ID, getTransactionActivity().getThreadId());
                 if (classMethodSignature != null && getTransaction() != null &&
-                        ServiceFactory.getConfigService().getDefaultAgentConfig().getCodeLevelMetricsConfig().isEnabled()) {
+                        HotConfig.get().isCodeLevelMetricsEnabled()) {
                     String className = classMethodSignature.getClassName();
                     String methodName = classMethodSignature.getMethodName();
 
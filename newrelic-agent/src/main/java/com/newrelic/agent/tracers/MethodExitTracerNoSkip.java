@@ -9,7 +9,6 @@ package com.newrelic.agent.tracers;
 
 import com.newrelic.agent.Transaction;
 import com.newrelic.agent.TransactionActivity;
-import com.newrelic.agent.attributes.AttributeValidator;
 import com.newrelic.agent.config.TransactionTracerConfig;
 import com.newrelic.agent.database.SqlObfuscator;
 import com.newrelic.agent.trace.TransactionSegment;
@@ -51,7 +50,7 @@ public abstract class MethodExitTracerNoSkip extends AbstractTracer {
      * @param activity
      */
     public MethodExitTracerNoSkip(ClassMethodSignature signature, TransactionActivity activity) {
-        super(activity, new AttributeValidator(ATTRIBUTE_TYPE));
+        super(activity, TRACER_ATTRIBUTE_VALIDATOR);
         this.signature = signature;
         this.parentTracer = activity == null ? null : activity.getLastTracer();
     }
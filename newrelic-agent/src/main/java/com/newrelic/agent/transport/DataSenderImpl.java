@@ -19,6 +19,7 @@ import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.ConfigService;
 import com.newrelic.agent.config.DataSenderConfig;
 import com.newrelic.agent.config.LaspPolicies;
+import com.newrelic.agent.config.PayloadStagingConfig;
 import com.newrelic.agent.errors.TracedError;
 import com.newrelic.agent.logging.IAgentLogger;
 import com.newrelic.agent.model.AnalyticsEvent;
@@ -36,24 +37,21 @@ import com.newrelic.agent.superagent.HealthDataChangeListener;
 import com.newrelic.agent.superagent.HealthDataProducer;
 import com.newrelic.agent.superagent.SuperAgentIntegrationUtils;
 import com.newrelic.agent.trace.TransactionTrace;
+import com.newrelic.agent.util.DefaultThreadFactory;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 import org.json.simple.JSONValue;
 import org.json.simple.parser.JSONParser;
 
 import javax.net.ssl.SSLHandshakeException;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.SocketException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.rmi.UnexpectedException;
 import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -61,10 +59,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPOutputStream;
 
 import static com.newrelic.agent.util.LicenseKeyUtil.obfuscateLicenseKey;
 
@@ -89,7 +90,6 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
     private static final String EXCEPTION_MAP_RETURN_VALUE_KEY = "return_value";
     private static final Object NO_AGENT_RUN_ID = null;
     private static final String NULL_RESPONSE = "null";
-    private static final int COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
     private static final String REDIRECT_HOST = "redirect_host";
     private static final String SECURITY_POLICIES = "security_policies";
     private static final String MAX_PAYLOAD_SIZE_IN_BYTES = "max_payload_size_in_bytes";
@@ -98,6 +98,8 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
     // the block of env vars we send up to rpm
     private static final String ENV_METADATA = "metadata";
     private static final int DEFAULT_MAX_PAYLOAD_SIZE_IN_BYTES = 1_000_000;
+    private static final String PAYLOAD_REPLAY_THREAD_NAME = "New Relic Payload Replay";
+    private static final long DEFAULT_REPLAY_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(60);
 
     // Destinations for agent data
     private static final String COLLECTOR = "Collector";
@@ -109,6 +111,21 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             CollectorMethods.GET_AGENT_COMMANDS,
             CollectorMethods.PROFILE_DATA);
 
+    // Event endpoints whose payloads can be staged and sent later when the collector is unreachable, instead of their
+    // events being kept for the next harvest in the heap. Metrics and traces are merged back by their services as before.
+    private static final Set<String> STAGEABLE_METHODS = ImmutableSet.of(
+            CollectorMethods.ANALYTIC_EVENT_DATA,
+            CollectorMethods.CUSTOM_EVENT_DATA,
+            CollectorMethods.ERROR_EVENT_DATA,
+            CollectorMethods.LOG_EVENT_DATA,
+            CollectorMethods.SPAN_EVENT_DATA);
+
+    // Endpoints whose payloads embed compressed and encoded data, see DataSenderWriter
+    private static final Set<String> EMBEDDED_COMPRESSION_METHODS = ImmutableSet.of(
+            CollectorMethods.PROFILE_DATA,
+            CollectorMethods.SQL_TRACE_DATA,
+            CollectorMethods.TRANSACTION_SAMPLE_DATA);
+
     private final HttpClientWrapper httpClientWrapper;
 
     private final String originalHost;
@@ -131,6 +148,15 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
     private volatile Map<String, String> metadata;
     private final List<HealthDataChangeListener> healthDataChangeListeners = new CopyOnWriteArrayList<>();
     private final boolean isSuperAgentEnabled;
+    private final PayloadStagingConfig payloadStagingConfig;
+    // the process wide store, looked up when this sender first stages a payload
+    private volatile PayloadStagingStore payloadStagingStore;
+    private final AtomicBoolean replayingStagedPayloads = new AtomicBoolean(false);
+    private final Executor testReplayExecutor;
+    // created for the first replay and shut down with the agent run
+    private ExecutorService replayExecutor;
+    private volatile long replayBackoffMillis = DEFAULT_REPLAY_BACKOFF_MILLIS;
+    private volatile long replayNotBeforeNanos = System.nanoTime();
 
     public DataSenderImpl(
             DataSenderConfig config,
@@ -138,6 +164,22 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             DataSenderListener dataSenderListener,
             IAgentLogger logger,
             ConfigService configService) {
+        this(config, httpClientWrapper, dataSenderListener, logger, configService, null, null);
+    }
+
+    /**
+     * @param payloadStagingStore the store to stage payloads in, or null to use the one shared by the process
+     * @param replayExecutor runs the replay of staged payloads, or null to use a thread of its own
+     */
+    @VisibleForTesting
+    DataSenderImpl(
+            DataSenderConfig config,
+            HttpClientWrapper httpClientWrapper,
+            DataSenderListener dataSenderListener,
+            IAgentLogger logger,
+            ConfigService configService,
+            PayloadStagingStore payloadStagingStore,
+            Executor replayExecutor) {
         auditMode = config.isAuditMode();
         auditModeEndpoints = config.getAuditModeConfig().getEndpoints();
         this.logger = logger;
@@ -164,6 +206,9 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
 
         this.httpClientWrapper = httpClientWrapper;
         this.isSuperAgentEnabled = configService.getDefaultAgentConfig().getSuperAgentIntegrationConfig().isEnabled();
+        this.payloadStagingConfig = config.getPayloadStagingConfig();
+        this.payloadStagingStore = payloadStagingStore;
+        this.testReplayExecutor = replayExecutor;
     }
 
     private void checkAuditMode() {
@@ -362,6 +407,19 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
         if (runId == NO_AGENT_RUN_ID || events.isEmpty()) {
             return;
         }
+        sendReservoir(method, encoding, runId, reservoirSize, eventsSeen, events);
+    }
+
+    /*
+     * An event payload over max_payload_size_in_bytes is split into enough chunks to fit and each chunk is sent on its
+     * own, rather than the whole harvest being dropped. The reservoir size and events seen are divided between the chunks
+     * in proportion to their events so that the sums reported to the collector are unchanged. Only a single event that
+     * is too large on its own is dropped. If a chunk fails after earlier chunks were accepted (or staged), a
+     * PartialDeliveryException carries the events that weren't sent so that the caller doesn't send the accepted ones
+     * again.
+     */
+    private <T extends AnalyticsEvent & JSONStreamAware> void sendReservoir(String method, String encoding, Object runId, int reservoirSize,
+            int eventsSeen, Collection<T> events) throws Exception {
         InitialSizedJsonArray params = new InitialSizedJsonArray(3);
         params.add(runId);
 
@@ -371,7 +429,67 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
         params.add(metadata);
 
         params.add(events);
-        invokeRunId(method, encoding, runId, params);
+        try {
+            invokeRunId(method, encoding, runId, params);
+            return;
+        } catch (MaxPayloadException e) {
+            if (events.size() < 2) {
+                throw e;
+            }
+            ServiceFactory.getStatsService().doStatsWork(StatsWorks.getIncrementCounterWork(
+                    MessageFormat.format(MetricNames.SUPPORTABILITY_PAYLOAD_SPLIT, method), 1), MetricNames.SUPPORTABILITY_PAYLOAD_SPLIT);
+            int chunkCount = Math.max(2, (int) Math.ceil((double) e.getPayloadSize() / maxPayloadSizeInBytes));
+            chunkCount = Math.min(chunkCount, events.size());
+            logger.log(Level.FINE, "Splitting {0} payload of {1} events into {2} requests", method, events.size(), chunkCount);
+
+            List<T> eventList = new ArrayList<>(events);
+            MaxPayloadException dropped = null;
+            PayloadStagedException staged = null;
+            for (int i = 0; i < chunkCount; i++) {
+                int from = (int) ((long) eventList.size() * i / chunkCount);
+                int to = (int) ((long) eventList.size() * (i + 1) / chunkCount);
+                try {
+                    sendReservoir(method, encoding, runId, share(reservoirSize, from, to, eventList.size()),
+                            share(eventsSeen, from, to, eventList.size()), eventList.subList(from, to));
+                } catch (MaxPayloadException chunkException) {
+                    dropped = chunkException;
+                } catch (PayloadStagedException chunkException) {
+                    // the staging store has these events now, carry on as if they were delivered
+                    staged = chunkException;
+                } catch (HttpError | IOException chunkException) {
+                    if (from == 0 && !(chunkException instanceof PartialDeliveryException)) {
+                        // nothing has been delivered, so the caller can retry or discard all of the events as usual
+                        throw chunkException;
+                    }
+                    // the earlier chunks were accepted, only the rest can be retried without duplicating events
+                    List<Object> unsent = new ArrayList<>();
+                    int delivered = from;
+                    if (chunkException instanceof PartialDeliveryException) {
+                        unsent.addAll(((PartialDeliveryException) chunkException).getUnsentEvents());
+                        delivered += ((PartialDeliveryException) chunkException).getDeliveredCount();
+                    } else {
+                        unsent.addAll(eventList.subList(from, to));
+                    }
+                    unsent.addAll(eventList.subList(to, eventList.size()));
+                    logger.log(Level.FINE, "Sending {0} payload failed after {1} of {2} events were sent", method, delivered, eventList.size());
+                    throw new PartialDeliveryException(chunkException, unsent, delivered);
+                }
+            }
+            if (dropped != null) {
+                throw dropped;
+            }
+            if (staged != null) {
+                throw staged;
+            }
+        }
+    }
+
+    /**
+     * The part of total that belongs to the events in [from, to) of count events. The parts of consecutive ranges sum to
+     * the total.
+     */
+    private static int share(int total, int from, int to, int count) {
+        return (int) ((long) total * to / count - (long) total * from / count);
     }
 
     // Sends LogEvent data in the MELT format for logs
@@ -518,6 +636,7 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             invokeRunId(CollectorMethods.SHUTDOWN, compressedEncoding, runId, params);
         } finally {
             setAgentRunId(NO_AGENT_RUN_ID);
+            shutdownReplayExecutor();
             this.httpClientWrapper.shutdown();
         }
     }
@@ -527,6 +646,11 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
         maxPayloadSizeInBytes = payloadSizeInBytes;
     }
 
+    @VisibleForTesting
+    void setReplayBackoffMillis(long backoffMillis) {
+        replayBackoffMillis = backoffMillis;
+    }
+
     private Object invokeRunId(String method, String encoding, Object runId, JSONStreamAware params) throws Exception {
         String uri = MessageFormat.format(agentRunIdUriPattern, method, runId.toString());
         return invoke(redirectHost, method, encoding, uri, params);
@@ -578,7 +702,8 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
      * matched/parsed has been deprecated.
      */
     private ReadResult connectAndSend(String host, String method, String encoding, String uri, JSONStreamAware params) throws Exception {
-        byte[] data = writeData(encoding, params);
+        PayloadWriter.Payload payload = PayloadWriter.write(encoding, params);
+        byte[] data = payload.getData();
 
         /*
          * We don't enforce max_payload_size_in_bytes for error_data (aka error traces). Instead, we halve the
@@ -590,7 +715,7 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             String msg = MessageFormat.format("Payload of size {0} exceeded maximum size {1} for {2} method ",
                     data.length, maxPayloadSizeInBytes, method);
             logger.log(Level.WARNING, msg);
-            throw new MaxPayloadException(msg);
+            throw new MaxPayloadException(msg, data.length);
         }
 
         final URL url = new URL(PROTOCOL, host, port, uri);
@@ -598,12 +723,19 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
 
         httpClientWrapper.captureSupportabilityMetrics(ServiceFactory.getStatsService(), host);
 
-        ReadResult result = httpClientWrapper.execute(request, new TimingEventHandler(method, ServiceFactory.getStatsService()));
-
-        String payloadJsonSent = DataSenderWriter.toJSONString(params);
+        ReadResult result;
+        try {
+            result = httpClientWrapper.execute(request, new TimingEventHandler(method, ServiceFactory.getStatsService()));
+        } catch (IOException e) {
+            if (stagePayload(method, encoding, params, payload)) {
+                logger.log(Level.INFO, "Remote {0} call failed, the payload will be sent later: {1}", method, e.toString());
+                throw new PayloadStagedException(e);
+            }
+            throw e;
+        }
 
         if (auditMode && methodShouldBeAudited(method)) {
-
+            String payloadJsonSent = DataSenderWriter.toJSONString(params);
             String msg = MessageFormat.format("Sent JSON({0}) to: {1}, with payload: {2}", method, obfuscateLicenseKey(url.toString()), obfuscateLicenseKey(payloadJsonSent));
             logger.info(msg);
         }
@@ -613,7 +745,17 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
                 MessageFormat.format(MetricNames.SUPPORTABILITY_HTTP_CODE, result.getStatusCode()), 1), MetricNames.SUPPORTABILITY_HTTP_CODE);
 
         if (result.getStatusCode() != HttpResponseCode.OK && result.getStatusCode() != HttpResponseCode.ACCEPTED) {
-            throwExceptionFromStatusCode(method, result, data, request);
+            try {
+                throwExceptionFromStatusCode(method, result, data, request);
+            } catch (HttpError e) {
+                if (isBackPressure(e.getStatusCode())) {
+                    delayReplay();
+                }
+                if (!e.discardHarvestData() && stagePayload(method, encoding, params, payload)) {
+                    throw new PayloadStagedException(e);
+                }
+                throw e;
+            }
         }
 
         String payloadJsonReceived = result.getResponseBody();
@@ -623,7 +765,7 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             logger.info(MessageFormat.format("Received JSON({0}): {1}", method, payloadJsonReceived));
         }
 
-        recordDataUsageMetrics(method, payloadJsonSent, payloadJsonReceived);
+        recordDataUsageMetrics(method, getPayloadBytesSent(method, params, payload), payloadJsonReceived);
 
         SuperAgentIntegrationUtils.reportHealthyStatus(healthDataChangeListeners, AgentHealth.Category.HARVEST, AgentHealth.Category.CONFIG);
 
@@ -631,18 +773,207 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
             dataSenderListener.dataSent(method, encoding, uri, data);
         }
 
+        if (STAGEABLE_METHODS.contains(method)) {
+            scheduleStagedPayloadReplay();
+        }
+
         return result;
     }
 
+    /**
+     * Keep an event payload that the collector couldn't accept so that it can be sent after a later successful request.
+     *
+     * @return true if the payload was staged, false if it should be handled as a failed send
+     */
+    private boolean stagePayload(String method, String encoding, JSONStreamAware params, PayloadWriter.Payload payload) {
+        Object runId = agentRunId;
+        if (runId == NO_AGENT_RUN_ID || !STAGEABLE_METHODS.contains(method)) {
+            return false;
+        }
+        PayloadStagingStore store = payloadStagingStore;
+        if (store == null) {
+            store = PayloadStagingStore.getShared(payloadStagingConfig, logger);
+            if (store == null) {
+                return false;
+            }
+            payloadStagingStore = store;
+        }
+        if (!store.add(this, method, encoding, runId, getPayloadBytesSent(method, params, payload), payload.getData())) {
+            return false;
+        }
+        recordStagingMetric(MessageFormat.format(MetricNames.SUPPORTABILITY_PAYLOAD_STAGING_STAGED, method), 1);
+        recordStagingMetric(MetricNames.SUPPORTABILITY_PAYLOAD_STAGING_DROPPED, store.getAndResetDroppedCount());
+        return true;
+    }
+
+    /**
+     * @return true for the responses that ask the agent to send less often
+     */
+    private static boolean isBackPressure(int statusCode) {
+        return statusCode == HttpResponseCode.TOO_MANY_REQUESTS || statusCode == HttpResponseCode.SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Hold off replaying staged payloads, so that they don't add to the load of a collector that asked for less.
+     */
+    private void delayReplay() {
+        replayNotBeforeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replayBackoffMillis);
+    }
+
+    /**
+     * Replay the oldest payload this sender staged, now that the collector has accepted an event payload. One payload
+     * is replayed for each one accepted, so a collector that has just recovered sees at most twice the usual requests.
+     * The replay runs on its own thread so it doesn't hold up the harvest that triggered it or a shutdown. Nothing is
+     * scheduled while a replay is pending or while backing off after a 429 or 503 response.
+     */
+    private void scheduleStagedPayloadReplay() {
+        PayloadStagingStore store = payloadStagingStore;
+        if (store == null || System.nanoTime() - replayNotBeforeNanos < 0 || store.peek(this) == null
+                || !replayingStagedPayloads.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getReplayExecutor().execute(this::replayOldestStagedPayload);
+        } catch (RejectedExecutionException e) {
+            replayingStagedPayloads.set(false);
+        }
+    }
+
+    private synchronized Executor getReplayExecutor() {
+        if (testReplayExecutor != null) {
+            return testReplayExecutor;
+        }
+        if (replayExecutor == null) {
+            replayExecutor = Executors.newSingleThreadExecutor(new DefaultThreadFactory(PAYLOAD_REPLAY_THREAD_NAME, true));
+        }
+        return replayExecutor;
+    }
+
+    private synchronized void shutdownReplayExecutor() {
+        if (replayExecutor != null) {
+            if (!replayExecutor.shutdownNow().isEmpty()) {
+                // the pending replay will never run to clear the flag
+                replayingStagedPayloads.set(false);
+            }
+            replayExecutor = null;
+        }
+    }
+
+    private void replayOldestStagedPayload() {
+        try {
+            PayloadStagingStore.StagedPayload staged = payloadStagingStore.peek(this);
+            if (staged != null) {
+                replayStagedPayload(staged);
+            }
+        } finally {
+            replayingStagedPayloads.set(false);
+        }
+    }
+
+    private void replayStagedPayload(PayloadStagingStore.StagedPayload staged) {
+        Object runId = agentRunId;
+        if (runId == NO_AGENT_RUN_ID) {
+            // shut down, or not connected yet
+            return;
+        }
+        String method = staged.getMethod();
+        byte[] data = payloadStagingStore.read(staged);
+        if (data == null) {
+            // dropped to make room while we weren't looking
+            return;
+        }
+        if (!runId.equals(staged.getRunId())) {
+            try {
+                data = rekeyPayload(method, staged.getEncoding(), staged.getRunId(), runId, data);
+            } catch (IOException e) {
+                logger.log(Level.FINER, "Dropping staged {0} payload from a previous agent run: {1}", method, e.toString());
+                payloadStagingStore.remove(staged);
+                recordStagingMetric(MetricNames.SUPPORTABILITY_PAYLOAD_STAGING_DROPPED, 1);
+                return;
+            }
+        }
+
+        try {
+            String host = redirectHost;
+            String uri = MessageFormat.format(agentRunIdUriPattern, method, runId.toString());
+            URL url = new URL(PROTOCOL, host, port, uri);
+            HttpClientWrapper.Request request = createRequest(method, staged.getEncoding(), url, data);
+            ReadResult result = httpClientWrapper.execute(request, new TimingEventHandler(method, ServiceFactory.getStatsService()));
+            int statusCode = result.getStatusCode();
+
+            if (statusCode == HttpResponseCode.OK || statusCode == HttpResponseCode.ACCEPTED) {
+                payloadStagingStore.remove(staged);
+                recordStagingMetric(MessageFormat.format(MetricNames.SUPPORTABILITY_PAYLOAD_STAGING_REPLAYED, method), 1);
+                recordDataUsageMetrics(method, staged.getPayloadBytesSent(), result.getResponseBody());
+                if (dataSenderListener != null) {
+                    dataSenderListener.dataSent(method, staged.getEncoding(), uri, data);
+                }
+                return;
+            }
+
+            if (isBackPressure(statusCode)) {
+                delayReplay();
+            }
+            // leave license, restart and disconnect responses to the regular harvest to handle
+            if (HttpError.create(statusCode, host, data.length).discardHarvestData()
+                    && statusCode != HttpResponseCode.UNAUTHORIZED
+                    && statusCode != HttpResponseCode.PROXY_AUTHENTICATION_REQUIRED
+                    && statusCode != HttpResponseCode.CONFLICT
+                    && statusCode != HttpResponseCode.GONE) {
+                logger.log(Level.FINER, "Dropping staged {0} payload rejected with status code {1}", method, statusCode);
+                payloadStagingStore.remove(staged);
+                recordStagingMetric(MetricNames.SUPPORTABILITY_PAYLOAD_STAGING_DROPPED, 1);
+                return;
+            }
+            logger.log(Level.FINER, "Replay of staged {0} payload failed with status code {1}", method, statusCode);
+        } catch (Exception e) {
+            logger.log(Level.FINER, "Replay of staged {0} payload failed: {1}", method, e.toString());
+        }
+    }
+
+    /**
+     * Rewrite a payload staged in an earlier agent run for the current one, so that it survives a reconnect. Event
+     * payloads start with their run id, log payloads only carry it in the URI.
+     */
+    private static byte[] rekeyPayload(String method, String encoding, Object stagedRunId, Object runId, byte[] data) throws IOException {
+        if (CollectorMethods.LOG_EVENT_DATA.equals(method)) {
+            return data;
+        }
+        String json = PayloadWriter.read(encoding, data);
+        String prefix = "[" + JSONValue.toJSONString(stagedRunId) + ",";
+        if (!json.startsWith(prefix)) {
+            throw new IOException("payload doesn't start with its agent run id");
+        }
+        final String rekeyed = "[" + JSONValue.toJSONString(runId) + "," + json.substring(prefix.length());
+        return PayloadWriter.write(encoding, out -> out.write(rekeyed)).getData();
+    }
+
+    private void recordStagingMetric(String metricName, int count) {
+        if (count > 0) {
+            ServiceFactory.getStatsService().doStatsWork(StatsWorks.getIncrementCounterWork(metricName, count), metricName);
+        }
+    }
+
+    /**
+     * The size of the payload for the data usage metrics. Traces and profiles embed their data compressed, so they're
+     * measured as the JSON with that data uncompressed, as they always have been. Other payloads are the same JSON
+     * either way and use the length counted while they were written.
+     */
+    private static long getPayloadBytesSent(String method, JSONStreamAware params, PayloadWriter.Payload payload) {
+        if (EMBEDDED_COMPRESSION_METHODS.contains(method)) {
+            return DataSenderWriter.toJSONString(params).getBytes().length;
+        }
+        return payload.getUncompressedLength();
+    }
+
     /**
      * Record metrics tracking amount of bytes sent and received for each agent endpoint payload
      *
      * @param method method for the agent endpoint
-     * @param payloadJsonSent JSON String of the payload that was sent
+     * @param payloadBytesSent size in bytes of the uncompressed JSON payload that was sent
      * @param payloadJsonReceived JSON String of the payload that was received
      */
-    private void recordDataUsageMetrics(String method, String payloadJsonSent, String payloadJsonReceived) {
-        int payloadBytesSent = payloadJsonSent.getBytes().length;
+    private void recordDataUsageMetrics(String method, long payloadBytesSent, String payloadJsonReceived) {
         int payloadBytesReceived = payloadJsonReceived.getBytes().length;
 
         // COLLECTOR is always the destination for data reported via DataSenderImpl.
@@ -776,28 +1107,6 @@ public class DataSenderImpl implements DataSender, HealthDataProducer {
                 .setRequestMetadata(requestMetadata);
     }
 
-    private byte[] writeData(String encoding, JSONStreamAware params) throws IOException {
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        try (
-                OutputStream os = getOutputStream(outStream, encoding);
-                Writer out = new OutputStreamWriter(os, StandardCharsets.UTF_8);
-        ) {
-            JSONValue.writeJSONString(params, out);
-            out.flush();
-        }
-        return outStream.toByteArray();
-    }
-
-    private OutputStream getOutputStream(OutputStream out, String encoding) throws IOException {
-        if (DEFLATE_ENCODING.equals(encoding)) {
-            return new DeflaterOutputStream(out, new Deflater(COMPRESSION_LEVEL));
-        } else if (GZIP_ENCODING.equals(encoding)) {
-            return new GZIPOutputStream(out);
-        } else {
-            return out;
-        }
-    }
-
     private Map<?, ?> getResponseMap(String responseBody) throws Exception {
         JSONParser parser = new JSONParser();
         Object response = parser.parse(responseBody);
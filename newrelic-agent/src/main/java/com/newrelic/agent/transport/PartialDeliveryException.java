@@ -0,0 +1,74 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when an event payload that was split into several requests fails part way through. The events in the requests
+ * that were accepted must not be sent again, so the exception carries only the events that weren't sent.
+ */
+public class PartialDeliveryException extends HttpError {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> unsentEvents;
+    private final int deliveredCount;
+
+    /**
+     * @param failure the {@link HttpError} or {@link IOException} that stopped the send
+     * @param unsentEvents the events from the failed request onwards
+     * @param deliveredCount the number of events ahead of the failed request, which were delivered, staged to be sent
+     * later, or dropped as too large on their own
+     */
+    public PartialDeliveryException(Exception failure, List<?> unsentEvents, int deliveredCount) {
+        super(failure instanceof HttpError ? failure.getMessage() : failure.toString(),
+                failure instanceof HttpError ? ((HttpError) failure).getStatusCode() : 0,
+                failure instanceof HttpError ? ((HttpError) failure).getEntitySizeInBytes() : 0);
+        initCause(failure instanceof PartialDeliveryException ? failure.getCause() : failure);
+        this.unsentEvents = Collections.unmodifiableList(new ArrayList<>(unsentEvents));
+        this.deliveredCount = deliveredCount;
+    }
+
+    /**
+     * A connection failure after some of the events were delivered leaves the rest to the next harvest, rather than
+     * dropping them.
+     */
+    @Override
+    public boolean discardHarvestData() {
+        if (getCause() instanceof IOException) {
+            return false;
+        }
+        return super.discardHarvestData();
+    }
+
+    public List<?> getUnsentEvents() {
+        return unsentEvents;
+    }
+
+    public int getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * @param error the failure of a send
+     * @param attempted the events that were being sent
+     * @return the events that the collector didn't accept and should be sent again
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> getUnsentEvents(HttpError error, List<E> attempted) {
+        if (error instanceof PartialDeliveryException) {
+            return (List<E>) ((PartialDeliveryException) error).getUnsentEvents();
+        }
+        return attempted;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an event payload couldn't be delivered and was staged to be sent later instead (see
+ * {@link PayloadStagingStore}). The staging store now holds the events, so the caller must not keep them for the next
+ * harvest as well.
+ */
+public class PayloadStagedException extends HttpError {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param failure the {@link HttpError} or {@link IOException} that stopped the send
+     */
+    public PayloadStagedException(Exception failure) {
+        super(failure instanceof HttpError ? failure.getMessage() : failure.toString(),
+                failure instanceof HttpError ? ((HttpError) failure).getStatusCode() : 0,
+                failure instanceof HttpError ? ((HttpError) failure).getEntitySizeInBytes() : 0);
+        initCause(failure);
+    }
+
+    /**
+     * The events are in the staging store, there is nothing left for the caller to retry.
+     */
+    @Override
+    public boolean discardHarvestData() {
+        return true;
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.newrelic.agent.config.PayloadStagingConfig;
+import com.newrelic.agent.logging.IAgentLogger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+
+/**
+ * A bounded first in, first out store for serialized (and already compressed) payloads that couldn't be delivered.
+ * Payload bytes are kept in a direct buffer outside the Java heap, so that an outage doesn't grow the heap. Only the
+ * small description of each payload stays on the heap.
+ *
+ * The buffer is used as a ring: each payload is written contiguously after the newest one, wrapping to the start of the
+ * buffer when it doesn't fit before the end. When there isn't room, the oldest payloads are dropped, whichever sender
+ * staged them.
+ *
+ * There is one store per process, shared by all of the data senders and allocated when the first payload is staged.
+ * Each payload is tagged with the sender that staged it, which is the only one that replays it.
+ */
+class PayloadStagingStore {
+
+    private static PayloadStagingStore shared;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final Deque<StagedPayload> payloads = new ArrayDeque<>();
+    private int droppedCount = 0;
+
+    @VisibleForTesting
+    PayloadStagingStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    /**
+     * Get the store for this process, allocating it as configured the first time. Later configuration changes don't
+     * resize it.
+     *
+     * @return the store, or null if staging is disabled
+     */
+    static synchronized PayloadStagingStore getShared(PayloadStagingConfig config, IAgentLogger logger) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        if (shared == null) {
+            int maxBytes = config.getMaxBytes();
+            logger.log(Level.INFO, "Staging undelivered payloads in memory ({0} bytes)", maxBytes);
+            shared = new PayloadStagingStore(ByteBuffer.allocateDirect(maxBytes));
+        }
+        return shared;
+    }
+
+    /**
+     * Copy a payload into the store, dropping the oldest payloads if needed to make room.
+     *
+     * @param owner the sender that will replay the payload
+     * @return false if the payload is empty or larger than the store
+     */
+    synchronized boolean add(Object owner, String method, String encoding, Object runId, long payloadBytesSent, byte[] data) {
+        int length = data.length;
+        if (length == 0 || length > capacity) {
+            return false;
+        }
+        int offset;
+        while ((offset = findSpace(length)) < 0) {
+            payloads.pollFirst();
+            droppedCount++;
+        }
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset);
+        target.put(data);
+        payloads.addLast(new StagedPayload(owner, method, encoding, runId, payloadBytesSent, offset, length));
+        return true;
+    }
+
+    /**
+     * @return the offset to write a payload of the given length at, or -1 if the oldest payload is in the way
+     */
+    private int findSpace(int length) {
+        StagedPayload oldest = payloads.peekFirst();
+        if (oldest == null) {
+            return 0;
+        }
+        StagedPayload newest = payloads.peekLast();
+        int end = newest.offset + newest.length;
+        if (newest.offset >= oldest.offset) {
+            // payloads occupy [oldest.offset, end), free space is after end and before oldest.offset
+            if (capacity - end >= length) {
+                return end;
+            }
+            return oldest.offset >= length ? 0 : -1;
+        }
+        // wrapped: payloads occupy [oldest.offset, capacity) and [0, end)
+        return oldest.offset - end >= length ? end : -1;
+    }
+
+    /**
+     * @return the oldest payload staged by the owner, or null if there is none
+     */
+    synchronized StagedPayload peek(Object owner) {
+        for (StagedPayload payload : payloads) {
+            if (payload.owner == owner) {
+                return payload;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copy the bytes of a payload out of the store.
+     *
+     * @return the payload bytes, or null if the payload has since been dropped to make room
+     */
+    synchronized byte[] read(StagedPayload payload) {
+        if (!payloads.contains(payload)) {
+            return null;
+        }
+        byte[] data = new byte[payload.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(payload.offset);
+        source.get(data);
+        return data;
+    }
+
+    /**
+     * Remove a payload once it has been sent or discarded. Does nothing if it was already dropped.
+     */
+    synchronized void remove(StagedPayload payload) {
+        if (payloads.peekFirst() == payload) {
+            payloads.pollFirst();
+        } else {
+            payloads.remove(payload);
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return payloads.isEmpty();
+    }
+
+    synchronized int size() {
+        return payloads.size();
+    }
+
+    /**
+     * @return the number of payloads dropped to make room since the last call
+     */
+    synchronized int getAndResetDroppedCount() {
+        int dropped = droppedCount;
+        droppedCount = 0;
+        return dropped;
+    }
+
+    static final class StagedPayload {
+        private final Object owner;
+        private final String method;
+        private final String encoding;
+        private final Object runId;
+        private final long payloadBytesSent;
+        private final int offset;
+        private final int length;
+
+        private StagedPayload(Object owner, String method, String encoding, Object runId, long payloadBytesSent, int offset, int length) {
+            this.owner = owner;
+            this.method = method;
+            this.encoding = encoding;
+            this.runId = runId;
+            this.payloadBytesSent = payloadBytesSent;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        String getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * @return the agent run the payload was written for
+         */
+        Object getRunId() {
+            return runId;
+        }
+
+        long getPayloadBytesSent() {
+            return payloadBytesSent;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return method + " (" + length + " bytes)";
+        }
+    }
+
+}
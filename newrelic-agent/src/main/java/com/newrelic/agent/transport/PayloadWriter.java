@@ -0,0 +1,194 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import org.json.simple.JSONStreamAware;
+import org.json.simple.JSONValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serializes collector payloads straight into their wire encoding. The JSON is streamed through the compressor as it is
+ * written, so the uncompressed payload is never materialized, and the {@link Deflater}s are pooled and reset between
+ * payloads rather than allocated (with their native zlib state) for every request.
+ *
+ * Gzip payloads are framed by hand around a raw deflate stream so that the gzip encoding can share the pool as well.
+ *
+ * This class is thread-safe.
+ */
+final class PayloadWriter {
+
+    private static final int COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    private static final int POOL_SIZE = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private static final BlockingQueue<Deflater> DEFLATE_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Deflater> GZIP_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private PayloadWriter() {
+    }
+
+    /**
+     * Write the params as JSON in the given content encoding.
+     *
+     * @param encoding {@link DataSenderImpl#DEFLATE_ENCODING}, {@link DataSenderImpl#GZIP_ENCODING} or anything else for
+     * uncompressed JSON
+     * @param params the payload
+     * @return the encoded payload
+     */
+    static Payload write(String encoding, JSONStreamAware params) throws IOException {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream(BUFFER_SIZE);
+        if (DataSenderImpl.DEFLATE_ENCODING.equals(encoding)) {
+            return writeDeflated(outStream, params, DEFLATE_POOL, false);
+        } else if (DataSenderImpl.GZIP_ENCODING.equals(encoding)) {
+            outStream.write(GZIP_HEADER);
+            return writeDeflated(outStream, params, GZIP_POOL, true);
+        }
+        CountingOutputStream counter = new CountingOutputStream(outStream, false);
+        writeJson(counter, params);
+        return new Payload(outStream.toByteArray(), counter.count);
+    }
+
+    /**
+     * Read the JSON back out of a payload written by {@link #write}.
+     *
+     * @param encoding the encoding the payload was written in
+     * @param data the encoded payload
+     * @return the JSON
+     */
+    static String read(String encoding, byte[] data) throws IOException {
+        InputStream in = new ByteArrayInputStream(data);
+        if (DataSenderImpl.DEFLATE_ENCODING.equals(encoding)) {
+            in = new InflaterInputStream(in);
+        } else if (DataSenderImpl.GZIP_ENCODING.equals(encoding)) {
+            in = new GZIPInputStream(in);
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (InputStream decoded = in) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = decoded.read(buffer)) != -1) {
+                json.write(buffer, 0, read);
+            }
+        }
+        return new String(json.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Payload writeDeflated(ByteArrayOutputStream outStream, JSONStreamAware params, BlockingQueue<Deflater> pool,
+            boolean gzip) throws IOException {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(COMPRESSION_LEVEL, gzip);
+        }
+        try {
+            DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outStream, deflater, BUFFER_SIZE);
+            CountingOutputStream counter = new CountingOutputStream(deflaterStream, gzip);
+            writeJson(counter, params);
+            deflaterStream.finish();
+            if (gzip) {
+                writeIntLE(outStream, (int) counter.crc.getValue());
+                writeIntLE(outStream, (int) counter.count);
+            }
+            return new Payload(outStream.toByteArray(), counter.count);
+        } finally {
+            release(deflater, pool);
+        }
+    }
+
+    private static void writeJson(OutputStream os, JSONStreamAware params) throws IOException {
+        Writer out = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+        JSONValue.writeJSONString(params, out);
+        out.flush();
+    }
+
+    private static void release(Deflater deflater, BlockingQueue<Deflater> pool) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * An encoded payload along with the size of the JSON it was encoded from.
+     */
+    static final class Payload {
+
+        private final byte[] data;
+        private final long uncompressedLength;
+
+        Payload(byte[] data, long uncompressedLength) {
+            this.data = data;
+            this.uncompressedLength = uncompressedLength;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+
+        long getUncompressedLength() {
+            return uncompressedLength;
+        }
+    }
+
+    /**
+     * Counts, and optionally checksums, the bytes on their way to the compressor.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final CRC32 crc;
+        private long count;
+
+        CountingOutputStream(OutputStream out, boolean checksum) {
+            super(out);
+            this.crc = checksum ? new CRC32() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (crc != null) {
+                crc.update(b);
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+            count += len;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An append only list stored in fixed size chunks. Unlike an {@link java.util.ArrayList}, growing it never copies the
+ * elements already added, so a list of thousands of elements doesn't leave a trail of discarded arrays behind it.
+ *
+ * This class is not thread safe. Elements are appended by one thread at a time, and appends must happen-before reads
+ * from other threads. The list can't be modified through the {@link java.util.List} interface.
+ */
+public class SegmentArray<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int CHUNK_SHIFT = 6;
+
+    /**
+     * The number of elements in each chunk.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final Object[][] NO_CHUNKS = new Object[0][];
+
+    private Object[][] chunks = NO_CHUNKS;
+    private int size = 0;
+
+    /**
+     * Add an element to the end of the list.
+     */
+    public void append(E element) {
+        int chunkIndex = size >>> CHUNK_SHIFT;
+        if (chunkIndex == chunks.length) {
+            // only the chunk references are copied, 1/64th of the elements
+            chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length << 1));
+        }
+        Object[] chunk = chunks[chunkIndex];
+        if (chunk == null) {
+            chunk = new Object[CHUNK_SIZE];
+            chunks[chunkIndex] = chunk;
+        }
+        chunk[size & CHUNK_MASK] = element;
+        size++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        for (int copied = 0; copied < size; copied += CHUNK_SIZE) {
+            System.arraycopy(chunks[copied >>> CHUNK_SHIFT], 0, result, copied, Math.min(CHUNK_SIZE, size - copied));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ThreadTransactionContextTest {
+
+    @After
+    public void after() {
+        ThreadTransactionContext.clear();
+    }
+
+    @Test
+    public void testEmptyThread() {
+        assertNull(ThreadTransactionContext.getTransaction());
+        assertNull(ThreadTransactionContext.getActivity());
+
+        ThreadTransactionContext.setTransaction(null);
+        ThreadTransactionContext.setActivity(null);
+        assertNull(ThreadTransactionContext.getTransaction());
+        assertNull(ThreadTransactionContext.getActivity());
+    }
+
+    @Test
+    public void testTransactionAndActivityAreIndependent() {
+        Transaction transaction = mock(Transaction.class);
+        TransactionActivity activity = mock(TransactionActivity.class);
+
+        ThreadTransactionContext.set(transaction, activity);
+        assertSame(transaction, ThreadTransactionContext.getTransaction());
+        assertSame(activity, ThreadTransactionContext.getActivity());
+
+        ThreadTransactionContext.setActivity(null);
+        assertSame(transaction, ThreadTransactionContext.getTransaction());
+        assertNull(ThreadTransactionContext.getActivity());
+
+        ThreadTransactionContext.setActivity(activity);
+        ThreadTransactionContext.setTransaction(null);
+        assertNull(ThreadTransactionContext.getTransaction());
+        assertSame(activity, ThreadTransactionContext.getActivity());
+
+        ThreadTransactionContext.clear();
+        assertNull(ThreadTransactionContext.getTransaction());
+        assertNull(ThreadTransactionContext.getActivity());
+    }
+
+    @Test
+    public void testHolderIsRemovedWhenNothingIsBound() {
+        Transaction transaction = mock(Transaction.class);
+        TransactionActivity activity = mock(TransactionActivity.class);
+
+        ThreadTransactionContext.setTransaction(null);
+        assertFalse(ThreadTransactionContext.hasContext());
+
+        ThreadTransactionContext.set(transaction, activity);
+        ThreadTransactionContext.setTransaction(null);
+        assertTrue(ThreadTransactionContext.hasContext());
+        ThreadTransactionContext.setActivity(null);
+        assertFalse(ThreadTransactionContext.hasContext());
+
+        ThreadTransactionContext.set(transaction, activity);
+        ThreadTransactionContext.setActivity(null);
+        assertTrue(ThreadTransactionContext.hasContext());
+        ThreadTransactionContext.setTransaction(null);
+        assertFalse(ThreadTransactionContext.hasContext());
+
+        ThreadTransactionContext.set(transaction, activity);
+        ThreadTransactionContext.set(null, null);
+        assertFalse(ThreadTransactionContext.hasContext());
+    }
+
+    @Test
+    public void testBoundPerThread() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        ThreadTransactionContext.setTransaction(transaction);
+
+        final Transaction[] otherThread = new Transaction[] { transaction };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> otherThread[0] = ThreadTransactionContext.getTransaction()).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(otherThread[0]);
+        assertSame(transaction, ThreadTransactionContext.getTransaction());
+    }
+
+}
@@ -195,6 +195,21 @@ public class TransactionDataTest {
         Assert.assertSame(expected4, txd.getErrorAttributes());
     }
 
+    @Test
+    public void getFlattenedPrefixedAttributes() {
+        Map<String, String> requestParameters = new HashMap<>();
+        requestParameters.put("id", "7");
+        Map<String, Map<String, String>> prefixed = new HashMap<>();
+        prefixed.put("request.parameters.", requestParameters);
+        Mockito.when(tx.getPrefixedAgentAttributes()).thenReturn(prefixed);
+
+        TransactionData txd = getTxData(tx);
+        Map<String, String> flattened = txd.getFlattenedPrefixedAttributes();
+        Assert.assertEquals(Collections.singletonMap("request.parameters.id", "7"), flattened);
+        // built once and shared by every consumer of the transaction
+        Assert.assertSame(flattened, txd.getFlattenedPrefixedAttributes());
+    }
+
     @Test
     public void getBlameMetricName() {
         String expected = String.valueOf(System.nanoTime());
@@ -40,6 +40,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
@@ -191,6 +193,37 @@ public class TransactionServiceTest {
         assertEquals(tracer.getTransactionActivity().getTransaction(), finishedTransactionExtended.get());
     }
 
+    @Test
+    public void testAsyncDispatcherTransactionFinished() throws Exception {
+        ServiceFactory.getServiceManager().stop();
+        Map<String, Object> configMap = createConfigMap();
+        Map<String, Object> finishMap = createMap();
+        finishMap.put("async", true);
+        finishMap.put("workers", 1);
+        configMap.put("transaction_finish", finishMap);
+        createServiceManager(configMap);
+
+        final AtomicReference<Transaction> finishedTransaction = new AtomicReference<>(null);
+        final AtomicReference<String> finishedThread = new AtomicReference<>(null);
+        final CountDownLatch finished = new CountDownLatch(1);
+        ServiceFactory.getTransactionService().addTransactionListener(new TransactionListener() {
+            @Override
+            public void dispatcherTransactionFinished(TransactionData transactionData, TransactionStats transactionStats) {
+                finishedTransaction.set(transactionData.getTransaction());
+                finishedThread.set(Thread.currentThread().getName());
+                finished.countDown();
+            }
+        });
+
+        Tracer tracer = makeTransaction();
+        tracer.finish(0, null);
+        tracer.getParentTracer().finish(0, null);
+
+        Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(tracer.getTransactionActivity().getTransaction(), finishedTransaction.get());
+        assertEquals("New Relic Transaction Finish Processor", finishedThread.get());
+    }
+
     @Test
     public void testRandomnessPriority() throws InterruptedException {
         final List<TransactionEvent> events = new ArrayList<>();
@@ -724,4 +724,29 @@ public class AttributesFilterTest {
         Assert.assertEquals(filteredSpanAttributes.get("http.method"), "GET");
     }
 
+    @Test
+    public void testGetDestinations() {
+        Set<String> attrInclude = Sets.newHashSet("http.*");
+        Set<String> spanAttrExclude = Sets.newHashSet("http.url");
+
+        AgentConfig config = getSpanConfig(true, attrInclude, new HashSet<String>(), true, new HashSet<String>(), spanAttrExclude);
+        AttributesFilter attributesFilter = new AttributesFilter(config);
+
+        int urlDestinations = attributesFilter.getDestinations("http.url");
+        Assert.assertNotEquals(0, urlDestinations & AttributeDestinations.ATTRIBUTES);
+        Assert.assertNotEquals(0, urlDestinations & AttributeDestinations.TRANSACTION_EVENTS);
+        Assert.assertEquals(0, urlDestinations & AttributeDestinations.SPAN_EVENTS);
+        // browser attributes are disabled by default
+        Assert.assertEquals(0, urlDestinations & AttributeDestinations.BROWSER_MONITORING);
+
+        int methodDestinations = attributesFilter.getDestinations("http.method");
+        Assert.assertNotEquals(0, methodDestinations & AttributeDestinations.SPAN_EVENTS);
+        Assert.assertEquals(urlDestinations | AttributeDestinations.SPAN_EVENTS, methodDestinations);
+        Assert.assertTrue(attributesFilter.shouldIncludeSpanAttribute("http.method"));
+        Assert.assertFalse(attributesFilter.shouldIncludeSpanAttribute("http.url"));
+
+        // excluded by default everywhere
+        Assert.assertEquals(AttributeDestinations.NONE, attributesFilter.getDestinations("request.parameters.foo"));
+    }
+
 }
@@ -33,6 +33,21 @@ public class ApplicationLoggingForwardingConfigTest {
         assertTrue(config.getEnabled());
     }
 
+    @Test
+    public void ringBufferDefaultsToFalse() {
+        ApplicationLoggingForwardingConfig config = new ApplicationLoggingForwardingConfig(localProps, ApplicationLoggingConfigImpl.SYSTEM_PROPERTY_ROOT,
+                false);
+        assertFalse(config.isRingBuffer());
+    }
+
+    @Test
+    public void ringBufferCanBeEnabled() {
+        localProps.put(ApplicationLoggingForwardingConfig.RING_BUFFER, true);
+        ApplicationLoggingForwardingConfig config = new ApplicationLoggingForwardingConfig(localProps, ApplicationLoggingConfigImpl.SYSTEM_PROPERTY_ROOT,
+                false);
+        assertTrue(config.isRingBuffer());
+    }
+
     @Test
     public void testMaxSamplesStoredDefaultValue() {
         ApplicationLoggingForwardingConfig config = new ApplicationLoggingForwardingConfig(localProps, ApplicationLoggingConfigImpl.SYSTEM_PROPERTY_ROOT,
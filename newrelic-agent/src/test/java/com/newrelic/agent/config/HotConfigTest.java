@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.config;
+
+import com.newrelic.agent.MockServiceManager;
+import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.service.ServiceManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HotConfigTest {
+
+    @Test
+    public void defaults() {
+        HotConfig hotConfig = HotConfig.create(AgentConfigImpl.createAgentConfig(createSettings()));
+        Assert.assertFalse(hotConfig.isMetricDebug());
+        Assert.assertTrue(hotConfig.isCodeLevelMetricsEnabled());
+        Assert.assertTrue(hotConfig.isCustomParametersAllowed());
+    }
+
+    @Test
+    public void compiledFromConfig() {
+        Map<String, Object> settings = createSettings();
+        settings.put(AgentConfigImpl.METRIC_DEBUG, true);
+        settings.put(AgentConfigImpl.HIGH_SECURITY, true);
+        settings.put(AgentConfigImpl.CODE_LEVEL_METRICS, Collections.singletonMap(CodeLevelMetricsConfigImpl.ENABLED, false));
+
+        HotConfig hotConfig = HotConfig.create(AgentConfigImpl.createAgentConfig(settings));
+        Assert.assertTrue(hotConfig.isMetricDebug());
+        Assert.assertFalse(hotConfig.isCodeLevelMetricsEnabled());
+        Assert.assertFalse(hotConfig.isCustomParametersAllowed());
+    }
+
+    @Test
+    public void eachConfigServiceOwnsItsSnapshot() {
+        Map<String, Object> settings = createSettings();
+        settings.put(AgentConfigImpl.METRIC_DEBUG, true);
+        ConfigService metricDebugService = ConfigServiceFactory.createConfigService(AgentConfigImpl.createAgentConfig(settings), settings);
+        ConfigService defaultService = ConfigServiceFactory.createConfigService(AgentConfigImpl.createAgentConfig(createSettings()), createSettings());
+
+        // creating a second config service doesn't replace the first one's snapshot
+        Assert.assertTrue(metricDebugService.getHotConfig().isMetricDebug());
+        Assert.assertFalse(defaultService.getHotConfig().isMetricDebug());
+    }
+
+    @Test
+    public void getReadsTheRunningConfigService() {
+        ServiceManager previous = ServiceFactory.getServiceManager();
+        try {
+            Map<String, Object> settings = createSettings();
+            settings.put(AgentConfigImpl.METRIC_DEBUG, true);
+            ConfigService configService = ConfigServiceFactory.createConfigService(AgentConfigImpl.createAgentConfig(settings), settings);
+            ServiceFactory.setServiceManager(new MockServiceManager(configService));
+            Assert.assertSame(configService.getHotConfig(), HotConfig.get());
+            Assert.assertTrue(HotConfig.get().isMetricDebug());
+
+            ServiceFactory.setServiceManager(null);
+            Assert.assertFalse(HotConfig.get().isMetricDebug());
+            Assert.assertTrue(HotConfig.get().isCustomParametersAllowed());
+        } finally {
+            ServiceFactory.setServiceManager(previous);
+        }
+    }
+
+    private static Map<String, Object> createSettings() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AgentConfigImpl.APP_NAME, "Unit Test");
+        return settings;
+    }
+
+}
@@ -73,6 +73,22 @@ public class InfiniteTracingConfigImplTest {
         assertTrue(config.getUseCompression());
     }
 
+    @Test
+    public void testSingleSenderAndStreamByDefault() {
+        InfiniteTracingConfigImpl config = new InfiniteTracingConfigImpl(localProps);
+        assertEquals(1, config.getSenders());
+        assertEquals(1, config.getStreams());
+    }
+
+    @Test
+    public void testStreamsCappedAtSenders() {
+        localProps.put(InfiniteTracingConfigImpl.SENDERS, 4);
+        localProps.put(InfiniteTracingConfigImpl.STREAMS, 8);
+        InfiniteTracingConfigImpl config = new InfiniteTracingConfigImpl(localProps);
+        assertEquals(4, config.getSenders());
+        assertEquals(4, config.getStreams());
+    }
+
     @Test
     public void canConfigureViaSystemPropertiesAndEnvironmentVariables() {
         Properties properties = new Properties();
@@ -18,15 +18,21 @@ import java.util.Properties;
 
 import static com.newrelic.agent.SaveSystemPropertyProviderRule.TestEnvironmentFacade;
 import static com.newrelic.agent.SaveSystemPropertyProviderRule.TestSystemProps;
+import static com.newrelic.agent.config.JarCollectorConfigImpl.CACHE_FILE;
+import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFAULT_DEFER_ANALYSIS;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFAULT_ENABLED;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFAULT_JARS_PER_SECOND;
+import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFAULT_MAX_READ_KB_PER_SECOND;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFAULT_SKIP_TEMP_JARS;
+import static com.newrelic.agent.config.JarCollectorConfigImpl.DEFER_ANALYSIS;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.ENABLED;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.JARS_PER_SECOND;
+import static com.newrelic.agent.config.JarCollectorConfigImpl.MAX_READ_KB_PER_SECOND;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.SKIP_TEMP_JARS;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.SYSTEM_PROPERTY_ROOT;
 import static com.newrelic.agent.config.JarCollectorConfigImpl.SYSTEM_PROPERTY_ROOT_DEPRECATED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class JarCollectorConfigImplTest {
     private JarCollectorConfig jarCollectorConfig;
@@ -55,6 +61,22 @@ public class JarCollectorConfigImplTest {
         assertEquals(DEFAULT_ENABLED, jarCollectorConfig.isEnabled());
         assertEquals(DEFAULT_SKIP_TEMP_JARS, jarCollectorConfig.skipTempJars());
         assertEquals(DEFAULT_JARS_PER_SECOND, jarCollectorConfig.getJarsPerSecond());
+        assertEquals(DEFAULT_DEFER_ANALYSIS, jarCollectorConfig.isDeferAnalysis());
+        assertEquals(DEFAULT_MAX_READ_KB_PER_SECOND, jarCollectorConfig.getMaxReadKbPerSecond());
+        assertNull(jarCollectorConfig.getCacheFile());
+    }
+
+    @Test
+    public void testDeferredAnalysisConfigValues() {
+        configProps.put(DEFER_ANALYSIS, !DEFAULT_DEFER_ANALYSIS);
+        configProps.put(MAX_READ_KB_PER_SECOND, 512);
+        configProps.put(CACHE_FILE, "/var/cache/newrelic/jars.bin");
+
+        jarCollectorConfig = new JarCollectorConfigImpl(configProps);
+
+        assertEquals(!DEFAULT_DEFER_ANALYSIS, jarCollectorConfig.isDeferAnalysis());
+        assertEquals(512, jarCollectorConfig.getMaxReadKbPerSecond());
+        assertEquals("/var/cache/newrelic/jars.bin", jarCollectorConfig.getCacheFile());
     }
 
     @Test
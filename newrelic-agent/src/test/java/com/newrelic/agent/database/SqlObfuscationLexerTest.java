@@ -0,0 +1,84 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.database;
+
+import org.json.simple.JSONArray;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The lexer must produce exactly what the regular expression obfuscator produces, for every dialect.
+ */
+public class SqlObfuscationLexerTest {
+
+    private static final String[] DIALECTS = { "mysql", "postgresql", "postgres", "oracle", "cassandra", "mssql" };
+
+    // fragments that exercise the edges of each literal and comment rule
+    private static final String[] FRAGMENTS = { "'", "''", "\"", "\"\"", "\\'", "\\\"", "\\", "$", "$$", "$a$", "$A$", "$1",
+            "$?", "q'[", "]'", "Q'{", "}'", "q'<", ">'", "q'(", ")'", "q", "#", "--", "-", "/*", "*/", "/", "*", "{", "}",
+            "0x", "0X1f", "0xg", "1", "12", "_", "9_9", ".", "1.5", "e", "E", "+", "1e5", "1e+", "2E-3", "true", "TRUE",
+            "false", "Null", "nulls", "xtrue", " ", "\n", "\r", "\r\n", "a", "f", "select", "where", "=", ",", "(", ")",
+            "abcdef0123456789abcdef0123456789", "01234567-89ab-cdef-0123-456789abcdef", "?",
+            // non ASCII identifiers, digits and case mappings, which the regular expressions don't treat as word characters
+            "\u00e9", "caf\u00e9", "\u65e5\u672c", "\u0131", "\u0130", "\u017f", "\u212a", "\u00df", "\u0661", "\u00b2",
+            "\u0301", "\u00a0",
+            // dollar quote tags whose closing tag only matches under Unicode case folding
+            "$\u00e9$", "$\u00c9$", "$\u0131$", "$I$", "$i$", "$\u017f$", "$s$", "$S$", "$\u212a$", "$k$", "$K$",
+            // line terminators that don't end the statement for the regular expressions
+            "\u0085", "\u2028", "\u2029", "\u000b", "\u000c" };
+
+    private final SqlObfuscator regex = SqlObfuscator.getDefaultSqlObfuscator();
+    private final SqlObfuscator lexer = SqlObfuscator.getLexerSqlObfuscator();
+
+    @Test
+    public void corpus() throws Exception {
+        JSONArray corpus;
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/com/newrelic/agent/database/sql_obfuscation_corpus.json"), StandardCharsets.UTF_8)) {
+            corpus = (JSONArray) new JSONParser().parse(reader);
+        }
+        for (Object sql : corpus) {
+            assertEquivalent((String) sql);
+        }
+    }
+
+    @Test
+    public void randomStatements() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sql = new StringBuilder();
+            int fragments = 1 + random.nextInt(14);
+            for (int j = 0; j < fragments; j++) {
+                sql.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertEquivalent(sql.toString());
+        }
+    }
+
+    @Test
+    public void unchangedSqlIsNotCopied() {
+        String sql = "select id from employees";
+        assertSame(sql, lexer.obfuscateSql(sql));
+    }
+
+    private void assertEquivalent(String sql) {
+        assertEquals(sql, regex.obfuscateSql(sql), lexer.obfuscateSql(sql));
+        for (String dialect : DIALECTS) {
+            assertEquals(dialect + ": " + sql, regex.obfuscateSql(sql, dialect), lexer.obfuscateSql(sql, dialect));
+        }
+    }
+
+}
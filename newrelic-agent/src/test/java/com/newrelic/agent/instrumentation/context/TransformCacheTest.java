@@ -0,0 +1,243 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.instrumentation.context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TransformCacheTest {
+
+    private File directory;
+
+    @Before
+    public void before() throws Exception {
+        directory = Files.createTempDirectory("transform-cache").toFile();
+    }
+
+    @After
+    public void after() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void entriesSurviveReopen() throws Exception {
+        File file = new File(directory, TransformCache.FILE_NAME);
+        long fingerprint = TransformCache.fingerprint("agent 1");
+
+        TransformCache cache = TransformCache.open(file, fingerprint, 64);
+        long key = cache.key(null, new byte[] { 1, 2, 3 });
+        assertFalse(cache.contains(key));
+        cache.add(key);
+        cache.add(key);
+        assertTrue(cache.contains(key));
+        assertEquals(1, cache.size());
+        cache.disable();
+
+        TransformCache reopened = TransformCache.open(file, fingerprint, 64);
+        assertTrue(reopened.contains(key));
+        assertEquals(1, reopened.size());
+        reopened.disable();
+    }
+
+    @Test
+    public void fingerprintChangeClearsEntries() throws Exception {
+        File file = new File(directory, TransformCache.FILE_NAME);
+
+        TransformCache cache = TransformCache.open(file, TransformCache.fingerprint("agent 1"), 64);
+        long key = cache.key(null, new byte[] { 1, 2, 3 });
+        cache.add(key);
+        cache.disable();
+
+        TransformCache reopened = TransformCache.open(file, TransformCache.fingerprint("agent 2"), 64);
+        assertFalse(reopened.contains(key));
+        assertEquals(0, reopened.size());
+        reopened.disable();
+    }
+
+    @Test
+    public void fileInUseIsNotShared() throws Exception {
+        File file = new File(directory, TransformCache.FILE_NAME);
+        TransformCache cache = TransformCache.open(file, 1, 64);
+        assertNotNull(cache);
+        assertNull(TransformCache.open(file, 1, 64));
+        cache.disable();
+        assertNotNull(TransformCache.open(file, 1, 64));
+    }
+
+    @Test
+    public void disabledCacheIsEmpty() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 64);
+        long key = cache.key(null, new byte[] { 4 });
+        cache.add(key);
+        cache.disable();
+        assertFalse(cache.isEnabled());
+        assertFalse(cache.contains(key));
+    }
+
+    @Test
+    public void stopsAcceptingEntriesWhenFull() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 16);
+        for (int i = 0; i < 100; i++) {
+            cache.add(cache.key(null, new byte[] { (byte) i }));
+        }
+        assertEquals(12, cache.size());
+        assertTrue(cache.contains(cache.key(null, new byte[] { 0 })));
+        assertFalse(cache.contains(cache.key(null, new byte[] { 99 })));
+        cache.disable();
+    }
+
+    @Test
+    public void concurrentAdditionsAreAllRecorded() throws Exception {
+        final TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 4096);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // every thread adds the same keys so that they race for the same slots
+                for (int i = 0; i < 1000; i++) {
+                    cache.add(cache.key(null, new byte[] { (byte) i, (byte) (i >> 8) }));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, cache.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cache.contains(cache.key(null, new byte[] { (byte) i, (byte) (i >> 8) })));
+        }
+        cache.disable();
+
+        TransformCache reopened = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 4096);
+        assertEquals(1000, reopened.size());
+        reopened.disable();
+    }
+
+    @Test
+    public void classesOfJvmClassLoadersAreCached() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 64);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+
+        long bootstrapKey = cache.key(null, bytes);
+        long platformKey = cache.key(systemClassLoader.getParent(), bytes);
+        long systemKey = cache.key(systemClassLoader, bytes);
+        assertNotEquals(TransformCache.NOT_CACHEABLE, bootstrapKey);
+        assertNotEquals(TransformCache.NOT_CACHEABLE, platformKey);
+        assertNotEquals(TransformCache.NOT_CACHEABLE, systemKey);
+        assertNotEquals(bootstrapKey, platformKey);
+        assertNotEquals(bootstrapKey, systemKey);
+        assertNotEquals(platformKey, systemKey);
+
+        cache.disable();
+    }
+
+    @Test
+    public void applicationClassLoadersAreKeyedByTheirJars() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 64);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+        File jar = new File(directory, "app.jar");
+        Files.write(jar.toPath(), new byte[] { 4, 5, 6 });
+        URL jarUrl = jar.toURI().toURL();
+
+        long applicationKey = cache.key(new URLClassLoader(new URL[] { jarUrl }, systemClassLoader), bytes);
+        assertNotEquals(TransformCache.NOT_CACHEABLE, applicationKey);
+        assertNotEquals(cache.key(systemClassLoader, bytes), applicationKey);
+        // another loader over the same jars, as in the next JVM
+        assertEquals(applicationKey, cache.key(new URLClassLoader(new URL[] { jarUrl }, systemClassLoader), bytes));
+
+        URLClassLoader child = new URLClassLoader(new URL[0], new URLClassLoader(new URL[] { jarUrl }, systemClassLoader));
+        assertNotEquals(TransformCache.NOT_CACHEABLE, cache.key(child, bytes));
+        assertNotEquals(applicationKey, cache.key(child, bytes));
+
+        // a changed jar is a different loader
+        Files.write(jar.toPath(), new byte[] { 4, 5, 6, 7 });
+        assertNotEquals(applicationKey, cache.key(new URLClassLoader(new URL[] { jarUrl }, systemClassLoader), bytes));
+        cache.disable();
+    }
+
+    @Test
+    public void classLoadersWithUnidentifiableClassesAreNotCached() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 64);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+
+        // class files in a directory can change without the directory changing
+        ClassLoader directoryClassLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, systemClassLoader);
+        long directoryKey = cache.key(directoryClassLoader, bytes);
+        assertEquals(TransformCache.NOT_CACHEABLE, directoryKey);
+        cache.add(directoryKey);
+        assertEquals(0, cache.size());
+        assertFalse(cache.contains(directoryKey));
+
+        assertEquals(TransformCache.NOT_CACHEABLE, cache.key(new ClassLoader(systemClassLoader) {
+        }, bytes));
+        assertEquals(TransformCache.NOT_CACHEABLE, cache.key(new URLClassLoader(new URL[0], directoryClassLoader), bytes));
+        cache.disable();
+    }
+
+    @Test
+    public void nestedJarsAreIdentifiedByTheirOuterJar() throws Exception {
+        File jar = new File(directory, "app.jar");
+        Files.write(jar.toPath(), new byte[] { 1 });
+        String path = jar.toURI().getPath();
+
+        assertEquals(jar, TransformCache.getJarFile(jar.toURI().toURL()));
+        assertEquals(jar, TransformCache.getJarFile(new URL("jar:file:" + path + "!/BOOT-INF/lib/a.jar!/")));
+        assertNull(TransformCache.getJarFile(directory.toURI().toURL()));
+        assertNull(TransformCache.getJarFile(new File(directory, "missing.jar").toURI().toURL()));
+        assertNull(TransformCache.getJarFile(new URL("http://example.com/a.jar")));
+    }
+
+    @Test
+    public void keysDependOnEveryByte() throws Exception {
+        TransformCache cache = TransformCache.open(new File(directory, TransformCache.FILE_NAME), 1, 64);
+        byte[] bytes = new byte[17];
+        long key = cache.key(null, bytes);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = 1;
+            assertNotEquals(key, cache.key(null, bytes));
+            bytes[i] = 0;
+        }
+        assertNotEquals(cache.key(null, new byte[0]), cache.key(null, new byte[1]));
+        cache.disable();
+    }
+
+}
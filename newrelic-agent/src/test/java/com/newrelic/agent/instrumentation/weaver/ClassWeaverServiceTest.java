@@ -1,6 +1,7 @@
 package com.newrelic.agent.instrumentation.weaver;
 
 import com.newrelic.agent.AgentHelper;
+import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.MockServiceManager;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.AgentJarHelper;
@@ -20,6 +21,8 @@ import com.newrelic.agent.instrumentation.weaver.preprocessors.TracedWeaveInstru
 import com.newrelic.agent.logging.AgentLogManager;
 import com.newrelic.agent.logging.IAgentLogger;
 import com.newrelic.agent.service.ServiceFactory;
+import com.newrelic.agent.stats.RecordResponseTimeMetric;
+import com.newrelic.agent.stats.StatsService;
 import com.newrelic.agent.trace.TransactionTraceService;
 import com.newrelic.api.agent.weaver.Weave;
 import com.newrelic.api.agent.weaver.WeaveIntoAllMethods;
@@ -27,6 +30,9 @@ import com.newrelic.bootstrap.BootstrapAgent;
 import com.newrelic.test.marker.RequiresFork;
 import com.newrelic.weave.WeaveTestUtils;
 import com.newrelic.weave.utils.WeaveUtils;
+import com.newrelic.weave.weavepackage.CachedWeavePackage;
+import com.newrelic.weave.weavepackage.WeavePackage;
+import com.newrelic.weave.weavepackage.WeavePackageIndex;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -38,6 +44,8 @@ import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.tree.ClassNode;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.lang.instrument.Instrumentation;
 import java.net.URL;
@@ -49,11 +57,16 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarInputStream;
 import java.util.logging.Level;
 
 @Category(RequiresFork.class)
 public class ClassWeaverServiceTest {
 
+    private static final String JMS_JAR = "com/newrelic/agent/extension/jms-1.1-1.0.jar";
+    private static final String SPRING_JMS_JAR = "com/newrelic/agent/extension/spring-jms-2-1.0.jar";
+
     private static MockedStatic<AgentLogManager> mockedAgentLogManager;
     private static IAgentLogger logger = Mockito.mock(IAgentLogger.class);
 
@@ -139,6 +152,113 @@ public class ClassWeaverServiceTest {
         }
     }
 
+    @Test
+    public void test_loadInternalWeavePackages_fromIndex() throws Exception {
+        createServiceManager(null);
+        try (MockedStatic<AgentJarHelper> mockedAgentJarHelper = Mockito.mockStatic(AgentJarHelper.class)) {
+            mockedAgentJarHelper.when(() ->
+                            AgentJarHelper.findAgentJarFileNames(Mockito.any()))
+                    .thenReturn(Arrays.asList(JMS_JAR));
+            Attributes attributes = readJmsManifestAttributes();
+            attributes.putValue(CachedWeavePackage.WEAVE_CLASSES_MANIFEST_ATTRIBUTE_NAME, "javax/jms/MessageListener");
+            attributes.putValue(CachedWeavePackage.WEAVE_METHODS_MANIFEST_ATTRIBUTE_NAME, "\"javax/jms/MessageListener.onMessage(Ljavax/jms/Message;)V\"");
+            attributes.putValue(CachedWeavePackage.REFERENCE_CLASSES_MANIFEST_ATTRIBUTE_NAME, "javax/jms/Message");
+            attributes.putValue(CachedWeavePackage.ILLEGAL_CLASSES_MANIFEST_ATTRIBUTE_NAME, "");
+            attributes.putValue(CachedWeavePackage.CLASS_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME, "");
+            attributes.putValue(CachedWeavePackage.METHOD_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME, "");
+
+            ClassWeaverService target = new ClassWeaverService(Mockito.mock(Instrumentation.class));
+            target.loadInternalWeavePackages(createIndex("jms-1.1-1.0.jar", attributes));
+
+            // the jar has no cached weave attributes, so a cached package can only have come from the index
+            WeavePackage weavePackage = target.getWeavePackageManger().getWeavePackage("com.newrelic.instrumentation.jms-1.1");
+            Assert.assertTrue(weavePackage instanceof CachedWeavePackage);
+            Assert.assertEquals(Collections.singleton("javax/jms/MessageListener.onMessage(Ljavax/jms/Message;)V"),
+                    weavePackage.getMethodSignatures());
+            Assert.assertEquals(1, target.getWeavePackageManger().getRegisteredPackages().size());
+        }
+    }
+
+    @Test
+    public void test_loadInternalWeavePackages_indexWithoutCachedAttributes() throws Exception {
+        createServiceManager(null);
+        try (MockedStatic<AgentJarHelper> mockedAgentJarHelper = Mockito.mockStatic(AgentJarHelper.class)) {
+            mockedAgentJarHelper.when(() ->
+                            AgentJarHelper.findAgentJarFileNames(Mockito.any()))
+                    .thenReturn(Arrays.asList(JMS_JAR));
+            ClassWeaverService target = new ClassWeaverService(Mockito.mock(Instrumentation.class));
+            // CachedWeavePackage can't create a package from these attributes, so the jar is read instead
+            target.loadInternalWeavePackages(createIndex("jms-1.1-1.0.jar", readJmsManifestAttributes()));
+
+            assertLoadedFromJar(target);
+        }
+    }
+
+    @Test
+    public void test_loadInternalWeavePackages_jarNotInIndex() throws Exception {
+        createServiceManager(null);
+        try (MockedStatic<AgentJarHelper> mockedAgentJarHelper = Mockito.mockStatic(AgentJarHelper.class)) {
+            mockedAgentJarHelper.when(() ->
+                            AgentJarHelper.findAgentJarFileNames(Mockito.any()))
+                    .thenReturn(Arrays.asList(JMS_JAR));
+            ClassWeaverService target = new ClassWeaverService(Mockito.mock(Instrumentation.class));
+            target.loadInternalWeavePackages(createIndex("other-1.0.jar", readJmsManifestAttributes()));
+
+            assertLoadedFromJar(target);
+        }
+    }
+
+    @Test
+    public void test_loadInternalWeavePackages_noIndex() throws Exception {
+        createServiceManager(null);
+        try (MockedStatic<AgentJarHelper> mockedAgentJarHelper = Mockito.mockStatic(AgentJarHelper.class)) {
+            mockedAgentJarHelper.when(() ->
+                            AgentJarHelper.findAgentJarFileNames(Mockito.any()))
+                    .thenReturn(Arrays.asList(JMS_JAR));
+            ClassWeaverService target = new ClassWeaverService(Mockito.mock(Instrumentation.class));
+            target.loadInternalWeavePackages(null);
+
+            assertLoadedFromJar(target);
+        }
+    }
+
+    @Test
+    public void test_loadInternalWeavePackages_registersEachJarOnceAndRecordsLoadTimes() throws Exception {
+        createServiceManager(null);
+        try (MockedStatic<AgentJarHelper> mockedAgentJarHelper = Mockito.mockStatic(AgentJarHelper.class)) {
+            mockedAgentJarHelper.when(() ->
+                            AgentJarHelper.findAgentJarFileNames(Mockito.any()))
+                    .thenReturn(Arrays.asList(JMS_JAR, SPRING_JMS_JAR));
+            ClassWeaverService target = new ClassWeaverService(Mockito.mock(Instrumentation.class));
+            // a loader thread per jar
+            target.loadInternalWeavePackages(null);
+
+            Assert.assertEquals(2, target.getWeavePackageManger().getRegisteredPackages().size());
+            Assert.assertNotNull(target.getWeavePackageManger().getWeavePackage("com.newrelic.instrumentation.jms-1.1"));
+            Assert.assertNotNull(target.getWeavePackageManger().getWeavePackage("com.newrelic.instrumentation.spring-jms-2"));
+
+            StatsService statsService = ServiceFactory.getStatsService();
+            Mockito.verify(statsService).doStatsWork(Mockito.any(RecordResponseTimeMetric.class),
+                    Mockito.eq(MetricNames.SUPPORTABILITY_WEAVE_LOAD_TIME));
+            // each package's load time is recorded once, so each jar was registered by exactly one thread
+            Mockito.verify(statsService).doStatsWork(Mockito.any(RecordResponseTimeMetric.class),
+                    Mockito.eq("Supportability/WeaveInstrumentation/LoadTime/com.newrelic.instrumentation.jms-1.1"));
+            Mockito.verify(statsService).doStatsWork(Mockito.any(RecordResponseTimeMetric.class),
+                    Mockito.eq("Supportability/WeaveInstrumentation/LoadTime/com.newrelic.instrumentation.spring-jms-2"));
+        }
+    }
+
+    @Test
+    public void test_readWeavePackageIndex() throws Exception {
+        Assert.assertNull(ClassWeaverService.readWeavePackageIndex(null));
+        Assert.assertNull(ClassWeaverService.readWeavePackageIndex(new ByteArrayInputStream(new byte[] { 'P', 'K', 3, 4 })));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createIndex("jms-1.1-1.0.jar", readJmsManifestAttributes()).write(out);
+        WeavePackageIndex index = ClassWeaverService.readWeavePackageIndex(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(readJmsManifestAttributes(), index.getAttributes("jms-1.1-1.0.jar"));
+    }
+
     @Test
     public void test_registerInstrumentation_validExternalJar() throws Exception {
         URL regularJmsUrl = BootstrapAgent.class.getResource("/com/newrelic/agent/extension/jms-1.1-1.0.jar");
@@ -235,6 +355,23 @@ public class ClassWeaverServiceTest {
         Mockito.verify(context).addTrace(Mockito.any(), Mockito.any());
     }
 
+    private static Attributes readJmsManifestAttributes() throws Exception {
+        try (JarInputStream jarStream = new JarInputStream(BootstrapAgent.class.getResourceAsStream('/' + JMS_JAR))) {
+            return jarStream.getManifest().getMainAttributes();
+        }
+    }
+
+    private static WeavePackageIndex createIndex(String jarFileName, Attributes attributes) {
+        return new WeavePackageIndex(Collections.singletonMap(jarFileName, attributes));
+    }
+
+    private static void assertLoadedFromJar(ClassWeaverService target) {
+        WeavePackage weavePackage = target.getWeavePackageManger().getWeavePackage("com.newrelic.instrumentation.jms-1.1");
+        Assert.assertNotNull(weavePackage);
+        Assert.assertFalse(weavePackage instanceof CachedWeavePackage);
+        Assert.assertEquals(1, target.getWeavePackageManger().getRegisteredPackages().size());
+    }
+
     private void createServiceManager(Set<File> weaveExtensions) throws Exception {
         createServiceManager(weaveExtensions, false);
     }
@@ -13,10 +13,14 @@ import com.newrelic.agent.config.SpanEventsConfig;
 import com.newrelic.agent.interfaces.ReservoirManager;
 import com.newrelic.agent.model.SpanEvent;
 import com.newrelic.agent.transport.HttpError;
+import com.newrelic.agent.transport.PartialDeliveryException;
 import com.newrelic.api.agent.Logger;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -87,6 +91,27 @@ public class CollectorSpanEventReservoirManagerTest {
         assertEquals(21, target.getOrCreateReservoir(APP_NAME).getNumberOfTries());
     }
 
+    @Test
+    public void retryOnlyUnsentEventsAfterPartialDelivery() {
+        ConfigService mockConfigService = mock21Samples();
+
+        CollectorSpanEventReservoirManager target = initWith25Tries(mockConfigService);
+
+        final List<SpanEvent> unsent = new ArrayList<>();
+        ReservoirManager.HarvestResult harvestResult = target.attemptToSendReservoir(
+                APP_NAME,
+                (appName, reservoirSize, eventsSeen, events) -> {
+                    unsent.addAll(events.subList(15, events.size()));
+                    throw new PartialDeliveryException(new HttpError("don't discard", 503, 1234), unsent, 15);
+                },
+                mock(Logger.class)
+        );
+
+        assertNull(harvestResult);
+        assertEquals(6, target.getOrCreateReservoir(APP_NAME).size());
+        assertTrue(target.getOrCreateReservoir(APP_NAME).asList().containsAll(unsent));
+    }
+
     @Test
     public void httpErrorTriggerDiscard() {
         ConfigService mockConfigService = mock21Samples();
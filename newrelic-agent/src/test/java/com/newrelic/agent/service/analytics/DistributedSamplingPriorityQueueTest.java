@@ -193,6 +193,68 @@ public class DistributedSamplingPriorityQueueTest {
         assertEquals(0, sizeZeroQueue.size());
     }
 
+    @Test
+    public void lowPriorityRejectedWhenFull() {
+        DistributedSamplingPriorityQueue<SimplePriorityAware> queue = new DistributedSamplingPriorityQueue<>(3, 0, 3, SimplePriorityAware.COMPARATOR);
+        assertTrue(queue.add(new SimplePriorityAware(true, 1.5f)));
+        assertTrue(queue.add(new SimplePriorityAware(true, 0.5f)));
+        assertTrue(queue.add(new SimplePriorityAware(false, 1.2f)));
+        assertTrue(queue.isFull());
+
+        assertFalse(queue.add(new SimplePriorityAware(true, 0.1f)));
+        assertFalse(queue.add(new SimplePriorityAware(true, 0.4f)));
+        assertTrue(queue.add(new SimplePriorityAware(true, 1.8f)));
+        assertFalse(queue.add(new SimplePriorityAware(true, 0.9f)));
+
+        assertEquals(3, queue.size());
+        assertEquals(7, queue.getNumberOfTries());
+        // only admitted elements are counted
+        assertEquals(3, queue.getDecided());
+        assertEquals(2, queue.getSampled());
+        assertEquals(1.8f, queue.getMinPriority(), 0.0f);
+
+        assertEquals(1.8f, queue.poll().getPriority(), 0.0f);
+        assertFalse(queue.isFull());
+        assertTrue(queue.add(new SimplePriorityAware(false, 0.1f)));
+        assertEquals(3, queue.size());
+
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertEquals(0.0f, queue.getMinPriority(), 0.0f);
+        assertTrue(queue.add(new SimplePriorityAware(false, 0.1f)));
+    }
+
+    @Test
+    public void concurrentAddsKeepHighestPriorities() throws Exception {
+        final int threads = 8;
+        final int perThread = 10000;
+        final DistributedSamplingPriorityQueue<SimplePriorityAware> queue = new DistributedSamplingPriorityQueue<>(100, 0, 100,
+                SimplePriorityAware.COMPARATOR);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // every priority in [0, threads * perThread) is added exactly once
+                    queue.add(new SimplePriorityAware(true, i * threads + offset));
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, queue.getNumberOfTries());
+        List<SimplePriorityAware> retained = queue.asList();
+        assertEquals(100, retained.size());
+        for (int i = 0; i < retained.size(); i++) {
+            assertEquals(threads * perThread - 1 - i, retained.get(i).getPriority(), 0.0f);
+        }
+    }
+
     private void addSpanEvents(int numberToAdd, DistributedSamplingPriorityQueue<SpanEvent> queue) {
         SpanEvent spanEvent = new SpanEventFactory("Unit Test")
                 .setGuid("9")
@@ -0,0 +1,179 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.service.analytics;
+
+import com.newrelic.agent.service.analytics.DistributedSamplingPriorityQueueTest.SimplePriorityAware;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityRingBufferTest {
+
+    @Test
+    public void fillsInOrderThenReturnsByDescendingPriority() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 3);
+
+        assertTrue(buffer.add(new SimplePriorityAware(false, 0.5f)));
+        assertTrue(buffer.add(new SimplePriorityAware(false, 1.5f)));
+        assertFalse(buffer.isFull());
+        assertTrue(buffer.add(new SimplePriorityAware(false, 1.0f)));
+        assertTrue(buffer.isFull());
+
+        List<SimplePriorityAware> elements = buffer.asList();
+        assertEquals(3, elements.size());
+        assertEquals(1.5f, elements.get(0).getPriority(), 0.0f);
+        assertEquals(1.0f, elements.get(1).getPriority(), 0.0f);
+        assertEquals(0.5f, elements.get(2).getPriority(), 0.0f);
+        assertEquals(1.5f, buffer.peek().getPriority(), 0.0f);
+    }
+
+    @Test
+    public void fullBufferDropsLowerPriority() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 2);
+        buffer.add(new SimplePriorityAware(false, 1.0f));
+        buffer.add(new SimplePriorityAware(false, 1.0f));
+
+        assertFalse(buffer.add(new SimplePriorityAware(false, 0.5f)));
+        assertEquals(2, buffer.size());
+        assertEquals(3, buffer.getNumberOfTries());
+    }
+
+    @Test
+    public void fullBufferReplacesLowerPriority() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 1);
+        buffer.add(new SimplePriorityAware(false, 0.5f));
+
+        assertTrue(buffer.add(new SimplePriorityAware(false, 1.5f)));
+        assertEquals(1, buffer.size());
+        assertEquals(1.5f, buffer.asList().get(0).getPriority(), 0.0f);
+    }
+
+    @Test
+    public void zeroCapacityDropsEverything() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 0);
+
+        assertFalse(buffer.add(new SimplePriorityAware(false, 1.0f)));
+        assertTrue(buffer.isFull());
+        assertEquals(0, buffer.size());
+        assertEquals(1, buffer.getNumberOfTries());
+    }
+
+    @Test
+    public void pollRemovesByDescendingPriority() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 3);
+        buffer.add(new SimplePriorityAware(false, 0.5f));
+        buffer.add(new SimplePriorityAware(false, 1.5f));
+        buffer.add(new SimplePriorityAware(false, 1.0f));
+
+        assertEquals(1.5f, buffer.poll().getPriority(), 0.0f);
+        assertEquals(2, buffer.size());
+        assertEquals(1.0f, buffer.peek().getPriority(), 0.0f);
+        assertEquals(1.0f, buffer.poll().getPriority(), 0.0f);
+        assertEquals(0.5f, buffer.poll().getPriority(), 0.0f);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.asList().isEmpty());
+
+        // emptied slots are reused once the buffer is cleared
+        buffer.clear();
+        assertTrue(buffer.add(new SimplePriorityAware(false, 2.0f)));
+        assertEquals(1, buffer.size());
+        assertEquals(2.0f, buffer.poll().getPriority(), 0.0f);
+    }
+
+    @Test
+    public void concurrentPollsReturnEachElementOnce() throws Exception {
+        final PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 1000);
+        for (int i = 0; i < 1000; i++) {
+            buffer.add(new SimplePriorityAware(false, i));
+        }
+        final int threads = 4;
+        final Set<SimplePriorityAware> polled = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final AtomicInteger pollCount = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                SimplePriorityAware element;
+                while ((element = buffer.poll()) != null) {
+                    polled.add(element);
+                    pollCount.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1000, pollCount.get());
+        assertEquals(1000, polled.size());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void sealedBufferForwardsAdds() {
+        PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 10);
+        PriorityRingBuffer<SimplePriorityAware> successor = new PriorityRingBuffer<>("app", "service", 10);
+        buffer.add(new SimplePriorityAware(false, 1.0f));
+
+        buffer.seal(successor);
+        buffer.add(new SimplePriorityAware(false, 1.0f));
+
+        assertEquals(1, buffer.size());
+        assertEquals(1, buffer.getNumberOfTries());
+        assertEquals(1, successor.size());
+        assertEquals(1, successor.getNumberOfTries());
+    }
+
+    @Test
+    public void everyConcurrentAddIsCountedOnce() throws Exception {
+        final PriorityRingBuffer<SimplePriorityAware> buffer = new PriorityRingBuffer<>("app", "service", 100);
+        final PriorityRingBuffer<SimplePriorityAware> successor = new PriorityRingBuffer<>("app", "service", 100);
+        final int threads = 4;
+        final int addsPerThread = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < addsPerThread; j++) {
+                    buffer.add(new SimplePriorityAware(false, (float) Math.random()));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        // seal part way through the adds
+        while (buffer.getNumberOfTries() < 1000) {
+            Thread.yield();
+        }
+        buffer.seal(successor);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, buffer.asList().size());
+        assertEquals(threads * addsPerThread, buffer.getNumberOfTries() + successor.getNumberOfTries());
+    }
+}
@@ -9,6 +9,7 @@ package com.newrelic.agent.service.analytics;
 
 import com.newrelic.agent.TransactionData;
 import com.newrelic.agent.attributes.AttributeNames;
+import com.newrelic.agent.attributes.AttributesUtils;
 import com.newrelic.agent.bridge.TransactionNamePriority;
 import com.newrelic.agent.environment.AgentIdentity;
 import com.newrelic.agent.environment.Environment;
@@ -385,7 +386,7 @@ public class TracerToSpanEventTest {
 
         SpanEvent expectedSpanEvent = buildExpectedSpanEvent();
 
-        when(txnData.getPrefixedAttributes()).thenReturn(prefixedAttributes);
+        when(txnData.getFlattenedPrefixedAttributes()).thenReturn(AttributesUtils.appendAttributePrefixes(prefixedAttributes));
 
         TracerToSpanEvent testClass = new TracerToSpanEvent(errorBuilderMap, new AttributeFilter.PassEverythingAttributeFilter(), timestampProvider,
                 environmentService, transactionDataToDistributedTraceIntrinsics, spanErrorBuilder);
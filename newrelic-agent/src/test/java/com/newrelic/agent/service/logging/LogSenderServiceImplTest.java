@@ -12,6 +12,7 @@ import com.newrelic.agent.attributes.ExcludeIncludeFilter;
 import com.newrelic.agent.attributes.ExcludeIncludeFilterImpl;
 import com.newrelic.agent.bridge.logging.LogAttributeKey;
 import com.newrelic.agent.bridge.logging.LogAttributeType;
+import com.newrelic.agent.bridge.logging.LogEventRecord;
 import com.newrelic.agent.config.AgentConfig;
 import com.newrelic.agent.config.AgentConfigImpl;
 import com.newrelic.agent.config.ApplicationLoggingConfigImpl;
@@ -21,6 +22,7 @@ import com.newrelic.agent.config.ApplicationLoggingMetricsConfig;
 import com.newrelic.agent.config.ConfigService;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.service.ServiceManager;
+import com.newrelic.agent.service.analytics.PriorityRingBuffer;
 import com.newrelic.agent.stats.StatsService;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -30,6 +32,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -142,6 +146,29 @@ public class LogSenderServiceImplTest {
         verify(txService, times(1)).removeTransactionListener(logSenderService.transactionListener);
     }
 
+    @Test
+    public void testRingBufferNoTransaction() throws Exception {
+        Map<String, Object> config = createConfig();
+        Map<String, Object> loggingMap = (Map<String, Object>) config.get(AgentConfigImpl.APPLICATION_LOGGING);
+        ((Map<String, Object>) loggingMap.get(ApplicationLoggingConfigImpl.FORWARDING)).put(ApplicationLoggingForwardingConfig.RING_BUFFER, true);
+        LogSenderServiceImpl logSenderService = createService(config);
+        logSenderService.addHarvestableToService(appName);
+
+        logSenderService.recordLogEvent(createAgentLogAttrs("field", "value"));
+        logSenderService.recordLogEvent(createAgentLogAttrs("field2", "value2"));
+        logSenderService.recordLogEvent(createAgentLogAttrs("field3", "value3"));
+        assertTrue(logSenderService.getReservoir(appName) instanceof PriorityRingBuffer);
+
+        MockRPMService analyticsData = new MockRPMService();
+        when(ServiceFactory.getServiceManager().getRPMServiceManager().getOrCreateRPMService(appName)).thenReturn(
+                analyticsData);
+
+        logSenderService.harvestHarvestables();
+
+        assertEquals(3, analyticsData.getEvents().size());
+        assertEquals(0, logSenderService.getReservoir(appName).size());
+    }
+
     @Test
     public void testWithTransaction() throws Exception {
         LogSenderServiceImpl logSenderService = createService(createConfig(null, 180));
@@ -168,6 +195,57 @@ public class LogSenderServiceImplTest {
         assertEquals(3, logs.getEventsForTesting().size());
     }
 
+    @Test
+    public void testLogEventRecordWithTransaction() throws Exception {
+        LogSenderServiceImpl logSenderService = createService(createConfig(null, 180));
+        Transaction transaction = Mockito.mock(Transaction.class);
+        when(ServiceFactory.getTransactionService().getTransaction(false)).thenReturn(transaction);
+
+        LogSenderServiceImpl.TransactionLogs logs = new LogSenderServiceImpl.TransactionLogs(
+                AgentConfigImpl.createAgentConfig(Collections.emptyMap()), allowAllFilter());
+        when(transaction.getLogEventData()).thenReturn(logs);
+        when(transaction.getApplicationName()).thenReturn(appName);
+        when(transaction.isInProgress()).thenReturn(true);
+
+        LogEventRecord record = new LogEventRecord("test", 1000L, 7L)
+                .setMessage("message")
+                .setLevel("INFO")
+                .setLogger("logger", null)
+                .addContextData("user", "someone")
+                .addContextData("count", 3);
+        logSenderService.recordLogEvent(record);
+
+        assertEquals(1, logs.getEventsForTesting().size());
+        Map<String, Object> attributes = logs.getEventsForTesting().get(0).getUserAttributesCopy();
+        assertEquals("test", attributes.get("instrumentation"));
+        assertEquals("message", attributes.get("message"));
+        assertEquals(1000L, attributes.get("timestamp"));
+        assertEquals("INFO", attributes.get("level"));
+        assertEquals(7L, attributes.get("thread.id"));
+        assertEquals("logger", attributes.get("logger.name"));
+        assertEquals("someone", attributes.get("context.user"));
+        assertEquals(3, attributes.get("context.count"));
+        assertFalse(attributes.containsKey("logger.fqcn"));
+        assertFalse(attributes.containsKey("error.message"));
+    }
+
+    @Test
+    public void testLogEventRecordNoTransaction() throws Exception {
+        LogSenderServiceImpl logSenderService = createService();
+        logSenderService.addHarvestableToService(appName);
+
+        logSenderService.recordLogEvent(new LogEventRecord("test", 1000L, 7L).setMessage("message"));
+        logSenderService.recordLogEvent(new LogEventRecord("test", 1001L, 7L).setMessage("message2"));
+
+        MockRPMService analyticsData = new MockRPMService();
+        when(ServiceFactory.getServiceManager().getRPMServiceManager().getOrCreateRPMService(appName)).thenReturn(
+                analyticsData);
+
+        logSenderService.harvestHarvestables();
+
+        assertEquals(2, analyticsData.getEvents().size());
+    }
+
     @Test
     public void testTransactionLogsMaxSamplesStoredIs0() throws Exception{
         LogSenderServiceImpl logSenderService = createService(createConfig(null, 180));
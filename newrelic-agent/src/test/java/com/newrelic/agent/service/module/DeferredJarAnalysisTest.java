@@ -0,0 +1,53 @@
+package com.newrelic.agent.service.module;
+
+import com.newrelic.api.agent.Logger;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeferredJarAnalysisTest {
+    @Test
+    public void analyzesAfterFirstHarvest() throws Exception {
+        @SuppressWarnings("unchecked")
+        Function<URL, JarData> processor = mock(Function.class);
+        JarData jarData = mock(JarData.class);
+        when(processor.apply(any(URL.class))).thenReturn(jarData);
+
+        DeferredJarAnalysis target = new DeferredJarAnalysis("default", processor, mock(Logger.class));
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<JarData> result = executorService.submit(() -> target.apply(new URL("file:/lib/example.jar")));
+            try {
+                result.get(200, TimeUnit.MILLISECONDS);
+                fail("jar analysis should wait for the first harvest");
+            } catch (TimeoutException expected) {
+            }
+            verify(processor, never()).apply(any(URL.class));
+
+            target.afterHarvest("other");
+            assertFalse(target.isStarted());
+
+            target.afterHarvest("default");
+            assertTrue(target.isStarted());
+            assertSame(jarData, result.get(10, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
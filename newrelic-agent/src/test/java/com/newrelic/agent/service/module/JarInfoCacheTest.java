@@ -0,0 +1,75 @@
+package com.newrelic.agent.service.module;
+
+import com.google.common.collect.ImmutableMap;
+import com.newrelic.api.agent.Logger;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class JarInfoCacheTest {
+    private static final JarInfo JAR_INFO = new JarInfo("1.2.3", ImmutableMap.of(
+            JarCollectorServiceProcessor.SHA1_CHECKSUM_KEY, "b82b735bc9ddee35c7fe6780d68f4a0256c4bd7a",
+            "artifactId", "example"));
+
+    @Test
+    public void readsEntriesWrittenByAnotherRun() throws IOException {
+        File file = createTempFile();
+        new JarInfoCache(file, mock(Logger.class)).put("/lib/example-1.2.3.jar", 1000L, 2000L, JAR_INFO);
+
+        JarInfoCache target = new JarInfoCache(file, mock(Logger.class));
+        assertEquals(JAR_INFO, target.get("/lib/example-1.2.3.jar", 1000L, 2000L));
+        assertNull(target.get("/lib/other-1.0.jar", 1000L, 2000L));
+    }
+
+    @Test
+    public void missesWhenJarChanged() throws IOException {
+        JarInfoCache target = new JarInfoCache(createTempFile(), mock(Logger.class));
+        target.put("/lib/example-1.2.3.jar", 1000L, 2000L, JAR_INFO);
+
+        assertNull(target.get("/lib/example-1.2.3.jar", 1001L, 2000L));
+        assertNull(target.get("/lib/example-1.2.3.jar", 1000L, 2001L));
+    }
+
+    @Test
+    public void ignoresTruncatedEntry() throws IOException {
+        File file = createTempFile();
+        JarInfoCache writer = new JarInfoCache(file, mock(Logger.class));
+        writer.put("/lib/example-1.2.3.jar", 1000L, 2000L, JAR_INFO);
+        long validLength = file.length();
+        writer.put("/lib/other-1.0.jar", 1000L, 2000L, JAR_INFO);
+        try (RandomAccessFile truncate = new RandomAccessFile(file, "rw")) {
+            truncate.setLength(validLength + 10);
+        }
+
+        JarInfoCache target = new JarInfoCache(file, mock(Logger.class));
+        assertEquals(JAR_INFO, target.get("/lib/example-1.2.3.jar", 1000L, 2000L));
+        assertNull(target.get("/lib/other-1.0.jar", 1000L, 2000L));
+    }
+
+    @Test
+    public void replacesUnreadableFile() throws IOException {
+        File file = createTempFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("not a jar cache".getBytes());
+        }
+
+        JarInfoCache target = new JarInfoCache(file, mock(Logger.class));
+        assertNull(target.get("/lib/example-1.2.3.jar", 1000L, 2000L));
+        target.put("/lib/example-1.2.3.jar", 1000L, 2000L, JAR_INFO);
+
+        assertEquals(JAR_INFO, new JarInfoCache(file, mock(Logger.class)).get("/lib/example-1.2.3.jar", 1000L, 2000L));
+    }
+
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("jar_cache", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+}
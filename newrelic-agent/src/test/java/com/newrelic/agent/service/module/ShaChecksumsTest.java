@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
 
+import com.google.common.util.concurrent.RateLimiter;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -26,4 +27,24 @@ public class ShaChecksumsTest {
     public void testJarWithinJar() throws NoSuchAlgorithmException, IOException {
         Assert.assertEquals("436bdbac7290779a1a89909827d8f24f632e3852", ShaChecksums.computeSha(JarCollectorServiceProcessorTest.getEmbeddedJarURL()));
     }
+
+    @Test
+    public void testComputeChecksums() throws NoSuchAlgorithmException, IOException {
+        URL url = JarCollectorServiceProcessorTest.getURL(JarCollectorServiceProcessorTest.JAR_PATH);
+        Assert.assertNotNull(ShaChecksums.getFile(url));
+
+        ShaChecksums.Checksums checksums = ShaChecksums.computeChecksums(url, RateLimiter.create(1024 * 1024));
+        Assert.assertEquals(ShaChecksums.computeSha(url), checksums.sha1);
+        Assert.assertEquals(ShaChecksums.computeSha512(url), checksums.sha512);
+    }
+
+    @Test
+    public void testComputeChecksumsJarWithinJar() throws NoSuchAlgorithmException, IOException {
+        URL url = JarCollectorServiceProcessorTest.getEmbeddedJarURL();
+        Assert.assertNull(ShaChecksums.getFile(url));
+
+        ShaChecksums.Checksums checksums = ShaChecksums.computeChecksums(url, null);
+        Assert.assertEquals("436bdbac7290779a1a89909827d8f24f632e3852", checksums.sha1);
+        Assert.assertEquals(ShaChecksums.computeSha512(url), checksums.sha512);
+    }
 }
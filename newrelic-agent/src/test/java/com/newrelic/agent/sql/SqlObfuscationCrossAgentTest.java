@@ -56,12 +56,14 @@ public class SqlObfuscationCrossAgentTest {
         String rawSql = input.getRawSql();
         Set<String> expectedObfuscatedSql = input.getObfuscatedSql();
 
-        SqlObfuscator sqlObfuscator = SqlObfuscator.getDefaultSqlObfuscator();
-        String actualObfuscatedSql = sqlObfuscator.obfuscateSql(rawSql, input.getDialect());
-        Assert.assertTrue(
-                "Expected: " + expectedObfuscatedSql + ", Actual: " + actualObfuscatedSql,
-                expectedObfuscatedSql.contains(actualObfuscatedSql)
-        );
+        for (String engine : new String[] { SqlObfuscator.LEXER_ENGINE, SqlObfuscator.REGEX_ENGINE }) {
+            SqlObfuscator sqlObfuscator = SqlObfuscator.getSqlObfuscator(engine);
+            String actualObfuscatedSql = sqlObfuscator.obfuscateSql(rawSql, input.getDialect());
+            Assert.assertTrue(
+                    engine + " expected: " + expectedObfuscatedSql + ", Actual: " + actualObfuscatedSql,
+                    expectedObfuscatedSql.contains(actualObfuscatedSql)
+            );
+        }
     }
 
 }
@@ -0,0 +1,247 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.stats;
+
+import com.newrelic.agent.MetricData;
+import com.newrelic.agent.MockNormalizer;
+import com.newrelic.agent.MockServiceManager;
+import com.newrelic.agent.config.AgentConfigImpl;
+import com.newrelic.agent.config.ConfigService;
+import com.newrelic.agent.config.ConfigServiceFactory;
+import com.newrelic.agent.metric.MetricName;
+import com.newrelic.agent.service.ServiceFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class CompactStatsEngineTest {
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        Map<String, Object> map = new HashMap<>();
+        map.put(AgentConfigImpl.APP_NAME, "Unit Test");
+        MockServiceManager serviceManager = new MockServiceManager();
+        ServiceFactory.setServiceManager(serviceManager);
+        ConfigService configService = ConfigServiceFactory.createConfigService(AgentConfigImpl.createAgentConfig(map), map);
+        serviceManager.setConfigService(configService);
+    }
+
+    @Test
+    public void recordResponseTime() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats("Test").recordResponseTime(100, TimeUnit.MILLISECONDS);
+        statsEngine.getResponseTimeStats("Test").recordResponseTime(300, 200, TimeUnit.MILLISECONDS);
+        statsEngine.recordResponseTimeInNanos(MetricName.create("Test"), TimeUnit.MILLISECONDS.toNanos(200), 0);
+
+        ResponseTimeStats stats = statsEngine.getResponseTimeStats("Test");
+        Assert.assertEquals(1, statsEngine.getSize());
+        Assert.assertEquals(3, stats.getCallCount());
+        Assert.assertEquals(0.6f, stats.getTotal(), 0.0001f);
+        Assert.assertEquals(0.3f, stats.getTotalExclusiveTime(), 0.0001f);
+        Assert.assertEquals(0.1f, stats.getMinCallTime(), 0.0001f);
+        Assert.assertEquals(0.3f, stats.getMaxCallTime(), 0.0001f);
+        Assert.assertEquals(0.14, stats.getSumOfSquares(), 0.0001);
+    }
+
+    @Test
+    public void scopedAndUnscopedAreDistinct() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats(MetricName.create("Test")).recordResponseTime(1, TimeUnit.SECONDS);
+        statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope1")).recordResponseTime(2, TimeUnit.SECONDS);
+        statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope2")).recordResponseTime(3, TimeUnit.SECONDS);
+
+        Assert.assertEquals(3, statsEngine.getSize());
+        Assert.assertEquals(1f, statsEngine.getResponseTimeStats(MetricName.create("Test")).getTotal(), 0);
+        Assert.assertEquals(2f, statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope1")).getTotal(), 0);
+        Assert.assertEquals(3f, statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope2")).getTotal(), 0);
+        Assert.assertTrue(statsEngine.getMetricNames().contains(MetricName.create("Test", "Scope2")));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine(8);
+        for (int i = 0; i < 1000; i++) {
+            statsEngine.getResponseTimeStats("Test" + i).recordResponseTime(i, TimeUnit.MILLISECONDS);
+            statsEngine.getStats(MetricName.create("Other" + i, "Scope" + (i % 10))).recordDataPoint(i);
+        }
+        Assert.assertEquals(2000, statsEngine.getSize());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(1, statsEngine.getResponseTimeStats("Test" + i).getCallCount());
+            Assert.assertEquals(i, statsEngine.getStats(MetricName.create("Other" + i, "Scope" + (i % 10))).getTotal(), 0);
+        }
+    }
+
+    @Test
+    public void otherStatsTypes() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getStats("Count").incrementCallCount(5);
+        statsEngine.getApdexStats(MetricName.create("Apdex")).recordApdexFrustrated();
+        statsEngine.getDataUsageStats(MetricName.create("DataUsage")).recordDataUsage(10, 20);
+
+        Assert.assertEquals(5, statsEngine.getStats("Count").getCallCount());
+        Assert.assertEquals(1, statsEngine.getApdexStats(MetricName.create("Apdex")).getApdexFrustrating());
+        Assert.assertEquals(10, statsEngine.getDataUsageStats(MetricName.create("DataUsage")).getBytesSent());
+        Assert.assertEquals(3, statsEngine.getSize());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void typeMismatch() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats("Test").recordResponseTime(1, TimeUnit.SECONDS);
+        statsEngine.getStats("Test");
+    }
+
+    @Test
+    public void mergeCompactEngines() {
+        CompactStatsEngine statsEngine1 = new CompactStatsEngine();
+        statsEngine1.getResponseTimeStats(MetricName.create("Test", "Scope")).recordResponseTime(100, TimeUnit.MILLISECONDS);
+        statsEngine1.getStats("Count").recordDataPoint(1);
+
+        CompactStatsEngine statsEngine2 = new CompactStatsEngine();
+        statsEngine2.getResponseTimeStats(MetricName.create("Other", "Scope2")).recordResponseTime(1, TimeUnit.SECONDS);
+        statsEngine2.getResponseTimeStats(MetricName.create("Test", "Scope")).recordResponseTime(50, TimeUnit.MILLISECONDS);
+        statsEngine2.getStats("Count").recordDataPoint(2);
+
+        statsEngine1.mergeStats(statsEngine2);
+
+        Assert.assertEquals(3, statsEngine1.getSize());
+        ResponseTimeStats stats = statsEngine1.getResponseTimeStats(MetricName.create("Test", "Scope"));
+        Assert.assertEquals(2, stats.getCallCount());
+        Assert.assertEquals(0.05f, stats.getMinCallTime(), 0.0001f);
+        Assert.assertEquals(0.1f, stats.getMaxCallTime(), 0.0001f);
+        Assert.assertEquals(1f, statsEngine1.getResponseTimeStats(MetricName.create("Other", "Scope2")).getTotal(), 0);
+        Assert.assertEquals(3f, statsEngine1.getStats("Count").getTotal(), 0);
+    }
+
+    @Test
+    public void mergeStatsEngineImpl() {
+        StatsEngineImpl statsEngineImpl = new StatsEngineImpl();
+        statsEngineImpl.getResponseTimeStats(MetricName.create("Test", "Scope")).recordResponseTime(100, TimeUnit.MILLISECONDS);
+        statsEngineImpl.getStats("Count").recordDataPoint(1);
+        statsEngineImpl.recordEmptyStats("Empty");
+
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope")).recordResponseTime(200, TimeUnit.MILLISECONDS);
+        statsEngine.mergeStats(statsEngineImpl);
+
+        Assert.assertEquals(3, statsEngine.getSize());
+        Assert.assertEquals(0.3f, statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope")).getTotal(), 0.0001f);
+        Assert.assertEquals(1f, statsEngine.getStats("Count").getTotal(), 0);
+
+        // and back again
+        StatsEngineImpl other = new StatsEngineImpl();
+        other.mergeStats(statsEngine);
+        Assert.assertEquals(3, other.getSize());
+        Assert.assertEquals(2, other.getResponseTimeStats(MetricName.create("Test", "Scope")).getCallCount());
+    }
+
+    @Test
+    public void mergeStatsResolvingScope() {
+        TransactionStats txStats = new TransactionStats();
+        txStats.getScopedStats().getOrCreateResponseTimeStats("Java/Foo/bar").recordResponseTimeInNanos(2000000000, 1000000000);
+        txStats.getUnscopedStats().getOrCreateResponseTimeStats("WebTransaction").recordResponseTimeInNanos(3000000000L);
+        txStats.getUnscopedStats().getStats("Custom").recordDataPoint(7);
+
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.mergeStatsResolvingScope(txStats, "WebTransaction/Uri/foo");
+        statsEngine.mergeStatsResolvingScope(txStats, "WebTransaction/Uri/foo");
+
+        ResponseTimeStats scoped = statsEngine.getResponseTimeStats(MetricName.create("Java/Foo/bar", "WebTransaction/Uri/foo"));
+        Assert.assertEquals(2, scoped.getCallCount());
+        Assert.assertEquals(4f, scoped.getTotal(), 0);
+        Assert.assertEquals(2f, scoped.getTotalExclusiveTime(), 0);
+        Assert.assertEquals(6f, statsEngine.getResponseTimeStats("WebTransaction").getTotal(), 0);
+        Assert.assertEquals(3, statsEngine.getSize());
+
+        // the transaction's stats objects are folded in, not retained
+        Assert.assertEquals(2f, txStats.getScopedStats().getOrCreateResponseTimeStats("Java/Foo/bar").getTotal(), 0);
+    }
+
+    @Test
+    public void getMetricDataMatchesStatsEngineImpl() {
+        TransactionStats txStats = new TransactionStats();
+        txStats.getScopedStats().getOrCreateResponseTimeStats("Java/Foo/bar").recordResponseTimeInNanos(2000000000, 1000000000);
+        txStats.getScopedStats().getOrCreateResponseTimeStats("Java/Foo/baz").recordResponseTimeInNanos(1000000000);
+        txStats.getUnscopedStats().getOrCreateResponseTimeStats("WebTransaction").recordResponseTimeInNanos(3000000000L);
+
+        StatsEngineImpl statsEngineImpl = new StatsEngineImpl();
+        statsEngineImpl.mergeStatsResolvingScope(txStats, "WebTransaction/Uri/foo");
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.mergeStatsResolvingScope(txStats, "WebTransaction/Uri/foo");
+
+        MockNormalizer normalizer = new MockNormalizer();
+        List<MetricData> expected = statsEngineImpl.getMetricData(normalizer);
+        List<MetricData> actual = statsEngine.getMetricData(normalizer);
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(5, actual.size());
+        for (MetricData metricData : expected) {
+            boolean found = false;
+            for (MetricData other : actual) {
+                if (other.getMetricName().equals(metricData.getMetricName())) {
+                    found = true;
+                    Assert.assertEquals(((CountStats) metricData.getStats()).getCallCount(), ((CountStats) other.getStats()).getCallCount());
+                    Assert.assertEquals(((CountStats) metricData.getStats()).getTotal(), ((CountStats) other.getStats()).getTotal(), 0);
+                }
+            }
+            Assert.assertTrue(metricData.getMetricName().toString(), found);
+        }
+    }
+
+    @Test
+    public void getMetricDataTrimsSmallScopedMetrics() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.recordResponseTimeInNanos(MetricName.create("Java/Foo/bar", "Scope"), 2000000000, 2000000000);
+        statsEngine.recordResponseTimeInNanos(MetricName.create("hi", "Scope"), 3, 1);
+        statsEngine.recordResponseTimeInNanos(MetricName.create("hello", "Scope"), 2, 2);
+        statsEngine.recordResponseTimeInNanos(MetricName.create("External/host/all", "Scope"), 1, 1);
+        statsEngine.getResponseTimeStats("hi").recordResponseTimeInNanos(1);
+
+        List<MetricData> data = statsEngine.getMetricData(new MockNormalizer());
+        Map<MetricName, ResponseTimeStats> stats = new HashMap<>();
+        for (MetricData metricData : data) {
+            Assert.assertNull(stats.put(metricData.getMetricName(), (ResponseTimeStats) metricData.getStats()));
+        }
+        Assert.assertEquals(7, data.size());
+
+        ResponseTimeStats other = stats.get(MetricName.create("Java/other", "Scope"));
+        Assert.assertEquals(2, other.getCallCount());
+        Assert.assertEquals(5f / 1000000000, other.getTotal(), 1e-12f);
+        Assert.assertEquals(3f / 1000000000, other.getTotalExclusiveTime(), 1e-12f);
+        Assert.assertEquals(2, stats.get(MetricName.create("Java/other")).getCallCount());
+        Assert.assertNotNull(stats.get(MetricName.create("External/host/all", "Scope")));
+        Assert.assertNotNull(stats.get(MetricName.create("External/host/all")));
+        Assert.assertEquals(1, stats.get(MetricName.create("Java/Foo/bar")).getCallCount());
+        Assert.assertEquals(1, stats.get(MetricName.create("hi")).getCallCount());
+
+        // the engine itself is not trimmed
+        Assert.assertEquals(5, statsEngine.getSize());
+    }
+
+    @Test
+    public void recordEmptyStatsReplacesResponseTime() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats("Test").recordResponseTime(1, TimeUnit.SECONDS);
+        statsEngine.recordEmptyStats("Test");
+        Assert.assertEquals(1, statsEngine.getSize());
+        Assert.assertSame(AbstractStats.EMPTY_STATS, statsEngine.toStatsEngineImpl().getUnscopedStatsForTesting().getStatsMap().get("Test"));
+    }
+
+    @Test
+    public void clear() {
+        CompactStatsEngine statsEngine = new CompactStatsEngine();
+        statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope")).recordResponseTime(1, TimeUnit.SECONDS);
+        statsEngine.clear();
+        Assert.assertEquals(0, statsEngine.getSize());
+        Assert.assertEquals(0, statsEngine.getResponseTimeStats(MetricName.create("Test", "Scope")).getCallCount());
+    }
+}
@@ -7,6 +7,7 @@
 
 package com.newrelic.agent.stats;
 
+import com.newrelic.agent.MetricNames;
 import com.newrelic.agent.MockRPMServiceManager;
 import com.newrelic.agent.MockServiceManager;
 import com.newrelic.agent.ThreadService;
@@ -215,6 +216,59 @@ public class StatsServiceTest {
         Assert.assertEquals(300f, harvestStatsEngine.getStats("Test1").getTotal(), 0);
     }
 
+    @Test
+    public void doStatsWorkStripedIngest() throws Exception {
+        serviceManager.stop();
+        Map<String, Object> configMap = createStagingMap();
+        configMap.put(StatsServiceImpl.STRIPED_INGEST_ENABLED, true);
+        configMap.put(StatsServiceImpl.STRIPED_INGEST_STRIPES, 4);
+        serviceManager = createServiceManager(configMap);
+
+        String appName = serviceManager.getConfigService().getDefaultAgentConfig().getApplicationName();
+        final StatsService statsService = serviceManager.getStatsService();
+        final int threadCount = 8;
+        final int recordsPerThread = 1000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < recordsPerThread; j++) {
+                        statsService.doStatsWork(new RecordMetric("Test1", 1f), "statsWorkTest");
+                    }
+                    latch.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        latch.await();
+
+        StatsEngine harvestStatsEngine = statsService.getStatsEngineForHarvest(appName);
+        Assert.assertEquals(threadCount * recordsPerThread, harvestStatsEngine.getStats("Test1").getCallCount());
+        Assert.assertEquals(threadCount * recordsPerThread, harvestStatsEngine.getStats("Test1").getTotal(), 0);
+        Assert.assertEquals(4f, harvestStatsEngine.getStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_STRIPES).getTotal(), 0);
+        float activeStripes = harvestStatsEngine.getStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_ACTIVE_STRIPES).getTotal();
+        Assert.assertTrue(activeStripes >= 1 && activeStripes <= 4);
+        Assert.assertEquals(1, harvestStatsEngine.getResponseTimeStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_MERGE_TIME).getCallCount());
+
+        // work recorded after the harvest goes to the next harvest
+        statsService.doStatsWork(new RecordMetric("Test1", 5f), "statsWorkTest");
+        harvestStatsEngine = statsService.getStatsEngineForHarvest(appName);
+        Assert.assertEquals(1, harvestStatsEngine.getStats("Test1").getCallCount());
+        Assert.assertEquals(5f, harvestStatsEngine.getStats("Test1").getTotal(), 0);
+        Assert.assertEquals(1f, harvestStatsEngine.getStats(MetricNames.SUPPORTABILITY_STATS_SERVICE_ACTIVE_STRIPES).getTotal(), 0);
+    }
+
+    @Test
+    public void stripeCountIsPowerOfTwo() {
+        Assert.assertEquals(1, StatsServiceImpl.getStripeCount(0));
+        Assert.assertEquals(1, StatsServiceImpl.getStripeCount(1));
+        Assert.assertEquals(4, StatsServiceImpl.getStripeCount(3));
+        Assert.assertEquals(64, StatsServiceImpl.getStripeCount(64));
+        Assert.assertEquals(StatsServiceImpl.MAX_STRIPES, StatsServiceImpl.getStripeCount(100000));
+    }
+
     private static class MergeStatsWork implements StatsWork {
 
         private final String appName;
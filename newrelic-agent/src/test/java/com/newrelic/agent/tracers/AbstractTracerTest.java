@@ -135,6 +135,36 @@ public class AbstractTracerTest {
         tracer.finish(Opcodes.RETURN, null);
     }
 
+    @Test
+    public void testFirstExceptionWins() {
+        AbstractTracer tracer = createTxnAndTracer();
+        assertNull(tracer.getException());
+        assertFalse(tracer.wasExceptionSetByAPI());
+
+        Throwable noticed = new RuntimeException("noticed");
+        tracer.setNoticedError(noticed);
+        tracer.setThrownException(new RuntimeException("thrown"));
+
+        assertSame(noticed, tracer.getException());
+        assertTrue(tracer.wasExceptionSetByAPI());
+        tracer.finish(Opcodes.RETURN, null);
+    }
+
+    @Test
+    public void testMarkFinishTime() {
+        AbstractTracer tracer = createTxnAndTracer();
+        assertEquals(AbstractTracer.NO_FINISH_TIME, tracer.finishTime);
+
+        tracer.markFinishTime();
+        long marked = tracer.finishTime;
+        assertFalse(marked == AbstractTracer.NO_FINISH_TIME);
+
+        // only the first mark counts
+        tracer.markFinishTime();
+        assertEquals(marked, tracer.finishTime);
+        tracer.finish(Opcodes.RETURN, null);
+    }
+
     @Test
     public void testGetParentTracerWithSpan() throws Exception {
         AbstractTracer childTracer = createTxnAndTracer(true, false);
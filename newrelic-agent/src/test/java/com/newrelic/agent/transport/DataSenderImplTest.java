@@ -23,6 +23,7 @@ import com.newrelic.agent.model.LogEvent;
 import com.newrelic.agent.model.PathHashes;
 import com.newrelic.agent.model.SpanCategory;
 import com.newrelic.agent.model.SpanEvent;
+import com.newrelic.agent.profile.ProfileData;
 import com.newrelic.agent.service.ServiceFactory;
 import com.newrelic.agent.service.analytics.SpanEventFactory;
 import com.newrelic.agent.service.analytics.TransactionEvent;
@@ -32,6 +33,10 @@ import com.newrelic.agent.stats.RecordDataUsageMetric;
 import com.newrelic.agent.stats.StatsImpl;
 import com.newrelic.agent.stats.StatsService;
 import org.hamcrest.CoreMatchers;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -47,15 +52,26 @@ import org.mockito.internal.stubbing.answers.ReturnsArgumentAt;
 import org.mockito.invocation.Invocation;
 
 import javax.net.ssl.SSLHandshakeException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static com.newrelic.agent.MetricNames.SUPPORTABILITY_AGENT_ENDPOINT_HTTP_ERROR;
 import static org.junit.Assert.assertEquals;
@@ -213,6 +229,207 @@ public class DataSenderImplTest {
                 createMetricData(5));
     }
 
+    @Test
+    public void testRetainedErrorStatusStagesPayloadAndReplaysAfterSuccess() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        results.add(ReadResult.create(HttpResponseCode.INTERNAL_SERVER_ERROR, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        final List<String> methodsSent = new ArrayList<>();
+        final List<Runnable> replays = new ArrayList<>();
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, methodsSent, new ArrayList<HttpClientWrapper.Request>(), store, replays);
+
+        // the caller learns that the events were staged, so that it doesn't keep them as well
+        try {
+            target.sendSpanEvents(5, 5, createSpanEvents(5));
+            fail("expected the payload to be staged");
+        } catch (PayloadStagedException e) {
+            assertEquals(HttpResponseCode.INTERNAL_SERVER_ERROR, e.getStatusCode());
+            assertTrue(e.discardHarvestData());
+        }
+        assertTrue(methodsSent.isEmpty());
+        assertEquals(1, store.size());
+
+        // a successful send schedules the replay rather than sending the staged payload itself
+        target.sendSpanEvents(5, 5, createSpanEvents(5));
+        assertEquals(1, methodsSent.size());
+        assertEquals(1, replays.size());
+
+        // only one replay is pending at a time
+        target.sendSpanEvents(5, 5, createSpanEvents(5));
+        assertEquals(1, replays.size());
+
+        replays.remove(0).run();
+        assertEquals(3, methodsSent.size());
+        assertTrue(store.isEmpty());
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testConnectionFailureStagesPayload() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        // a null result fails the request with an IOException
+        results.add(null);
+        final List<String> methodsSent = new ArrayList<>();
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, methodsSent, new ArrayList<HttpClientWrapper.Request>(), store, new ArrayList<Runnable>());
+
+        try {
+            target.sendAnalyticsEvents(10, 10, createTransactionEvents(10));
+            fail("expected the payload to be staged");
+        } catch (PayloadStagedException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.isRetryableError());
+        }
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testMetricDataIsNotStaged() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        results.add(ReadResult.create(HttpResponseCode.SERVICE_UNAVAILABLE, "", null));
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, new ArrayList<String>(), new ArrayList<HttpClientWrapper.Request>(), store,
+                new ArrayList<Runnable>());
+
+        // the metric service merges the metrics back into the next harvest, as it always has
+        try {
+            target.sendMetricData(System.currentTimeMillis() - 5000, System.currentTimeMillis(), createMetricData(5));
+            fail("expected an HttpError");
+        } catch (HttpError e) {
+            assertFalse(e instanceof PayloadStagedException);
+            assertFalse(e.discardHarvestData());
+        }
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    public void testBackPressureDelaysReplay() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        results.add(ReadResult.create(HttpResponseCode.TOO_MANY_REQUESTS, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        final List<Runnable> replays = new ArrayList<>();
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, new ArrayList<String>(), new ArrayList<HttpClientWrapper.Request>(), store, replays);
+
+        try {
+            target.sendSpanEvents(5, 5, createSpanEvents(5));
+            fail("expected the payload to be staged");
+        } catch (PayloadStagedException e) {
+            assertEquals(HttpResponseCode.TOO_MANY_REQUESTS, e.getStatusCode());
+        }
+
+        // the collector asked for less, so the next accepted request doesn't bring the backlog along
+        target.sendSpanEvents(5, 5, createSpanEvents(5));
+        assertTrue(replays.isEmpty());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testStagedPayloadIsRekeyedForNewAgentRun() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        results.add(ReadResult.create(HttpResponseCode.INTERNAL_SERVER_ERROR, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        final List<HttpClientWrapper.Request> requests = new ArrayList<>();
+        final List<Runnable> replays = new ArrayList<>();
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, new ArrayList<String>(), requests, store, replays);
+
+        try {
+            target.sendSpanEvents(5, 5, createSpanEvents(5));
+            fail("expected the payload to be staged");
+        } catch (PayloadStagedException expected) {
+        }
+
+        // reconnected
+        target.setAgentRunId("new run id");
+        target.sendSpanEvents(5, 5, createSpanEvents(5));
+        replays.remove(0).run();
+
+        assertTrue(store.isEmpty());
+        assertEquals(3, requests.size());
+        HttpClientWrapper.Request replayed = requests.get(2);
+        assertTrue(replayed.getURL().toString().endsWith("&run_id=new run id"));
+        assertTrue(PayloadWriter.read(replayed.getEncoding(), replayed.getData()).startsWith("[\"new run id\","));
+    }
+
+    @Test
+    public void testStagedPayloadsAreNotReplayedAfterShutdown() throws Exception {
+        final List<ReadResult> results = new ArrayList<>();
+        results.add(ReadResult.create(HttpResponseCode.INTERNAL_SERVER_ERROR, "", null));
+        results.add(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        results.add(ReadResult.create(HttpResponseCode.OK, "", null));
+        final List<String> methodsSent = new ArrayList<>();
+        final List<Runnable> replays = new ArrayList<>();
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100_000));
+        DataSenderImpl target = createStagingDataSender(results, methodsSent, new ArrayList<HttpClientWrapper.Request>(), store, replays);
+
+        try {
+            target.sendSpanEvents(5, 5, createSpanEvents(5));
+            fail("expected the payload to be staged");
+        } catch (PayloadStagedException expected) {
+        }
+        target.sendSpanEvents(5, 5, createSpanEvents(5));
+        assertEquals(1, replays.size());
+
+        // the shutdown request doesn't schedule a replay, and the pending one finds the agent run over
+        target.shutdown(System.currentTimeMillis());
+        assertEquals(1, replays.size());
+        replays.remove(0).run();
+
+        assertEquals(Arrays.asList(CollectorMethods.SPAN_EVENT_DATA, CollectorMethods.SHUTDOWN), methodsSent);
+        assertEquals(1, store.size());
+        assertTrue(results.isEmpty());
+    }
+
+    /**
+     * @param results the responses to the requests, in order, with null for a request that fails to connect
+     * @param methodsSent collects the methods of the requests the collector accepted
+     * @param requests collects every request made
+     * @param store the staging store
+     * @param replays collects the replays of staged payloads, which the test runs
+     */
+    private DataSenderImpl createStagingDataSender(final List<ReadResult> results, final List<String> methodsSent,
+            final List<HttpClientWrapper.Request> requests, PayloadStagingStore store, List<Runnable> replays) throws Exception {
+        AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
+
+        HttpClientWrapper wrapper = new HttpClientWrapper() {
+            @Override
+            public ReadResult execute(Request request, ExecuteEventHandler eventHandler) throws Exception {
+                requests.add(request);
+                ReadResult result = results.remove(0);
+                if (result == null) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                return result;
+            }
+
+            @Override
+            public void captureSupportabilityMetrics(StatsService statsService, String requestHost) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+
+        DataSenderImpl target = new DataSenderImpl(config, wrapper, new DataSenderListener() {
+            @Override
+            public void dataSent(String method, String encoding, String uri, byte[] rawDataSent) {
+                methodsSent.add(method);
+            }
+
+            @Override
+            public void dataReceived(String method, String encoding, String uri, Map<?, ?> rawDataReceived) {
+            }
+        }, logger, ServiceFactory.getConfigService(), store, replays::add);
+        target.setAgentRunId("agent run id");
+        return target;
+    }
+
     @Test
     public void testSuccessEmptyResponseListenerSideEffects() throws Exception {
         AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
@@ -281,6 +498,36 @@ public class DataSenderImplTest {
         assertDataUsageMetricValues(collectorEndpointOutputBytesMetric, expectedSentPayloadSizeInBytes, expectedReceivedPayloadSizeInBytes);
     }
 
+    @Test
+    public void testDataUsageSupportabilityMeasuresEmbeddedDataUncompressed() throws Exception {
+        AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
+        HttpClientWrapper wrapperEmptyReturn = getHttpClientWrapper(ReadResult.create(
+                HttpResponseCode.OK,
+                "",
+                null));
+
+        DataSenderImpl target = new DataSenderImpl(config, wrapperEmptyReturn, null, logger, ServiceFactory.getConfigService());
+
+        target.setAgentRunId("agent run id");
+
+        final Map<String, Object> profileData = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            profileData.put("key" + i, "value" + i);
+        }
+        // like the real profiles, the data is compressed when written to the request and left as JSON otherwise
+        ProfileData profile = out -> JSONValue.writeJSONString(DataSenderWriter.getJsonifiedOptionallyCompressedEncodedString(profileData, out), out);
+        target.sendProfileData(Collections.singletonList(profile));
+
+        InitialSizedJsonArray params = new InitialSizedJsonArray(2);
+        params.add("agent run id");
+        params.add(Collections.singletonList(profile));
+        int expectedSentPayloadSizeInBytes = DataSenderWriter.toJSONString(params).getBytes().length;
+
+        String collectorEndpointOutputBytesMetric = MessageFormat.format(MetricNames.SUPPORTABILITY_DATA_USAGE_DESTINATION_ENDPOINT_OUTPUT_BYTES, "Collector", "profile_data");
+        assertMetricWasRecorded(collectorEndpointOutputBytesMetric);
+        assertDataUsageMetricValues(collectorEndpointOutputBytesMetric, expectedSentPayloadSizeInBytes, 0);
+    }
+
     @Test
     public void testSuccessSupportability() throws Exception {
         AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
@@ -525,7 +772,8 @@ public class DataSenderImplTest {
     @Test
     public void testMaxPayloadSize() {
         AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
-        DataSenderImpl dataSender = new DataSenderImpl(config, getHttpClientWrapper(), null, logger, ServiceFactory.getConfigService());
+        HttpClientWrapper wrapperAccepting = getHttpClientWrapper(ReadResult.create(HttpResponseCode.ACCEPTED, "", null));
+        DataSenderImpl dataSender = new DataSenderImpl(config, wrapperAccepting, null, logger, ServiceFactory.getConfigService());
 
         dataSender.setAgentRunId("AgentRunId");
         dataSender.setMaxPayloadSizeInBytes(200);
@@ -542,6 +790,173 @@ public class DataSenderImplTest {
         assertMetricWasRecorded(SUPPORTABILITY_METRIC_SPAN_DATA);
     }
 
+    @Test
+    public void testOversizedEventPayloadIsSplit() throws Exception {
+        AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
+        final List<HttpClientWrapper.Request> requests = new ArrayList<>();
+        HttpClientWrapper capturingWrapper = new HttpClientWrapper() {
+            @Override
+            public ReadResult execute(Request request, ExecuteEventHandler eventHandler) {
+                requests.add(request);
+                return ReadResult.create(HttpResponseCode.ACCEPTED, "", null);
+            }
+
+            @Override
+            public void captureSupportabilityMetrics(StatsService statsService, String requestHost) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+        DataSenderImpl dataSender = new DataSenderImpl(config, capturingWrapper, null, logger, ServiceFactory.getConfigService());
+        dataSender.setAgentRunId("AgentRunId");
+        dataSender.setMaxPayloadSizeInBytes(1000);
+
+        dataSender.sendSpanEvents(5000, 7919, createSpanEvents(5000));
+
+        assertTrue("Payload was not split", requests.size() > 1);
+        assertMetricWasRecorded(SUPPORTABILITY_METRIC_SPAN_DATA);
+        assertMetricWasRecorded(MessageFormat.format(MetricNames.SUPPORTABILITY_PAYLOAD_SPLIT, "span_event_data"));
+
+        long eventsSent = 0;
+        long reservoirSize = 0;
+        long eventsSeen = 0;
+        for (HttpClientWrapper.Request request : requests) {
+            assertTrue(request.getData().length <= 1000);
+            JSONArray payload = (JSONArray) new JSONParser().parse(decode(request.getEncoding(), request.getData()));
+            Map<?, ?> metadata = (Map<?, ?>) payload.get(1);
+            reservoirSize += (Long) metadata.get("reservoir_size");
+            eventsSeen += (Long) metadata.get("events_seen");
+            eventsSent += ((JSONArray) payload.get(2)).size();
+        }
+        assertEquals(5000, eventsSent);
+        assertEquals(5000, reservoirSize);
+        assertEquals(7919, eventsSeen);
+    }
+
+    @Test
+    public void testFailedChunkRetainsOnlyUnsentEvents() throws Exception {
+        List<SpanEvent> events = createSpanEvents(3000);
+        final List<HttpClientWrapper.Request> requests = new ArrayList<>();
+        PartialDeliveryException e = sendSplitSpanEventsFailingSecondChunk(events, requests, new HttpClientWrapper() {
+            @Override
+            public ReadResult execute(Request request, ExecuteEventHandler eventHandler) {
+                requests.add(request);
+                return ReadResult.create(requests.size() == 2 ? HttpResponseCode.SERVICE_UNAVAILABLE : HttpResponseCode.ACCEPTED, "", null);
+            }
+
+            @Override
+            public void captureSupportabilityMetrics(StatsService statsService, String requestHost) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        });
+
+        assertEquals(HttpResponseCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertFalse(e.discardHarvestData());
+    }
+
+    @Test
+    public void testChunkConnectionFailureRetainsOnlyUnsentEvents() throws Exception {
+        List<SpanEvent> events = createSpanEvents(3000);
+        final List<HttpClientWrapper.Request> requests = new ArrayList<>();
+        PartialDeliveryException e = sendSplitSpanEventsFailingSecondChunk(events, requests, new HttpClientWrapper() {
+            @Override
+            public ReadResult execute(Request request, ExecuteEventHandler eventHandler) throws Exception {
+                requests.add(request);
+                if (requests.size() == 2) {
+                    throw new SocketException("Connection reset");
+                }
+                return ReadResult.create(HttpResponseCode.ACCEPTED, "", null);
+            }
+
+            @Override
+            public void captureSupportabilityMetrics(StatsService statsService, String requestHost) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        });
+
+        assertTrue(e.getCause() instanceof SocketException);
+        assertFalse(e.discardHarvestData());
+    }
+
+    /**
+     * Send span events in a payload that is split into three chunks, where the second chunk fails, and check that only
+     * the events from the second chunk on are handed back to be retried.
+     */
+    private PartialDeliveryException sendSplitSpanEventsFailingSecondChunk(List<SpanEvent> events, List<HttpClientWrapper.Request> requests,
+            HttpClientWrapper wrapper) throws Exception {
+        AgentConfig config = AgentConfigImpl.createAgentConfig(configMap());
+        DataSenderImpl dataSender = new DataSenderImpl(config, wrapper, null, logger, ServiceFactory.getConfigService());
+        dataSender.setAgentRunId("AgentRunId");
+
+        // size the limit so that the whole payload needs three requests
+        InitialSizedJsonArray params = new InitialSizedJsonArray(3);
+        params.add("AgentRunId");
+        JSONObject metadata = new JSONObject();
+        metadata.put("reservoir_size", events.size());
+        metadata.put("events_seen", events.size());
+        params.add(metadata);
+        params.add(events);
+        dataSender.setMaxPayloadSizeInBytes(PayloadWriter.write(config.getCompressedContentEncoding(), params).getData().length * 2 / 5);
+
+        try {
+            dataSender.sendSpanEvents(events.size(), events.size(), events);
+            fail("Expected a PartialDeliveryException");
+            return null;
+        } catch (PartialDeliveryException e) {
+            assertEquals("Chunks after the failed one should not be sent", 2, requests.size());
+            int delivered = getEventCount(requests.get(0));
+            int failed = getEventCount(requests.get(1));
+            assertTrue("The failed chunk should not be the last one", delivered + failed < events.size());
+            assertEquals(delivered, e.getDeliveredCount());
+            assertEquals(events.subList(delivered, events.size()), e.getUnsentEvents());
+            return e;
+        }
+    }
+
+    private static int getEventCount(HttpClientWrapper.Request request) throws Exception {
+        JSONArray payload = (JSONArray) new JSONParser().parse(decode(request.getEncoding(), request.getData()));
+        return ((JSONArray) payload.get(2)).size();
+    }
+
+    @Test
+    public void testWriteDataRoundTrip() throws Exception {
+        InitialSizedJsonArray params = new InitialSizedJsonArray(2);
+        params.add("AgentRunId");
+        params.add(createSpanEvents(100));
+        String expected = DataSenderWriter.toJSONString(params);
+
+        // run each encoding more than once so that pooled compressors are reused
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, decode(DataSenderImpl.GZIP_ENCODING, PayloadWriter.write(DataSenderImpl.GZIP_ENCODING, params).getData()));
+            assertEquals(expected, decode(DataSenderImpl.DEFLATE_ENCODING, PayloadWriter.write(DataSenderImpl.DEFLATE_ENCODING, params).getData()));
+            assertEquals(expected, decode("identity", PayloadWriter.write("identity", params).getData()));
+        }
+    }
+
+    private static String decode(String encoding, byte[] data) throws IOException {
+        InputStream in = new ByteArrayInputStream(data);
+        if (DataSenderImpl.GZIP_ENCODING.equals(encoding)) {
+            in = new GZIPInputStream(in);
+        } else if (DataSenderImpl.DEFLATE_ENCODING.equals(encoding)) {
+            in = new InflaterInputStream(in);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     private HttpClientWrapper getProxyAuthenticateFailingWrapper(String proxyAuthenticateHeader) {
         return getHttpClientWrapper(ReadResult.create(
                 HttpResponseCode.PROXY_AUTHENTICATION_REQUIRED,
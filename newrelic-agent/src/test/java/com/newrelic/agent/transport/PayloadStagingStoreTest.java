@@ -0,0 +1,138 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.transport;
+
+import com.newrelic.agent.config.PayloadStagingConfig;
+import com.newrelic.agent.logging.IAgentLogger;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PayloadStagingStoreTest {
+
+    private static final Object OWNER = new Object();
+
+    @Test
+    public void disabledByDefault() {
+        PayloadStagingConfig config = new PayloadStagingConfig(Collections.<String, Object>emptyMap());
+        assertNull(PayloadStagingStore.getShared(config, Mockito.mock(IAgentLogger.class)));
+    }
+
+    @Test
+    public void storeIsSharedByTheProcess() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(PayloadStagingConfig.ENABLED, true);
+        props.put(PayloadStagingConfig.MAX_BYTES, 100);
+        PayloadStagingConfig config = new PayloadStagingConfig(props);
+
+        PayloadStagingStore store = PayloadStagingStore.getShared(config, Mockito.mock(IAgentLogger.class));
+        assertNotNull(store);
+        assertSame(store, PayloadStagingStore.getShared(config, Mockito.mock(IAgentLogger.class)));
+    }
+
+    @Test
+    public void ownersOnlySeeTheirOwnPayloads() {
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100));
+        Object first = new Object();
+        Object second = new Object();
+        store.add(first, "span_event_data", DataSenderImpl.DEFLATE_ENCODING, "run id", 20, bytes(10, (byte) 1));
+        store.add(second, "analytic_event_data", DataSenderImpl.DEFLATE_ENCODING, "run id", 20, bytes(10, (byte) 2));
+
+        assertEquals("analytic_event_data", store.peek(second).getMethod());
+        store.remove(store.peek(first));
+        assertNull(store.peek(first));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void payloadsAreReturnedOldestFirst() {
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100));
+        assertTrue(add(store, "metric_data", 10, (byte) 1));
+        assertTrue(add(store, "span_event_data", 20, (byte) 2));
+
+        PayloadStagingStore.StagedPayload first = store.peek(OWNER);
+        assertEquals("metric_data", first.getMethod());
+        assertArrayEquals(bytes(10, (byte) 1), store.read(first));
+        store.remove(first);
+
+        PayloadStagingStore.StagedPayload second = store.peek(OWNER);
+        assertEquals("span_event_data", second.getMethod());
+        assertArrayEquals(bytes(20, (byte) 2), store.read(second));
+        store.remove(second);
+
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    public void oldestPayloadsAreDroppedToMakeRoom() {
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100));
+        add(store, "first", 40, (byte) 1);
+        add(store, "second", 40, (byte) 2);
+        // doesn't fit after "second" or before "first", so "first" goes and this wraps to the start
+        add(store, "third", 40, (byte) 3);
+
+        assertEquals(2, store.size());
+        assertEquals(1, store.getAndResetDroppedCount());
+        assertEquals(0, store.getAndResetDroppedCount());
+
+        PayloadStagingStore.StagedPayload second = store.peek(OWNER);
+        assertEquals("second", second.getMethod());
+        assertArrayEquals(bytes(40, (byte) 2), store.read(second));
+        store.remove(second);
+
+        PayloadStagingStore.StagedPayload third = store.peek(OWNER);
+        assertEquals("third", third.getMethod());
+        assertArrayEquals(bytes(40, (byte) 3), store.read(third));
+    }
+
+    @Test
+    public void droppedPayloadCanNotBeRead() {
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100));
+        add(store, "first", 60, (byte) 1);
+        PayloadStagingStore.StagedPayload first = store.peek(OWNER);
+        add(store, "second", 60, (byte) 2);
+
+        assertNull(store.read(first));
+        store.remove(first);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void payloadLargerThanStoreIsRejected() {
+        PayloadStagingStore store = new PayloadStagingStore(ByteBuffer.allocateDirect(100));
+        add(store, "first", 10, (byte) 1);
+
+        assertFalse(add(store, "second", 101, (byte) 2));
+        assertEquals(1, store.size());
+        assertEquals(0, store.getAndResetDroppedCount());
+    }
+
+    private static boolean add(PayloadStagingStore store, String method, int length, byte value) {
+        return store.add(OWNER, method, DataSenderImpl.DEFLATE_ENCODING, "run id", length * 2, bytes(length, value));
+    }
+
+    private static byte[] bytes(int length, byte value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, value);
+        return data;
+    }
+
+}
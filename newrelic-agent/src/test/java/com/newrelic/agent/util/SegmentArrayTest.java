@@ -0,0 +1,57 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.agent.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentArrayTest {
+
+    @Test
+    public void testAppendAcrossChunks() {
+        SegmentArray<Integer> array = new SegmentArray<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < SegmentArray.CHUNK_SIZE * 10 + 3; i++) {
+            array.append(i);
+            expected.add(i);
+        }
+
+        assertEquals(expected.size(), array.size());
+        assertEquals(expected, array);
+        assertArrayEquals(expected.toArray(), array.toArray());
+        assertEquals(expected, new ArrayList<>(array));
+    }
+
+    @Test
+    public void testEmpty() {
+        SegmentArray<Integer> array = new SegmentArray<>();
+        assertTrue(array.isEmpty());
+        assertEquals(0, array.toArray().length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetPastSize() {
+        SegmentArray<Integer> array = new SegmentArray<>();
+        array.append(1);
+        // the chunk has room for more, but they haven't been added
+        array.get(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testNotModifiableAsList() {
+        SegmentArray<Integer> array = new SegmentArray<>();
+        array.append(1);
+        array.set(0, 2);
+    }
+}
@@ -7,33 +7,83 @@
 
 package com.newrelic.weave.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Finds and caches class information using a {@link ClassFinder}, to be used during a transformation. This class is
  * threadsafe.
+ * <p/>
+ * The class bytes held by each cache are bounded by {@link #DEFAULT_MAX_CACHED_BYTES}, evicting the least recently used
+ * classes first. Class bytes are also interned in a store shared by all caches, so a class that is read through many
+ * classloaders (JDK and container classes on app servers and OSGi) is held and parsed into a {@link ClassInformation}
+ * once rather than once per classloader. That store is bounded by {@link #SHARED_MAX_BYTES}.
  */
 public class ClassCache implements ClassInformationFinder {
 
-    private static final byte[] NO_CLASS_BYTES = new byte[] {};
+    /**
+     * The default limit on the class bytes held by a single cache.
+     */
+    public static final long DEFAULT_MAX_CACHED_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * The limit on the class bytes interned across all caches.
+     */
+    static final long SHARED_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final SharedClass NO_CLASS = new SharedClass(new byte[] {});
     private static final ClassInformation NO_CLASS_INFORMATION = new ClassInformation();
 
+    private static final Cache<ClassBytesKey, SharedClass> SHARED_CLASSES = Caffeine.newBuilder()
+            .maximumWeight(SHARED_MAX_BYTES)
+            .weigher((ClassBytesKey key, SharedClass value) -> key.bytes.length)
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
     private final ClassFinder classFinder;
+    private final long maxCachedBytes;
     private final ConcurrentMap<String, Boolean> classExistsCache = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, byte[]> classBytesCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, ClassInformation> classInformationCache = new ConcurrentHashMap<>();
 
+    /**
+     * Least recently used first. Guarded by itself, along with {@link #cachedBytes}.
+     */
+    private final Map<String, SharedClass> classBytesCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+
     public ClassCache(ClassFinder classFinder) {
+        this(classFinder, DEFAULT_MAX_CACHED_BYTES);
+    }
+
+    /**
+     * @param classFinder finds class resources
+     * @param maxCachedBytes the most class bytes this cache will hold before evicting the least recently used classes
+     */
+    public ClassCache(ClassFinder classFinder, long maxCachedBytes) {
         this.classFinder = classFinder;
+        this.maxCachedBytes = maxCachedBytes;
     }
 
     /**
      * Determine whether or not the specified class can be resolved using the cache's {@link ClassFinder}. Results of
      * this method are cached.
-     * 
+     *
      * @param internalName internal class name
      * @return <code>true</code> if the resource can be resovled, <code>false</code> otherwise
      */
@@ -52,31 +102,19 @@ public class ClassCache implements ClassInformationFinder {
     /**
      * Get the byte[] representing the specified class using the cache's {@link ClassFinder}. Results of this method are
      * cached.
-     * 
+     *
      * @param internalName internal class name
      * @return class bytes, or <code>null</code> if the class could not be found
      * @throws IOException
      */
     public byte[] getClassResource(String internalName) throws IOException {
-        byte[] result = classBytesCache.get(internalName);
-        if (result != null) {
-            return result == NO_CLASS_BYTES ? null : result;
-        }
-
-        URL resource = classFinder.findResource(internalName);
-        if (resource == null) {
-            classBytesCache.putIfAbsent(internalName, NO_CLASS_BYTES);
-            return null;
-        }
-
-        result = Streams.read(resource.openStream(), true);
-        classBytesCache.putIfAbsent(internalName, result);
-        return result;
+        SharedClass result = getSharedClass(internalName);
+        return result == NO_CLASS ? null : result.bytes;
     }
 
     /**
      * Find the {@link ClassInformation} for the specified internal class name. Results of this method are cached.
-     * 
+     *
      * @param internalName internal class name
      * @return the {@link ClassInformation} for the specified internal class name
      * @throws IOException
@@ -87,14 +125,163 @@ public class ClassCache implements ClassInformationFinder {
             return result == NO_CLASS_INFORMATION ? null : result;
         }
 
-        byte[] classBytes = getClassResource(internalName);
-        if (classBytes == null) {
+        SharedClass sharedClass = getSharedClass(internalName);
+        if (sharedClass == NO_CLASS) {
             classInformationCache.putIfAbsent(internalName, NO_CLASS_INFORMATION);
             return null;
         }
 
-        result = ClassInformation.fromClassBytes(classBytes);
+        result = sharedClass.getClassInformation();
         classInformationCache.putIfAbsent(internalName, result);
         return result;
     }
+
+    private SharedClass getSharedClass(String internalName) throws IOException {
+        SharedClass result;
+        synchronized (classBytesCache) {
+            result = classBytesCache.get(internalName);
+        }
+        if (result != null) {
+            hits.incrementAndGet();
+            return result;
+        }
+        misses.incrementAndGet();
+
+        URL resource = classFinder.findResource(internalName);
+        if (resource == null) {
+            result = NO_CLASS;
+        } else {
+            byte[] classBytes = Streams.read(resource.openStream(), true);
+            ClassBytesKey key = new ClassBytesKey(classBytes);
+            result = SHARED_CLASSES.get(key, k -> new SharedClass(k.bytes));
+        }
+        cache(internalName, result);
+        return result;
+    }
+
+    private void cache(String internalName, SharedClass sharedClass) {
+        synchronized (classBytesCache) {
+            if (classBytesCache.containsKey(internalName)) {
+                return;
+            }
+            classBytesCache.put(internalName, sharedClass);
+            cachedBytes += sharedClass.bytes.length;
+
+            Iterator<SharedClass> leastRecentlyUsed = classBytesCache.values().iterator();
+            while (cachedBytes > maxCachedBytes && leastRecentlyUsed.hasNext()) {
+                cachedBytes -= leastRecentlyUsed.next().bytes.length;
+                leastRecentlyUsed.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return counts of the class lookups made by all caches since the agent started
+     */
+    public static Stats getStats() {
+        CacheStats shared = SHARED_CLASSES.stats();
+        return new Stats(hits.get(), misses.get(), evictions.get(), shared.hitCount(), shared.evictionCount(),
+                SHARED_CLASSES.policy().eviction().get().weightedSize().orElse(0L));
+    }
+
+    /**
+     * Cumulative counts of class lookups across all {@link ClassCache}s.
+     */
+    public static final class Stats {
+
+        /**
+         * Lookups answered by a cache without reading the class resource.
+         */
+        public final long hits;
+
+        /**
+         * Lookups that read the class resource.
+         */
+        public final long misses;
+
+        /**
+         * Classes dropped from a cache to stay within its size limit.
+         */
+        public final long evictions;
+
+        /**
+         * Class resources whose bytes were already held for another classloader.
+         */
+        public final long sharedHits;
+
+        /**
+         * Classes dropped from the shared store to stay within its size limit.
+         */
+        public final long sharedEvictions;
+
+        /**
+         * The class bytes currently held by the shared store.
+         */
+        public final long sharedBytes;
+
+        Stats(long hits, long misses, long evictions, long sharedHits, long sharedEvictions, long sharedBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.sharedHits = sharedHits;
+            this.sharedEvictions = sharedEvictions;
+            this.sharedBytes = sharedBytes;
+        }
+    }
+
+    /**
+     * Class bytes, and the {@link ClassInformation} parsed from them on first use. The information only depends on
+     * the bytes, so it can be shared by every classloader that has the same class.
+     */
+    private static final class SharedClass {
+
+        final byte[] bytes;
+        private volatile ClassInformation classInformation;
+
+        SharedClass(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        ClassInformation getClassInformation() {
+            ClassInformation result = classInformation;
+            if (result == null) {
+                // racing threads parse the same bytes into equal results, so there's no need to lock
+                result = ClassInformation.fromClassBytes(bytes);
+                classInformation = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Compares class bytes by content.
+     */
+    private static final class ClassBytesKey {
+
+        final byte[] bytes;
+        private final int hash;
+
+        ClassBytesKey(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClassBytesKey)) {
+                return false;
+            }
+            ClassBytesKey that = (ClassBytesKey) o;
+            return hash == that.hash && Arrays.equals(bytes, that.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -54,13 +54,23 @@ public class CachedWeavePackage extends WeavePackage {
 
     public static WeavePackage createWeavePackage(URL jarLocation, JarInputStream jarStream, WeavePackageConfig config)
             throws Exception {
-        Attributes attributes = jarStream.getManifest().getMainAttributes();
+        WeavePackage weavePackage = createWeavePackage(jarLocation, jarStream.getManifest().getMainAttributes(), config);
+        return weavePackage == null ? WeavePackage.createWeavePackage(jarStream, config) : weavePackage;
+    }
+
+    /**
+     * Create a weave package from the main attributes of the jar's manifest, such as an entry of a
+     * {@link WeavePackageIndex}, without reading the jar.
+     *
+     * @return the weave package, or null if the attributes do not contain the cached weave attributes
+     */
+    public static CachedWeavePackage createWeavePackage(URL jarLocation, Attributes attributes, WeavePackageConfig config) {
         String weaveMethods = attributes.getValue(WEAVE_METHODS_MANIFEST_ATTRIBUTE_NAME);
         String weaveClasses = attributes.getValue(WEAVE_CLASSES_MANIFEST_ATTRIBUTE_NAME);
         String classRequiredAnnotations = attributes.getValue(CLASS_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME);
         String methodRequiredAnnotations = attributes.getValue(METHOD_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME);
         if (weaveMethods == null || weaveClasses == null || classRequiredAnnotations == null || methodRequiredAnnotations == null) {
-            return WeavePackage.createWeavePackage(jarStream, config);
+            return null;
         } else {
             String referenceClasses = attributes.getValue(REFERENCE_CLASSES_MANIFEST_ATTRIBUTE_NAME);
             String illegalClasses = attributes.getValue(ILLEGAL_CLASSES_MANIFEST_ATTRIBUTE_NAME);
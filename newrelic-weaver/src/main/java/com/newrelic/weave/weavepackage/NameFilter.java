@@ -0,0 +1,115 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.weave.weavepackage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bloom filter of strings, keyed by {@link String#hashCode()}. Because the hash code of a concatenation can be
+ * computed from the cached hash codes of its parts, {@link #mightContain(String, String)} checks a method's
+ * <code>name + desc</code> signature without building the string.
+ * <p/>
+ * A negative answer is definite; a positive answer must be confirmed against the real set. Names can be added
+ * concurrently with lookups but never removed, so the owner builds a new filter when names go away.
+ */
+final class NameFilter {
+
+    private static final int HASHES = 3;
+    private static final int BITS_PER_NAME = 16;
+    private static final int MIN_BITS = 1 << 12;
+
+    private final AtomicLongArray bits;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * @param expectedNames the number of names that will be added before the filter is considered full
+     */
+    NameFilter(int expectedNames) {
+        int size = Math.max(MIN_BITS, Integer.highestOneBit(Math.max(1, expectedNames * BITS_PER_NAME - 1)) << 1);
+        this.bits = new AtomicLongArray(size / 64);
+        this.mask = size - 1;
+        this.capacity = Math.max(expectedNames, size / BITS_PER_NAME);
+    }
+
+    /**
+     * @return the number of names this filter was sized for. Past this the false positive rate rises quickly.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    void add(String name) {
+        if (name == null) {
+            return;
+        }
+        int h1 = mix(name.hashCode());
+        int h2 = mix(h1) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            long bitMask = 1L << bit;
+            int word = bit >>> 6;
+            long value;
+            do {
+                value = bits.get(word);
+            } while ((value & bitMask) == 0 && !bits.compareAndSet(word, value, value | bitMask));
+        }
+    }
+
+    boolean mightContain(String name) {
+        return name != null && mightContainHash(name.hashCode());
+    }
+
+    /**
+     * @return false if <code>prefix + suffix</code> is definitely not in the filter
+     */
+    boolean mightContain(String prefix, String suffix) {
+        return mightContainHash(prefix.hashCode() * pow31(suffix.length()) + suffix.hashCode());
+    }
+
+    private boolean mightContainHash(int hash) {
+        int h1 = mix(hash);
+        int h2 = mix(h1) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 31 to the n, overflowing the way {@link String#hashCode()} does.
+     */
+    private static int pow31(int n) {
+        int result = 1;
+        int base = 31;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            n >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * The murmur3 finalizer, so that similar names set unrelated bits.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+}
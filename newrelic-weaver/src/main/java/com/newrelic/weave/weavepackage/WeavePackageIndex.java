@@ -0,0 +1,142 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.weave.weavepackage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+
+/**
+ * An aggregated copy of the manifest main attributes of a set of weave package jars, keyed by jar file name. The
+ * attributes include the cached weave attributes (see {@link CachedWeavePackage}), so a {@link WeavePackageConfig} and a
+ * {@link CachedWeavePackage} can be created from an index entry without opening the jar. The jar is only read if one of
+ * its classes matches or the package has to be validated.
+ * <p/>
+ * The index is written at build time for the instrumentation jars bundled with the agent.
+ */
+public final class WeavePackageIndex {
+
+    /**
+     * Name of the index file, next to the bundled instrumentation jars.
+     */
+    public static final String FILE_NAME = "weave-package-index.bin";
+
+    private static final int MAGIC = 0x4e525749; // NRWI
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, Attributes> packages;
+
+    public WeavePackageIndex(Map<String, Attributes> packages) {
+        this.packages = Collections.unmodifiableMap(new LinkedHashMap<>(packages));
+    }
+
+    /**
+     * @param jarFileName the file name of the weave package jar, without any directories
+     * @return the manifest main attributes of the jar, or null if the jar is not in the index
+     */
+    public Attributes getAttributes(String jarFileName) {
+        return packages.get(jarFileName);
+    }
+
+    public Map<String, Attributes> getPackages() {
+        return packages;
+    }
+
+    public int size() {
+        return packages.size();
+    }
+
+    /**
+     * Write the index. The stream is not closed.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(packages.size());
+        for (Map.Entry<String, Attributes> entry : packages.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Map.Entry<Object, Object> attribute : entry.getValue().entrySet()) {
+                out.writeUTF(attribute.getKey().toString());
+                // attribute values such as Weave-Methods can be longer than writeUTF allows
+                writeString(out, (String) attribute.getValue());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Read an index written by {@link #write(OutputStream)}. The stream is not closed.
+     *
+     * @throws IOException if the stream is not an index, was written in a different format version, or is truncated or
+     * corrupt
+     */
+    public static WeavePackageIndex read(InputStream inputStream) throws IOException {
+        // the index is small, so it is read whole and every count and length can be checked against what is left
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+            bytes.write(buffer, 0, read);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a weave package index");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported weave package index version " + formatVersion);
+        }
+
+        int packageCount = readLength(in);
+        Map<String, Attributes> packages = new LinkedHashMap<>(packageCount * 2);
+        for (int i = 0; i < packageCount; i++) {
+            String jarFileName = in.readUTF();
+            int attributeCount = readLength(in);
+            Attributes attributes = new Attributes(attributeCount);
+            for (int j = 0; j < attributeCount; j++) {
+                attributes.putValue(in.readUTF(), readString(in));
+            }
+            packages.put(jarFileName, attributes);
+        }
+        return new WeavePackageIndex(packages);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a count or length, which can't be more than the number of bytes left since every item takes at least one.
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Corrupt weave package index");
+        }
+        return length;
+    }
+
+}
@@ -34,7 +34,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages a group of {@link WeavePackage}s. This class is thread safe.
@@ -62,6 +61,15 @@ public class WeavePackageManager {
 
     private final Set<String> requiredMethodAnnotationClasses = Sets.newConcurrentHashSet();
 
+    /**
+     * A bloom filter of {@link #requiredClasses} and {@link #methodSignatures}, checked before the sets themselves when
+     * pre-matching classes. Guarded by {@link #nameFilterLock} for writes so that a rebuild can't lose names that are
+     * added while it runs.
+     */
+    private volatile NameFilter nameFilter = new NameFilter(0);
+    private final Object nameFilterLock = new Object();
+    private int nameFilterSize = 0;
+
     /**
      * ClassLoader -> (WeavePackageName -> WeavePackage)
      */
@@ -156,6 +164,8 @@ public class WeavePackageManager {
             requiredClasses.addAll(weavePackage.getRequiredClasses());
             requiredAnnotationClasses.addAll(weavePackage.getAllRequiredAnnotationClasses());
             requiredMethodAnnotationClasses.addAll(weavePackage.getAllRequiredMethodAnnotationClasses());
+            addToNameFilter(weavePackage.getMethodSignatures());
+            addToNameFilter(weavePackage.getRequiredClasses());
 
             if (null != packageListener) {
                 packageListener.registered(weavePackage);
@@ -196,6 +206,50 @@ public class WeavePackageManager {
         }
         methodSignatures.clear();
         methodSignatures.addAll(updatedMethodSignatures);
+        rebuildNameFilter();
+    }
+
+    NameFilter getNameFilter() {
+        return nameFilter;
+    }
+
+    private void addRequiredClass(String className) {
+        requiredClasses.add(className);
+        addToNameFilter(Collections.singleton(className));
+    }
+
+    /**
+     * Add names to the bloom filter. The names must already be in the set they screen for.
+     */
+    private void addToNameFilter(Collection<String> names) {
+        synchronized (nameFilterLock) {
+            nameFilterSize += names.size();
+            if (nameFilterSize > nameFilter.getCapacity()) {
+                // the filter is full; rebuilding it reads the names back from the sets
+                rebuildNameFilter();
+                return;
+            }
+            for (String name : names) {
+                nameFilter.add(name);
+            }
+        }
+    }
+
+    /**
+     * Build a new bloom filter from the current sets. Used when names are removed or the filter fills up.
+     */
+    private void rebuildNameFilter() {
+        synchronized (nameFilterLock) {
+            List<String> names = new ArrayList<>(methodSignatures);
+            names.addAll(requiredClasses);
+            // leave room to grow so that registering one package at a time doesn't rebuild every time
+            NameFilter updated = new NameFilter(names.size() * 2);
+            for (String name : names) {
+                updated.add(name);
+            }
+            nameFilterSize = names.size();
+            nameFilter = updated;
+        }
     }
 
     /**
@@ -317,7 +371,7 @@ public class WeavePackageManager {
             ClassWeavedListener weaveListener) throws IOException {
         classloader = classLoaderSub(classloader);
 
-        if (preMatchWeaveMethods && !containsPossibleClassOrMethodMatch(className, targetBytes, requiredClasses, methodSignatures, cache)) {
+        if (preMatchWeaveMethods && !containsPossibleClassOrMethodMatch(className, targetBytes, cache)) {
             // No potential method match was found, we are definitely not weaving this class so we should exit now
             return null;
         }
@@ -365,114 +419,141 @@ public class WeavePackageManager {
      * weaver here.
      *
      * @param classBytes the byte[] representing the class to check
-     * @param requiredClasses the set of known classes/superclasses/interfaces to compare against
-     * @param methodSignatures the set of all method signatures to compare against
      * @param cache class cache to lookup interface annotations
      * @return true if this contains a possible match, false otherwise
      */
-    private boolean containsPossibleClassOrMethodMatch(final String className, final byte[] classBytes, final Set<String> requiredClasses,
-                                                       final Set<String> methodSignatures, final ClassCache cache) {
-        final AtomicBoolean containsPossibleMatch = new AtomicBoolean(false);
-        ClassReader originalBytesReader = new ClassReader(classBytes);
-        originalBytesReader.accept(new ClassVisitor(WeaveUtils.ASM_API_LEVEL) {
-
-            public String[] interfaces;
-            private boolean isInterface = false;
-
-            @Override
-            public void visit(int version, int access, String name, String signature, String superName,
-                    String[] interfaces) {
-
-                this.interfaces = interfaces;
-                isInterface = (access & Opcodes.ACC_INTERFACE) == Opcodes.ACC_INTERFACE;
-
-                // Figure out if this exact class or the super class is a match
-                if (requiredClasses.contains(name) || requiredClasses.contains(superName)) {
-                    containsPossibleMatch.set(true);
-                    return;
-                }
-                super.visit(version, access, name, signature, superName, interfaces);
-            }
+    private boolean containsPossibleClassOrMethodMatch(final String className, final byte[] classBytes, final ClassCache cache) {
+        PossibleMatchVisitor visitor = new PossibleMatchVisitor(className, cache, null, null);
+        new ClassReader(classBytes).accept(visitor, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE);
+        return visitor.possibleMatch;
+    }
+
+    /**
+     * Create a visitor that performs the same check as {@link #weave} does before matching a class against the weave
+     * packages, as part of a pass over the class that is already being made. If this returns null, every class is a
+     * possible match.
+     *
+     * @param className name of the class being visited
+     * @param cache class cache to lookup interface annotations
+     * @param cv the visitor to delegate to. Every event is passed on.
+     * @param onPossibleMatch called at the end of the class if it may match a weave package
+     * @return the visitor, or null if weave methods are not pre-matched
+     */
+    public ClassVisitor newPossibleMatchVisitor(String className, ClassCache cache, ClassVisitor cv, Runnable onPossibleMatch) {
+        if (!preMatchWeaveMethods) {
+            return null;
+        }
+        return new PossibleMatchVisitor(className, cache, cv, onPossibleMatch);
+    }
 
-            @Override
-            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
-                String annotationClass = Type.getType(desc).getClassName();
+    /**
+     * Checks the names of a class, its super class, its annotations and its methods against the names referenced by the
+     * registered weave packages. Names are screened with the {@link NameFilter} first so that the common case, a class
+     * that matches nothing, doesn't build a signature string for every method.
+     */
+    private final class PossibleMatchVisitor extends ClassVisitor {
+
+        private final String className;
+        private final ClassCache cache;
+        private final Runnable onPossibleMatch;
+        private final NameFilter filter = getNameFilter();
+        private String[] interfaces;
+        private boolean isInterface = false;
+        boolean possibleMatch = false;
+
+        PossibleMatchVisitor(String className, ClassCache cache, ClassVisitor cv, Runnable onPossibleMatch) {
+            super(WeaveUtils.ASM_API_LEVEL, cv);
+            this.className = className;
+            this.cache = cache;
+            this.onPossibleMatch = onPossibleMatch;
+        }
 
-                if (!isInterface && requiredAnnotationClasses.contains(annotationClass)) {
-                    // Adding class name here allows us to catch interfaces
-                    containsPossibleMatch.set(true);
-                    requiredClasses.add(className);
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            this.interfaces = interfaces;
+            isInterface = (access & Opcodes.ACC_INTERFACE) == Opcodes.ACC_INTERFACE;
 
-                    // Found a potential match. Exit early.
-                    return null;
-                }
-                return super.visitAnnotation(desc, visible);
+            // Figure out if this exact class or the super class is a match
+            if (isRequiredClass(name) || isRequiredClass(superName)) {
+                possibleMatch = true;
             }
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
 
-            @Override
-            public MethodVisitor visitMethod(int access, String name, String desc, String signature,
-                    String[] exceptions) {
-                if (containsPossibleMatch.get()) {
-                    // This means we found a class/superclass/interface match so we should exit early here
-                    return null;
-                }
-
-                // Default constructor and static initializer will be matched by visit() method above
-                if (!(name.equals(WeaveUtils.INIT_NAME) && desc.equals(WeaveUtils.INIT_DESC)) &&
-                        !(name.equals(WeaveUtils.CLASS_INIT_NAME) && desc.equals(WeaveUtils.INIT_DESC)) &&
-                        methodSignatures.contains(name + desc)) {
-                    // If any method matches this is a potential match so we should return "true"
-                    containsPossibleMatch.set(true);
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            if (!possibleMatch && !isInterface && !requiredAnnotationClasses.isEmpty()
+                    && requiredAnnotationClasses.contains(Type.getType(desc).getClassName())) {
+                // Adding class name here allows us to catch interfaces
+                possibleMatch = true;
+                addRequiredClass(className);
+            }
+            return super.visitAnnotation(desc, visible);
+        }
 
-                    // Skip out of this method visitor early since we've found a match
-                    return null;
-                }
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                String[] exceptions) {
+            MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+            if (possibleMatch) {
+                // This means we found a class/superclass/interface match so there is nothing left to check
+                return mv;
+            }
 
-                MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
-                if (!requiredMethodAnnotationClasses.isEmpty()) {
-                    return new MethodVisitor(WeaveUtils.ASM_API_LEVEL, mv) {
-                        @Override
-                        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
-                            String annotationClass = Type.getType(desc).getClassName();
-                            if (requiredMethodAnnotationClasses.contains(annotationClass)) {
-                                containsPossibleMatch.set(true);
-
-                                // Found a potential match. Exit early.
-                                return null;
-                            }
-                            return super.visitAnnotation(desc, visible);
-                        }
-                    };
-                }
+            // Default constructor and static initializer will be matched by visit() method above
+            if (!(name.equals(WeaveUtils.INIT_NAME) && desc.equals(WeaveUtils.INIT_DESC)) &&
+                    !(name.equals(WeaveUtils.CLASS_INIT_NAME) && desc.equals(WeaveUtils.INIT_DESC)) &&
+                    filter.mightContain(name, desc) && methodSignatures.contains(name + desc)) {
+                // If any method matches this is a potential match
+                possibleMatch = true;
                 return mv;
             }
 
-            @Override
-            public void visitEnd() {
-                // If nothing has matched, check interface annotations
-                if (!isInterface && !requiredAnnotationClasses.isEmpty()) {
+            if (!requiredMethodAnnotationClasses.isEmpty()) {
+                return new MethodVisitor(WeaveUtils.ASM_API_LEVEL, mv) {
+                    @Override
+                    public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                        if (!possibleMatch && requiredMethodAnnotationClasses.contains(Type.getType(desc).getClassName())) {
+                            possibleMatch = true;
+                        }
+                        return super.visitAnnotation(desc, visible);
+                    }
+                };
+            }
+            return mv;
+        }
 
-                    try {
-                        for (String interfaceName : interfaces) {
-                            ClassInformation interfaceInfo = cache.getClassInformation(interfaceName);
-                            if (interfaceInfo == null) {
-                                continue;
-                            }
+        @Override
+        public void visitEnd() {
+            // If nothing has matched, check interface annotations
+            if (!possibleMatch && !isInterface && !requiredAnnotationClasses.isEmpty() && interfaces != null) {
+                try {
+                    for (String interfaceName : interfaces) {
+                        ClassInformation interfaceInfo = cache.getClassInformation(interfaceName);
+                        if (interfaceInfo == null) {
+                            continue;
+                        }
 
-                            for (String interfaceAnnotationName : interfaceInfo.classAnnotationNames) {
-                                if (requiredAnnotationClasses.contains(WeaveUtils.getClassBinaryName(interfaceAnnotationName))) {
-                                    containsPossibleMatch.set(true);
-                                    return;
-                                }
+                        for (String interfaceAnnotationName : interfaceInfo.classAnnotationNames) {
+                            if (requiredAnnotationClasses.contains(WeaveUtils.getClassBinaryName(interfaceAnnotationName))) {
+                                possibleMatch = true;
+                                break;
                             }
                         }
-                    } catch (IOException ignored) {
                     }
+                } catch (IOException ignored) {
                 }
             }
-        }, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE);
+            super.visitEnd();
+            if (possibleMatch && onPossibleMatch != null) {
+                onPossibleMatch.run();
+            }
+        }
 
-        return containsPossibleMatch.get();
+        private boolean isRequiredClass(String name) {
+            return filter.mightContain(name) && requiredClasses.contains(name);
+        }
     }
 
     /**
@@ -11,6 +11,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -108,6 +109,43 @@ public class ClassCacheTest {
         assertEquals(1, finder.getCount(CLASS_NAME_DOES_NOT_EXIST));
     }
 
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        String first = ClassCache.class.getName();
+        String small = ClassFinder.class.getName();
+        String last = ClassInformation.class.getName();
+        long limit = WeaveTestUtils.getClassBytes(first).length + WeaveTestUtils.getClassBytes(last).length;
+        cache = new ClassCache(finder, limit);
+        long evictions = ClassCache.getStats().evictions;
+
+        cache.getClassResource(first);
+        cache.getClassResource(small);
+        cache.getClassResource(first);
+        // over the limit, so the least recently used class goes
+        cache.getClassResource(last);
+        assertEquals(evictions + 1, ClassCache.getStats().evictions);
+
+        cache.getClassResource(first);
+        cache.getClassResource(last);
+        assertEquals(1, finder.getCount(first));
+        assertEquals(1, finder.getCount(last));
+
+        cache.getClassResource(small);
+        assertEquals(2, finder.getCount(small));
+    }
+
+    @Test
+    public void testSharedAcrossCaches() throws IOException {
+        ClassCache otherCache = new ClassCache(new ClassLoaderFinder(Thread.currentThread().getContextClassLoader()));
+        long sharedHits = ClassCache.getStats().sharedHits;
+
+        byte[] bytes = cache.getClassResource(CLASS_NAME_EXISTS);
+        assertSame(bytes, otherCache.getClassResource(CLASS_NAME_EXISTS));
+        assertTrue(ClassCache.getStats().sharedHits > sharedHits);
+        assertSame(cache.getClassInformation(CLASS_NAME_EXISTS), otherCache.getClassInformation(CLASS_NAME_EXISTS));
+        assertTrue(ClassCache.getStats().sharedBytes >= bytes.length);
+    }
+
     private static class CountingClassFinder implements ClassFinder {
         private final Multiset<String> counts = HashMultiset.create();
         private final ClassFinder delegate;
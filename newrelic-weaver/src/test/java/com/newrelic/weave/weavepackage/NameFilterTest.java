@@ -0,0 +1,62 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.weave.weavepackage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        NameFilter filter = new NameFilter(10000);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("com/example/Class" + i);
+            filter.add("method" + i + "(Ljava/lang/String;I)V");
+        }
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(filter.mightContain("com/example/Class" + i));
+            Assert.assertTrue(filter.mightContain("method" + i, "(Ljava/lang/String;I)V"));
+            Assert.assertTrue(filter.mightContain("method" + i + "(Ljava/lang/String;I)V"));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        NameFilter filter = new NameFilter(10000);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("com/example/Class" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("org/example/Other" + i)) {
+                falsePositives++;
+            }
+        }
+        // about 0.5% at the filter's capacity
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+    }
+
+    @Test
+    public void testConcatenatedHash() {
+        NameFilter filter = new NameFilter(0);
+        Assert.assertFalse(filter.mightContain("execute", "()V"));
+        Assert.assertFalse(filter.mightContain(null));
+
+        filter.add("execute()V");
+        Assert.assertTrue(filter.mightContain("execute", "()V"));
+        Assert.assertTrue(filter.mightContain("execute()", "V"));
+        Assert.assertTrue(filter.mightContain("", "execute()V"));
+
+        // long suffixes overflow the power of 31 the same way String.hashCode() does
+        String desc = "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;Ljava/util/Map;)Ljava/lang/Object;";
+        filter.add("invoke" + desc);
+        Assert.assertTrue(filter.mightContain("invoke", desc));
+    }
+
+}
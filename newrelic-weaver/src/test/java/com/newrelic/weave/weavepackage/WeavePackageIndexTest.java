@@ -0,0 +1,154 @@
+/*
+ *
+ *  * Copyright 2020 New Relic Corporation. All rights reserved.
+ *  * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package com.newrelic.weave.weavepackage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WeavePackageIndexTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        StringBuilder weaveMethods = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            weaveMethods.append(i == 0 ? "" : ",").append("\"com/example/Weaved").append(i).append(".method()V\"");
+        }
+        // longer than DataOutputStream.writeUTF can write
+        assertTrue(weaveMethods.length() > 65535);
+
+        Map<String, Attributes> packages = new LinkedHashMap<>();
+        packages.put("jdbc-generic-1.0.jar", packageAttributes("com.newrelic.instrumentation.jdbc-generic", weaveMethods.toString()));
+        packages.put("servlet-2.4-1.0.jar", packageAttributes("com.newrelic.instrumentation.servlet-2.4", "\"javax/servlet/Servlet.service()V\""));
+
+        WeavePackageIndex index = read(new WeavePackageIndex(packages));
+
+        assertEquals(2, index.size());
+        assertEquals(packages, index.getPackages());
+        assertEquals(weaveMethods.toString(), index.getAttributes("jdbc-generic-1.0.jar")
+                .getValue(CachedWeavePackage.WEAVE_METHODS_MANIFEST_ATTRIBUTE_NAME));
+        assertNull(index.getAttributes("missing-1.0.jar"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAnIndex() throws IOException {
+        WeavePackageIndex.read(new ByteArrayInputStream(new byte[] { 'P', 'K', 3, 4, 0, 0, 0, 0 }));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4e525749);
+        out.writeInt(2);
+        out.writeInt(0);
+        WeavePackageIndex.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testTruncatedIndex() throws IOException {
+        byte[] bytes = write(new WeavePackageIndex(Collections.singletonMap("example-1.0.jar",
+                packageAttributes("com.newrelic.instrumentation.example", "\"com/example/Weaved.method()V\""))));
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                WeavePackageIndex.read(new ByteArrayInputStream(Arrays.copyOf(bytes, length)));
+                fail("Read an index truncated to " + length + " of " + bytes.length + " bytes");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptLengths() throws IOException {
+        byte[] bytes = write(new WeavePackageIndex(Collections.singletonMap("example-1.0.jar",
+                packageAttributes("com.newrelic.instrumentation.example", "\"com/example/Weaved.method()V\""))));
+        // overwrite each int after the header with a negative and a huge value: reading must fail with an IOException, not
+        // with an unchecked exception or an attempt to allocate the bogus length
+        for (int offset = 8; offset + 4 <= bytes.length; offset++) {
+            for (int corruptValue : new int[] { -1, Integer.MAX_VALUE }) {
+                byte[] corrupt = bytes.clone();
+                corrupt[offset] = (byte) (corruptValue >>> 24);
+                corrupt[offset + 1] = (byte) (corruptValue >>> 16);
+                corrupt[offset + 2] = (byte) (corruptValue >>> 8);
+                corrupt[offset + 3] = (byte) corruptValue;
+                try {
+                    WeavePackageIndex.read(new ByteArrayInputStream(corrupt));
+                } catch (IOException expected) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCreateWeavePackageFromIndex() throws Exception {
+        Map<String, Attributes> packages = Collections.singletonMap("example-1.0.jar",
+                packageAttributes("com.newrelic.instrumentation.example", "\"com/example/Weaved.method()V\""));
+        Attributes attributes = read(new WeavePackageIndex(packages)).getAttributes("example-1.0.jar");
+
+        WeavePackageConfig config = WeavePackageConfig.builder().manifestAttributes(attributes).source("source").build();
+        assertEquals("com.newrelic.instrumentation.example", config.getName());
+        assertEquals(2.0f, config.getVersion(), 0.0f);
+        assertEquals(5, config.getPriority());
+
+        // the jar doesn't exist, so this only works if it isn't opened
+        CachedWeavePackage weavePackage = CachedWeavePackage.createWeavePackage(new URL("http://does.not.exist"),
+                attributes, config);
+        assertFalse(weavePackage.hasMatcher("com/example/Other", new String[0], new String[0],
+                Collections.<String>emptySet(), Collections.<String>emptySet(), null));
+    }
+
+    @Test
+    public void testCreateWeavePackageWithoutCachedAttributes() throws Exception {
+        Attributes attributes = new Attributes();
+        attributes.putValue("Implementation-Title", "com.newrelic.instrumentation.example");
+
+        WeavePackageConfig config = WeavePackageConfig.builder().manifestAttributes(attributes).source("source").build();
+        assertNull(CachedWeavePackage.createWeavePackage(new URL("http://does.not.exist"), attributes, config));
+    }
+
+    private static Attributes packageAttributes(String name, String weaveMethods) {
+        Attributes attributes = new Attributes();
+        attributes.putValue("Manifest-Version", "1.0");
+        attributes.putValue("Implementation-Title", name);
+        attributes.putValue("Implementation-Version", "2.0");
+        attributes.putValue("Priority", "5");
+        attributes.putValue(CachedWeavePackage.WEAVE_METHODS_MANIFEST_ATTRIBUTE_NAME, weaveMethods);
+        attributes.putValue(CachedWeavePackage.WEAVE_CLASSES_MANIFEST_ATTRIBUTE_NAME, "com/example/Weaved");
+        attributes.putValue(CachedWeavePackage.REFERENCE_CLASSES_MANIFEST_ATTRIBUTE_NAME, "java/lang/Object");
+        attributes.putValue(CachedWeavePackage.ILLEGAL_CLASSES_MANIFEST_ATTRIBUTE_NAME, "");
+        attributes.putValue(CachedWeavePackage.CLASS_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME, "");
+        attributes.putValue(CachedWeavePackage.METHOD_REQUIRED_ANNOTATIONS_MANIFEST_ATTRIBUTE_NAME, "");
+        return attributes;
+    }
+
+    private static WeavePackageIndex read(WeavePackageIndex index) throws IOException {
+        return WeavePackageIndex.read(new ByteArrayInputStream(write(index)));
+    }
+
+    private static byte[] write(WeavePackageIndex index) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        return out.toByteArray();
+    }
+
+}
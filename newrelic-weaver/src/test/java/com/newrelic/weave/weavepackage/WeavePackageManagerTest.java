@@ -20,6 +20,9 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
 import java.lang.instrument.Instrumentation;
@@ -31,6 +34,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WeavePackageManagerTest {
     private static final String UTIL_CLASS_NAME = "com.newrelic.weave.weavepackage.testclasses.WeaveUtilityClass2";
@@ -452,6 +456,36 @@ public class WeavePackageManagerTest {
         Assert.assertTrue(expectedInvokeCount == listener.invokeCount);
     }
 
+    @Test
+    public void testPossibleMatchVisitor() throws IOException {
+        WeavePackageManager wpm = new WeavePackageManager();
+        wpm.register(testPackage1);
+        Assert.assertTrue(wpm.getNameFilter().mightContain("aMethodToWeave", "()V"));
+
+        String className = "com.newrelic.weave.weavepackage.WeavePackageManagerTest$OriginalClass";
+        ClassReader reader = new ClassReader(WeaveTestUtils.getClassBytes(className));
+        ClassNode delegate = new ClassNode();
+        final AtomicInteger possibleMatches = new AtomicInteger();
+        ClassVisitor visitor = wpm.newPossibleMatchVisitor(reader.getClassName(),
+                new ClassCache(new ClassLoaderFinder(WeavePackageManagerTest.class.getClassLoader())), delegate,
+                possibleMatches::incrementAndGet);
+        reader.accept(visitor, ClassReader.SKIP_FRAMES);
+
+        Assert.assertEquals(1, possibleMatches.get());
+        // the screen is chained into other matchers, so it has to pass every event on
+        Assert.assertEquals(reader.getClassName(), delegate.name);
+        Assert.assertFalse(delegate.methods.isEmpty());
+        Assert.assertEquals(1, delegate.fields.size());
+
+        // deregistering rebuilds the filter without the package's names
+        wpm.deregister(testPackage1);
+        Assert.assertFalse(wpm.getNameFilter().mightContain("aMethodToWeave", "()V"));
+        Assert.assertFalse(wpm.getNameFilter().mightContain("com/newrelic/weave/weavepackage/WeavePackageManagerTest$OriginalClass"));
+
+        WeavePackageManager noPreMatch = new WeavePackageManager(null, null, 10, true, false);
+        Assert.assertNull(noPreMatch.newPossibleMatchVisitor(reader.getClassName(), null, delegate, possibleMatches::incrementAndGet));
+    }
+
     private static int getCacheSize(Cache<?, ?> cache) {
         // Trigger cache cleanup to evict expired entries.
         cache.cleanUp();